@@ -0,0 +1,116 @@
+package com.example.reactive.rest.benchmark;
+
+import com.example.reactive.rest.ReactiveRestApplication;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.repository.ProjectRepository;
+import com.example.reactive.rest.repository.TaskRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the annotated controller with the functional routes end to end: the application is started with
+ * {@code rest.functional-api.enabled} set accordingly and concurrent clients read projects and task pages over HTTP.
+ * Service caches stay on, so the dispatch and rendering costs dominate, while the response cache and
+ * admission control are switched off.
+ * Requests per second are reported by {@code Mode.Throughput}, latency percentiles by {@code Mode.SampleTime}.
+ * <p>
+ * Run with {@code gradle jmh -Pjmh.includes=ApiStyleBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+public class ApiStyleBenchmark {
+
+    private static final int PROJECTS = 50;
+
+    private static final int TASKS_PER_PROJECT = 100;
+
+    @Param({"annotated", "functional"})
+    private String style;
+
+    @Param({"20"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+
+    private WebClient webClient;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(ReactiveRestApplication.class,
+                "--spring.profiles.active=prod",
+                "--server.port=0",
+                "--rest.functional-api.enabled=" + "functional".equals(style),
+                "--rest.compression.enabled=false",
+                "--rest.rate-limit.enabled=false",
+                "--rest.concurrency-limit.enabled=false",
+                "--rest.response-cache.enabled=false",
+                "--logging.level.root=WARN");
+        seed(context.getBean(ProjectRepository.class), context.getBean(TaskRepository.class));
+        int port = ((ReactiveWebServerApplicationContext) context).getWebServer().getPort();
+        webClient = WebClient.create("http://localhost:" + port + "/api/v1/projects/");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getProject() {
+        long projectId = ThreadLocalRandom.current().nextLong(1, PROJECTS + 1);
+        return webClient.get()
+                .uri("{projectId}", projectId)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .block();
+    }
+
+    @Benchmark
+    public byte[] getProjectTasks() {
+        long projectId = ThreadLocalRandom.current().nextLong(1, PROJECTS + 1);
+        int page = ThreadLocalRandom.current().nextInt(TASKS_PER_PROJECT / size);
+        return webClient.get()
+                .uri("{projectId}/tasks?page={page}&size={size}", projectId, page, size)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .block();
+    }
+
+    private static void seed(ProjectRepository projectRepository, TaskRepository taskRepository) {
+        Flux.range(1, PROJECTS)
+                .concatMap(i -> projectRepository.save(Project.builder().name("Project " + i).build()))
+                .concatMap(project -> Flux.range(1, TASKS_PER_PROJECT)
+                        .concatMap(i -> taskRepository.save(Task.builder()
+                                .description("Task " + i)
+                                .projectId(project.getId())
+                                .build())))
+                .blockLast();
+    }
+
+}
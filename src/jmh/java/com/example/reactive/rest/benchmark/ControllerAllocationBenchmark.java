@@ -0,0 +1,374 @@
+package com.example.reactive.rest.benchmark;
+
+import com.example.reactive.rest.controller.ProjectController;
+import com.example.reactive.rest.dto.ProjectCreationDto;
+import com.example.reactive.rest.dto.TaskCreationDto;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.service.ProjectService;
+import com.example.reactive.rest.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Measures the allocations of the {@link ProjectController} mapping chains per request, services answer
+ * from memory so only the controller is measured. {@code baseline} replays the former chains:
+ * {@code flatMap(x -> Mono.just(...))}, a mapper lambda per call, {@code linkTo(methodOn(...))} links and a
+ * formatted {@code Location}; {@code lean} calls the controller.
+ * <p>
+ * Run with {@code gradle jmh -Pjmh.includes=ControllerAllocationBenchmark -Pjmh.args="-prof gc"},
+ * bytes per request are reported as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerAllocationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final long PROJECT_ID = 1L;
+
+    @Param({"baseline", "lean"})
+    private String mapping;
+
+    private Endpoints endpoints;
+
+    private final ProjectCreationDto projectCreationDto = ProjectCreationDto.builder().name("Project").build();
+
+    private final TaskCreationDto taskCreationDto = TaskCreationDto.builder().description("Task").build();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ProjectService projectService = new InMemoryProjectService();
+        TaskService taskService = new InMemoryTaskService(projectService);
+        endpoints = "lean".equals(mapping)
+                ? new LeanEndpoints(new ProjectController(projectService, taskService, null))
+                : new BaselineEndpoints(projectService, taskService);
+    }
+
+    @Benchmark
+    public Object getAllProjects() {
+        return endpoints.getAllProjects(0, PAGE_SIZE).block();
+    }
+
+    @Benchmark
+    public Object getProject() {
+        return endpoints.getProject(PROJECT_ID).block();
+    }
+
+    @Benchmark
+    public Object createProject() {
+        return endpoints.createProject(projectCreationDto).block();
+    }
+
+    @Benchmark
+    public Object updateProject() {
+        return endpoints.updateProject(projectCreationDto, PROJECT_ID).block();
+    }
+
+    @Benchmark
+    public Object getProjectTasks() {
+        return endpoints.getProjectTasks(PROJECT_ID, 0, PAGE_SIZE).block();
+    }
+
+    @Benchmark
+    public Object getProjectTask() {
+        return endpoints.getProjectTask(PROJECT_ID, 1L).block();
+    }
+
+    @Benchmark
+    public Object createProjectTask() {
+        return endpoints.createProjectTask(PROJECT_ID, taskCreationDto).block();
+    }
+
+    @Benchmark
+    public Object updateProjectTask() {
+        return endpoints.updateProjectTask(PROJECT_ID, 1L, taskCreationDto).block();
+    }
+
+    private static Project project(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return Project.builder()
+                .id(id)
+                .name("Project " + id)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private static Task task(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return Task.builder()
+                .id(id)
+                .projectId(PROJECT_ID)
+                .description("Task " + id)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private interface Endpoints {
+
+        Mono<Page<EntityModel<Project>>> getAllProjects(Integer page, Integer size);
+
+        Mono<ResponseEntity<EntityModel<Project>>> getProject(Long id);
+
+        Mono<ResponseEntity<EntityModel<Project>>> createProject(ProjectCreationDto projectCreationDto);
+
+        Mono<ResponseEntity<EntityModel<Project>>> updateProject(ProjectCreationDto projectCreationDto, Long id);
+
+        Mono<Page<EntityModel<Task>>> getProjectTasks(Long projectId, Integer page, Integer size);
+
+        Mono<ResponseEntity<EntityModel<Task>>> getProjectTask(Long projectId, Long taskId);
+
+        Mono<ResponseEntity<EntityModel<Task>>> createProjectTask(Long projectId, TaskCreationDto taskCreationDto);
+
+        Mono<ResponseEntity<EntityModel<Task>>> updateProjectTask(Long projectId, Long taskId,
+                                                                  TaskCreationDto taskCreationDto);
+
+    }
+
+    private record LeanEndpoints(ProjectController controller) implements Endpoints {
+
+        @Override
+        public Mono<Page<EntityModel<Project>>> getAllProjects(Integer page, Integer size) {
+            return controller.getAllProjects(page, size, null, null, null);
+        }
+
+        @Override
+        public Mono<ResponseEntity<EntityModel<Project>>> getProject(Long id) {
+            return controller.getProject(id);
+        }
+
+        @Override
+        public Mono<ResponseEntity<EntityModel<Project>>> createProject(ProjectCreationDto projectCreationDto) {
+            return controller.createProject(projectCreationDto);
+        }
+
+        @Override
+        public Mono<ResponseEntity<EntityModel<Project>>> updateProject(ProjectCreationDto projectCreationDto,
+                                                                        Long id) {
+            return controller.updateProject(projectCreationDto, id);
+        }
+
+        @Override
+        public Mono<Page<EntityModel<Task>>> getProjectTasks(Long projectId, Integer page, Integer size) {
+            return controller.getProjectTasks(projectId, page, size, null, null, null);
+        }
+
+        @Override
+        public Mono<ResponseEntity<EntityModel<Task>>> getProjectTask(Long projectId, Long taskId) {
+            return controller.getProjectTask(projectId, taskId);
+        }
+
+        @Override
+        public Mono<ResponseEntity<EntityModel<Task>>> createProjectTask(Long projectId,
+                                                                         TaskCreationDto taskCreationDto) {
+            return controller.createProjectTask(projectId, taskCreationDto);
+        }
+
+        @Override
+        public Mono<ResponseEntity<EntityModel<Task>>> updateProjectTask(Long projectId, Long taskId,
+                                                                         TaskCreationDto taskCreationDto) {
+            return controller.updateProjectTask(projectId, taskId, taskCreationDto);
+        }
+
+    }
+
+    /**
+     * The controller chains as they were before the allocation-lean rewrite.
+     */
+    private record BaselineEndpoints(ProjectService projectService, TaskService taskService) implements Endpoints {
+
+        @Override
+        public Mono<Page<EntityModel<Project>>> getAllProjects(Integer page, Integer size) {
+            return projectService.getAllProjects(PageRequest.of(page, size))
+                    .flatMap(projects -> Mono.just(projects.map(projectToEntityModel(page, size))));
+        }
+
+        @Override
+        public Mono<ResponseEntity<EntityModel<Project>>> getProject(Long id) {
+            return projectService.findById(id)
+                    .flatMap(project -> Mono.just(projectToEntityModel(0, 5).apply(project)))
+                    .flatMap(projectEntityModel -> Mono.just(ResponseEntity.ok(projectEntityModel)))
+                    .defaultIfEmpty(ResponseEntity.notFound().build());
+        }
+
+        @Override
+        public Mono<ResponseEntity<EntityModel<Project>>> createProject(ProjectCreationDto projectCreationDto) {
+            return projectService.createProject(projectCreationDto)
+                    .flatMap(project -> Mono.just(
+                            ResponseEntity.created(URI.create("api/v1/projects/" + project.getId()))
+                                    .body(projectToEntityModel(0, 5).apply(project))));
+        }
+
+        @Override
+        public Mono<ResponseEntity<EntityModel<Project>>> updateProject(ProjectCreationDto projectCreationDto,
+                                                                        Long id) {
+            return projectService.updateProject(id, projectCreationDto)
+                    .flatMap(project -> Mono.just(ResponseEntity.ok(projectToEntityModel(0, 5).apply(project))));
+        }
+
+        @Override
+        public Mono<Page<EntityModel<Task>>> getProjectTasks(Long projectId, Integer page, Integer size) {
+            return taskService.getTasks(projectId, PageRequest.of(page, size))
+                    .flatMap(tasks -> Mono.just(tasks.map(taskToEntityModel(page, size))));
+        }
+
+        @Override
+        public Mono<ResponseEntity<EntityModel<Task>>> getProjectTask(Long projectId, Long taskId) {
+            return taskService.getTask(projectId, taskId)
+                    .flatMap(task -> Mono.just(ResponseEntity.ok(taskToEntityModel(0, 5).apply(task))))
+                    .defaultIfEmpty(ResponseEntity.notFound().build());
+        }
+
+        @Override
+        public Mono<ResponseEntity<EntityModel<Task>>> createProjectTask(Long projectId,
+                                                                         TaskCreationDto taskCreationDto) {
+            return taskService.createTask(projectId, taskCreationDto)
+                    .flatMap(task -> Mono.just(
+                            ResponseEntity.created(URI.create("api/v1/projects/%s/tasks/%s"
+                                            .formatted(projectId, task.getId())))
+                                    .body(taskToEntityModel(0, 5).apply(task))))
+                    .defaultIfEmpty(ResponseEntity.notFound().build());
+        }
+
+        @Override
+        public Mono<ResponseEntity<EntityModel<Task>>> updateProjectTask(Long projectId, Long taskId,
+                                                                         TaskCreationDto taskCreationDto) {
+            return taskService.updateTask(projectId, taskId, taskCreationDto)
+                    .flatMap(task -> Mono.just(ResponseEntity.ok(taskToEntityModel(0, 5).apply(task))))
+                    .defaultIfEmpty(ResponseEntity.notFound().build());
+        }
+
+        private static Function<Project, EntityModel<Project>> projectToEntityModel(Integer page, Integer size) {
+            return project -> EntityModel.of(project)
+                    .add(linkTo(methodOn(ProjectController.class).getProject(project.getId()))
+                            .withSelfRel())
+                    .add(linkTo(methodOn(ProjectController.class).getAllProjects(page, size, null, null, null))
+                            .withRel("projects"))
+                    .add(linkTo(methodOn(ProjectController.class)
+                            .getProjectTasks(project.getId(), page, size, null, null, null))
+                            .withRel("tasks"));
+        }
+
+        private static Function<Task, EntityModel<Task>> taskToEntityModel(Integer page, Integer size) {
+            return task -> EntityModel.of(task)
+                    .add(linkTo(methodOn(ProjectController.class).getProjectTask(task.getProjectId(), task.getId()))
+                            .withSelfRel())
+                    .add(linkTo(methodOn(ProjectController.class).getAllProjects(page, size, null, null, null))
+                            .withRel("projects"))
+                    .add(linkTo(methodOn(ProjectController.class)
+                            .getProjectTasks(task.getProjectId(), page, size, null, null, null))
+                            .withRel("tasks"));
+        }
+
+    }
+
+    private static class InMemoryProjectService extends ProjectService {
+
+        private final Mono<Project> project = Mono.just(project(PROJECT_ID));
+
+        private final Mono<PageImpl<Project>> projects = Mono.fromSupplier(() -> {
+            List<Project> content = new ArrayList<>(PAGE_SIZE);
+            for (long id = 1; id <= PAGE_SIZE; id++) {
+                content.add(project(id));
+            }
+            return new PageImpl<>(content, PageRequest.of(0, PAGE_SIZE), PAGE_SIZE * 10L);
+        }).cache();
+
+        InMemoryProjectService() {
+            super(null, null, null, null, null, null);
+        }
+
+        @Override
+        public Mono<PageImpl<Project>> getAllProjects(Pageable pageable) {
+            return projects;
+        }
+
+        @Override
+        public Mono<Project> findById(Long id) {
+            return project;
+        }
+
+        @Override
+        public Mono<Project> createProject(ProjectCreationDto projectCreationDto) {
+            return project;
+        }
+
+        @Override
+        public Mono<Project> updateProject(Long id, ProjectCreationDto projectCreationDto) {
+            return project;
+        }
+
+    }
+
+    private static class InMemoryTaskService extends TaskService {
+
+        private final Mono<Task> task = Mono.just(task(1L));
+
+        private final Mono<PageImpl<Task>> tasks = Mono.fromSupplier(() -> {
+            List<Task> content = new ArrayList<>(PAGE_SIZE);
+            for (long id = 1; id <= PAGE_SIZE; id++) {
+                content.add(task(id));
+            }
+            return new PageImpl<>(content, PageRequest.of(0, PAGE_SIZE), PAGE_SIZE * 10L);
+        }).cache();
+
+        InMemoryTaskService(ProjectService projectService) {
+            super(projectService, null, null, null, null, null);
+        }
+
+        @Override
+        public Mono<PageImpl<Task>> getTasks(Long projectId, Pageable pageable) {
+            return tasks;
+        }
+
+        @Override
+        public Mono<Task> getTask(Long projectId, Long taskId) {
+            return task;
+        }
+
+        @Override
+        public Mono<Task> createTask(Long projectId, TaskCreationDto taskCreationDto) {
+            return task;
+        }
+
+        @Override
+        public Mono<Task> updateTask(Long projectId, Long taskId, TaskCreationDto taskCreationDto) {
+            return task;
+        }
+
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.example.reactive.rest.benchmark;
+
+import com.example.reactive.rest.model.Task;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares payload size and encode/decode time of a {@code Page<EntityModel<Task>>},
+ * as returned by {@code getProjectTasks}, for JSON and Smile.
+ * Payload sizes are printed once per trial.
+ * <p>
+ * Run with {@code gradle jmh -Pjmh.includes=PageEncodingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageEncodingBenchmark {
+
+    @Param({"json", "smile"})
+    private String format;
+
+    @Param({"5", "100", "1000"})
+    private int size;
+
+    private ObjectWriter writer;
+
+    private ObjectMapper mapper;
+
+    private Page<EntityModel<Task>> page;
+
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = Jackson2ObjectMapperBuilder.json().factory(factory()).build();
+        writer = mapper.writerFor(Page.class);
+        page = page(size);
+        encoded = writer.writeValueAsBytes(page);
+        System.out.printf("%n%s page of %d tasks: %d bytes%n", format, size, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return mapper.readTree(encoded);
+    }
+
+    private JsonFactory factory() {
+        return "smile".equals(format) ? new SmileFactory() : new JsonFactory();
+    }
+
+    private static Page<EntityModel<Task>> page(int size) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EntityModel<Task>> tasks = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            Task task = Task.builder()
+                    .id(id)
+                    .projectId(1L)
+                    .description("Task description " + id)
+                    .createdAt(now.minusMinutes(id))
+                    .updatedAt(now)
+                    .build();
+            tasks.add(EntityModel.of(task)
+                    .add(Link.of("/api/v1/projects/1/tasks/" + id).withSelfRel())
+                    .add(Link.of("/api/v1/projects?page=0&size=" + size).withRel("projects"))
+                    .add(Link.of("/api/v1/projects/1/tasks?page=0&size=" + size).withRel("tasks")));
+        }
+        return new PageImpl<>(tasks, PageRequest.of(0, size), size * 10L);
+    }
+
+}
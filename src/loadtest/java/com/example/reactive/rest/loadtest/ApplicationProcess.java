@@ -0,0 +1,114 @@
+package com.example.reactive.rest.loadtest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application launched as a separate process on a free port, its output going to a log file.
+ */
+final class ApplicationProcess implements AutoCloseable {
+
+    private static final Duration PROBE_INTERVAL = Duration.ofMillis(5);
+
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Process process;
+
+    private final long startNanos;
+
+    private final int port;
+
+    private final Path log;
+
+    private ApplicationProcess(Process process, long startNanos, int port, Path log) {
+        this.process = process;
+        this.startNanos = startNanos;
+        this.port = port;
+        this.log = log;
+    }
+
+    /**
+     * Launches the command with {@code --server.port=<port>} appended.
+     */
+    static ApplicationProcess start(List<String> command, Path log) throws IOException {
+        int port = freePort();
+        List<String> launch = new ArrayList<>(command);
+        launch.add("--server.port=" + port);
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(launch)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        return new ApplicationProcess(process, start, port, log);
+    }
+
+    URI baseUri() {
+        return URI.create("http://localhost:" + port + "/api/v1/");
+    }
+
+    long pid() {
+        return process.pid();
+    }
+
+    /**
+     * @return milliseconds from the launch to the first successful {@code GET /api/v1/projects}
+     */
+    double awaitFirstSuccess(HttpClient client, Duration timeout) throws IOException, InterruptedException {
+        HttpRequest probe = HttpRequest.newBuilder(baseUri().resolve("projects")).timeout(timeout).build();
+        long deadline = startNanos + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited with " + process.exitValue()
+                        + ", see " + log.toAbsolutePath());
+            }
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return (System.nanoTime() - startNanos) / 1e6;
+                }
+            } catch (ConnectException e) {
+                // not listening yet
+            }
+            Thread.sleep(PROBE_INTERVAL.toMillis());
+        }
+        throw new IllegalStateException("No successful request within " + timeout + ", see " + log.toAbsolutePath());
+    }
+
+    /**
+     * Waits for the process to exit by itself, e.g. after a checkpoint.
+     */
+    int awaitExit(Duration timeout) throws InterruptedException {
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("The application did not exit within " + timeout + ", see "
+                    + log.toAbsolutePath());
+        }
+        return process.exitValue();
+    }
+
+    /**
+     * Stops the application gracefully, with SIGTERM, so that its JVM runs its exit actions.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
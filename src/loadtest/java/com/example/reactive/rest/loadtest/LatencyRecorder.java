@@ -0,0 +1,103 @@
+package com.example.reactive.rest.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes per operation, recorded concurrently from the client threads.
+ * Latencies are measured from the intended start of a request, not from when it could be sent,
+ * so that a saturated server is not hidden by coordinated omission.
+ */
+final class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private static final DecimalFormat PERCENTILE_FORMAT =
+            new DecimalFormat("0.##", DecimalFormatSymbols.getInstance(Locale.ROOT));
+
+    private final Map<Operation.Type, Recorder> recorders = new EnumMap<>(Operation.Type.class);
+
+    private final Map<Operation.Type, Map<String, LongAdder>> outcomes = new EnumMap<>(Operation.Type.class);
+
+    LatencyRecorder() {
+        for (Operation.Type type : Operation.Type.values()) {
+            recorders.put(type, new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS));
+            Map<String, LongAdder> typeOutcomes = new LinkedHashMap<>();
+            for (String outcome : new String[]{"2xx", "3xx", "4xx", "5xx", "failed"}) {
+                typeOutcomes.put(outcome, new LongAdder());
+            }
+            outcomes.put(type, typeOutcomes);
+        }
+    }
+
+    void record(Operation.Type type, int status, long latencyNanos) {
+        recorders.get(type).recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, latencyNanos / 1_000));
+        outcomes.get(type).get(status / 100 + "xx").increment();
+    }
+
+    void recordFailure(Operation.Type type, long latencyNanos) {
+        recorders.get(type).recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, latencyNanos / 1_000));
+        outcomes.get(type).get("failed").increment();
+    }
+
+    /**
+     * Histograms of the recorded latencies, per operation and for all of them.
+     */
+    Map<String, Histogram> histograms() {
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        recorders.forEach((type, recorder) -> {
+            Histogram histogram = recorder.getIntervalHistogram();
+            all.add(histogram);
+            histograms.put(type.name(), histogram);
+        });
+        histograms.put("ALL", all);
+        return histograms;
+    }
+
+    /**
+     * Requests, throughput, outcomes and latency percentiles in microseconds of the given histograms.
+     */
+    Map<String, Object> report(Map<String, Histogram> histograms, double seconds) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        histograms.forEach((name, histogram) -> {
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("mean", histogram.getMean());
+            for (double percentile : PERCENTILES) {
+                latency.put("p" + PERCENTILE_FORMAT.format(percentile), histogram.getValueAtPercentile(percentile));
+            }
+            latency.put("max", histogram.getMaxValue());
+            Map<String, Object> operation = new LinkedHashMap<>();
+            operation.put("requests", histogram.getTotalCount());
+            operation.put("throughput", histogram.getTotalCount() / seconds);
+            operation.put("outcomes", outcomes(name));
+            operation.put("latencyMicros", latency);
+            report.put(name, operation);
+        });
+        return report;
+    }
+
+    private Map<String, Long> outcomes(String name) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        outcomes.forEach((type, typeOutcomes) -> {
+            if ("ALL".equals(name) || type.name().equals(name)) {
+                typeOutcomes.forEach((outcome, count) -> counts.merge(outcome, count.sum(), Long::sum));
+            }
+        });
+        return counts;
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.example.reactive.rest.loadtest;
+
+import com.example.reactive.rest.ReactiveRestApplication;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.repository.ProjectRepository;
+import com.example.reactive.rest.repository.TaskRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load test of the projects API: an embedded instance is started on its in-memory H2, seeded with
+ * {@code projects} of {@code tasks-per-project} tasks each, then requests arrive at the target rate whether or not
+ * the previous ones completed, like independent users would send them. Latency percentiles and throughput per
+ * operation are written to {@code loadtest-<time>.json} and the full latency distribution to
+ * {@code loadtest-<time>.hgrm}.
+ * <p>
+ * Rate limiting is switched off so that a single client can load the service, any application property can be
+ * overridden, e.g. {@code gradle loadTest -Ploadtest.args="--rate=1000 --duration=120 --rest.rate-limit.enabled=true"}.
+ */
+public final class LoadTest {
+
+    private static final String DESCRIPTION = "{\"description\":\"Load test task %d\"}";
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        List<String> applicationArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--rest.rate-limit.enabled=false",
+                "--logging.level.root=WARN"));
+        applicationArgs.addAll(options.applicationArgs());
+        try (ConfigurableApplicationContext context = SpringApplication.run(ReactiveRestApplication.class,
+                applicationArgs.toArray(String[]::new))) {
+            long[] projectIds = new long[options.projects()];
+            List<long[]> tasksByProject = new ArrayList<>();
+            seed(context, options, projectIds, tasksByProject);
+            int port = ((ReactiveWebServerApplicationContext) context).getWebServer().getPort();
+            ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                    .maxConnections(options.connections())
+                    .pendingAcquireMaxCount(-1)
+                    .pendingAcquireTimeout(REQUEST_TIMEOUT)
+                    .build();
+            WebClient webClient = WebClient.builder()
+                    .baseUrl("http://localhost:" + port + "/api/v1/projects/")
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                    .build();
+            try {
+                run(options, new Workload(options, projectIds, tasksByProject), webClient);
+            } finally {
+                connections.dispose();
+            }
+        }
+    }
+
+    private static void seed(ConfigurableApplicationContext context, LoadTestOptions options,
+                             long[] projectIds, List<long[]> tasksByProject) {
+        ProjectRepository projectRepository = context.getBean(ProjectRepository.class);
+        TaskRepository taskRepository = context.getBean(TaskRepository.class);
+        long start = System.nanoTime();
+        for (int p = 0; p < options.projects(); p++) {
+            Project project = projectRepository.save(Project.builder().name("Project " + p).build()).block();
+            projectIds[p] = project.getId();
+            tasksByProject.add(taskRepository.saveAll(Flux.range(0, options.tasksPerProject())
+                            .map(t -> Task.builder().description("Task " + t).projectId(project.getId()).build()))
+                    .map(Task::getId)
+                    .collectList()
+                    .map(ids -> ids.stream().mapToLong(Long::longValue).toArray())
+                    .block());
+        }
+        System.out.printf("Seeded %d projects with %d tasks each in %d ms%n", options.projects(),
+                options.tasksPerProject(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Sends the requests at their intended times from one thread, the client is non-blocking so a slow response
+     * never delays the following arrivals.
+     */
+    private static void run(LoadTestOptions options, Workload workload, WebClient webClient) throws IOException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        AtomicInteger inFlight = new AtomicInteger();
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        long measuredFrom = start + options.warmup().toNanos();
+        long end = measuredFrom + options.duration().toNanos();
+        long requests = 0;
+        for (long intended = start + workload.nextGapNanos(); intended < end;
+             intended += workload.nextGapNanos()) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = workload.next();
+            long intendedStart = intended;
+            boolean measured = intended >= measuredFrom;
+            inFlight.incrementAndGet();
+            requests++;
+            send(webClient, operation, options.pageSize(), requests)
+                    .timeout(REQUEST_TIMEOUT)
+                    .subscribe(
+                            status -> {
+                                if (measured) {
+                                    recorder.record(operation.type(), status, System.nanoTime() - intendedStart);
+                                }
+                                inFlight.decrementAndGet();
+                            },
+                            error -> {
+                                if (measured) {
+                                    recorder.recordFailure(operation.type(), System.nanoTime() - intendedStart);
+                                }
+                                inFlight.decrementAndGet();
+                            });
+        }
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        double seconds = (System.nanoTime() - measuredFrom) / 1e9;
+        report(options, startedAt, seconds, recorder);
+    }
+
+    private static Mono<Integer> send(WebClient webClient, Operation operation, int pageSize, long sequence) {
+        WebClient.RequestBodySpec request = switch (operation.type()) {
+            case LIST -> webClient.method(HttpMethod.GET).uri("{projectId}/tasks?page={page}&size={size}",
+                    operation.projectId(), operation.page(), pageSize);
+            case GET -> webClient.method(HttpMethod.GET)
+                    .uri("{projectId}/tasks/{taskId}", operation.projectId(), operation.taskId());
+            case CREATE -> webClient.method(HttpMethod.POST).uri("{projectId}/tasks", operation.projectId());
+            case UPDATE -> webClient.method(HttpMethod.PUT)
+                    .uri("{projectId}/tasks/{taskId}", operation.projectId(), operation.taskId());
+            case DELETE -> webClient.method(HttpMethod.DELETE)
+                    .uri("{projectId}/tasks/{taskId}", operation.projectId(), operation.taskId());
+        };
+        WebClient.RequestHeadersSpec<?> spec = switch (operation.type()) {
+            case CREATE, UPDATE -> request.header("Content-Type", "application/json")
+                    .bodyValue(DESCRIPTION.formatted(sequence));
+            default -> request;
+        };
+        return spec.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()));
+    }
+
+    private static void report(LoadTestOptions options, Instant startedAt, double seconds,
+                               LatencyRecorder recorder) throws IOException {
+        Map<String, Histogram> histograms = recorder.histograms();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("options", Map.of(
+                "projects", options.projects(),
+                "tasksPerProject", options.tasksPerProject(),
+                "rate", options.rate(),
+                "warmupSeconds", options.warmup().toSeconds(),
+                "durationSeconds", options.duration().toSeconds(),
+                "arrivals", options.arrivals(),
+                "mix", options.mix(),
+                "pageSize", options.pageSize(),
+                "seed", options.seed(),
+                "applicationArgs", options.applicationArgs()));
+        report.put("measuredSeconds", seconds);
+        report.put("operations", recorder.report(histograms, seconds));
+
+        Files.createDirectories(options.outputDir());
+        String name = "loadtest-" + startedAt.getEpochSecond();
+        Path json = options.outputDir().resolve(name + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(json.toFile(), report);
+        try (PrintStream hgrm = new PrintStream(options.outputDir().resolve(name + ".hgrm").toFile())) {
+            histograms.get("ALL").outputPercentileDistribution(hgrm, 1000.0);
+        }
+        Histogram all = histograms.get("ALL");
+        System.out.printf("%d requests in %.1f s, %.1f req/s, p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                all.getTotalCount(), seconds, all.getTotalCount() / seconds,
+                all.getValueAtPercentile(50) / 1000.0, all.getValueAtPercentile(99) / 1000.0,
+                all.getValueAtPercentile(99.9) / 1000.0, all.getMaxValue() / 1000.0);
+        System.out.println("Report written to " + json.toAbsolutePath());
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.example.reactive.rest.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shape of the seeded data and of the workload, parsed from {@code --name=value} arguments.
+ * Unknown arguments are passed to the application, e.g. {@code --rest.response-cache.enabled=false}.
+ *
+ * @param projects        seeded projects
+ * @param tasksPerProject seeded tasks of every project
+ * @param rate            target arrival rate, requests per second
+ * @param warmup          time during which requests are sent but not measured
+ * @param duration        measured time
+ * @param arrivals        {@code poisson} for exponential inter-arrival times, {@code uniform} for constant ones
+ * @param mix             relative weights of the operations
+ * @param pageSize        size of the listed task pages
+ * @param seed            seed of the workload, the same seed replays the same sequence of requests
+ * @param connections     maximum HTTP connections of the client
+ * @param outputDir       directory of the JSON report and the latency distribution
+ * @param applicationArgs arguments passed to the application
+ */
+record LoadTestOptions(int projects, int tasksPerProject, double rate, Duration warmup, Duration duration,
+                       String arrivals, Map<Operation.Type, Integer> mix, int pageSize, long seed,
+                       int connections, Path outputDir, List<String> applicationArgs) {
+
+    private static final List<String> OPTIONS = List.of("projects", "tasks-per-project", "rate", "warmup",
+            "duration", "arrivals", "mix", "page-size", "seed", "connections", "output-dir");
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = separator > 2 && arg.startsWith("--") ? arg.substring(2, separator) : null;
+            if (name != null && OPTIONS.contains(name)) {
+                values.put(name, arg.substring(separator + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+        return new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("projects", "50")),
+                Integer.parseInt(values.getOrDefault("tasks-per-project", "100")),
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+                values.getOrDefault("arrivals", "poisson"),
+                mix(values.getOrDefault("mix", "list=50,get=30,create=10,update=7,delete=3")),
+                Integer.parseInt(values.getOrDefault("page-size", "20")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Integer.parseInt(values.getOrDefault("connections", "256")),
+                Path.of(values.getOrDefault("output-dir", "build/reports/loadtest")),
+                applicationArgs);
+    }
+
+    private static Map<Operation.Type, Integer> mix(String mix) {
+        Map<Operation.Type, Integer> weights = new EnumMap<>(Operation.Type.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Mix entries must be operation=weight: " + entry);
+            }
+            weights.put(Operation.Type.valueOf(weight[0].strip().toUpperCase()), Integer.parseInt(weight[1].strip()));
+        }
+        return weights;
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.example.reactive.rest.loadtest;
+
+/**
+ * One request of the workload.
+ *
+ * @param type      operation
+ * @param projectId target project
+ * @param taskId    target task, unused by {@link Type#LIST} and {@link Type#CREATE}
+ * @param page      listed page, only used by {@link Type#LIST}
+ */
+record Operation(Type type, long projectId, long taskId, int page) {
+
+    enum Type {
+        LIST, GET, CREATE, UPDATE, DELETE
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.example.reactive.rest.loadtest;
+
+import com.example.reactive.rest.ReactiveRestApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup time of the application as seen by a load balancer: every run launches a fresh process and measures
+ * the time from its start to the first successful {@code GET /api/v1/projects}, a request going through the
+ * whole stack down to the database. Runs are reported with their minimum, median and maximum to
+ * {@code startup-<time>.json}, the output of every process is kept in {@code startup-<time>-<run>.log}.
+ * <p>
+ * Options: {@code --runs=5}, {@code --timeout=120} seconds per run, {@code --mode=jvm} or {@code --mode=aot}
+ * to launch the application on the JVM with the AOT-processed bean definitions. Any other command, e.g. a native
+ * executable, can be benchmarked by giving it after {@code --}; it is passed {@code --server.port=<port>}:
+ * {@code gradle startupBenchmark -Pstartup.args="--runs=10 -- build/native/nativeCompile/reactive-rest"}.
+ */
+public final class StartupBenchmark {
+
+    private static final String AOT_CLASS_PATH = "startup.aot-classpath";
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = 5;
+        Duration timeout = Duration.ofSeconds(120);
+        String mode = "jvm";
+        Path outputDir = Path.of("build/reports/startup");
+        List<String> command = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--")) {
+                command.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                break;
+            }
+            String[] option = args[i].split("=", 2);
+            switch (option[0]) {
+                case "--runs" -> runs = Integer.parseInt(option[1]);
+                case "--timeout" -> timeout = Duration.ofSeconds(Long.parseLong(option[1]));
+                case "--mode" -> mode = option[1];
+                case "--output-dir" -> outputDir = Path.of(option[1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (command.isEmpty()) {
+            command = javaCommand(mode);
+        } else {
+            mode = "command";
+        }
+
+        Files.createDirectories(outputDir);
+        String name = "startup-" + Instant.now().getEpochSecond();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        List<Double> millis = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            double elapsed = run(command, client, timeout, outputDir.resolve(name + "-" + run + ".log"));
+            System.out.printf("Run %d: first successful request after %.1f ms%n", run, elapsed);
+            millis.add(elapsed);
+        }
+
+        List<Double> sorted = millis.stream().sorted().toList();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", mode);
+        report.put("command", command);
+        report.put("runs", millis);
+        report.put("minMillis", sorted.get(0));
+        report.put("medianMillis", sorted.get(sorted.size() / 2));
+        report.put("maxMillis", sorted.get(sorted.size() - 1));
+        Path json = outputDir.resolve(name + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(json.toFile(), report);
+        System.out.printf("Time to first successful request over %d runs: min %.1f ms, median %.1f ms, max %.1f ms%n",
+                runs, sorted.get(0), sorted.get(sorted.size() / 2), sorted.get(sorted.size() - 1));
+        System.out.println("Report written to " + json.toAbsolutePath());
+    }
+
+    /**
+     * The application on the JVM running this benchmark, with its class path, preceded by the classes generated by
+     * {@code processAot} in {@code aot} mode.
+     */
+    private static List<String> javaCommand(String mode) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        String classPath = System.getProperty("java.class.path");
+        switch (mode) {
+            case "jvm" -> {
+            }
+            case "aot" -> {
+                command.add("-Dspring.aot.enabled=true");
+                classPath = System.getProperty(AOT_CLASS_PATH) + File.pathSeparator + classPath;
+            }
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        command.add("-cp");
+        command.add(classPath);
+        command.add(ReactiveRestApplication.class.getName());
+        return command;
+    }
+
+    private static double run(List<String> command, HttpClient client, Duration timeout, Path log)
+            throws IOException, InterruptedException {
+        try (ApplicationProcess application = ApplicationProcess.start(command, log)) {
+            return application.awaitFirstSuccess(client, timeout);
+        }
+    }
+
+}
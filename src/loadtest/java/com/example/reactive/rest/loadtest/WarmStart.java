@@ -0,0 +1,126 @@
+package com.example.reactive.rest.loadtest;
+
+import com.example.reactive.rest.ReactiveRestApplication;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Captures a warmed up instance for new replicas: the application is launched, driven through the {@link WarmUp}
+ * script, then captured as
+ * <ul>
+ *     <li>{@code --mode=cds}: an AppCDS archive of every class it loaded, written when the JVM exits,
+ *     replicas start with {@code -XX:SharedArchiveFile=<archive>} and the same class path,</li>
+ *     <li>{@code --mode=crac}: a CRaC checkpoint of the whole process, JIT-compiled code included, taken with
+ *     {@code jcmd <pid> JDK.checkpoint}, replicas start with {@code -XX:CRaCRestoreFrom=<directory>}.
+ *     It needs a JDK with CRaC support, given with {@code --java-home}.</li>
+ * </ul>
+ * Other options: {@code --output}, {@code --iterations=200}, {@code --class-path} of the application, made of jars
+ * only for class data sharing, and {@code --timeout=120} seconds. Any other argument is passed to the application,
+ * its configuration is captured with it: the checkpoint keeps the profiles and properties of the warm-up run.
+ */
+public final class WarmStart {
+
+    private static final Duration EXIT_TIMEOUT = Duration.ofMinutes(2);
+
+    private WarmStart() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String mode = null;
+        Path output = null;
+        int iterations = 200;
+        String classPath = System.getProperty("java.class.path");
+        Path javaHome = Path.of(System.getProperty("java.home"));
+        Duration timeout = Duration.ofSeconds(120);
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            switch (option[0]) {
+                case "--mode" -> mode = option[1];
+                case "--output" -> output = Path.of(option[1]).toAbsolutePath();
+                case "--iterations" -> iterations = Integer.parseInt(option[1]);
+                case "--class-path" -> classPath = option[1];
+                case "--java-home" -> javaHome = Path.of(option[1]);
+                case "--timeout" -> timeout = Duration.ofSeconds(Long.parseLong(option[1]));
+                default -> applicationArgs.add(arg);
+            }
+        }
+        if (mode == null || output == null) {
+            throw new IllegalArgumentException("--mode=cds|crac and --output are required");
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(javaHome.resolve("bin").resolve("java").toString());
+        switch (mode) {
+            case "cds" -> {
+                Files.createDirectories(output.getParent());
+                Files.deleteIfExists(output);
+                command.add("-XX:ArchiveClassesAtExit=" + output);
+            }
+            case "crac" -> {
+                Files.createDirectories(output);
+                command.add("-XX:CRaCCheckpointTo=" + output);
+                // the JDK selectors are checkpointed by the CRaC JDK, the native epoll transport is not
+                command.add("-Dreactor.netty.native=false");
+            }
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        command.add("-cp");
+        command.add(classPath);
+        command.add(ReactiveRestApplication.class.getName());
+        if (mode.equals("crac")) {
+            command.add("--rest.crac.enabled=true");
+        }
+        command.addAll(applicationArgs);
+
+        Path log = output.resolveSibling(output.getFileName() + ".log");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        try (ApplicationProcess application = ApplicationProcess.start(command, log)) {
+            double startup = application.awaitFirstSuccess(client, timeout);
+            long start = System.nanoTime();
+            long requests = new WarmUp(client, application.baseUri()).run(iterations);
+            System.out.printf("Started in %.1f ms, warmed up with %d requests in %.1f s%n", startup, requests,
+                    (System.nanoTime() - start) / 1e9);
+            if (mode.equals("crac")) {
+                checkpoint(javaHome, application);
+            }
+        }
+
+        if (mode.equals("cds") ? !Files.isRegularFile(output) : isEmpty(output)) {
+            throw new IllegalStateException("Nothing was written to " + output + ", see " + log);
+        }
+        System.out.println(mode.equals("cds")
+                ? "Start replicas with: java -XX:SharedArchiveFile=" + output + " -cp <same class path> "
+                        + ReactiveRestApplication.class.getName()
+                : "Start replicas with: java -XX:CRaCRestoreFrom=" + output);
+    }
+
+    /**
+     * The JVM exits once the checkpoint is written.
+     */
+    private static void checkpoint(Path javaHome, ApplicationProcess application)
+            throws IOException, InterruptedException {
+        Process jcmd = new ProcessBuilder(javaHome.resolve("bin").resolve("jcmd").toString(),
+                Long.toString(application.pid()), "JDK.checkpoint")
+                .inheritIO()
+                .start();
+        if (jcmd.waitFor() != 0) {
+            throw new IllegalStateException("jcmd JDK.checkpoint failed, is " + javaHome + " a CRaC JDK?");
+        }
+        application.awaitExit(EXIT_TIMEOUT);
+    }
+
+    private static boolean isEmpty(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findAny().isEmpty();
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.example.reactive.rest.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scripted warm-up: every iteration creates a project with tasks, goes through every endpoint and representation
+ * of the API, then deletes what it created, so that the JIT compiles the paths real traffic takes.
+ * Requests are spread over several API keys, like the traffic of several clients. They all come from one address,
+ * which is what the rate limits count for unknown keys: a rejected request is sent again after its Retry-After.
+ */
+final class WarmUp {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private static final int CLIENTS = 64;
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+
+    private final URI baseUri;
+
+    private long requests;
+
+    private long failures;
+
+    private String clientKey;
+
+    WarmUp(HttpClient client, URI baseUri) {
+        this.client = client;
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * @return requests sent
+     */
+    long run(int iterations) throws IOException, InterruptedException {
+        for (int i = 0; i < iterations; i++) {
+            clientKey = "warm-up-" + (i % CLIENTS);
+            iteration(i);
+        }
+        if (failures > 0) {
+            throw new IllegalStateException(failures + " warm-up requests failed with a server error");
+        }
+        return requests;
+    }
+
+    private void iteration(int i) throws IOException, InterruptedException {
+        String idempotencyKey = UUID.randomUUID().toString();
+        String projectBody = "{\"name\":\"Warm-up project " + i + "\"}";
+        long projectId = id(send("POST", "projects", projectBody, "Idempotency-Key", idempotencyKey));
+        send("POST", "projects", projectBody, "Idempotency-Key", idempotencyKey);
+        String project = "projects/" + projectId;
+        send("GET", project, null);
+        send("PUT", project, "{\"name\":\"Warm-up project " + i + " renamed\"}");
+
+        long[] taskIds = new long[3];
+        for (int t = 0; t < taskIds.length; t++) {
+            taskIds[t] = id(send("POST", project + "/tasks", "{\"description\":\"Warm-up task " + t + "\"}"));
+        }
+        String task = project + "/tasks/" + taskIds[0];
+        send("GET", task, null);
+        send("PUT", task, "{\"description\":\"Warm-up task renamed\"}");
+
+        String since = LocalDateTime.now().minusHours(1).toString();
+        for (String listing : new String[]{"projects", project + "/tasks"}) {
+            send("GET", listing + "?page=0&size=20", null);
+            send("GET", listing + "?page=0&size=20&sort=updatedAt,desc", null);
+            send("GET", listing + "?page=0&size=20&modifiedSince=" + since, null);
+            send("GET", listing + "?page=0&size=20&createdBetween=" + since + ",", null);
+            send("GET", listing + "?page=0&size=20&fields=id,createdAt&links=self", null);
+            send("GET", listing + "?page=0&size=20&links=none", null);
+            send("GET", listing + "?page=0&size=20&stream=true", null);
+            send("GET", listing + "?page=0&size=20", null, "Accept", "application/x-jackson-smile");
+            send("GET", listing + "?page=0&size=20", null, "Accept-Encoding", "br, gzip");
+        }
+
+        send("GET", "stats", null);
+        send("GET", project + "/stats", null);
+        String projectsToken = token(send("GET", "sync/projects", null));
+        String tasksToken = token(send("GET", "sync/" + project + "/tasks", null));
+        send("DELETE", task, null);
+        send("GET", "sync/projects?token=" + projectsToken, null);
+        send("GET", "sync/" + project + "/tasks?token=" + tasksToken, null);
+
+        long targetId = id(send("POST", "projects", "{\"name\":\"Warm-up target " + i + "\"}"));
+        send("POST", project + "/tasks:move", "{\"targetProjectId\":" + targetId + "}");
+        send("DELETE", "projects/" + targetId, null);
+        send("DELETE", project, null);
+        send("GET", project, null);
+    }
+
+    private String send(String method, String path, String body, String... headers)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("X-API-Key", clientKey)
+                .method(method, body != null
+                        ? HttpRequest.BodyPublishers.ofString(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        for (int h = 0; h < headers.length; h += 2) {
+            request.header(headers[h], headers[h + 1]);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        requests++;
+        while (response.statusCode() == TOO_MANY_REQUESTS) {
+            Thread.sleep(Duration.ofSeconds(response.headers().firstValueAsLong("Retry-After").orElse(1)).toMillis());
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            requests++;
+        }
+        if (response.statusCode() >= 500) {
+            failures++;
+        }
+        return response.body();
+    }
+
+    private static long id(String body) {
+        Matcher matcher = ID.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No id in the response: " + body);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static String token(String body) {
+        Matcher matcher = TOKEN.matcher(body);
+        return matcher.find() ? matcher.group(1) : "";
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.example.reactive.rest.loadtest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Reproducible sequence of requests and of their arrival times: everything is drawn from one seeded random,
+ * so the same options replay the same workload whatever the responses are. Deleted tasks are not excluded from
+ * later operations, which then answer {@code 404} like they would for a real client.
+ */
+final class Workload {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final SplittableRandom random;
+
+    private final List<long[]> tasksByProject;
+
+    private final long[] projectIds;
+
+    private final Operation.Type[] types;
+
+    private final int[] cumulativeWeights;
+
+    private final double meanGapNanos;
+
+    private final boolean poisson;
+
+    private final int pages;
+
+    Workload(LoadTestOptions options, long[] projectIds, List<long[]> tasksByProject) {
+        this.random = new SplittableRandom(options.seed());
+        this.projectIds = projectIds;
+        this.tasksByProject = tasksByProject;
+        this.meanGapNanos = NANOS_PER_SECOND / options.rate();
+        this.poisson = "poisson".equalsIgnoreCase(options.arrivals());
+        this.pages = Math.max(1, options.tasksPerProject() / options.pageSize());
+        Map<Operation.Type, Integer> mix = options.mix();
+        this.types = mix.keySet().toArray(Operation.Type[]::new);
+        this.cumulativeWeights = new int[types.length];
+        int total = 0;
+        for (int i = 0; i < types.length; i++) {
+            total += mix.get(types[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The operation mix must have a positive weight");
+        }
+    }
+
+    /**
+     * Time until the next arrival: exponentially distributed for a Poisson process, constant otherwise.
+     */
+    long nextGapNanos() {
+        if (poisson) {
+            return (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+        }
+        return (long) meanGapNanos;
+    }
+
+    Operation next() {
+        int weight = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        Operation.Type type = types[types.length - 1];
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (weight < cumulativeWeights[i]) {
+                type = types[i];
+                break;
+            }
+        }
+        int project = random.nextInt(projectIds.length);
+        long[] tasks = tasksByProject.get(project);
+        long taskId = tasks.length > 0 ? tasks[random.nextInt(tasks.length)] : 0;
+        return new Operation(type, projectIds[project], taskId, random.nextInt(pages));
+    }
+
+}
@@ -1,9 +1,12 @@
 package com.example.reactive.rest;
 
+import com.example.reactive.rest.aot.ApplicationRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(ApplicationRuntimeHints.class)
 public class ReactiveRestApplication {
 
     public static void main(String[] args) {
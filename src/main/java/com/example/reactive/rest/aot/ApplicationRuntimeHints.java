@@ -0,0 +1,49 @@
+package com.example.reactive.rest.aot;
+
+import com.example.reactive.rest.dto.ProjectCreationDto;
+import com.example.reactive.rest.dto.SyncDto;
+import com.example.reactive.rest.dto.TaskCreationDto;
+import com.example.reactive.rest.dto.TaskMoveDto;
+import com.example.reactive.rest.dto.TaskMoveResultDto;
+import com.example.reactive.rest.dto.TaskStatisticsDto;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TaskActivity;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Runtime hints of a native image that Spring AOT can't infer from the bean definitions:
+ * <ul>
+ *     <li>the Lombok models and DTOs, bound by Jackson, by the R2DBC entity mapping and by the JDBC row mappers
+ *     through their generated accessors, and {@link PageImpl}, serialized as is by the listings,</li>
+ *     <li>the schema scripts, loaded as class path resources by the initializers,</li>
+ *     <li>the virtual thread executor looked up reflectively by the {@code JdbcConfiguration}.</li>
+ * </ul>
+ * HAL links and the {@code methodOn} controller proxies are covered by the hints of Spring HATEOAS, the class proxies
+ * of the application's post processors are generated ahead of time, see {@link ClassProxies}.
+ */
+public class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> BOUND_TYPES = List.of(Project.class, Task.class, TaskActivity.class,
+            ProjectCreationDto.class, TaskCreationDto.class, TaskMoveDto.class, TaskMoveResultDto.class,
+            TaskStatisticsDto.class, SyncDto.class, PageImpl.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                BOUND_TYPES.toArray(Class<?>[]::new));
+        hints.resources()
+                .registerPattern("schema.sql")
+                .registerPattern("schema-task-shard.sql");
+        hints.reflection().registerType(Executors.class, type -> type.withMethod("newVirtualThreadPerTaskExecutor",
+                List.of(), ExecutableMode.INVOKE));
+    }
+
+}
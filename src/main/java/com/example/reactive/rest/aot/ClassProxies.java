@@ -0,0 +1,58 @@
+package com.example.reactive.rest.aot;
+
+import org.aopalliance.aop.Advice;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.function.ToIntFunction;
+
+/**
+ * Advice of the bean post processors of the application: added to the bean when it is a proxy already, otherwise
+ * to a class proxy, so that the bean can still be injected by its class. A native image can't define classes at
+ * runtime, the post processors also return the class of that proxy from
+ * {@code SmartInstantiationAwareBeanPostProcessor#determineBeanType}: Spring AOT then generates it ahead of time,
+ * and the proxy created at runtime, configured the same way, is an instance of it.
+ */
+public final class ClassProxies {
+
+    private ClassProxies() {
+    }
+
+    /**
+     * The class of the proxy {@link #advise} creates for a bean of this class, the class itself for a proxy.
+     */
+    public static Class<?> proxyClass(Class<?> beanClass, Advice advice) {
+        if (beanClass.isInterface() || Proxy.isProxyClass(beanClass) || SpringProxy.class.isAssignableFrom(beanClass)) {
+            return beanClass;
+        }
+        ProxyFactory proxyFactory = proxyFactory(advice);
+        proxyFactory.setTargetClass(beanClass);
+        return proxyFactory.getProxyClass(null);
+    }
+
+    /**
+     * @param position index of the advice among the ones of a bean already proxied
+     */
+    public static Object advise(Object bean, Advice advice, ToIntFunction<Advised> position) {
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(position.applyAsInt(advised), advice);
+            return bean;
+        }
+        ProxyFactory proxyFactory = proxyFactory(advice);
+        proxyFactory.setTarget(bean);
+        return proxyFactory.getProxy();
+    }
+
+    /**
+     * A JDK proxy, e.g. a repository of Spring Data whose advice can't be changed, still gets a JDK proxy.
+     */
+    private static ProxyFactory proxyFactory(Advice advice) {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(advice);
+        return proxyFactory;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.example.reactive.rest.cache;
+
+import com.example.reactive.rest.tenant.TenantContext;
+
+import java.util.Set;
+
+/**
+ * Published when entries of a service cache are evicted or the whole cache is cleared.
+ *
+ * @param cacheName  name of the service cache
+ * @param projectIds projects whose entries were evicted, empty when any entry may have been
+ * @param tenantId   tenant whose entries were evicted, {@code null} when any tenant's may have been
+ */
+public record CacheInvalidatedEvent(String cacheName, Set<Long> projectIds, String tenantId) {
+
+    public CacheInvalidatedEvent(String cacheName, Set<Long> projectIds) {
+        this(cacheName, projectIds, null);
+    }
+
+    public CacheInvalidatedEvent(String cacheName) {
+        this(cacheName, Set.of());
+    }
+
+    /**
+     * An invalidation by the tenant bound to the thread, see {@link TenantContext#bound()}.
+     */
+    static CacheInvalidatedEvent ofCurrentTenant(String cacheName, Set<Long> projectIds) {
+        return new CacheInvalidatedEvent(cacheName, projectIds, TenantContext.bound());
+    }
+
+}
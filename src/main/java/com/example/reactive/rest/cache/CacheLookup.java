@@ -0,0 +1,36 @@
+package com.example.reactive.rest.cache;
+
+/**
+ * Outcome of the last cache lookup of the current thread. Cached methods look their value up synchronously,
+ * before they return, so a caller wrapping them learns whether its call was a hit or a miss.
+ */
+public final class CacheLookup {
+
+    private static final ThreadLocal<Boolean> HIT = new ThreadLocal<>();
+
+    private CacheLookup() {
+    }
+
+    static void record(boolean hit) {
+        HIT.set(hit);
+    }
+
+    /**
+     * @return {@code true} for a hit, {@code false} for a miss, {@code null} without lookup since the last call
+     */
+    public static Boolean take() {
+        Boolean hit = HIT.get();
+        HIT.remove();
+        return hit;
+    }
+
+    /**
+     * Restores the outcome taken by an enclosing call.
+     */
+    public static void restore(Boolean hit) {
+        if (hit != null) {
+            HIT.set(hit);
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.example.reactive.rest.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+@RequiredArgsConstructor
+class InvalidationPublishingCache implements Cache {
+
+    private final Cache delegate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = delegate.get(key);
+        CacheLookup.record(value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        publishInvalidation();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = delegate.evictIfPresent(key);
+        publishInvalidation();
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        publishInvalidation();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        publishInvalidation();
+        return invalidated;
+    }
+
+    /**
+     * Evicts the entries keyed by a {@link ProjectKey} of the given projects, derived caches only drop what
+     * concerns them.
+     */
+    void evictProjects(Collection<Long> projectIds) {
+        if (!ProjectKey.evict(delegate.getNativeCache(), projectIds)) {
+            clear();
+            return;
+        }
+        eventPublisher.publishEvent(CacheInvalidatedEvent.ofCurrentTenant(delegate.getName(), Set.copyOf(projectIds)));
+    }
+
+    private void publishInvalidation() {
+        eventPublisher.publishEvent(CacheInvalidatedEvent.ofCurrentTenant(delegate.getName(), Set.of()));
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.example.reactive.rest.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decorates a {@link CacheManager} so every eviction in its caches publishes a {@link CacheInvalidatedEvent},
+ * letting derived caches, e.g. of encoded responses, follow the service caches.
+ */
+@RequiredArgsConstructor
+public class InvalidationPublishingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> new InvalidationPublishingCache(target, eventPublisher));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+}
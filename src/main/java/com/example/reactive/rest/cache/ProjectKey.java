@@ -0,0 +1,49 @@
+package com.example.reactive.rest.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+
+import java.util.Collection;
+
+/**
+ * Cache key of a result scoped to a project, so the entries of a project can be evicted without clearing the
+ * entries of the others.
+ *
+ * @param projectId project of the cached result
+ * @param key       key of the remaining method arguments
+ */
+public record ProjectKey(Long projectId, Object key) {
+
+    /**
+     * The key of a call of a cached method with the project id and the remaining arguments, as generated by the
+     * {@link ProjectKeyGenerator}.
+     */
+    public static ProjectKey of(Long projectId, Object... params) {
+        return new ProjectKey(projectId, SimpleKeyGenerator.generateKey(params));
+    }
+
+    /**
+     * Evicts the entries of the given projects, or clears the whole cache when its entries can't be enumerated.
+     */
+    public static void evictProjects(Cache cache, Collection<Long> projectIds) {
+        if (cache instanceof InvalidationPublishingCache publishingCache) {
+            publishingCache.evictProjects(projectIds);
+        } else if (!evict(cache.getNativeCache(), projectIds)) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Evicts the entries of the given projects from a native Caffeine cache, returns {@code false} for any other
+     * native cache.
+     */
+    static boolean evict(Object nativeCache, Collection<Long> projectIds) {
+        if (!(nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> entries)) {
+            return false;
+        }
+        entries.asMap().keySet()
+                .removeIf(key -> key instanceof ProjectKey projectKey && projectIds.contains(projectKey.projectId()));
+        return true;
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.example.reactive.rest.cache;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Keys the results of methods whose first argument is a project id by a {@link ProjectKey}.
+ */
+public class ProjectKeyGenerator implements KeyGenerator {
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        if (params.length == 0 || !(params[0] instanceof Long projectId)) {
+            throw new IllegalArgumentException("The first argument of %s must be a project id".formatted(method));
+        }
+        return ProjectKey.of(projectId, Arrays.copyOfRange(params, 1, params.length));
+    }
+
+}
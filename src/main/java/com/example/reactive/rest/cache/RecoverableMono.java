@@ -0,0 +1,61 @@
+package com.example.reactive.rest.cache;
+
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * A cached service value that a {@link StaleIfErrorCache} backs with the value it replaces: when the new one fails
+ * because the database is unavailable, the previous one is served instead, marking the {@link StaleResponse}.
+ * The cache sees the very instance returned to the caller of a {@code @Cacheable} method, which is why the fallback
+ * is set on it rather than on a copy. It is dropped once the new value resolved, values don't chain up.
+ */
+public final class RecoverableMono<T> extends Mono<T> {
+
+    private final Mono<T> source;
+
+    private volatile Fallback fallback;
+
+    public RecoverableMono(Mono<T> source) {
+        this.source = source;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void subscribe(CoreSubscriber<? super T> actual) {
+        Fallback fallback = this.fallback;
+        if (fallback == null) {
+            source.subscribe(actual);
+            return;
+        }
+        source.doOnSuccess(value -> this.fallback = null)
+                .onErrorResume(fallback.recoverable(), error -> (Mono<T>) fallback.serve(error))
+                .subscribe(actual);
+    }
+
+    /**
+     * @param stale       the value written at {@code writtenAt}, in {@link System#nanoTime()}
+     * @param maxAgeNanos the age past which it is no longer served
+     */
+    void recoverWith(Mono<?> stale, long writtenAt, long maxAgeNanos, Predicate<Throwable> recoverable) {
+        fallback = new Fallback(stale, writtenAt, maxAgeNanos, recoverable);
+    }
+
+    private record Fallback(Mono<?> stale, long writtenAt, long maxAgeNanos, Predicate<Throwable> recoverable) {
+
+        Mono<?> serve(Throwable error) {
+            long age = System.nanoTime() - writtenAt;
+            if (age > maxAgeNanos) {
+                return Mono.error(error);
+            }
+            return Mono.deferContextual(context -> {
+                StaleResponse.mark(context, Duration.ofNanos(age));
+                return stale;
+            });
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.example.reactive.rest.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Encoded responses of GET requests, stored off-heap in direct {@link ByteBuffer}s and bounded by their total size.
+ * Cleared whenever a service cache is invalidated: a response may be built from any cached service result.
+ * An invalidation scoped to projects keeps the responses of the other projects, the responses not scoped to a
+ * project, e.g. listings of projects or global statistics, are dropped all the same. Likewise, an invalidation by
+ * a tenant keeps the responses of the other tenants.
+ * <p>
+ * A response is only stored when no invalidation happened since its request started, see {@link #generation()},
+ * so a response computed from data being overwritten can't outlive the invalidation.
+ */
+@Slf4j
+public class ResponseCache {
+
+    /**
+     * Project of a key, whose path comes first and ends with {@code ?} or with the {@code |} before the media type.
+     */
+    private static final Pattern PROJECT = Pattern.compile("/projects/(\\d{1,18})(?=[/?|])");
+
+    /**
+     * Separates the tenant a key starts with from the key of the request.
+     */
+    private static final String TENANT_SEPARATOR = "|";
+
+    private final Cache<String, Entry> entries;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCache(long maxBytes, Duration timeToLive) {
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Entry entry) -> entry.body().capacity() + key.length())
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    public Entry get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String key, Entry entry, long requestGeneration) {
+        if (generation.get() != requestGeneration) {
+            return;
+        }
+        entries.put(key, entry);
+        // an invalidation may have run between the check and the put
+        if (generation.get() != requestGeneration) {
+            entries.invalidate(key);
+        }
+    }
+
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        generation.incrementAndGet();
+        if (event.projectIds().isEmpty() && event.tenantId() == null) {
+            entries.invalidateAll();
+            log.debug("Response cache cleared after invalidation of cache: {}", event.cacheName());
+            return;
+        }
+        entries.asMap().keySet().removeIf(key -> !isOtherTenant(key, event.tenantId())
+                && (event.projectIds().isEmpty() || !isOtherProject(key, event.projectIds())));
+        log.debug("Response cache cleared of tenant {} and projects {} after invalidation of cache: {}",
+                event.tenantId(), event.projectIds(), event.cacheName());
+    }
+
+    /**
+     * Key of a response, prefixed by its tenant unless there is none, without tenancy.
+     */
+    public static String key(String tenantId, String requestKey) {
+        return tenantId != null ? tenantId + TENANT_SEPARATOR + requestKey : requestKey;
+    }
+
+    private static boolean isOtherTenant(String key, String tenantId) {
+        return tenantId != null && !key.startsWith(tenantId + TENANT_SEPARATOR);
+    }
+
+    private static boolean isOtherProject(String key, Set<Long> projectIds) {
+        Matcher matcher = PROJECT.matcher(key);
+        return matcher.find() && !projectIds.contains(Long.parseLong(matcher.group(1)));
+    }
+
+    public Cache<String, Entry> getNativeCache() {
+        return entries;
+    }
+
+    /**
+     * Encoded body, read through {@link ByteBuffer#duplicate()} so concurrent responses don't share positions.
+     */
+    public record Entry(ByteBuffer body, MediaType contentType, String eTag) {
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.example.reactive.rest.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Callable;
+import java.util.function.Predicate;
+
+/**
+ * Stores the values with the time they were written: reads miss once it is older than the time to live, and the
+ * {@link RecoverableMono} put in its place falls back to the stale value.
+ */
+@RequiredArgsConstructor
+class StaleIfErrorCache implements Cache {
+
+    private final Cache delegate;
+
+    private final long timeToLiveNanos;
+
+    private final long maxStaleAgeNanos;
+
+    private final Predicate<Throwable> recoverable;
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Entry entry = entry(key);
+        if (entry == null || System.nanoTime() - entry.writtenAt() > timeToLiveNanos) {
+            return null;
+        }
+        return new SimpleValueWrapper(entry.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(value.get())) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: "
+                    + value.get());
+        }
+        return (T) value.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = get(key);
+        if (value != null) {
+            return (T) value.get();
+        }
+        T loaded;
+        try {
+            loaded = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, loaded);
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value instanceof RecoverableMono<?> mono) {
+            Entry previous = entry(key);
+            if (previous != null && previous.value() instanceof Mono<?> stale) {
+                mono.recoverWith(stale, previous.writtenAt(), maxStaleAgeNanos, recoverable);
+            }
+        }
+        delegate.put(key, new Entry(value, System.nanoTime()));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        put(key, value);
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private Entry entry(Object key) {
+        ValueWrapper value = delegate.get(key);
+        return value != null ? (Entry) value.get() : null;
+    }
+
+    private record Entry(Object value, long writtenAt) {
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.example.reactive.rest.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Decorates a {@link CacheManager} whose caches keep their entries for the time to live plus the stale if error
+ * grace: an entry is only fresh for the time to live, after which its value may still back the one refreshing it,
+ * see {@link RecoverableMono}.
+ */
+public class StaleIfErrorCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+
+    private final long timeToLiveNanos;
+
+    private final long maxStaleAgeNanos;
+
+    private final Predicate<Throwable> recoverable;
+
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param recoverable the errors on which stale values are served
+     */
+    public StaleIfErrorCacheManager(CacheManager delegate, Duration timeToLive, Duration staleIfError,
+                                    Predicate<Throwable> recoverable) {
+        this.delegate = delegate;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.maxStaleAgeNanos = timeToLive.plus(staleIfError).toNanos();
+        this.recoverable = recoverable;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> new StaleIfErrorCache(target, timeToLiveNanos,
+                maxStaleAgeNanos, recoverable));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+}
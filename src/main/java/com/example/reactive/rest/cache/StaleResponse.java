@@ -0,0 +1,37 @@
+package com.example.reactive.rest.cache;
+
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+
+/**
+ * Tells a response was built from stale cache values, it is kept in the Reactor {@code Context} of a request under
+ * {@link #KEY} so the values served past their time to live can mark it with their age.
+ */
+public final class StaleResponse {
+
+    public static final String KEY = StaleResponse.class.getName();
+
+    private volatile Duration age;
+
+    static void mark(ContextView context, Duration age) {
+        StaleResponse response = context.getOrDefault(KEY, null);
+        if (response != null) {
+            response.mark(age);
+        }
+    }
+
+    /**
+     * The age of the oldest stale value served, {@code null} when none was.
+     */
+    public Duration getAge() {
+        return age;
+    }
+
+    private synchronized void mark(Duration age) {
+        if (this.age == null || this.age.compareTo(age) < 0) {
+            this.age = age;
+        }
+    }
+
+}
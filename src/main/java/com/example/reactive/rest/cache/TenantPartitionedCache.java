@@ -0,0 +1,99 @@
+package com.example.reactive.rest.cache;
+
+import com.example.reactive.rest.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Routes every operation to the partition of the tenant bound to the thread, see {@link TenantContext#current()}.
+ * Clearing without a bound tenant, e.g. before a checkpoint, clears all partitions.
+ */
+@RequiredArgsConstructor
+class TenantPartitionedCache implements Cache {
+
+    private final String name;
+
+    private final Map<String, Cache> partitions;
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The native cache of the current tenant's partition.
+     */
+    @Override
+    public Object getNativeCache() {
+        return partition().getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return partition().get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return partition().get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return partition().get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        partition().put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return partition().putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        partition().evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return partition().evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        if (TenantContext.bound() == null) {
+            partitions.values().forEach(Cache::clear);
+            return;
+        }
+        partition().clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        if (TenantContext.bound() == null) {
+            boolean invalidated = false;
+            for (Cache partition : partitions.values()) {
+                invalidated |= partition.invalidate();
+            }
+            return invalidated;
+        }
+        return partition().invalidate();
+    }
+
+    private Cache partition() {
+        String tenantId = TenantContext.current();
+        Cache partition = partitions.get(tenantId);
+        if (partition == null) {
+            throw new IllegalStateException("Unknown tenant: " + tenantId);
+        }
+        return partition;
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.example.reactive.rest.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caffeine caches partitioned by tenant, so the entries of a busy tenant only evict its own: each cache has a
+ * partition per tenant bounded by the tenant's share of the entries, and monitored with a {@code tenant} tag.
+ */
+public class TenantPartitionedCacheManager implements CacheManager {
+
+    private final Map<String, Long> capacities;
+
+    private final Supplier<Caffeine<Object, Object>> caffeine;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param weights       the tenants, by id, and their weights
+     * @param size          entries of each cache, shared in proportion of the weights
+     * @param caffeine      a new builder of the partitions, which are also bounded by size and record their stats
+     * @param meterRegistry registry of the metrics of the partitions, they aren't monitored when {@code null}
+     */
+    public TenantPartitionedCacheManager(Map<String, Integer> weights, long size,
+                                         Supplier<Caffeine<Object, Object>> caffeine, MeterRegistry meterRegistry) {
+        long totalWeight = weights.values().stream().mapToLong(Integer::longValue).sum();
+        Map<String, Long> capacities = new LinkedHashMap<>();
+        weights.forEach((tenantId, weight) -> capacities.put(tenantId, Math.max(1, size * weight / totalWeight)));
+        this.capacities = Collections.unmodifiableMap(capacities);
+        this.caffeine = caffeine;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private Cache createCache(String name) {
+        Map<String, Cache> partitions = new LinkedHashMap<>();
+        capacities.forEach((tenantId, capacity) -> {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> entries = caffeine.get()
+                    .maximumSize(capacity)
+                    .recordStats()
+                    .build();
+            if (meterRegistry != null) {
+                CaffeineCacheMetrics.monitor(meterRegistry, entries, name, "tenant", tenantId);
+            }
+            partitions.put(tenantId, new CaffeineCache(name, entries));
+        });
+        return new TenantPartitionedCache(name, Collections.unmodifiableMap(partitions));
+    }
+
+}
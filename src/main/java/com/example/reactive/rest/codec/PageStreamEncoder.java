@@ -0,0 +1,83 @@
+package com.example.reactive.rest.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes a page as JSON while its content is still being read, instead of materializing a {@link PageImpl}:
+ * {@code {"content":[} is written first, then every element as soon as it is emitted,
+ * and the page metadata last, once the number of elements and the total are known.
+ * The document has the same structure as a serialized {@link PageImpl}.
+ */
+@RequiredArgsConstructor
+public class PageStreamEncoder {
+
+    private static final byte[] CONTENT_START = "{\"content\":[".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] SEPARATOR = {','};
+
+    private static final String CONTENT_FIELD = "content";
+
+    private final ObjectMapper objectMapper;
+
+    public <T> Flux<DataBuffer> encode(Flux<T> content, Mono<Long> total, Pageable pageable,
+                                       DataBufferFactory bufferFactory) {
+        return Flux.defer(() -> {
+            AtomicInteger count = new AtomicInteger();
+            Flux<DataBuffer> elements = content.map(element -> bufferFactory.wrap(
+                    encodeElement(element, count.getAndIncrement() > 0)));
+            Mono<DataBuffer> metadata = total.defaultIfEmpty(0L)
+                    .map(totalElements -> bufferFactory.wrap(encodeMetadata(count.get(), pageable, totalElements)));
+            return Flux.concat(Mono.fromSupplier(() -> bufferFactory.wrap(CONTENT_START)), elements, metadata);
+        });
+    }
+
+    private byte[] encodeElement(Object element, boolean separated) {
+        byte[] json = write(element);
+        if (!separated) {
+            return json;
+        }
+        byte[] bytes = new byte[json.length + SEPARATOR.length];
+        System.arraycopy(SEPARATOR, 0, bytes, 0, SEPARATOR.length);
+        System.arraycopy(json, 0, bytes, SEPARATOR.length, json.length);
+        return bytes;
+    }
+
+    /**
+     * Serializes the metadata of a page with the streamed number of elements and closes the document:
+     * {@code ],"pageable":{...},...,"empty":false}}.
+     */
+    private byte[] encodeMetadata(int numberOfElements, Pageable pageable, long totalElements) {
+        PageImpl<Object> page = new PageImpl<>(Collections.nCopies(numberOfElements, null), pageable, totalElements);
+        ObjectNode metadata = objectMapper.valueToTree(page);
+        metadata.remove(CONTENT_FIELD);
+        byte[] json = write(metadata);
+        // json is {...}: replace the opening brace with the end of the content array
+        byte[] bytes = new byte[json.length + 1];
+        bytes[0] = ']';
+        bytes[1] = ',';
+        System.arraycopy(json, 1, bytes, 2, json.length - 1);
+        return bytes;
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Can not serialize page element", e);
+        }
+    }
+
+}
@@ -1,18 +1,75 @@
 package com.example.reactive.rest.configuration;
 
+import com.example.reactive.rest.cache.InvalidationPublishingCacheManager;
+import com.example.reactive.rest.cache.ProjectKeyGenerator;
+import com.example.reactive.rest.cache.StaleIfErrorCacheManager;
+import com.example.reactive.rest.cache.TenantPartitionedCacheManager;
+import com.example.reactive.rest.filter.StaleResponseWebFilter;
+import com.example.reactive.rest.resilience.CircuitBreaker;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties({ServiceCacheProperties.class, TenancyProperties.class})
 public class CachingConfiguration {
 
+    /**
+     * Entries expire after their time to live plus the stale if error grace, within which a stale entry may still
+     * be served while the database is unavailable. With multi-tenancy, each cache is partitioned between the
+     * tenants.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.cache", name = "type", havingValue = "caffeine", matchIfMissing = true)
+    public CacheManager cacheManager(ServiceCacheProperties properties, TenancyProperties tenancyProperties,
+                                     ObjectProvider<MeterRegistry> meterRegistry,
+                                     ApplicationEventPublisher eventPublisher) {
+        Duration timeToLive = properties.getTimeToLive();
+        Duration staleIfError = properties.getStaleIfError();
+        Supplier<Caffeine<Object, Object>> caffeine = timeToLive == null
+                ? Caffeine::newBuilder
+                : () -> Caffeine.newBuilder().expireAfterWrite(timeToLive.plus(staleIfError));
+        CacheManager cacheManager;
+        if (tenancyProperties.isEnabled()) {
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            tenancyProperties.allTenants().forEach((tenantId, tenant) -> weights.put(tenantId, tenant.getWeight()));
+            cacheManager = new TenantPartitionedCacheManager(weights, tenancyProperties.getCacheSize(), caffeine,
+                    meterRegistry.getIfAvailable());
+        } else {
+            CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+            caffeineCacheManager.setCaffeine(caffeine.get());
+            cacheManager = caffeineCacheManager;
+        }
+        if (timeToLive != null && staleIfError.compareTo(Duration.ZERO) > 0) {
+            cacheManager = new StaleIfErrorCacheManager(cacheManager, timeToLive, staleIfError,
+                    CircuitBreaker::isUnavailable);
+        }
+        return new InvalidationPublishingCacheManager(cacheManager, eventPublisher);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "rest.service-cache", name = "stale-if-error")
+    public StaleResponseWebFilter staleResponseWebFilter() {
+        return new StaleResponseWebFilter();
+    }
+
     @Bean
-    public CacheManager cacheManager() {
-        return new CaffeineCacheManager();
+    public ProjectKeyGenerator projectKeyGenerator() {
+        return new ProjectKeyGenerator();
     }
 
 }
@@ -0,0 +1,46 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.codec.PageStreamEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Configures the binary Smile codecs, negotiated with {@code Accept: application/x-jackson-smile}.
+ * The Smile mapper is built from the same {@link Jackson2ObjectMapperBuilder} as the JSON one,
+ * so documents have exactly the same structure, only the encoding differs.
+ * Smile is a default codec, which keeps HAL/JSON the answer for {@code Accept: *}{@code /*}.
+ * Also provides the {@link PageStreamEncoder} for pages written incrementally with {@code stream=true}.
+ */
+@Configuration(proxyBeanMethods = false)
+@RequiredArgsConstructor
+public class CodecConfiguration implements WebFluxConfigurer {
+
+    private static final MimeType[] SMILE_MIME_TYPES = {
+            new MimeType("application", "x-jackson-smile"),
+            new MimeType("application", "*+x-jackson-smile")
+    };
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        ObjectMapper smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SMILE_MIME_TYPES));
+        configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE_MIME_TYPES));
+    }
+
+    @Bean
+    public PageStreamEncoder pageStreamEncoder(ObjectMapper objectMapper) {
+        return new PageStreamEncoder(objectMapper);
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.example.reactive.rest.configuration;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.compression.CompressionOptions;
+import io.netty.handler.codec.compression.StandardCompressionOptions;
+import io.netty.handler.codec.compression.Zstd;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.HttpContentCompressor;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.netty.NettyPipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response compression for the Netty server. Reactor Netty's own {@code compress} option only negotiates
+ * gzip and deflate, so a Netty {@link HttpContentCompressor} with the configured codings
+ * is added right after the HTTP codec of every connection.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(CompressionProperties.class)
+@ConditionalOnProperty(prefix = "rest.compression", name = "enabled", havingValue = "true")
+public class CompressionConfiguration {
+
+    private static final String COMPRESSION_HANDLER = "restCompressionHandler";
+
+    @Bean
+    public NettyServerCustomizer compressionNettyServerCustomizer(CompressionProperties properties) {
+        int minResponseSize = (int) properties.getMinResponseSize().toBytes();
+        CompressionOptions[] options = compressionOptions(properties.getAlgorithms());
+        List<MimeType> excludedMimeTypes = properties.getExcludedMimeTypes().stream()
+                .map(MimeTypeUtils::parseMimeType)
+                .toList();
+        return httpServer -> httpServer.doOnChannelInit((observer, channel, remoteAddress) -> {
+            ChannelPipeline pipeline = channel.pipeline();
+            if (pipeline.get(NettyPipeline.HttpCodec) != null) {
+                pipeline.addAfter(NettyPipeline.HttpCodec, COMPRESSION_HANDLER,
+                        new StreamingContentCompressor(minResponseSize, excludedMimeTypes, options));
+            }
+        });
+    }
+
+    private static CompressionOptions[] compressionOptions(List<String> algorithms) {
+        List<CompressionOptions> options = new ArrayList<>();
+        for (String algorithm : algorithms) {
+            switch (algorithm) {
+                case "br" -> {
+                    if (Brotli.isAvailable()) {
+                        options.add(StandardCompressionOptions.brotli());
+                    } else {
+                        log.warn("Brotli compression is configured but brotli4j is not available, skipping it");
+                    }
+                }
+                case "zstd" -> {
+                    if (Zstd.isAvailable()) {
+                        options.add(StandardCompressionOptions.zstd());
+                    } else {
+                        log.warn("Zstd compression is configured but zstd-jni is not available, skipping it");
+                    }
+                }
+                case "gzip" -> options.add(StandardCompressionOptions.gzip());
+                case "deflate" -> options.add(StandardCompressionOptions.deflate());
+                default -> throw new IllegalArgumentException("Unsupported compression algorithm: " + algorithm);
+            }
+        }
+        log.info("Response compression enabled with: {}", algorithms);
+        return options.toArray(CompressionOptions[]::new);
+    }
+
+    /**
+     * Reactor Netty writes the chunks of a streamed body as plain {@link ByteBuf}s, which
+     * {@link HttpContentCompressor} would pass through uncompressed after announcing a {@code Content-Encoding}.
+     * A response of an excluded content type is not encoded at all.
+     */
+    static class StreamingContentCompressor extends HttpContentCompressor {
+
+        private final List<MimeType> excludedMimeTypes;
+
+        StreamingContentCompressor(int contentSizeThreshold, List<MimeType> excludedMimeTypes,
+                                   CompressionOptions... compressionOptions) {
+            super(contentSizeThreshold, compressionOptions);
+            this.excludedMimeTypes = excludedMimeTypes;
+        }
+
+        @Override
+        protected Result beginEncode(HttpResponse response, String acceptEncoding) throws Exception {
+            return isExcluded(response.headers().get(HttpHeaderNames.CONTENT_TYPE))
+                    ? null
+                    : super.beginEncode(response, acceptEncoding);
+        }
+
+        private boolean isExcluded(String contentType) {
+            if (contentType == null) {
+                return false;
+            }
+            try {
+                MimeType mimeType = MimeTypeUtils.parseMimeType(contentType);
+                return excludedMimeTypes.stream().anyMatch(excluded -> excluded.includes(mimeType));
+            } catch (InvalidMimeTypeException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            super.write(ctx, msg instanceof ByteBuf byteBuf ? new DefaultHttpContent(byteBuf) : msg, promise);
+        }
+
+    }
+
+}
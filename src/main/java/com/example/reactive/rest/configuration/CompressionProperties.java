@@ -0,0 +1,32 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "rest.compression")
+public class CompressionProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Responses with a known smaller length are sent uncompressed.
+     */
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+
+    /**
+     * Supported content codings, the client's {@code Accept-Encoding} picks among them.
+     * {@code br} and {@code zstd} are skipped when their native library can not be loaded.
+     */
+    private List<String> algorithms = List.of("br", "zstd", "gzip", "deflate");
+
+    /**
+     * Content types sent uncompressed, their body is compressed already. Wildcards like {@code video/*} match too.
+     */
+    private List<String> excludedMimeTypes = List.of("image/png", "image/jpeg", "image/gif", "image/webp",
+            "video/*", "audio/*", "application/gzip", "application/zip");
+
+}
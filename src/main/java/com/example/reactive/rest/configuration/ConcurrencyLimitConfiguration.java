@@ -0,0 +1,28 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.limiter.AdaptiveConcurrencyLimiter;
+import com.example.reactive.rest.limiter.ConcurrencyLimitingRepositoryPostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "rest.concurrency-limit", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class ConcurrencyLimitConfiguration {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        return new AdaptiveConcurrencyLimiter(properties);
+    }
+
+    @Bean
+    public static ConcurrencyLimitingRepositoryPostProcessor concurrencyLimitingRepositoryPostProcessor(
+            ObjectProvider<AdaptiveConcurrencyLimiter> limiter) {
+        return new ConcurrencyLimitingRepositoryPostProcessor(limiter);
+    }
+
+}
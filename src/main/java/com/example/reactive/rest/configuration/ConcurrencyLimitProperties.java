@@ -0,0 +1,43 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "rest.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Database operations allowed in flight before any latency was observed.
+     */
+    private int initialLimit = 10;
+
+    private int minLimit = 2;
+
+    private int maxLimit = 100;
+
+    /**
+     * Operations waiting for a permit, the excess is rejected.
+     */
+    private int maxQueueSize = 200;
+
+    /**
+     * Time an operation waits for a permit before it is rejected.
+     */
+    private Duration maxQueueWait = Duration.ofSeconds(1);
+
+    /**
+     * Ratio of the short term to the long term latency accepted before the limit is decreased.
+     */
+    private double rttTolerance = 1.5;
+
+    /**
+     * Weight of a new limit estimate, lower values make the limit move slower.
+     */
+    private double smoothing = 0.2;
+
+}
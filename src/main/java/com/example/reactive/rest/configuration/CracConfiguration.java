@@ -0,0 +1,86 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.crac.CheckpointRestoreResource;
+import com.example.reactive.rest.crac.RestartableConnectionPool;
+import com.example.reactive.rest.idempotency.IdempotencyStore;
+import com.example.reactive.rest.stats.TaskStatisticsReconciler;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+
+/**
+ * Checkpoint/restore of a warmed up instance with CRaC, enabled in the process the checkpoint is taken from,
+ * see the {@code cracCheckpoint} task. Does nothing on a JDK without CRaC support.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "rest.crac", name = "enabled", havingValue = "true")
+public class CracConfiguration {
+
+    @Bean
+    public CheckpointRestoreResource checkpointRestoreResource(
+            ApplicationContext applicationContext, CacheManager cacheManager,
+            ObjectProvider<ConnectionFactory> connectionFactory, ObjectProvider<IdempotencyStore> idempotencyStore,
+            ObjectProvider<TaskStatisticsReconciler> statisticsReconciler) {
+        return new CheckpointRestoreResource(applicationContext, cacheManager, connectionFactory, idempotencyStore,
+                statisticsReconciler);
+    }
+
+    /**
+     * Ordered, so that the pool is made restartable before any other post processor wraps it.
+     */
+    @Bean
+    public static BeanPostProcessor restartableConnectionPoolPostProcessor(
+            ObjectProvider<R2dbcProperties> properties) {
+        return new RestartableConnectionPoolPostProcessor(properties);
+    }
+
+    @RequiredArgsConstructor
+    private static class RestartableConnectionPoolPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<R2dbcProperties> properties;
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof ConnectionPool pool)) {
+                return bean;
+            }
+            return new RestartableConnectionPool(pool, configuration(pool, properties.getObject().getPool()));
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        /**
+         * Same settings as the pool created by Spring Boot, over the same connection factory.
+         */
+        private static ConnectionPoolConfiguration configuration(ConnectionPool pool, R2dbcProperties.Pool settings) {
+            ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(pool.unwrap());
+            PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+            map.from(settings.getMaxIdleTime()).to(builder::maxIdleTime);
+            map.from(settings.getMaxLifeTime()).to(builder::maxLifeTime);
+            map.from(settings.getMaxAcquireTime()).to(builder::maxAcquireTime);
+            map.from(settings.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+            map.from(settings.getInitialSize()).to(builder::initialSize);
+            map.from(settings.getMaxSize()).to(builder::maxSize);
+            map.from(settings.getValidationQuery()).when(StringUtils::hasText).to(builder::validationQuery);
+            map.from(settings.getValidationDepth()).to(builder::validationDepth);
+            return builder.build();
+        }
+
+    }
+
+}
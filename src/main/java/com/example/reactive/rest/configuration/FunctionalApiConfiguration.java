@@ -0,0 +1,47 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.codec.PageStreamEncoder;
+import com.example.reactive.rest.controller.ProjectHandler;
+import com.example.reactive.rest.service.ProjectService;
+import com.example.reactive.rest.service.TaskService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Serves the projects API with {@link RouterFunction}s instead of the annotated controller
+ * when {@code rest.functional-api.enabled} is set.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "rest.functional-api", name = "enabled", havingValue = "true")
+public class FunctionalApiConfiguration {
+
+    @Bean
+    public ProjectHandler projectHandler(ProjectService projectService, TaskService taskService,
+                                         PageStreamEncoder pageStreamEncoder) {
+        return new ProjectHandler(projectService, taskService, pageStreamEncoder);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> projectRoutes(ProjectHandler handler) {
+        return route()
+                .path("/api/v1/projects", projects -> projects
+                        .GET("", handler::getAllProjects)
+                        .POST("", handler::createProject)
+                        .GET("/{id}", handler::getProject)
+                        .PUT("/{id}", handler::updateProject)
+                        .DELETE("/{id}", handler::deleteProject)
+                        .GET("/{projectId}/tasks", handler::getProjectTasks)
+                        .POST("/{projectId}/tasks", handler::createProjectTask)
+                        .POST("/{projectId}/tasks:move", handler::moveProjectTasks)
+                        .GET("/{projectId}/tasks/{taskId}", handler::getProjectTask)
+                        .PUT("/{projectId}/tasks/{taskId}", handler::updateProjectTask)
+                        .DELETE("/{projectId}/tasks/{taskId}", handler::deleteProjectTask))
+                .build();
+    }
+
+}
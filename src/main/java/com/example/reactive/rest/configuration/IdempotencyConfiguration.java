@@ -0,0 +1,56 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.filter.IdempotencyWebFilter;
+import com.example.reactive.rest.idempotency.DatabaseIdempotencyStore;
+import com.example.reactive.rest.idempotency.IdempotencyStore;
+import com.example.reactive.rest.idempotency.InMemoryIdempotencyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Clock;
+
+/**
+ * {@code Idempotency-Key} support of the POST endpoints. The store is selected with {@code rest.idempotency.store},
+ * any other {@link IdempotencyStore} bean replaces it.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "rest.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public IdempotencyStore idempotencyStore(IdempotencyProperties properties,
+                                             ObjectProvider<DatabaseClient> databaseClient,
+                                             MeterRegistry meterRegistry, Clock clock) {
+        if (properties.getStore() == IdempotencyProperties.Store.DATABASE) {
+            DatabaseClient client = databaseClient.getIfAvailable();
+            if (client == null) {
+                throw new IllegalStateException("The database idempotency store needs R2DBC, "
+                        + "it is not available with the jdbc profile");
+            }
+            return new DatabaseIdempotencyStore(client, properties.getTimeToLive(), properties.getPurgeInterval(),
+                    properties.getReservationTimeout(), clock);
+        }
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(properties.getMaxSize().toBytes(),
+                properties.getTimeToLive());
+        CaffeineCacheMetrics.monitor(meterRegistry, store.getNativeCache(), "idempotency");
+        return store;
+    }
+
+    @Bean
+    public IdempotencyWebFilter idempotencyWebFilter(IdempotencyStore idempotencyStore,
+                                                     IdempotencyProperties properties) {
+        return new IdempotencyWebFilter(idempotencyStore, properties.getClientKeyHeader(),
+                (int) properties.getMaxEntrySize().toBytes(), (int) properties.getMaxRequestSize().toBytes(),
+                properties.getInFlightTimeout());
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "rest.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Where the responses are stored: {@code memory} for a single node, {@code database} to share them
+     * between nodes through the {@code idempotency_key} table.
+     */
+    private Store store = Store.MEMORY;
+
+    /**
+     * Header identifying the client, keys of different clients never collide.
+     */
+    private String clientKeyHeader = "X-API-Key";
+
+    /**
+     * Total size of the responses stored in memory.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(16);
+
+    /**
+     * Larger responses are written as usual but not stored, their retries run again.
+     */
+    private DataSize maxEntrySize = DataSize.ofKilobytes(64);
+
+    /**
+     * Larger request bodies, read in memory for their fingerprint, are rejected with 413.
+     */
+    private DataSize maxRequestSize = DataSize.ofKilobytes(256);
+
+    /**
+     * How long a key is remembered, retries must arrive within it.
+     */
+    private Duration timeToLive = Duration.ofHours(24);
+
+    /**
+     * How long a retry waits for the running request with its key before being rejected with 409.
+     */
+    private Duration inFlightTimeout = Duration.ofSeconds(30);
+
+    /**
+     * How long a request may hold its key in the database, after which it is considered abandoned, e.g. by a node
+     * that stopped, and its key can be reserved again.
+     */
+    private Duration reservationTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Interval between two purges of the expired keys in the database.
+     */
+    private Duration purgeInterval = Duration.ofHours(1);
+
+    public enum Store {
+        MEMORY, DATABASE
+    }
+
+}
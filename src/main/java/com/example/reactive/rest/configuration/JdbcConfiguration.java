@@ -0,0 +1,51 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * JDBC execution mode, selected with the {@code jdbc} profile: R2DBC is switched off in
+ * {@code application-jdbc.yml} and the repositories in {@code repository.jdbc} run blocking statements
+ * against a Hikari pool on the {@code jdbcScheduler}.
+ * On Java 21 and later the scheduler runs every statement on its own virtual thread, before that it falls back
+ * to a bounded elastic scheduler.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@Profile("jdbc")
+public class JdbcConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(@Value("${rest.jdbc.virtual-threads:true}") boolean virtualThreads) {
+        if (virtualThreads) {
+            ExecutorService executor = virtualThreadExecutor();
+            if (executor != null) {
+                log.info("JDBC statements run on virtual threads");
+                return Schedulers.fromExecutorService(executor, "jdbc-virtual");
+            }
+            log.warn("Virtual threads need Java 21, JDBC statements run on a bounded elastic scheduler");
+        }
+        return Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "jdbc");
+    }
+
+    /**
+     * Looked up reflectively, the project is compiled for Java 17.
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+}
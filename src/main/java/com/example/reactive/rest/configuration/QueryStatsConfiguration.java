@@ -0,0 +1,34 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.query.QueryEndpoint;
+import com.example.reactive.rest.query.QueryStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Statement timings of the {@code DatabaseClient}, shards have clients of their own and are not timed.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!jdbc")
+@EnableConfigurationProperties(QueryStatsProperties.class)
+@ConditionalOnProperty(prefix = "rest.query-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatsConfiguration {
+
+    @Bean
+    public QueryStatistics queryStatistics(QueryStatsProperties properties, MeterRegistry meterRegistry,
+                                           ConnectionFactory connectionFactory) {
+        return new QueryStatistics(meterRegistry, connectionFactory, properties.getSlowThreshold(),
+                properties.getMaxShapes(), properties.isExplain());
+    }
+
+    @Bean
+    public QueryEndpoint queryEndpoint(QueryStatistics queryStatistics) {
+        return new QueryEndpoint(queryStatistics);
+    }
+
+}
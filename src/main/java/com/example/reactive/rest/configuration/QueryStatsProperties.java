@@ -0,0 +1,29 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "rest.query-stats")
+public class QueryStatsProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Statements taking longer are logged.
+     */
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    /**
+     * Statement shapes timed separately, the statements of further shapes are timed together.
+     */
+    private int maxShapes = 500;
+
+    /**
+     * Whether the plan of the first slow statement of each shape is captured with {@code EXPLAIN}.
+     */
+    private boolean explain = true;
+
+}
@@ -1,18 +1,31 @@
 package com.example.reactive.rest.configuration;
 
+import com.example.reactive.rest.r2dbc.ListeningConnectionFactory;
+import com.example.reactive.rest.r2dbc.StatementListener;
 import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
 import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
 import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
 
-@Configuration
+import java.util.List;
+
+@Configuration(proxyBeanMethods = false)
+@Profile("!jdbc")
 @EnableR2dbcAuditing
 public class R2DBCConfiguration {
 
+    /**
+     * Never lazy, nothing else would trigger the schema population with {@code spring.main.lazy-initialization}.
+     */
     @Bean
+    @Lazy(false)
     public ConnectionFactoryInitializer initializer(ConnectionFactory connectionFactory) {
         ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
         initializer.setConnectionFactory(connectionFactory);
@@ -20,4 +33,20 @@ public class R2DBCConfiguration {
         return initializer;
     }
 
+    /**
+     * Replaces the client of Spring Boot to pass its statements to the {@link StatementListener}s, the connection
+     * factory bean itself stays untouched. Transactions must be managed on
+     * {@link DatabaseClient#getConnectionFactory()} to share connections with the client.
+     */
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory,
+                                         ObjectProvider<StatementListener> statementListeners) {
+        List<StatementListener> listeners = statementListeners.orderedStream().toList();
+        return DatabaseClient.builder()
+                .connectionFactory(listeners.isEmpty()
+                        ? connectionFactory
+                        : new ListeningConnectionFactory(connectionFactory, listeners))
+                .build();
+    }
+
 }
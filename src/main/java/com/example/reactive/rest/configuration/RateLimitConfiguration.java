@@ -0,0 +1,20 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.filter.RateLimitingWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "rest.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfiguration {
+
+    @Bean
+    public RateLimitingWebFilter rateLimitingWebFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        return new RateLimitingWebFilter(properties, meterRegistry);
+    }
+
+}
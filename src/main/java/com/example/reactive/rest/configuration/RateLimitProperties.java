@@ -0,0 +1,54 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "rest.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Header of the API key identifying the client, the remote address is used when it is absent or unknown.
+     */
+    private String clientKeyHeader = "X-API-Key";
+
+    /**
+     * API keys of the known clients, each gets its own bucket. The header isn't authenticated otherwise: a client
+     * sending a new key per request would get a full bucket each time.
+     */
+    private Set<String> apiKeys = new LinkedHashSet<>();
+
+    /**
+     * Burst size of a client bucket, in tokens.
+     */
+    private int capacity = 100;
+
+    /**
+     * Tokens given back to a client bucket per second.
+     */
+    private int refillPerSecond = 50;
+
+    /**
+     * Page size paid for by one token, {@code ?size=500} costs 10 tokens with the default.
+     */
+    private int pageSizePerToken = 50;
+
+    private int maxClients = 10_000;
+
+    /**
+     * Buckets of clients idle for longer are dropped, they would be full again anyway.
+     */
+    private Duration clientIdleTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Requests processed at the same time by the whole server, the excess is shed with 503.
+     */
+    private int maxConcurrentRequests = 64;
+
+}
@@ -0,0 +1,38 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "rest.replicas")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * R2DBC URLs of the read replicas, e.g. {@code r2dbc:pool:postgresql://replica-1/rest}.
+     */
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * Time a replica is skipped after it failed to hand out a connection.
+     */
+    private Duration ejectionTime = Duration.ofSeconds(30);
+
+    /**
+     * Time the reads of a client stay on the primary after it wrote, should exceed the replication lag.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(2);
+
+    /**
+     * Header identifying the client, the remote address is used when it is absent.
+     */
+    private String clientKeyHeader = "X-API-Key";
+
+    private int maxClients = 10_000;
+
+}
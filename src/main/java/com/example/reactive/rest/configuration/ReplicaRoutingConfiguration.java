@@ -0,0 +1,82 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.filter.ReadYourWritesWebFilter;
+import com.example.reactive.rest.routing.ReadOnly;
+import com.example.reactive.rest.routing.ReadOnlyRoutingInterceptor;
+import com.example.reactive.rest.routing.ReadYourWritesTracker;
+import com.example.reactive.rest.routing.ReplicaRoutingConnectionFactory;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+/**
+ * Read/write splitting: the auto-configured {@link ConnectionFactory} becomes the primary of a
+ * {@link ReplicaRoutingConnectionFactory}, which serves the {@link ReadOnly} service methods from the replicas.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(prefix = "rest.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaProperties properties) {
+        return new ReadYourWritesTracker(properties.getReadYourWritesWindow(), properties.getMaxClients());
+    }
+
+    @Bean
+    public ReadYourWritesWebFilter readYourWritesWebFilter(ReadYourWritesTracker readYourWritesTracker,
+                                                           ReplicaProperties properties) {
+        return new ReadYourWritesWebFilter(readYourWritesTracker, properties.getClientKeyHeader());
+    }
+
+    /**
+     * Outside the cache advisor, so that the cache keeps the very value the service returned, see
+     * {@code RecoverableMono}.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor readOnlyRoutingAdvisor() {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ReadOnly.class), new ReadOnlyRoutingInterceptor());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return advisor;
+    }
+
+    @Bean
+    public static BeanPostProcessor replicaRoutingConnectionFactoryPostProcessor(
+            ObjectProvider<ReplicaProperties> properties, ObjectProvider<ReadYourWritesTracker> tracker) {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof ConnectionFactory primary) || bean instanceof ReplicaRoutingConnectionFactory) {
+                    return bean;
+                }
+                ReplicaProperties replicaProperties = properties.getObject();
+                List<ConnectionFactory> replicas = replicaProperties.getUrls().stream()
+                        .map(ConnectionFactories::get)
+                        .toList();
+                log.info("Routing read-only queries of '{}' to {} replicas", beanName, replicas.size());
+                return new ReplicaRoutingConnectionFactory(primary, replicas, tracker.getObject(),
+                        replicaProperties.getEjectionTime());
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.resilience.CircuitBreaker;
+import com.example.reactive.rest.resilience.ResilientRepositoryPostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ResilienceProperties.class)
+@ConditionalOnProperty(prefix = "rest.resilience", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResilienceConfiguration {
+
+    @Bean
+    public CircuitBreaker circuitBreaker(ResilienceProperties properties) {
+        return new CircuitBreaker(properties);
+    }
+
+    @Bean
+    public static ResilientRepositoryPostProcessor resilientRepositoryPostProcessor(
+            ObjectProvider<CircuitBreaker> circuitBreaker, ObjectProvider<ResilienceProperties> properties) {
+        return new ResilientRepositoryPostProcessor(circuitBreaker, properties);
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "rest.resilience")
+public class ResilienceProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Time a repository operation may take, including its wait for a permit, between two elements for a stream.
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /**
+     * Latest operations whose outcomes the circuit breaker keeps.
+     */
+    private int slidingWindowSize = 20;
+
+    /**
+     * Outcomes needed before the failure rate may open the circuit.
+     */
+    private int minimumCalls = 10;
+
+    private double failureRateThreshold = 0.5;
+
+    /**
+     * Time the circuit stays open before operations are tried again.
+     */
+    private Duration openDuration = Duration.ofSeconds(10);
+
+    /**
+     * Operations tried while half open, the circuit closes when they all succeed.
+     */
+    private int halfOpenCalls = 3;
+
+}
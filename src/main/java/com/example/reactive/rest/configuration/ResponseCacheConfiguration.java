@@ -0,0 +1,31 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.cache.ResponseCache;
+import com.example.reactive.rest.filter.ResponseCacheWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnProperty(prefix = "rest.response-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfiguration {
+
+    @Bean
+    public ResponseCache responseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        ResponseCache responseCache = new ResponseCache(properties.getMaxSize().toBytes(),
+                properties.getTimeToLive());
+        CaffeineCacheMetrics.monitor(meterRegistry, responseCache.getNativeCache(), "responses");
+        return responseCache;
+    }
+
+    @Bean
+    public ResponseCacheWebFilter responseCacheWebFilter(ResponseCache responseCache,
+                                                         ResponseCacheProperties properties) {
+        return new ResponseCacheWebFilter(responseCache, (int) properties.getMaxEntrySize().toBytes());
+    }
+
+}
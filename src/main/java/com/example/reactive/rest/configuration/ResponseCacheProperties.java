@@ -0,0 +1,27 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "rest.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Total size of the cached response bodies, kept off-heap.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Larger responses are written as usual but not cached.
+     */
+    private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+}
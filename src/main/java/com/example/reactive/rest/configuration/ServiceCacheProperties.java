@@ -0,0 +1,22 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "rest.service-cache")
+public class ServiceCacheProperties {
+
+    /**
+     * Time the values of the service caches are fresh, they are kept until evicted when not set.
+     */
+    private Duration timeToLive;
+
+    /**
+     * Time expired values are kept to be served, marked as stale, while the database is unavailable.
+     */
+    private Duration staleIfError = Duration.ZERO;
+
+}
@@ -0,0 +1,72 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.sharding.ConsistentHashRing;
+import com.example.reactive.rest.sharding.ShardDirectory;
+import com.example.reactive.rest.sharding.ShardEndpoint;
+import com.example.reactive.rest.sharding.ShardedTaskRepository;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Horizontal sharding of the {@code task} table by project id. Projects, the task id sequence and the shard
+ * directory stay on the primary database, the {@link ShardedTaskRepository} replaces the R2DBC
+ * {@code TaskRepository} for the services.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "rest.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    @Bean
+    public ShardDirectory shardDirectory(ShardingProperties properties, DatabaseClient databaseClient,
+                                         ConnectionFactoryInitializer initializer, Clock clock) {
+        ShardDirectory directory = new ShardDirectory(
+                new ConsistentHashRing(properties.getShards().size(), properties.getVirtualNodes()),
+                databaseClient, properties.getDirectoryRefreshInterval(), properties.getRelocationTimeout(), clock);
+        directory.load().block();
+        return directory;
+    }
+
+    @Bean
+    @Primary
+    public ShardedTaskRepository shardedTaskRepository(ShardingProperties properties, ShardDirectory directory,
+                                                       DatabaseClient databaseClient, R2dbcConverter converter) {
+        List<R2dbcEntityTemplate> shards = properties.getShards().stream()
+                .map(url -> shardTemplate(ConnectionFactories.get(url), converter,
+                        properties.isInitializeSchema()))
+                .toList();
+        return new ShardedTaskRepository(shards, directory, databaseClient);
+    }
+
+    @Bean
+    public ShardEndpoint shardEndpoint(ShardDirectory directory, ShardedTaskRepository taskRepository) {
+        return new ShardEndpoint(directory, taskRepository);
+    }
+
+    private static R2dbcEntityTemplate shardTemplate(ConnectionFactory connectionFactory, R2dbcConverter converter,
+                                                     boolean initializeSchema) {
+        if (initializeSchema) {
+            new ResourceDatabasePopulator(new ClassPathResource("schema-task-shard.sql"))
+                    .populate(connectionFactory)
+                    .block();
+        }
+        return new R2dbcEntityTemplate(DatabaseClient.create(connectionFactory),
+                DialectResolver.getDialect(connectionFactory), converter);
+    }
+
+}
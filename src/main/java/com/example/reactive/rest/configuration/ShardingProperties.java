@@ -0,0 +1,42 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "rest.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * R2DBC URLs of the task shards, the order defines the shard numbers and must not change.
+     */
+    private List<String> shards = new ArrayList<>();
+
+    /**
+     * Points of every shard on the consistent hash ring, more points spread projects more evenly.
+     */
+    private int virtualNodes = 160;
+
+    /**
+     * Creates the {@code task} table on every shard at startup.
+     */
+    private boolean initializeSchema = true;
+
+    /**
+     * Time after which the reads of every node follow a relocation, the directory is refreshed that often.
+     */
+    private Duration directoryRefreshInterval = Duration.ofSeconds(1);
+
+    /**
+     * Time after which an unfinished relocation, e.g. of a node that crashed, no longer blocks the writes to its
+     * project and may be started again.
+     */
+    private Duration relocationTimeout = Duration.ofMinutes(10);
+
+}
@@ -0,0 +1,28 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.repository.TaskRepository;
+import com.example.reactive.rest.stats.TaskStatistics;
+import com.example.reactive.rest.stats.TaskStatisticsReconciler;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(StatsProperties.class)
+public class StatsConfiguration {
+
+    @Bean
+    public TaskStatistics taskStatistics(StatsProperties properties, Clock clock) {
+        return new TaskStatistics(properties.getHistogramRetention(), clock);
+    }
+
+    @Bean
+    public TaskStatisticsReconciler taskStatisticsReconciler(TaskRepository taskRepository,
+                                                             TaskStatistics taskStatistics,
+                                                             StatsProperties properties) {
+        return new TaskStatisticsReconciler(taskRepository, taskStatistics, properties.getReconcileInterval());
+    }
+
+}
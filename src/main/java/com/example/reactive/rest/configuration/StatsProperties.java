@@ -0,0 +1,22 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "rest.stats")
+public class StatsProperties {
+
+    /**
+     * Period covered by the hourly task creation histograms.
+     */
+    private Duration histogramRetention = Duration.ofDays(2);
+
+    /**
+     * How often the in-memory statistics are replaced with aggregates computed by the database.
+     */
+    private Duration reconcileInterval = Duration.ofMinutes(5);
+
+}
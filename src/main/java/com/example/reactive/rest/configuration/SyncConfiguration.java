@@ -0,0 +1,31 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.repository.ProjectRepository;
+import com.example.reactive.rest.repository.TaskRepository;
+import com.example.reactive.rest.sync.SyncService;
+import com.example.reactive.rest.sync.TombstoneCompactor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SyncProperties.class)
+public class SyncConfiguration {
+
+    @Bean
+    public SyncService syncService(ProjectRepository projectRepository, TaskRepository taskRepository,
+                                   SyncProperties properties, Clock clock) {
+        return new SyncService(projectRepository, taskRepository, properties.getOverlap(),
+                properties.getTombstoneRetention(), properties.getPageSize(), clock);
+    }
+
+    @Bean
+    public TombstoneCompactor tombstoneCompactor(ProjectRepository projectRepository, TaskRepository taskRepository,
+                                                 SyncProperties properties, Clock clock) {
+        return new TombstoneCompactor(projectRepository, taskRepository, properties.getTombstoneRetention(),
+                properties.getCompactionInterval(), clock);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "rest.sync")
+public class SyncProperties {
+
+    /**
+     * How far before its token a sync reads again, must exceed the longest write transaction.
+     */
+    private Duration overlap = Duration.ofSeconds(5);
+
+    /**
+     * How many records a full sync returns per response, the token of a response continues the full sync.
+     */
+    private int pageSize = 1000;
+
+    /**
+     * How long deletions are kept as tombstones, older sync tokens require a full sync.
+     */
+    private Duration tombstoneRetention = Duration.ofDays(30);
+
+    /**
+     * How often the tombstones older than the retention are removed.
+     */
+    private Duration compactionInterval = Duration.ofHours(1);
+
+}
@@ -0,0 +1,85 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.filter.TenantWebFilter;
+import com.example.reactive.rest.tenant.TenantQuotaRepositoryPostProcessor;
+import com.example.reactive.rest.tenant.TenantQuotas;
+import com.example.reactive.rest.tenant.TenantScoped;
+import com.example.reactive.rest.tenant.TenantScopingInterceptor;
+import io.micrometer.common.KeyValues;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationConvention;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Multi-tenancy: the tenant of a request scopes the {@link TenantScoped} services to its rows and to its partition
+ * of the service caches, and bounds its database operations in flight.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(TenancyProperties.class)
+@ConditionalOnProperty(prefix = "rest.tenancy", name = "enabled", havingValue = "true")
+public class TenancyConfiguration {
+
+    private static final String TENANT_KEY = "tenant";
+
+    @Bean
+    public TenantWebFilter tenantWebFilter(TenancyProperties properties) {
+        return new TenantWebFilter(properties.getHeader(), properties.allTenants().keySet());
+    }
+
+    @Bean
+    public TenantQuotas tenantQuotas(TenancyProperties properties) {
+        Map<String, Integer> maxConcurrency = new LinkedHashMap<>();
+        properties.allTenants().forEach((tenantId, tenant) -> maxConcurrency.put(tenantId, tenant.getMaxConcurrency()));
+        return new TenantQuotas(maxConcurrency);
+    }
+
+    @Bean
+    public static TenantQuotaRepositoryPostProcessor tenantQuotaRepositoryPostProcessor(
+            ObjectProvider<TenantQuotas> quotas) {
+        return new TenantQuotaRepositoryPostProcessor(quotas);
+    }
+
+    /**
+     * Outermost, so the cache lookups of the scoped services already see the tenant.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor tenantScopingAdvisor() {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                new AnnotationMatchingPointcut(TenantScoped.class, true), new TenantScopingInterceptor());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    /**
+     * Tags the request metrics with the tenant, only configured tenants are accepted so the tag stays bounded.
+     */
+    @Bean
+    public ServerRequestObservationConvention tenantServerRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object tenantId = context.getAttributes().get(TenantWebFilter.TENANT_ATTRIBUTE);
+                return super.getLowCardinalityKeyValues(context)
+                        .and(TENANT_KEY, tenantId != null ? tenantId.toString() : "none");
+            }
+
+        };
+    }
+
+}
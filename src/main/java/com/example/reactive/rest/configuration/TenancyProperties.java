@@ -0,0 +1,55 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.tenant.TenantContext;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "rest.tenancy")
+public class TenancyProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Header of the tenant id, requests without it belong to the default tenant.
+     */
+    private String header = "X-Tenant-Id";
+
+    /**
+     * Entries of each service cache, partitioned between the tenants in proportion of their weights.
+     */
+    private long cacheSize = 10_000;
+
+    /**
+     * The known tenants, requests of any other one are rejected. The default tenant is always known.
+     */
+    private Map<String, Tenant> tenants = new LinkedHashMap<>();
+
+    /**
+     * The tenants, with the default one when it isn't configured.
+     */
+    public Map<String, Tenant> allTenants() {
+        Map<String, Tenant> all = new LinkedHashMap<>(tenants);
+        all.putIfAbsent(TenantContext.DEFAULT_TENANT, new Tenant());
+        return all;
+    }
+
+    @Data
+    public static class Tenant {
+
+        /**
+         * Share of the service caches.
+         */
+        private int weight = 1;
+
+        /**
+         * Database operations of the tenant allowed in flight, the excess is rejected.
+         */
+        private int maxConcurrency = 20;
+
+    }
+
+}
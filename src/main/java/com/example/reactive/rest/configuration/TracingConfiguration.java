@@ -0,0 +1,59 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.tracing.ObservedBeanPostProcessor;
+import com.example.reactive.rest.tracing.SpanRecorder;
+import com.example.reactive.rest.tracing.TraceEndpoint;
+import com.example.reactive.rest.tracing.TraceStore;
+import com.example.reactive.rest.tracing.Tracer;
+import com.example.reactive.rest.tracing.TracingStatementListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Sampled request traces: the {@link SpanRecorder} is registered with the observation registry of Spring Boot,
+ * which observes every request, and spans are added for {@code @Observed} beans and R2DBC statements.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(TracingProperties.class)
+@ConditionalOnProperty(prefix = "rest.tracing", name = "enabled", havingValue = "true")
+public class TracingConfiguration {
+
+    @Bean
+    public TraceStore traceStore(TracingProperties properties) {
+        return new TraceStore(properties.getMaxTraces(), properties.getMaxSpansPerTrace(), properties.getRetention());
+    }
+
+    @Bean
+    public SpanRecorder spanRecorder(TracingProperties properties, TraceStore traceStore) {
+        return new SpanRecorder(properties.getSamplingProbability(), traceStore);
+    }
+
+    @Bean
+    public Tracer tracer(SpanRecorder spanRecorder) {
+        return new Tracer(spanRecorder);
+    }
+
+    @Bean
+    public TraceEndpoint traceEndpoint(TraceStore traceStore) {
+        return new TraceEndpoint(traceStore);
+    }
+
+    @Bean
+    public static ObservedBeanPostProcessor observedBeanPostProcessor(ObjectProvider<Tracer> tracer) {
+        return new ObservedBeanPostProcessor(tracer);
+    }
+
+    /**
+     * Statements of the {@code DatabaseClient}, shards have clients of their own and are not traced.
+     */
+    @Bean
+    @Profile("!jdbc")
+    public TracingStatementListener tracingStatementListener(Tracer tracer) {
+        return new TracingStatementListener(tracer);
+    }
+
+}
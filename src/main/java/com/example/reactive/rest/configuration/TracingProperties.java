@@ -0,0 +1,31 @@
+package com.example.reactive.rest.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "rest.tracing")
+public class TracingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Share of requests traced, decided when a request starts for all of its spans.
+     */
+    private double samplingProbability = 0.01;
+
+    /**
+     * Traces kept in memory for {@code /actuator/traces}.
+     */
+    private int maxTraces = 1000;
+
+    /**
+     * Spans kept per trace, a long stream runs a statement per page.
+     */
+    private int maxSpansPerTrace = 500;
+
+    private Duration retention = Duration.ofHours(1);
+
+}
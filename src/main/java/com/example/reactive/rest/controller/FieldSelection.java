@@ -0,0 +1,57 @@
+package com.example.reactive.rest.controller;
+
+import com.example.reactive.rest.model.EntityField;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parsed {@code fields} request parameter, e.g. {@code ?fields=id,name}.
+ * Only whitelisted fields are accepted, the id column is always selected because links are built from it.
+ *
+ * @param fields requested fields in request order
+ * @param <T>    entity type
+ */
+record FieldSelection<T>(List<EntityField<T>> fields) {
+
+    private static final String ID_COLUMN = "id";
+
+    static <T, F extends Enum<F> & EntityField<T>> FieldSelection<T> parse(String fields, Class<F> type) {
+        List<EntityField<T>> allFields = List.of(type.getEnumConstants());
+        if (fields == null || fields.isBlank()) {
+            return new FieldSelection<>(allFields);
+        }
+        Set<EntityField<T>> selected = new LinkedHashSet<>();
+        for (String property : fields.split(",")) {
+            String trimmed = property.trim();
+            selected.add(allFields.stream()
+                    .filter(field -> field.getProperty().equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Unknown field '%s', supported fields: %s".formatted(trimmed, Arrays.stream(
+                                    type.getEnumConstants()).map(EntityField::getProperty).toList()))));
+        }
+        return new FieldSelection<>(List.copyOf(selected));
+    }
+
+    List<String> columns() {
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add(ID_COLUMN);
+        fields.forEach(field -> columns.add(field.getColumn()));
+        return new ArrayList<>(columns);
+    }
+
+    Map<String, Object> toMap(T entity) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        fields.forEach(field -> values.put(field.getProperty(), field.valueOf(entity)));
+        return values;
+    }
+
+}
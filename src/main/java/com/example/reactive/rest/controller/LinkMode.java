@@ -0,0 +1,27 @@
+package com.example.reactive.rest.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Parsed {@code links} request parameter: which links are rendered for every element of a page.
+ */
+enum LinkMode {
+
+    ALL,
+    SELF,
+    NONE;
+
+    private static final LinkMode[] MODES = values();
+
+    static LinkMode parse(String links) {
+        for (LinkMode mode : MODES) {
+            if (mode.name().equalsIgnoreCase(links)) {
+                return mode;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Unknown links mode '%s', supported modes: all, self, none".formatted(links));
+    }
+
+}
@@ -1,17 +1,29 @@
 package com.example.reactive.rest.controller;
 
+import com.example.reactive.rest.codec.PageStreamEncoder;
 import com.example.reactive.rest.dto.ProjectCreationDto;
 import com.example.reactive.rest.dto.TaskCreationDto;
+import com.example.reactive.rest.dto.TaskMoveDto;
+import com.example.reactive.rest.dto.TaskMoveResultDto;
 import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.ProjectField;
 import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TaskField;
+import com.example.reactive.rest.model.TimeFilter;
 import com.example.reactive.rest.service.ProjectService;
 import com.example.reactive.rest.service.TaskService;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -22,41 +34,107 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.net.URI;
-import java.util.function.Function;
+import java.util.List;
+import java.util.Map;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import static com.example.reactive.rest.controller.ProjectModels.*;
 
 
+@Observed(name = "rest.controller")
 @RestController
 @RequestMapping("api/v1/projects")
+@ConditionalOnProperty(prefix = "rest.functional-api", name = "enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 public class ProjectController {
 
-    private static final int DEFAULT_PAGE = 0;
-
-    private static final int DEFAULT_PAGE_SIZE = 5;
-
     private final ProjectService projectService;
 
     private final TaskService taskService;
 
+    private final PageStreamEncoder pageStreamEncoder;
+
+    /**
+     * Lists projects, optionally sorted by an indexed property and restricted by their audited times:
+     * {@code modifiedSince} is an ISO date time, {@code createdBetween} a {@code from,to} range with optional bounds.
+     */
     @GetMapping
     public Mono<Page<EntityModel<Project>>> getAllProjects(
             @RequestParam(name = "page", defaultValue = "0") Integer page,
-            @RequestParam(name = "size", defaultValue = "5") Integer size) {
-        return projectService.getAllProjects(PageRequest.of(page, size))
-                .flatMap(projects -> Mono.just(projects.map(projectToEntityModel(page, size))));
+            @RequestParam(name = "size", defaultValue = "5") Integer size,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "modifiedSince", required = false) String modifiedSince,
+            @RequestParam(name = "createdBetween", required = false) String createdBetween) {
+        PageRequest pageable = pageRequest(page, size, MAX_PAGE_SIZE, sort(sort));
+        TimeFilter filter = timeFilter(modifiedSince, createdBetween);
+        Mono<PageImpl<Project>> projects = filter.isEmpty()
+                ? projectService.getAllProjects(pageable)
+                : projectService.getAllProjects(pageable, List.of(), filter);
+        return projects.map(projectPage -> projectPage.map(projectToEntityModel(page, size)));
+    }
+
+    /**
+     * Sparse variant of {@link #getAllProjects}: selects only the requested columns
+     * and renders plain maps instead of {@link EntityModel} wrappers.
+     */
+    @GetMapping(params = "fields")
+    public Mono<Page<Map<String, Object>>> getAllProjectsFields(
+            @RequestParam(name = "page", defaultValue = "0") Integer page,
+            @RequestParam(name = "size", defaultValue = "5") Integer size,
+            @RequestParam(name = "fields") String fields,
+            @RequestParam(name = "links", defaultValue = "all") String links,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "modifiedSince", required = false) String modifiedSince,
+            @RequestParam(name = "createdBetween", required = false) String createdBetween) {
+        FieldSelection<Project> selection = FieldSelection.parse(fields, ProjectField.class);
+        LinkMode linkMode = LinkMode.parse(links);
+        PageRequest pageable = pageRequest(page, size, MAX_PAGE_SIZE, sort(sort));
+        TimeFilter filter = timeFilter(modifiedSince, createdBetween);
+        Mono<PageImpl<Project>> projects = filter.isEmpty()
+                ? projectService.getAllProjects(pageable, selection.columns())
+                : projectService.getAllProjects(pageable, selection.columns(), filter);
+        return projects.map(projectPage -> projectPage.map(projectToMap(selection, linkMode, page, size)));
+    }
+
+    @GetMapping(params = {"links", "!fields"})
+    public Mono<Page<Map<String, Object>>> getAllProjectsLinks(
+            @RequestParam(name = "page", defaultValue = "0") Integer page,
+            @RequestParam(name = "size", defaultValue = "5") Integer size,
+            @RequestParam(name = "links") String links,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "modifiedSince", required = false) String modifiedSince,
+            @RequestParam(name = "createdBetween", required = false) String createdBetween) {
+        return getAllProjectsFields(page, size, null, links, sort, modifiedSince, createdBetween);
+    }
+
+    /**
+     * Streaming variant of {@link #getAllProjects} for large pages: the JSON page is written
+     * while the projects are read, without materializing it, and is not cached.
+     */
+    @GetMapping(params = {"stream=true", "!fields", "!links"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DataBuffer> streamAllProjects(
+            @RequestParam(name = "page", defaultValue = "0") Integer page,
+            @RequestParam(name = "size", defaultValue = "5") Integer size,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "modifiedSince", required = false) String modifiedSince,
+            @RequestParam(name = "createdBetween", required = false) String createdBetween,
+            ServerHttpResponse response) {
+        PageRequest pageable = pageRequest(page, size, MAX_STREAMED_PAGE_SIZE, sort(sort));
+        TimeFilter filter = timeFilter(modifiedSince, createdBetween);
+        Flux<Project> projects = filter.isEmpty()
+                ? projectService.streamProjects(pageable)
+                : projectService.streamProjects(pageable, filter);
+        Mono<Long> count = filter.isEmpty() ? projectService.countProjects() : projectService.countProjects(filter);
+        return pageStreamEncoder.encode(projects.map(projectToEntityModel(page, size)), count, pageable,
+                response.bufferFactory());
     }
 
     @GetMapping("{id}")
     public Mono<ResponseEntity<EntityModel<Project>>> getProject(@PathVariable(name = "id") Long id) {
         return projectService.findById(id)
-                .flatMap(project -> Mono.just(projectToEntityModel().apply(project)))
-                .flatMap(projectEntityModel -> Mono.just(ResponseEntity.ok(projectEntityModel)))
+                .map(project -> ResponseEntity.ok(PROJECT_TO_ENTITY_MODEL.apply(project)))
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
@@ -64,9 +142,8 @@ public class ProjectController {
     public Mono<ResponseEntity<EntityModel<Project>>> createProject(
             @RequestBody ProjectCreationDto projectCreationDto) {
         return projectService.createProject(projectCreationDto)
-                .flatMap(project -> Mono.just(
-                        ResponseEntity.created(URI.create("api/v1/projects/" + project.getId()))
-                                .body(projectToEntityModel().apply(project))));
+                .map(project -> ResponseEntity.created(projectLocation(project.getId()))
+                        .body(PROJECT_TO_ENTITY_MODEL.apply(project)));
     }
 
     @PutMapping("{id}")
@@ -74,7 +151,7 @@ public class ProjectController {
             @RequestBody ProjectCreationDto projectCreationDto,
             @PathVariable(name = "id") Long id) {
         return projectService.updateProject(id, projectCreationDto)
-                .flatMap(project -> Mono.just(ResponseEntity.ok(projectToEntityModel().apply(project))));
+                .map(project -> ResponseEntity.ok(PROJECT_TO_ENTITY_MODEL.apply(project)));
     }
 
     @DeleteMapping("{id}")
@@ -83,13 +160,85 @@ public class ProjectController {
         return projectService.deleteProject(id);
     }
 
+    /**
+     * Lists the tasks of a project with the same sorting and time filters as {@link #getAllProjects}.
+     */
     @GetMapping("{projectId}/tasks")
     public Mono<Page<EntityModel<Task>>> getProjectTasks(
             @PathVariable(name = "projectId") Long projectId,
             @RequestParam(name = "page", defaultValue = "0") Integer page,
-            @RequestParam(name = "size", defaultValue = "5") Integer size) {
-        return taskService.getTasks(projectId, PageRequest.of(page, size))
-                .flatMap(tasks -> Mono.just(tasks.map(taskToEntityModel(page, size))));
+            @RequestParam(name = "size", defaultValue = "5") Integer size,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "modifiedSince", required = false) String modifiedSince,
+            @RequestParam(name = "createdBetween", required = false) String createdBetween) {
+        PageRequest pageable = pageRequest(page, size, MAX_PAGE_SIZE, sort(sort));
+        TimeFilter filter = timeFilter(modifiedSince, createdBetween);
+        Mono<PageImpl<Task>> tasks = filter.isEmpty()
+                ? taskService.getTasks(projectId, pageable)
+                : taskService.getTasks(projectId, pageable, List.of(), filter);
+        return tasks.map(taskPage -> taskPage.map(taskToEntityModel(page, size)));
+    }
+
+    /**
+     * Sparse variant of {@link #getProjectTasks}: selects only the requested columns
+     * and renders plain maps instead of {@link EntityModel} wrappers.
+     */
+    @GetMapping(value = "{projectId}/tasks", params = "fields")
+    public Mono<Page<Map<String, Object>>> getProjectTasksFields(
+            @PathVariable(name = "projectId") Long projectId,
+            @RequestParam(name = "page", defaultValue = "0") Integer page,
+            @RequestParam(name = "size", defaultValue = "5") Integer size,
+            @RequestParam(name = "fields") String fields,
+            @RequestParam(name = "links", defaultValue = "all") String links,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "modifiedSince", required = false) String modifiedSince,
+            @RequestParam(name = "createdBetween", required = false) String createdBetween) {
+        FieldSelection<Task> selection = FieldSelection.parse(fields, TaskField.class);
+        LinkMode linkMode = LinkMode.parse(links);
+        PageRequest pageable = pageRequest(page, size, MAX_PAGE_SIZE, sort(sort));
+        TimeFilter filter = timeFilter(modifiedSince, createdBetween);
+        Mono<PageImpl<Task>> tasks = filter.isEmpty()
+                ? taskService.getTasks(projectId, pageable, selection.columns())
+                : taskService.getTasks(projectId, pageable, selection.columns(), filter);
+        return tasks.map(taskPage -> taskPage.map(taskToMap(selection, projectId, linkMode, page, size)));
+    }
+
+    @GetMapping(value = "{projectId}/tasks", params = {"links", "!fields"})
+    public Mono<Page<Map<String, Object>>> getProjectTasksLinks(
+            @PathVariable(name = "projectId") Long projectId,
+            @RequestParam(name = "page", defaultValue = "0") Integer page,
+            @RequestParam(name = "size", defaultValue = "5") Integer size,
+            @RequestParam(name = "links") String links,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "modifiedSince", required = false) String modifiedSince,
+            @RequestParam(name = "createdBetween", required = false) String createdBetween) {
+        return getProjectTasksFields(projectId, page, size, null, links, sort, modifiedSince, createdBetween);
+    }
+
+    /**
+     * Streaming variant of {@link #getProjectTasks} for large pages: the JSON page is
+     * written while the tasks are read, without materializing it, and is not cached.
+     */
+    @GetMapping(value = "{projectId}/tasks", params = {"stream=true", "!fields", "!links"},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DataBuffer> streamProjectTasks(
+            @PathVariable(name = "projectId") Long projectId,
+            @RequestParam(name = "page", defaultValue = "0") Integer page,
+            @RequestParam(name = "size", defaultValue = "5") Integer size,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "modifiedSince", required = false) String modifiedSince,
+            @RequestParam(name = "createdBetween", required = false) String createdBetween,
+            ServerHttpResponse response) {
+        PageRequest pageable = pageRequest(page, size, MAX_STREAMED_PAGE_SIZE, sort(sort));
+        TimeFilter filter = timeFilter(modifiedSince, createdBetween);
+        Flux<Task> tasks = filter.isEmpty()
+                ? taskService.streamTasks(projectId, pageable)
+                : taskService.streamTasks(projectId, pageable, filter);
+        Mono<Long> count = filter.isEmpty()
+                ? taskService.countTasks(projectId)
+                : taskService.countTasks(projectId, filter);
+        return pageStreamEncoder.encode(tasks.map(taskToEntityModel(page, size)), count, pageable,
+                response.bufferFactory());
     }
 
     @GetMapping("{projectId}/tasks/{taskId}")
@@ -97,7 +246,7 @@ public class ProjectController {
             @PathVariable(name = "projectId") Long projectId,
             @PathVariable(name = "taskId") Long taskId) {
         return taskService.getTask(projectId, taskId)
-                .flatMap(task -> Mono.just(ResponseEntity.ok(taskToEntityModel().apply(task))))
+                .map(task -> ResponseEntity.ok(TASK_TO_ENTITY_MODEL.apply(task)))
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
@@ -106,12 +255,8 @@ public class ProjectController {
             @PathVariable(name = "projectId") Long projectId,
             @RequestBody TaskCreationDto taskCreationDto) {
         return taskService.createTask(projectId, taskCreationDto)
-                .flatMap(task -> Mono.just(
-                        ResponseEntity.created(
-                                        URI.create(
-                                                "api/v1/projects/%s/tasks/%s"
-                                                        .formatted(projectId, task.getId())))
-                                .body(taskToEntityModel().apply(task))))
+                .map(task -> ResponseEntity.created(taskLocation(projectId, task.getId()))
+                        .body(TASK_TO_ENTITY_MODEL.apply(task)))
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
@@ -121,7 +266,20 @@ public class ProjectController {
             @PathVariable(name = "taskId") Long taskId,
             @RequestBody TaskCreationDto taskCreationDto) {
         return taskService.updateTask(projectId, taskId, taskCreationDto)
-                .flatMap(task -> Mono.just(ResponseEntity.ok(taskToEntityModel().apply(task))))
+                .map(task -> ResponseEntity.ok(TASK_TO_ENTITY_MODEL.apply(task)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Moves tasks of the project to another one in a single set-based update, see {@link TaskMoveDto}.
+     */
+    @PostMapping("{projectId}/tasks:move")
+    public Mono<ResponseEntity<TaskMoveResultDto>> moveProjectTasks(
+            @PathVariable(name = "projectId") Long projectId,
+            @RequestBody TaskMoveDto taskMoveDto) {
+        TimeFilter filter = moveFilter(projectId, taskMoveDto);
+        return taskService.moveTasks(projectId, taskMoveDto.getTargetProjectId(), moveTaskIds(taskMoveDto), filter)
+                .map(moved -> ResponseEntity.ok(new TaskMoveResultDto(moved)))
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
@@ -133,33 +291,4 @@ public class ProjectController {
         return taskService.deleteTask(projectId, taskId);
     }
 
-    private static Function<Project, EntityModel<Project>> projectToEntityModel() {
-        return projectToEntityModel(DEFAULT_PAGE, DEFAULT_PAGE_SIZE);
-    }
-
-    private static Function<Task, EntityModel<Task>> taskToEntityModel() {
-        return taskToEntityModel(DEFAULT_PAGE, DEFAULT_PAGE_SIZE);
-    }
-
-    private static Function<Project, EntityModel<Project>> projectToEntityModel(Integer page, Integer size) {
-        return project -> EntityModel.of(project)
-                .add(linkTo(methodOn(ProjectController.class).getProject(project.getId()))
-                        .withSelfRel())
-                .add(linkTo(methodOn(ProjectController.class).getAllProjects(page, size))
-                        .withRel("projects"))
-                .add(linkTo(methodOn(ProjectController.class).getProjectTasks(
-                        project.getId(), page, size))
-                        .withRel("tasks"));
-    }
-
-    private static Function<Task, EntityModel<Task>> taskToEntityModel(Integer page, Integer size) {
-        return task -> EntityModel.of(task)
-                .add(linkTo(methodOn(ProjectController.class).getProjectTask(task.getProjectId(), task.getId()))
-                        .withSelfRel())
-                .add(linkTo(methodOn(ProjectController.class).getAllProjects(page, size))
-                        .withRel("projects"))
-                .add(linkTo(methodOn(ProjectController.class).getProjectTasks(task.getProjectId(), page, size))
-                        .withRel("tasks"));
-    }
-
 }
@@ -0,0 +1,273 @@
+package com.example.reactive.rest.controller;
+
+import com.example.reactive.rest.codec.PageStreamEncoder;
+import com.example.reactive.rest.dto.ProjectCreationDto;
+import com.example.reactive.rest.dto.TaskCreationDto;
+import com.example.reactive.rest.dto.TaskMoveDto;
+import com.example.reactive.rest.dto.TaskMoveResultDto;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.ProjectField;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TaskField;
+import com.example.reactive.rest.model.TimeFilter;
+import com.example.reactive.rest.service.ProjectService;
+import com.example.reactive.rest.service.TaskService;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.example.reactive.rest.controller.ProjectModels.*;
+
+/**
+ * Functional counterpart of {@link ProjectController}, routed by
+ * {@link com.example.reactive.rest.configuration.FunctionalApiConfiguration}. Path variables and query parameters
+ * are parsed by hand and responses are written without argument resolvers or return value handlers,
+ * the rendered documents are the same as the annotated ones.
+ */
+@Observed(name = "rest.controller")
+@RequiredArgsConstructor
+public class ProjectHandler {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private static final String PAGE = "page";
+
+    private static final String SIZE = "size";
+
+    private static final String FIELDS = "fields";
+
+    private static final String LINKS = "links";
+
+    private static final String STREAM = "stream";
+
+    private static final String SORT = "sort";
+
+    private static final String MODIFIED_SINCE = "modifiedSince";
+
+    private static final String CREATED_BETWEEN = "createdBetween";
+
+    private static final String ID = "id";
+
+    private static final String PROJECT_ID = "projectId";
+
+    private static final String TASK_ID = "taskId";
+
+    private final ProjectService projectService;
+
+    private final TaskService taskService;
+
+    private final PageStreamEncoder pageStreamEncoder;
+
+    public Mono<ServerResponse> getAllProjects(ServerRequest request) {
+        MultiValueMap<String, String> params = request.queryParams();
+        int page = intParam(params, PAGE, DEFAULT_PAGE);
+        int size = intParam(params, SIZE, DEFAULT_PAGE_SIZE);
+        String fields = params.getFirst(FIELDS);
+        String links = params.getFirst(LINKS);
+        Sort sort = sort(params);
+        TimeFilter filter = timeFilter(params.getFirst(MODIFIED_SINCE), params.getFirst(CREATED_BETWEEN));
+        if (fields != null || links != null) {
+            FieldSelection<Project> selection = FieldSelection.parse(fields, ProjectField.class);
+            LinkMode linkMode = LinkMode.parse(links != null ? links : LinkMode.ALL.name());
+            PageRequest pageable = pageRequest(page, size, MAX_PAGE_SIZE, sort);
+            Mono<PageImpl<Project>> projects = filter.isEmpty()
+                    ? projectService.getAllProjects(pageable, selection.columns())
+                    : projectService.getAllProjects(pageable, selection.columns(), filter);
+            return projects.map(projectPage -> projectPage.map(projectToMap(selection, linkMode, page, size)))
+                    .flatMap(projectPage -> ok(request, projectPage));
+        }
+        if (Boolean.parseBoolean(params.getFirst(STREAM))) {
+            PageRequest pageable = pageRequest(page, size, MAX_STREAMED_PAGE_SIZE, sort);
+            Flux<Project> projects = filter.isEmpty()
+                    ? projectService.streamProjects(pageable)
+                    : projectService.streamProjects(pageable, filter);
+            Mono<Long> count = filter.isEmpty() ? projectService.countProjects() : projectService.countProjects(filter);
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(BodyInserters.fromDataBuffers(pageStreamEncoder.encode(
+                            projects.map(projectToEntityModel(page, size)), count, pageable,
+                            request.exchange().getResponse().bufferFactory())));
+        }
+        PageRequest pageable = pageRequest(page, size, MAX_PAGE_SIZE, sort);
+        Mono<PageImpl<Project>> projects = filter.isEmpty()
+                ? projectService.getAllProjects(pageable)
+                : projectService.getAllProjects(pageable, List.of(), filter);
+        return projects.map(projectPage -> projectPage.map(projectToEntityModel(page, size)))
+                .flatMap(projectPage -> ok(request, projectPage));
+    }
+
+    public Mono<ServerResponse> getProject(ServerRequest request) {
+        return projectService.findById(longPathVariable(request, ID))
+                .flatMap(project -> ok(request, PROJECT_TO_ENTITY_MODEL.apply(project)))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> createProject(ServerRequest request) {
+        return body(request, ProjectCreationDto.class)
+                .flatMap(projectService::createProject)
+                .flatMap(project -> ServerResponse.created(projectLocation(project.getId()))
+                        .contentType(contentType(request))
+                        .bodyValue(PROJECT_TO_ENTITY_MODEL.apply(project)));
+    }
+
+    public Mono<ServerResponse> updateProject(ServerRequest request) {
+        long id = longPathVariable(request, ID);
+        return body(request, ProjectCreationDto.class)
+                .flatMap(projectCreationDto -> projectService.updateProject(id, projectCreationDto))
+                .flatMap(project -> ok(request, PROJECT_TO_ENTITY_MODEL.apply(project)))
+                .switchIfEmpty(ServerResponse.ok().build());
+    }
+
+    public Mono<ServerResponse> deleteProject(ServerRequest request) {
+        return projectService.deleteProject(longPathVariable(request, ID))
+                .then(ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> getProjectTasks(ServerRequest request) {
+        long projectId = longPathVariable(request, PROJECT_ID);
+        MultiValueMap<String, String> params = request.queryParams();
+        int page = intParam(params, PAGE, DEFAULT_PAGE);
+        int size = intParam(params, SIZE, DEFAULT_PAGE_SIZE);
+        String fields = params.getFirst(FIELDS);
+        String links = params.getFirst(LINKS);
+        Sort sort = sort(params);
+        TimeFilter filter = timeFilter(params.getFirst(MODIFIED_SINCE), params.getFirst(CREATED_BETWEEN));
+        if (fields != null || links != null) {
+            FieldSelection<Task> selection = FieldSelection.parse(fields, TaskField.class);
+            LinkMode linkMode = LinkMode.parse(links != null ? links : LinkMode.ALL.name());
+            PageRequest pageable = pageRequest(page, size, MAX_PAGE_SIZE, sort);
+            Mono<PageImpl<Task>> tasks = filter.isEmpty()
+                    ? taskService.getTasks(projectId, pageable, selection.columns())
+                    : taskService.getTasks(projectId, pageable, selection.columns(), filter);
+            return tasks.map(taskPage -> taskPage.map(taskToMap(selection, projectId, linkMode, page, size)))
+                    .flatMap(taskPage -> ok(request, taskPage));
+        }
+        if (Boolean.parseBoolean(params.getFirst(STREAM))) {
+            PageRequest pageable = pageRequest(page, size, MAX_STREAMED_PAGE_SIZE, sort);
+            Flux<Task> tasks = filter.isEmpty()
+                    ? taskService.streamTasks(projectId, pageable)
+                    : taskService.streamTasks(projectId, pageable, filter);
+            Mono<Long> count = filter.isEmpty()
+                    ? taskService.countTasks(projectId)
+                    : taskService.countTasks(projectId, filter);
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(BodyInserters.fromDataBuffers(pageStreamEncoder.encode(
+                            tasks.map(taskToEntityModel(page, size)), count, pageable,
+                            request.exchange().getResponse().bufferFactory())));
+        }
+        PageRequest pageable = pageRequest(page, size, MAX_PAGE_SIZE, sort);
+        Mono<PageImpl<Task>> tasks = filter.isEmpty()
+                ? taskService.getTasks(projectId, pageable)
+                : taskService.getTasks(projectId, pageable, List.of(), filter);
+        return tasks.map(taskPage -> taskPage.map(taskToEntityModel(page, size)))
+                .flatMap(taskPage -> ok(request, taskPage));
+    }
+
+    public Mono<ServerResponse> getProjectTask(ServerRequest request) {
+        return taskService.getTask(longPathVariable(request, PROJECT_ID), longPathVariable(request, TASK_ID))
+                .flatMap(task -> ok(request, TASK_TO_ENTITY_MODEL.apply(task)))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> createProjectTask(ServerRequest request) {
+        long projectId = longPathVariable(request, PROJECT_ID);
+        return body(request, TaskCreationDto.class)
+                .flatMap(taskCreationDto -> taskService.createTask(projectId, taskCreationDto))
+                .flatMap(task -> ServerResponse.created(taskLocation(projectId, task.getId()))
+                        .contentType(contentType(request))
+                        .bodyValue(TASK_TO_ENTITY_MODEL.apply(task)))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> updateProjectTask(ServerRequest request) {
+        long projectId = longPathVariable(request, PROJECT_ID);
+        long taskId = longPathVariable(request, TASK_ID);
+        return body(request, TaskCreationDto.class)
+                .flatMap(taskCreationDto -> taskService.updateTask(projectId, taskId, taskCreationDto))
+                .flatMap(task -> ok(request, TASK_TO_ENTITY_MODEL.apply(task)))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> moveProjectTasks(ServerRequest request) {
+        long projectId = longPathVariable(request, PROJECT_ID);
+        return body(request, TaskMoveDto.class)
+                .flatMap(taskMoveDto -> taskService.moveTasks(projectId, taskMoveDto.getTargetProjectId(),
+                        moveTaskIds(taskMoveDto), moveFilter(projectId, taskMoveDto)))
+                .flatMap(moved -> ok(request, new TaskMoveResultDto(moved)))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> deleteProjectTask(ServerRequest request) {
+        return taskService.deleteTask(longPathVariable(request, PROJECT_ID), longPathVariable(request, TASK_ID))
+                .then(ServerResponse.noContent().build());
+    }
+
+    private static Mono<ServerResponse> ok(ServerRequest request, Object body) {
+        return ServerResponse.ok().contentType(contentType(request)).bodyValue(body);
+    }
+
+    /**
+     * Functional responses are not negotiated by the framework, the binary Smile codec is chosen here when
+     * it is preferred by the client, JSON otherwise.
+     */
+    private static MediaType contentType(ServerRequest request) {
+        double json = -1;
+        double smile = -1;
+        for (MediaType mediaType : request.headers().accept()) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                json = Math.max(json, mediaType.getQualityValue());
+            }
+            if (mediaType.isCompatibleWith(SMILE)) {
+                smile = Math.max(smile, mediaType.getQualityValue());
+            }
+        }
+        return smile > json ? SMILE : MediaType.APPLICATION_JSON;
+    }
+
+    private static <T> Mono<T> body(ServerRequest request, Class<T> type) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Request body is missing")));
+    }
+
+    /**
+     * Repeated {@code sort} parameters are joined like the annotated controller binds them to a string.
+     */
+    private static Sort sort(MultiValueMap<String, String> params) {
+        List<String> sort = params.get(SORT);
+        return ProjectModels.sort(sort != null ? String.join(",", sort) : null);
+    }
+
+    private static int intParam(MultiValueMap<String, String> params, String name, int defaultValue) {
+        String value = params.getFirst(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Query parameter '%s' must be a number".formatted(name));
+        }
+    }
+
+    private static long longPathVariable(ServerRequest request, String name) {
+        try {
+            return Long.parseLong(request.pathVariable(name));
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Path variable '%s' must be a number".formatted(name));
+        }
+    }
+
+}
@@ -0,0 +1,270 @@
+package com.example.reactive.rest.controller;
+
+import com.example.reactive.rest.dto.TaskMoveDto;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TimeFilter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Representations of projects and tasks shared by the annotated {@link ProjectController}
+ * and the functional {@link ProjectHandler}, so both render exactly the same documents.
+ */
+final class ProjectModels {
+
+    static final int DEFAULT_PAGE = 0;
+
+    static final int DEFAULT_PAGE_SIZE = 5;
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    static final int MAX_STREAMED_PAGE_SIZE = 10_000;
+
+    /**
+     * Ids are bound one by one, larger moves are selected by a time filter.
+     */
+    static final int MAX_MOVED_TASK_IDS = 1000;
+
+    /**
+     * Only properties backed by an index may be sorted by, anything else would sort the whole table.
+     */
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "createdAt", "updatedAt");
+
+    private static final String ID_PROPERTY = "id";
+
+    private static final String LINKS = "links";
+
+    private static final String PROJECTS_REL = "projects";
+
+    private static final String TASKS_REL = "tasks";
+
+    /**
+     * Link and {@code Location} prefixes, precomputed instead of being derived from the mappings
+     * with {@code linkTo(methodOn(...))} for every element.
+     */
+    private static final String PROJECTS_HREF = "/api/v1/projects";
+
+    private static final String PROJECT_HREF_PREFIX = PROJECTS_HREF + "/";
+
+    private static final String TASKS_PATH = "/tasks";
+
+    private static final String TASK_PATH_PREFIX = TASKS_PATH + "/";
+
+    private static final String PROJECT_LOCATION_PREFIX = "api/v1/projects/";
+
+    static final Function<Project, EntityModel<Project>> PROJECT_TO_ENTITY_MODEL =
+            projectToEntityModel(DEFAULT_PAGE, DEFAULT_PAGE_SIZE);
+
+    static final Function<Task, EntityModel<Task>> TASK_TO_ENTITY_MODEL =
+            taskToEntityModel(DEFAULT_PAGE, DEFAULT_PAGE_SIZE);
+
+    private ProjectModels() {
+    }
+
+    static PageRequest pageRequest(Integer page, Integer size, int maxSize) {
+        return pageRequest(page, size, maxSize, Sort.unsorted());
+    }
+
+    static PageRequest pageRequest(Integer page, Integer size, int maxSize, Sort sort) {
+        if (page < 0 || size < 1 || size > maxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Page must not be negative and size must be between 1 and %d".formatted(maxSize));
+        }
+        return PageRequest.of(page, size, sort);
+    }
+
+    /**
+     * Parses {@code property[,asc|desc]} orders, repeated {@code sort} parameters arrive joined by commas.
+     * A sorted page is completed by the id so that equal times keep a stable order across pages.
+     */
+    static Sort sort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.unsorted();
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        boolean sortedById = false;
+        for (String token : sort.split(",")) {
+            String value = token.strip();
+            Sort.Direction direction = Sort.Direction.fromOptionalString(value).orElse(null);
+            if (direction != null && !orders.isEmpty()) {
+                Sort.Order last = orders.remove(orders.size() - 1);
+                orders.add(last.with(direction));
+            } else if (SORTABLE_PROPERTIES.contains(value)) {
+                orders.add(Sort.Order.asc(value));
+                sortedById |= ID_PROPERTY.equals(value);
+            } else {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Sort property must be one of %s: %s".formatted(SORTABLE_PROPERTIES, value));
+            }
+        }
+        if (!sortedById) {
+            orders.add(Sort.Order.asc(ID_PROPERTY));
+        }
+        return Sort.by(orders);
+    }
+
+    /**
+     * Parses an ISO {@code modifiedSince} time and a {@code from,to} {@code createdBetween} range
+     * whose bounds are both optional, the upper one exclusive.
+     */
+    static TimeFilter timeFilter(String modifiedSince, String createdBetween) {
+        if (modifiedSince == null && createdBetween == null) {
+            return TimeFilter.NONE;
+        }
+        LocalDateTime createdFrom = null;
+        LocalDateTime createdTo = null;
+        if (createdBetween != null) {
+            String[] bounds = createdBetween.split(",", -1);
+            if (bounds.length != 2) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Created between must be a 'from,to' range: " + createdBetween);
+            }
+            createdFrom = dateTime(bounds[0]);
+            createdTo = dateTime(bounds[1]);
+        }
+        return new TimeFilter(dateTime(modifiedSince), createdFrom, createdTo);
+    }
+
+    /**
+     * Time filter of a move, once its target is checked to be another project.
+     */
+    static TimeFilter moveFilter(Long projectId, TaskMoveDto taskMoveDto) {
+        if (taskMoveDto.getTargetProjectId() == null || taskMoveDto.getTargetProjectId().equals(projectId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Target project id must be given and differ from the project id");
+        }
+        return timeFilter(taskMoveDto.getModifiedSince(), taskMoveDto.getCreatedBetween());
+    }
+
+    /**
+     * Ids of the moved tasks, empty to move all tasks matching the time filter when no ids were given. An explicit
+     * empty list is rejected rather than read as all the tasks.
+     */
+    static List<Long> moveTaskIds(TaskMoveDto taskMoveDto) {
+        List<Long> taskIds = taskMoveDto.getTaskIds();
+        if (taskIds == null) {
+            return List.of();
+        }
+        if (taskIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Task ids must not be empty, leave them out to move all the tasks");
+        }
+        if (taskIds.size() > MAX_MOVED_TASK_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most %d task ids can be moved at once".formatted(MAX_MOVED_TASK_IDS));
+        }
+        if (taskIds.stream().anyMatch(Objects::isNull)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Task ids must not be null");
+        }
+        return List.copyOf(taskIds);
+    }
+
+    private static LocalDateTime dateTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.strip());
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date time: " + value, e);
+        }
+    }
+
+    static URI projectLocation(Long projectId) {
+        return URI.create(PROJECT_LOCATION_PREFIX + projectId);
+    }
+
+    static URI taskLocation(Long projectId, Long taskId) {
+        return URI.create(PROJECT_LOCATION_PREFIX + projectId + TASK_PATH_PREFIX + taskId);
+    }
+
+    /**
+     * The page dependent {@code projects} link is built once per page and shared by its elements.
+     */
+    static Function<Project, EntityModel<Project>> projectToEntityModel(Integer page, Integer size) {
+        String pageQuery = pageQuery(page, size);
+        Link projectsLink = Link.of(PROJECTS_HREF + pageQuery, PROJECTS_REL);
+        return project -> {
+            String projectHref = PROJECT_HREF_PREFIX + project.getId();
+            return EntityModel.of(project, List.of(
+                    Link.of(projectHref, IanaLinkRelations.SELF),
+                    projectsLink,
+                    Link.of(projectHref + TASKS_PATH + pageQuery, TASKS_REL)));
+        };
+    }
+
+    static Function<Task, EntityModel<Task>> taskToEntityModel(Integer page, Integer size) {
+        String pageQuery = pageQuery(page, size);
+        Link projectsLink = Link.of(PROJECTS_HREF + pageQuery, PROJECTS_REL);
+        return task -> {
+            String tasksHref = PROJECT_HREF_PREFIX + task.getProjectId() + TASKS_PATH;
+            return EntityModel.of(task, List.of(
+                    Link.of(tasksHref + "/" + task.getId(), IanaLinkRelations.SELF),
+                    projectsLink,
+                    Link.of(tasksHref + pageQuery, TASKS_REL)));
+        };
+    }
+
+    static Function<Project, Map<String, Object>> projectToMap(FieldSelection<Project> selection,
+                                                               LinkMode linkMode, Integer page, Integer size) {
+        return project -> withLinks(selection.toMap(project), projectLinks(project.getId(), linkMode, page, size));
+    }
+
+    static Function<Task, Map<String, Object>> taskToMap(FieldSelection<Task> selection, Long projectId,
+                                                         LinkMode linkMode, Integer page, Integer size) {
+        return task -> withLinks(selection.toMap(task), taskLinks(projectId, task.getId(), linkMode, page, size));
+    }
+
+    private static String pageQuery(Integer page, Integer size) {
+        return "?page=" + page + "&size=" + size;
+    }
+
+    private static Map<String, Object> withLinks(Map<String, Object> model, List<Link> links) {
+        if (!links.isEmpty()) {
+            model.put(LINKS, links);
+        }
+        return model;
+    }
+
+    private static List<Link> projectLinks(Long projectId, LinkMode linkMode, Integer page, Integer size) {
+        String projectHref = PROJECT_HREF_PREFIX + projectId;
+        return links(linkMode, projectHref, projectHref + TASKS_PATH, page, size);
+    }
+
+    private static List<Link> taskLinks(Long projectId, Long taskId, LinkMode linkMode, Integer page, Integer size) {
+        String tasksHref = PROJECT_HREF_PREFIX + projectId + TASKS_PATH;
+        return links(linkMode, tasksHref + "/" + taskId, tasksHref, page, size);
+    }
+
+    private static List<Link> links(LinkMode linkMode, String selfHref, String tasksHref,
+                                    Integer page, Integer size) {
+        List<Link> links = new ArrayList<>(3);
+        if (linkMode == LinkMode.NONE) {
+            return links;
+        }
+        links.add(Link.of(selfHref, IanaLinkRelations.SELF));
+        if (linkMode == LinkMode.ALL) {
+            String pageQuery = pageQuery(page, size);
+            links.add(Link.of(PROJECTS_HREF + pageQuery, PROJECTS_REL));
+            links.add(Link.of(tasksHref + pageQuery, TASKS_REL));
+        }
+        return links;
+    }
+
+}
@@ -0,0 +1,203 @@
+package com.example.reactive.rest.controller;
+
+import com.example.reactive.rest.dto.QueryDto;
+import com.example.reactive.rest.filter.RateLimitingWebFilter;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.ProjectField;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TaskField;
+import com.example.reactive.rest.model.TimeFilter;
+import com.example.reactive.rest.service.ProjectService;
+import com.example.reactive.rest.service.TaskService;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.example.reactive.rest.controller.ProjectModels.*;
+
+/**
+ * Composite queries, available with either API style: the projects, tasks and counts a screen needs are resolved
+ * in one request instead of one per listing, through the cached services. The tasks of a page of projects are read
+ * together, so a query costs the same few statements whatever the number of projects. A query is rejected when it
+ * may return more than {@link #MAX_QUERY_COST} elements, and is rate limited like the listings of as many rows.
+ */
+@Observed(name = "rest.controller")
+@RestController
+@RequestMapping("api/v1/query")
+@RequiredArgsConstructor
+public class QueryController {
+
+    /**
+     * Elements a query may return at most, e.g. 100 projects with 49 tasks each.
+     */
+    static final int MAX_QUERY_COST = 5000;
+
+    private static final String PROJECTS = "projects";
+
+    private static final String PROJECT = "project";
+
+    private static final String TASKS = "tasks";
+
+    private static final String TASK = "task";
+
+    private static final String DEFAULT_LINKS = "all";
+
+    private final ProjectService projectService;
+
+    private final TaskService taskService;
+
+    @PostMapping
+    public Mono<Map<String, Object>> query(@RequestBody QueryDto query, ServerWebExchange exchange) {
+        LinkMode linkMode = LinkMode.parse(query.getLinks() != null ? query.getLinks() : DEFAULT_LINKS);
+        long cost = cost(query);
+        if (cost > MAX_QUERY_COST) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Query may return %d elements, at most %d are allowed".formatted(cost, MAX_QUERY_COST));
+        }
+        RateLimitingWebFilter.chargeRows(exchange, cost);
+        Mono<Optional<Page<Map<String, Object>>>> projects = query.getProjects() == null
+                ? Mono.just(Optional.empty())
+                : projects(query.getProjects(), linkMode).map(Optional::of);
+        Mono<Optional<Map<String, Object>>> project = query.getProject() == null
+                ? Mono.just(Optional.empty())
+                : project(query.getProject(), linkMode);
+        return Mono.zip(projects, project, (projectPage, oneProject) -> {
+            Map<String, Object> result = new LinkedHashMap<>();
+            projectPage.ifPresent(page -> result.put(PROJECTS, page));
+            if (query.getProject() != null) {
+                result.put(PROJECT, oneProject.orElse(null));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Projects and tasks the query may return, a missing page size being the default one.
+     */
+    static long cost(QueryDto query) {
+        long cost = 0;
+        QueryDto.ProjectsQuery projects = query.getProjects();
+        if (projects != null) {
+            cost += (long) sizeOrDefault(projects.getSize()) * (1L + tasksSize(projects.getTasks()));
+        }
+        QueryDto.ProjectQuery project = query.getProject();
+        if (project != null) {
+            cost += 1L + tasksSize(project.getTasks()) + (project.getTaskId() != null ? 1 : 0);
+        }
+        return cost;
+    }
+
+    private Mono<Page<Map<String, Object>>> projects(QueryDto.ProjectsQuery query, LinkMode linkMode) {
+        int page = pageOrDefault(query.getPage());
+        int size = sizeOrDefault(query.getSize());
+        FieldSelection<Project> selection = FieldSelection.parse(query.getFields(), ProjectField.class);
+        List<String> columns = query.getFields() == null ? List.of() : selection.columns();
+        PageRequest pageable = pageRequest(page, size, MAX_PAGE_SIZE, sort(query.getSort()));
+        TimeFilter filter = timeFilter(query.getModifiedSince(), query.getCreatedBetween());
+        Mono<PageImpl<Project>> projects;
+        if (!filter.isEmpty()) {
+            projects = projectService.getAllProjects(pageable, columns, filter);
+        } else if (columns.isEmpty()) {
+            projects = projectService.getAllProjects(pageable);
+        } else {
+            projects = projectService.getAllProjects(pageable, columns);
+        }
+        Function<Project, Map<String, Object>> toMap = projectToMap(selection, linkMode, page, size);
+        if (query.getTasks() == null) {
+            return projects.map(projectPage -> projectPage.map(toMap));
+        }
+        TasksPart tasks = TasksPart.of(query.getTasks());
+        return projects.flatMap(projectPage -> taskService.getTaskPages(
+                        projectPage.map(Project::getId).getContent(), tasks.pageable(), tasks.columns())
+                .map(taskPages -> projectPage.map(project -> {
+                    Map<String, Object> model = toMap.apply(project);
+                    model.put(TASKS, tasks.render(project.getId(), taskPages.get(project.getId()), linkMode));
+                    return model;
+                })));
+    }
+
+    private Mono<Optional<Map<String, Object>>> project(QueryDto.ProjectQuery query, LinkMode linkMode) {
+        Long id = query.getId();
+        if (id == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Project id must be given");
+        }
+        FieldSelection<Project> selection = FieldSelection.parse(query.getFields(), ProjectField.class);
+        TasksPart tasks = query.getTasks() != null ? TasksPart.of(query.getTasks()) : null;
+        Mono<Optional<PageImpl<Task>>> taskPage = tasks == null
+                ? Mono.just(Optional.empty())
+                : tasks.load(taskService, id).map(Optional::of);
+        Mono<Optional<Task>> task = query.getTaskId() == null
+                ? Mono.just(Optional.empty())
+                : taskService.getTask(id, query.getTaskId()).map(Optional::of).defaultIfEmpty(Optional.empty());
+        return projectService.findById(id)
+                .zipWith(Mono.zip(taskPage, task), (project, parts) -> {
+                    Map<String, Object> model = projectToMap(selection, linkMode, DEFAULT_PAGE, DEFAULT_PAGE_SIZE)
+                            .apply(project);
+                    parts.getT1().ifPresent(page -> model.put(TASKS, tasks.render(id, page, linkMode)));
+                    if (query.getTaskId() != null) {
+                        model.put(TASK, parts.getT2()
+                                .map(taskToMap(FieldSelection.parse(null, TaskField.class), id, linkMode,
+                                        DEFAULT_PAGE, DEFAULT_PAGE_SIZE))
+                                .orElse(null));
+                    }
+                    return Optional.of(model);
+                })
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    private static int pageOrDefault(Integer page) {
+        return page != null ? page : DEFAULT_PAGE;
+    }
+
+    private static int sizeOrDefault(Integer size) {
+        return size != null ? size : DEFAULT_PAGE_SIZE;
+    }
+
+    private static int tasksSize(QueryDto.TasksQuery tasks) {
+        return tasks != null ? sizeOrDefault(tasks.getSize()) : 0;
+    }
+
+    /**
+     * Page of tasks requested for every project, no fields selects them all and shares the cache of the plain
+     * listing.
+     */
+    private record TasksPart(int page, int size, PageRequest pageable, FieldSelection<Task> selection,
+                             List<String> columns) {
+
+        static TasksPart of(QueryDto.TasksQuery query) {
+            int page = pageOrDefault(query.getPage());
+            int size = sizeOrDefault(query.getSize());
+            FieldSelection<Task> selection = FieldSelection.parse(query.getFields(), TaskField.class);
+            return new TasksPart(page, size, pageRequest(page, size, MAX_PAGE_SIZE, sort(query.getSort())),
+                    selection, query.getFields() == null ? List.of() : selection.columns());
+        }
+
+        Mono<PageImpl<Task>> load(TaskService taskService, Long projectId) {
+            return columns.isEmpty()
+                    ? taskService.getTasks(projectId, pageable)
+                    : taskService.getTasks(projectId, pageable, columns);
+        }
+
+        Page<Map<String, Object>> render(Long projectId, PageImpl<Task> tasks, LinkMode linkMode) {
+            return tasks.map(taskToMap(selection, projectId, linkMode, page, size));
+        }
+
+    }
+
+}
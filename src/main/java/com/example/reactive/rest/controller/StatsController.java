@@ -0,0 +1,45 @@
+package com.example.reactive.rest.controller;
+
+import com.example.reactive.rest.dto.TaskStatisticsDto;
+import com.example.reactive.rest.service.ProjectService;
+import com.example.reactive.rest.stats.TaskStatistics;
+import com.example.reactive.rest.tenant.TenantContext;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Task statistics of the tenant of the request served from the in-memory {@link TaskStatistics}, available with
+ * either API style.
+ */
+@Observed(name = "rest.controller")
+@RestController
+@RequestMapping("api/v1")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final ProjectService projectService;
+
+    private final TaskStatistics taskStatistics;
+
+    @GetMapping("stats")
+    public Mono<TaskStatisticsDto> getStatistics() {
+        return Mono.deferContextual(context ->
+                Mono.just(taskStatistics.getTenantStatistics(TenantContext.current(context))));
+    }
+
+    @GetMapping("projects/{projectId}/stats")
+    public Mono<ResponseEntity<TaskStatisticsDto>> getProjectStatistics(
+            @PathVariable(name = "projectId") Long projectId) {
+        return Mono.deferContextual(context -> projectService.findById(projectId)
+                .map(project -> ResponseEntity.ok(
+                        taskStatistics.getProjectStatistics(TenantContext.current(context), projectId)))
+                .defaultIfEmpty(ResponseEntity.notFound().build()));
+    }
+
+}
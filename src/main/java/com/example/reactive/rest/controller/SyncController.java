@@ -0,0 +1,63 @@
+package com.example.reactive.rest.controller;
+
+import com.example.reactive.rest.dto.SyncDto;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.sync.SyncService;
+import com.example.reactive.rest.sync.SyncToken;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Delta sync for offline clients, available with either API style: a request without token returns everything,
+ * page by page while {@code hasMore}, each response carries the token of the next request. An expired token is
+ * answered with {@code 410 Gone}, the client must then sync again without token.
+ */
+@Observed(name = "rest.controller")
+@RestController
+@RequestMapping("api/v1/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping("projects")
+    public Mono<SyncDto<Project>> syncProjects(@RequestParam(name = "token", required = false) String token) {
+        return syncService.syncProjects(syncToken(token));
+    }
+
+    @GetMapping("projects/{projectId}/tasks")
+    public Mono<ResponseEntity<SyncDto<Task>>> syncProjectTasks(
+            @PathVariable(name = "projectId") Long projectId,
+            @RequestParam(name = "token", required = false) String token) {
+        return syncService.syncTasks(projectId, syncToken(token))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private SyncToken syncToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        SyncToken syncToken;
+        try {
+            syncToken = SyncToken.decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token", e);
+        }
+        if (syncService.isExpired(syncToken)) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Sync token expired, a full sync is required");
+        }
+        return syncToken;
+    }
+
+}
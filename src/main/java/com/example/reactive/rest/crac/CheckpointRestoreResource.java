@@ -0,0 +1,88 @@
+package com.example.reactive.rest.crac;
+
+import com.example.reactive.rest.idempotency.IdempotencyStore;
+import com.example.reactive.rest.idempotency.InMemoryIdempotencyStore;
+import com.example.reactive.rest.stats.TaskStatisticsReconciler;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+
+import java.util.Objects;
+
+/**
+ * Prepares a warmed up instance for a CRaC checkpoint and brings it back after the restore.
+ * <p>
+ * Before the checkpoint the web server is stopped, closing its sockets, the caches filled by the warm-up are
+ * cleared, the response cache with them, and the {@link RestartableConnectionPool}, found behind the connection
+ * factory bean, e.g. wrapped by the replica routing, is closed. After the restore
+ * the pool is reopened, the web server started again and the task statistics reconciled with the database,
+ * which may have changed since the checkpoint.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CheckpointRestoreResource implements Resource {
+
+    private final ApplicationContext applicationContext;
+
+    private final CacheManager cacheManager;
+
+    private final ObjectProvider<ConnectionFactory> connectionFactory;
+
+    private final ObjectProvider<IdempotencyStore> idempotencyStore;
+
+    private final ObjectProvider<TaskStatisticsReconciler> statisticsReconciler;
+
+    /**
+     * The global context only keeps a weak reference, the bean itself is kept by the application context.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void register() {
+        Core.getGlobalContext().register(this);
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        log.info("Preparing the checkpoint");
+        if (applicationContext instanceof WebServerApplicationContext webContext) {
+            webContext.getWebServer().stop();
+        }
+        cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(Cache::invalidate);
+        if (idempotencyStore.getIfAvailable() instanceof InMemoryIdempotencyStore store) {
+            store.getNativeCache().invalidateAll();
+        }
+        RestartableConnectionPool pool = RestartableConnectionPool.find(connectionFactory.getIfUnique());
+        if (pool != null) {
+            pool.close().block();
+        }
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        RestartableConnectionPool pool = RestartableConnectionPool.find(connectionFactory.getIfUnique());
+        if (pool != null) {
+            pool.reopen();
+        }
+        if (applicationContext instanceof WebServerApplicationContext webContext) {
+            webContext.getWebServer().start();
+        }
+        TaskStatisticsReconciler reconciler = statisticsReconciler.getIfAvailable();
+        if (reconciler != null) {
+            reconciler.reconcile().subscribe(null, e -> log.warn("Task statistics reconciliation failed", e));
+        }
+        log.info("Restored from the checkpoint");
+    }
+
+}
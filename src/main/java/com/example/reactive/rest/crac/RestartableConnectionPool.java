@@ -0,0 +1,86 @@
+package com.example.reactive.rest.crac;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * The primary {@link ConnectionPool}, closed before a checkpoint and replaced by a pool with the same configuration
+ * after the restore: the restored process must not reuse connections whose sockets were closed meanwhile.
+ * Connections requested while the pool is closed fail, the web server is stopped by then.
+ * Disposed with the context, like the pool bean it replaces, and found behind the connection factories wrapping it
+ * with {@link #find}.
+ */
+@Slf4j
+public class RestartableConnectionPool implements ConnectionFactory, Wrapped<ConnectionPool>, Closeable, Disposable {
+
+    private final ConnectionPoolConfiguration configuration;
+
+    private volatile ConnectionPool pool;
+
+    public RestartableConnectionPool(ConnectionPool pool, ConnectionPoolConfiguration configuration) {
+        this.pool = pool;
+        this.configuration = configuration;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.defer(() -> pool.create());
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return pool.getMetadata();
+    }
+
+    @Override
+    public ConnectionPool unwrap() {
+        return pool;
+    }
+
+    /**
+     * The pool behind the connection factory and the factories it wraps, null when there is none.
+     */
+    public static RestartableConnectionPool find(ConnectionFactory connectionFactory) {
+        Object candidate = connectionFactory;
+        while (!(candidate instanceof RestartableConnectionPool) && candidate instanceof Wrapped<?> wrapped) {
+            candidate = wrapped.unwrap();
+        }
+        return candidate instanceof RestartableConnectionPool pool ? pool : null;
+    }
+
+    @Override
+    public Mono<Void> close() {
+        return pool.disposeLater()
+                .doOnSuccess(ignored -> log.info("Connection pool closed"));
+    }
+
+    /**
+     * The destroy method Spring Boot declares for its pool.
+     */
+    @Override
+    public void dispose() {
+        pool.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return pool.isDisposed();
+    }
+
+    public void reopen() {
+        if (pool.isDisposed()) {
+            pool = new ConnectionPool(configuration);
+            log.info("Connection pool reopened");
+        }
+    }
+
+}
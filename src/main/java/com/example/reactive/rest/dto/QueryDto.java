@@ -0,0 +1,82 @@
+package com.example.reactive.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Composite query of a screen, resolved in one request: a page of projects, each with a page of its tasks,
+ * and one project with a page of its tasks and one of them. Every part is optional, pages and fields take the same
+ * values as the parameters of the listings.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QueryDto {
+
+    private ProjectsQuery projects;
+
+    private ProjectQuery project;
+
+    private String links;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ProjectsQuery {
+
+        private Integer page;
+
+        private Integer size;
+
+        private String sort;
+
+        private String fields;
+
+        private String modifiedSince;
+
+        private String createdBetween;
+
+        /**
+         * The first page of tasks of every project when only its size is given.
+         */
+        private TasksQuery tasks;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ProjectQuery {
+
+        private Long id;
+
+        private String fields;
+
+        private TasksQuery tasks;
+
+        private Long taskId;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class TasksQuery {
+
+        private Integer page;
+
+        private Integer size;
+
+        private String sort;
+
+        private String fields;
+
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.example.reactive.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Changes since a sync token: the records created and updated since then, the ids of the deleted ones
+ * and the token of the next sync. A change close to the token may be repeated by the next sync.
+ * A full sync returns the records page by page, the token continues it while {@code hasMore}.
+ *
+ * @param <T> synchronized entity type
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncDto<T> {
+
+    private List<T> created;
+
+    private List<T> updated;
+
+    private List<Long> deleted;
+
+    private String token;
+
+    private boolean hasMore;
+
+}
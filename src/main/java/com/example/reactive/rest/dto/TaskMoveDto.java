@@ -0,0 +1,28 @@
+package com.example.reactive.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Tasks to move to another project: the tasks with the given ids, or all tasks of the project when the ids are left
+ * out, restricted by the same time filters as the listings. An empty list of ids is rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskMoveDto {
+
+    private Long targetProjectId;
+
+    private List<Long> taskIds;
+
+    private String modifiedSince;
+
+    private String createdBetween;
+
+}
@@ -0,0 +1,38 @@
+package com.example.reactive.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskStatisticsDto {
+
+    private Long projectId;
+
+    private Long projects;
+
+    private long tasks;
+
+    private long createdLastHour;
+
+    private long createdLastDay;
+
+    private double creationRatePerHour;
+
+    private LocalDateTime lastActivityAt;
+
+    private List<HourlyCount> createdPerHour;
+
+    public record HourlyCount(LocalDateTime hour, long created) {
+    }
+
+}
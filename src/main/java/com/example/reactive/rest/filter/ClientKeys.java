@@ -0,0 +1,48 @@
+package com.example.reactive.rest.filter;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+
+/**
+ * Identifies the client of a request by its API key header, or by its remote address when the header is absent.
+ */
+public final class ClientKeys {
+
+    private static final String UNKNOWN_CLIENT = "unknown";
+
+    private ClientKeys() {
+    }
+
+    public static String resolve(ServerHttpRequest request, String apiKeyHeader) {
+        String apiKey = request.getHeaders().getFirst(apiKeyHeader);
+        if (apiKey != null && !apiKey.isBlank()) {
+            return apiKey;
+        }
+        return remoteAddress(request);
+    }
+
+    /**
+     * Identifies the client by its API key only when it is one of the known keys, by its remote address otherwise,
+     * so that a client can't get a new identity by sending a new key.
+     */
+    public static String resolve(ServerHttpRequest request, String apiKeyHeader, Set<String> knownApiKeys) {
+        String apiKey = request.getHeaders().getFirst(apiKeyHeader);
+        if (apiKey != null && knownApiKeys.contains(apiKey)) {
+            return apiKey;
+        }
+        return remoteAddress(request);
+    }
+
+    private static String remoteAddress(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return UNKNOWN_CLIENT;
+        }
+        return remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString();
+    }
+
+}
@@ -0,0 +1,329 @@
+package com.example.reactive.rest.filter;
+
+import com.example.reactive.rest.idempotency.IdempotencyStore;
+import com.example.reactive.rest.idempotency.StoredResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes the POST requests of the API carrying an {@code Idempotency-Key} header safe to retry:
+ * <ol>
+ *     <li>the first request with a key is executed and its response stored, unless it failed or is a 5xx,
+ *     so that a retry can still succeed,</li>
+ *     <li>retries with the same key and payload get the stored response back, flagged with
+ *     {@code Idempotent-Replayed}, without running the handler,</li>
+ *     <li>retries arriving while the first request is still running wait for its response, up to
+ *     {@code inFlightTimeout}, then are rejected with 409,</li>
+ *     <li>a key reused with another method, path or body is rejected with 422,</li>
+ *     <li>a body larger than {@code maxRequestBytes}, read in memory for the fingerprint, is rejected with 413.</li>
+ * </ol>
+ * Keys are scoped by tenant and client, identified like for rate limiting. A request reserves its key in the store
+ * before running: retries reaching another node meanwhile poll the store for its response, up to
+ * {@code inFlightTimeout}, then are rejected with 409.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotencyWebFilter implements WebFilter, Ordered {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final String API_PATH = "/api/";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final String TENANT_SEPARATOR = "|";
+
+    private static final Duration RESERVATION_POLL_INTERVAL = Duration.ofMillis(100);
+
+    private final IdempotencyStore store;
+
+    private final String clientKeyHeader;
+
+    private final int maxEntryBytes;
+
+    private final int maxRequestBytes;
+
+    private final Duration inFlightTimeout;
+
+    private final Map<String, Sinks.One<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String idempotencyKey = request.getHeaders().getFirst(IDEMPOTENCY_KEY);
+        if (idempotencyKey == null
+                || request.getMethod() != HttpMethod.POST
+                || !request.getPath().value().startsWith(API_PATH)) {
+            return chain.filter(exchange);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return reject(exchange.getResponse(), HttpStatus.BAD_REQUEST);
+        }
+        if (request.getHeaders().getContentLength() > maxRequestBytes) {
+            return reject(exchange.getResponse(), HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        String key = key(exchange, idempotencyKey);
+        return DataBufferUtils.join(request.getBody(), maxRequestBytes)
+                .map(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    return Optional.of(bytes);
+                })
+                .defaultIfEmpty(Optional.of(new byte[0]))
+                // a chunked body without length exceeded the limit while read
+                .onErrorReturn(DataBufferLimitException.class, Optional.empty())
+                .flatMap(body -> body.isPresent()
+                        ? execute(exchange.mutate().request(new ReplayedRequest(exchange, body.get())).build(),
+                                chain, key, fingerprint(request, body.get()))
+                        : reject(exchange.getResponse(), HttpStatus.PAYLOAD_TOO_LARGE));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 5;
+    }
+
+    /**
+     * The key of the client prefixed by its tenant, unless there is none, without tenancy.
+     */
+    private String key(ServerWebExchange exchange, String idempotencyKey) {
+        String clientKey = ClientKeys.resolve(exchange.getRequest(), clientKeyHeader) + ":" + idempotencyKey;
+        String tenantId = TenantWebFilter.tenantId(exchange);
+        return tenantId != null ? tenantId + TENANT_SEPARATOR + clientKey : clientKey;
+    }
+
+    private Mono<Void> execute(ServerWebExchange exchange, WebFilterChain chain, String key, String fingerprint) {
+        Sinks.One<StoredResponse> execution = Sinks.one();
+        Sinks.One<StoredResponse> running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            log.debug("Waiting for the running request with idempotency key: {}", key);
+            return running.asMono()
+                    .timeout(inFlightTimeout)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    // the running request stored nothing, this one gets its chance
+                    .flatMap(stored -> stored.isPresent()
+                            ? replay(exchange.getResponse(), stored.get(), fingerprint)
+                            : execute(exchange, chain, key, fingerprint))
+                    .onErrorResume(TimeoutException.class,
+                            e -> reject(exchange.getResponse(), HttpStatus.CONFLICT));
+        }
+        return run(exchange, chain, key, fingerprint, execution, System.nanoTime() + inFlightTimeout.toNanos())
+                .doFinally(signalType -> complete(key, execution, null));
+    }
+
+    /**
+     * Replays the stored response, or runs the request once its key is reserved in the store. While another node
+     * holds the key, polls again until its response is stored or its key released, then rejects with 409.
+     */
+    private Mono<Void> run(ServerWebExchange exchange, WebFilterChain chain, String key, String fingerprint,
+                           Sinks.One<StoredResponse> execution, long deadline) {
+        return store.find(key)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(stored -> {
+                    if (stored.isPresent()) {
+                        complete(key, execution, stored.get());
+                        return replay(exchange.getResponse(), stored.get(), fingerprint);
+                    }
+                    return store.reserve(key, fingerprint).flatMap(reserved -> {
+                        if (reserved) {
+                            // the key is released whatever the outcome, unless the response was stored
+                            return Mono.usingWhen(Mono.just(key),
+                                    ignored -> chain.filter(exchange.mutate()
+                                            .response(new CapturingResponse(exchange, key, fingerprint, execution))
+                                            .build()),
+                                    this::release,
+                                    (ignored, e) -> release(key),
+                                    this::release);
+                        }
+                        if (System.nanoTime() >= deadline) {
+                            return reject(exchange.getResponse(), HttpStatus.CONFLICT);
+                        }
+                        log.debug("Waiting for another node running the request with idempotency key: {}", key);
+                        return Mono.delay(RESERVATION_POLL_INTERVAL)
+                                .then(Mono.defer(() -> run(exchange, chain, key, fingerprint, execution, deadline)));
+                    });
+                });
+    }
+
+    /**
+     * Releases the key before waking up the waiting retries, so that they can run again when nothing was stored.
+     * Only the first call has an effect.
+     */
+    private void complete(String key, Sinks.One<StoredResponse> execution, StoredResponse stored) {
+        inFlight.remove(key, execution);
+        if (stored != null) {
+            execution.tryEmitValue(stored);
+        } else {
+            execution.tryEmitEmpty();
+        }
+    }
+
+    private Mono<Void> release(String key) {
+        return store.release(key)
+                .onErrorResume(e -> {
+                    log.warn("Idempotency key {} could not be released", key, e);
+                    return Mono.empty();
+                });
+    }
+
+    private static Mono<Void> replay(ServerHttpResponse response, StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            return reject(response, HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        response.setStatusCode(HttpStatusCode.valueOf(stored.status()));
+        HttpHeaders headers = response.getHeaders();
+        headers.set(IDEMPOTENT_REPLAYED, "true");
+        if (stored.location() != null) {
+            headers.setLocation(stored.location());
+        }
+        if (stored.body().length == 0) {
+            return response.setComplete();
+        }
+        headers.setContentType(stored.contentType());
+        headers.setContentLength(stored.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(stored.body())));
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status) {
+        response.setStatusCode(status);
+        return response.setComplete();
+    }
+
+    private static String fingerprint(ServerHttpRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().name().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getURI().getRawPath().getBytes(StandardCharsets.UTF_8));
+            String query = request.getURI().getRawQuery();
+            if (query != null) {
+                digest.update((byte) '?');
+                digest.update(query.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Request whose body, already read for its fingerprint, is served again to the handler.
+     */
+    private static class ReplayedRequest extends ServerHttpRequestDecorator {
+
+        private final ServerWebExchange exchange;
+
+        private final byte[] body;
+
+        ReplayedRequest(ServerWebExchange exchange, byte[] body) {
+            super(exchange.getRequest());
+            this.exchange = exchange;
+            this.body = body;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            if (body.length == 0) {
+                return Flux.empty();
+            }
+            return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+        }
+
+    }
+
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+
+        private final String fingerprint;
+
+        private final Sinks.One<StoredResponse> execution;
+
+        CapturingResponse(ServerWebExchange exchange, String key, String fingerprint,
+                          Sinks.One<StoredResponse> execution) {
+            super(exchange.getResponse());
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.execution = execution;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!storable()) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                int size = joined.readableByteCount();
+                if (size > maxEntryBytes) {
+                    return super.writeWith(Mono.just(joined));
+                }
+                byte[] bytes = new byte[size];
+                joined.toByteBuffer(joined.readPosition(), size).get(bytes);
+                return store(bytes).then(super.writeWith(Mono.just(joined)));
+            });
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            if (!storable()) {
+                return super.setComplete();
+            }
+            return store(new byte[0]).then(super.setComplete());
+        }
+
+        private boolean storable() {
+            HttpStatusCode status = getStatusCode();
+            return status == null || !status.is5xxServerError();
+        }
+
+        private Mono<Void> store(byte[] body) {
+            int status = getStatusCode() != null ? getStatusCode().value() : HttpStatus.OK.value();
+            StoredResponse stored = new StoredResponse(fingerprint, status, getHeaders().getContentType(),
+                    getHeaders().getLocation(), body);
+            return IdempotencyWebFilter.this.store.save(key, stored)
+                    .doOnSuccess(ignored -> complete(key, execution, stored))
+                    .onErrorResume(e -> {
+                        log.warn("Response of idempotency key {} could not be stored", key, e);
+                        return Mono.empty();
+                    });
+        }
+
+    }
+
+}
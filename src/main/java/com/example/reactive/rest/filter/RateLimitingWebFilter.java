@@ -0,0 +1,185 @@
+package com.example.reactive.rest.filter;
+
+import com.example.reactive.rest.configuration.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for the API, applied before any handler touches the database:
+ * <ol>
+ *     <li>every client, identified by its known API key or else by its address, has a {@link TokenBucket};
+ *     a request costs one token per {@code pageSizePerToken} requested rows and is rejected with 429 when
+ *     the bucket can't pay for it. A handler that only knows the rows from the request body charges them with
+ *     {@link #chargeRows},</li>
+ *     <li>the requests processed at the same time are capped, the excess is rejected with 503
+ *     instead of queueing in front of the connection pool.</li>
+ * </ol>
+ * Rejections are counted in {@code rest.requests.rejected}, tagged with the reason.
+ */
+@Slf4j
+public class RateLimitingWebFilter implements WebFilter, Ordered {
+
+    private static final String API_PATH = "/api/";
+
+    private static final String SIZE_PARAMETER = "size";
+
+    private static final String ADMISSION_ATTRIBUTE = RateLimitingWebFilter.class.getName() + ".ADMISSION";
+
+    private final RateLimitProperties properties;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+
+    private final Counter rateLimitedRequests;
+
+    private final Counter overloadedRequests;
+
+    public RateLimitingWebFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getClientIdleTimeout())
+                .build();
+        this.rateLimitedRequests = Counter.builder("rest.requests.rejected")
+                .description("Requests rejected by admission control")
+                .tag("reason", "rate_limit")
+                .register(meterRegistry);
+        this.overloadedRequests = Counter.builder("rest.requests.rejected")
+                .description("Requests rejected by admission control")
+                .tag("reason", "overload")
+                .register(meterRegistry);
+        Gauge.builder("rest.requests.in_flight", inFlightRequests, AtomicInteger::get)
+                .description("Requests admitted and not completed yet")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!request.getPath().value().startsWith(API_PATH)) {
+            return chain.filter(exchange);
+        }
+        String clientKey = ClientKeys.resolve(request, properties.getClientKeyHeader(), properties.getApiKeys());
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(clientKey, key -> new TokenBucket(
+                properties.getCapacity(), properties.getRefillPerSecond(), now));
+        int cost = cost(request);
+        long waitNanos = bucket.tryAcquire(cost, now);
+        if (waitNanos > 0) {
+            log.debug("Rate limit exceeded by client: {}", clientKey);
+            rateLimitedRequests.increment();
+            return reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, waitNanos);
+        }
+        if (inFlightRequests.incrementAndGet() > properties.getMaxConcurrentRequests()) {
+            inFlightRequests.decrementAndGet();
+            log.debug("Too many concurrent requests, rejecting client: {}", clientKey);
+            overloadedRequests.increment();
+            return reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1));
+        }
+        exchange.getAttributes().put(ADMISSION_ATTRIBUTE, new Admission(bucket, clientKey, cost));
+        return chain.filter(exchange)
+                .doFinally(signalType -> inFlightRequests.decrementAndGet());
+    }
+
+    /**
+     * Charges the request the tokens of a page of {@code rows} rows, less those it paid on admission. When its
+     * client's bucket can't pay for them, the request is rejected with 429 like on admission, by throwing a
+     * {@link ResponseStatusException}. Requests that were not admitted by the filter are not charged.
+     */
+    public static void chargeRows(ServerWebExchange exchange, long rows) {
+        Admission admission = exchange.getAttribute(ADMISSION_ATTRIBUTE);
+        if (admission != null) {
+            admission.chargeRows(exchange.getResponse(), rows);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    /**
+     * A page costs one token per started {@code pageSizePerToken} rows, any other request costs one token.
+     * The cost never exceeds the bucket capacity, so every valid request can eventually be served.
+     */
+    private int cost(ServerHttpRequest request) {
+        if (request.getMethod() != HttpMethod.GET) {
+            return 1;
+        }
+        String size = request.getQueryParams().getFirst(SIZE_PARAMETER);
+        if (size == null) {
+            return 1;
+        }
+        try {
+            return tokens(Integer.parseInt(size));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private int tokens(long rows) {
+        long tokens = (Math.max(rows, 1) + properties.getPageSizePerToken() - 1) / properties.getPageSizePerToken();
+        return (int) Math.min(tokens, properties.getCapacity());
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status, long retryAfterNanos) {
+        response.setStatusCode(status);
+        setRetryAfter(response, retryAfterNanos);
+        return response.setComplete();
+    }
+
+    private static void setRetryAfter(ServerHttpResponse response, long retryAfterNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999));
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+
+    /**
+     * The bucket that admitted a request and the tokens it paid.
+     */
+    @RequiredArgsConstructor
+    private class Admission {
+
+        private final TokenBucket bucket;
+
+        private final String clientKey;
+
+        private final int paid;
+
+        void chargeRows(ServerHttpResponse response, long rows) {
+            int tokens = tokens(rows) - paid;
+            if (tokens <= 0) {
+                return;
+            }
+            long waitNanos = bucket.tryAcquire(tokens, System.nanoTime());
+            if (waitNanos > 0) {
+                log.debug("Rate limit exceeded by client: {}", clientKey);
+                rateLimitedRequests.increment();
+                setRetryAfter(response, waitNanos);
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Rate limit exceeded by the %d rows of the request".formatted(rows));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.example.reactive.rest.filter;
+
+import com.example.reactive.rest.routing.ReadYourWritesTracker;
+import com.example.reactive.rest.routing.RoutingContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Puts the client of the request into the Reactor context and records its writes in the
+ * {@link ReadYourWritesTracker}, when the write starts and again when it completes,
+ * so replica routing can keep its following reads on the primary.
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesWebFilter implements WebFilter, Ordered {
+
+    private static final Set<HttpMethod> READ_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final String clientKeyHeader;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String clientKey = ClientKeys.resolve(exchange.getRequest(), clientKeyHeader);
+        Mono<Void> response = chain.filter(exchange);
+        if (!READ_METHODS.contains(exchange.getRequest().getMethod())) {
+            readYourWritesTracker.onWrite(clientKey);
+            response = response.doFinally(signalType -> readYourWritesTracker.onWrite(clientKey));
+        }
+        return response.contextWrite(context -> RoutingContext.withClient(context, clientKey));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+}
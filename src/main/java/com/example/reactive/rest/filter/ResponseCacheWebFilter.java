@@ -0,0 +1,149 @@
+package com.example.reactive.rest.filter;
+
+import com.example.reactive.rest.cache.ResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Serves GET requests of the API from the {@link ResponseCache}: a hit writes the stored bytes straight to the
+ * response, without running the handler or encoding anything, a miss captures the encoded body of a 200 response.
+ * Entries are keyed by tenant, path, query and {@code Accept}, and carry a strong {@code ETag}
+ * honoured by {@code If-None-Match}. Streamed pages and stale responses, carrying a {@code Warning}, are never
+ * cached.
+ */
+@RequiredArgsConstructor
+public class ResponseCacheWebFilter implements WebFilter, Ordered {
+
+    private static final String API_PATH = "/api/";
+
+    private static final String STREAM_PARAMETER = "stream";
+
+    private final ResponseCache responseCache;
+
+    private final int maxEntryBytes;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET
+                || !request.getPath().value().startsWith(API_PATH)
+                || request.getQueryParams().containsKey(STREAM_PARAMETER)) {
+            return chain.filter(exchange);
+        }
+        String key = ResponseCache.key(TenantWebFilter.tenantId(exchange), key(request));
+        ResponseCache.Entry entry = responseCache.get(key);
+        if (entry != null) {
+            return write(exchange, entry);
+        }
+        long generation = responseCache.generation();
+        return chain.filter(exchange.mutate()
+                .response(new CapturingResponse(exchange, key, generation))
+                .build());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    private static String key(ServerHttpRequest request) {
+        String accept = request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        String query = request.getURI().getRawQuery();
+        return request.getPath().value()
+                + (query != null ? "?" + query : "")
+                + "|" + (accept != null ? accept : "*/*");
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, ResponseCache.Entry entry) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(entry.eTag());
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        if (notModified(exchange.getRequest(), entry.eTag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        headers.setContentType(entry.contentType());
+        headers.setContentLength(entry.body().capacity());
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(entry.body().duplicate())));
+    }
+
+    private static boolean notModified(ServerHttpRequest request, String eTag) {
+        return request.getHeaders().getIfNoneMatch().contains(eTag);
+    }
+
+    private static String eTag(ByteBuffer body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            digest.update(body.duplicate());
+            return "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+
+        private final String key;
+
+        private final long generation;
+
+        CapturingResponse(ServerWebExchange exchange, String key, long generation) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.generation = generation;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatus status = HttpStatus.resolve(getStatusCode() != null ? getStatusCode().value() : 200);
+            if (status != HttpStatus.OK || getHeaders().containsKey(HttpHeaders.WARNING)) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                int size = joined.readableByteCount();
+                if (size > maxEntryBytes) {
+                    return super.writeWith(Mono.just(joined));
+                }
+                ByteBuffer bytes = ByteBuffer.allocateDirect(size);
+                bytes.put(joined.toByteBuffer(joined.readPosition(), size)).flip();
+                ResponseCache.Entry entry = new ResponseCache.Entry(bytes.asReadOnlyBuffer(),
+                        getHeaders().getContentType(), eTag(bytes));
+                responseCache.put(key, entry, generation);
+                getHeaders().setETag(entry.eTag());
+                getHeaders().setVary(List.of(HttpHeaders.ACCEPT));
+                if (notModified(exchange.getRequest(), entry.eTag())) {
+                    DataBufferUtils.release(joined);
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+                    return setComplete();
+                }
+                return super.writeWith(Mono.just(joined));
+            });
+        }
+
+    }
+
+}
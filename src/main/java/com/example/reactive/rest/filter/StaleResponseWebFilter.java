@@ -0,0 +1,81 @@
+package com.example.reactive.rest.filter;
+
+import com.example.reactive.rest.cache.StaleResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Marks GET responses built from stale service cache values, served while the database is unavailable, with
+ * {@code Warning: 110} and an {@code Age} of the oldest value. It runs inside the {@link ResponseCacheWebFilter},
+ * whose capture then sees the warning and doesn't keep the response.
+ */
+public class StaleResponseWebFilter implements WebFilter, Ordered {
+
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        StaleResponse staleResponse = new StaleResponse();
+        return chain.filter(exchange.mutate()
+                        .response(new MarkingResponse(exchange.getResponse(), staleResponse))
+                        .build())
+                .contextWrite(context -> context.put(StaleResponse.KEY, staleResponse));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 11;
+    }
+
+    private static class MarkingResponse extends ServerHttpResponseDecorator {
+
+        private final StaleResponse staleResponse;
+
+        MarkingResponse(ServerHttpResponse delegate, StaleResponse staleResponse) {
+            super(delegate);
+            this.staleResponse = staleResponse;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            mark();
+            return super.writeWith(body);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            mark();
+            return super.writeAndFlushWith(body);
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            mark();
+            return super.setComplete();
+        }
+
+        private void mark() {
+            Duration age = staleResponse.getAge();
+            if (age != null && !isCommitted() && !getHeaders().containsKey(HttpHeaders.WARNING)) {
+                getHeaders().set(HttpHeaders.WARNING, STALE_WARNING);
+                getHeaders().set(HttpHeaders.AGE, Long.toString(age.toSeconds()));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.example.reactive.rest.filter;
+
+import com.example.reactive.rest.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Resolves the tenant of a request from its tenant header, the default tenant without one, and puts it into the
+ * Reactor context and the exchange attributes. Requests of an unknown tenant are rejected with 400.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TenantWebFilter implements WebFilter, Ordered {
+
+    public static final String TENANT_ATTRIBUTE = TenantWebFilter.class.getName() + ".TENANT";
+
+    private final String tenantHeader;
+
+    private final Set<String> tenants;
+
+    /**
+     * The tenant of the exchange, {@code null} before it was resolved.
+     */
+    public static String tenantId(ServerWebExchange exchange) {
+        return exchange.getAttribute(TENANT_ATTRIBUTE);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String tenantId = exchange.getRequest().getHeaders().getFirst(tenantHeader);
+        if (tenantId == null || tenantId.isBlank()) {
+            tenantId = TenantContext.DEFAULT_TENANT;
+        } else if (!tenants.contains(tenantId)) {
+            log.debug("Rejecting request of unknown tenant: {}", tenantId);
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
+            return exchange.getResponse().setComplete();
+        }
+        String resolved = tenantId;
+        exchange.getAttributes().put(TENANT_ATTRIBUTE, resolved);
+        return chain.filter(exchange).contextWrite(context -> TenantContext.withTenant(context, resolved));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.example.reactive.rest.filter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: instead of a token count and a refill timestamp, a single
+ * "theoretical arrival time" is kept, so acquiring is one compare-and-set on an {@link AtomicLong}.
+ * The bucket is full when that time is in the past and empty when it is {@code capacity} tokens ahead of now.
+ */
+class TokenBucket {
+
+    private final long nanosPerToken;
+
+    private final long burstNanos;
+
+    private final AtomicLong theoreticalArrivalTime;
+
+    TokenBucket(int capacity, int refillPerSecond, long nowNanos) {
+        this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / refillPerSecond;
+        this.burstNanos = nanosPerToken * capacity;
+        this.theoreticalArrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes {@code tokens} from the bucket.
+     *
+     * @return {@code 0} if the tokens were taken, otherwise the nanoseconds to wait until they would be available
+     */
+    long tryAcquire(int tokens, long nowNanos) {
+        long cost = nanosPerToken * tokens;
+        while (true) {
+            long current = theoreticalArrivalTime.get();
+            long next = Math.max(current, nowNanos) + cost;
+            long excess = next - nowNanos - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.example.reactive.rest.idempotency;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * {@link IdempotencyStore} in the {@code idempotency_key} table of the primary database, shared by all the nodes.
+ * A request reserves its key with a row without status, unique on the key so that one node only runs it, which
+ * gets its response once stored. Reservations held longer than {@code reservationTimeout} are abandoned.
+ * Expired rows are ignored by {@link #find}, replaced when their key is reused and purged periodically.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DatabaseIdempotencyStore implements IdempotencyStore, DisposableBean {
+
+    private static final String FIND_SQL = "SELECT fingerprint, status, content_type, location, body "
+            + "FROM idempotency_key WHERE idempotency_key = :key AND status IS NOT NULL "
+            + "AND created_at >= :createdSince";
+
+    private static final String RESERVE_SQL = "INSERT INTO idempotency_key (idempotency_key, fingerprint, created_at) "
+            + "VALUES (:key, :fingerprint, :createdAt)";
+
+    private static final String COMPLETE_SQL = "UPDATE idempotency_key "
+            + "SET fingerprint = :fingerprint, status = :status, content_type = :contentType, location = :location, "
+            + "body = :body WHERE idempotency_key = :key AND status IS NULL";
+
+    private static final String INSERT_SQL = "INSERT INTO idempotency_key "
+            + "(idempotency_key, fingerprint, status, content_type, location, body, created_at) "
+            + "VALUES (:key, :fingerprint, :status, :contentType, :location, :body, :createdAt)";
+
+    private static final String DELETE_EXPIRED_KEY_SQL =
+            "DELETE FROM idempotency_key WHERE idempotency_key = :key AND created_at < :expired";
+
+    private static final String DELETE_ABANDONED_KEY_SQL = "DELETE FROM idempotency_key WHERE idempotency_key = :key "
+            + "AND (created_at < :expired OR status IS NULL AND created_at < :abandoned)";
+
+    private static final String RELEASE_SQL =
+            "DELETE FROM idempotency_key WHERE idempotency_key = :key AND status IS NULL";
+
+    private final DatabaseClient databaseClient;
+
+    private final Duration timeToLive;
+
+    private final Duration purgeInterval;
+
+    private final Duration reservationTimeout;
+
+    private final Clock clock;
+
+    private volatile Disposable schedule;
+
+    @Override
+    public Mono<StoredResponse> find(String key) {
+        return databaseClient.sql(FIND_SQL)
+                .bind("key", key)
+                .bind("createdSince", LocalDateTime.now(clock).minus(timeToLive))
+                .map(DatabaseIdempotencyStore::storedResponse)
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> reserve(String key, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return databaseClient.sql(DELETE_ABANDONED_KEY_SQL)
+                .bind("key", key)
+                .bind("expired", now.minus(timeToLive))
+                .bind("abandoned", now.minus(reservationTimeout))
+                .then()
+                .then(databaseClient.sql(RESERVE_SQL)
+                        .bind("key", key)
+                        .bind("fingerprint", fingerprint)
+                        .bind("createdAt", now)
+                        .then())
+                .thenReturn(Boolean.TRUE)
+                // another request holds the key, or stored its response
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.just(Boolean.FALSE));
+    }
+
+    /**
+     * Completes the reservation of the key, or inserts the response when it was abandoned meanwhile.
+     */
+    @Override
+    public Mono<Void> save(String key, StoredResponse response) {
+        return response(databaseClient.sql(COMPLETE_SQL).bind("key", key), response)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated > 0 ? Mono.empty() : insert(key, response));
+    }
+
+    @Override
+    public Mono<Void> release(String key) {
+        return databaseClient.sql(RELEASE_SQL)
+                .bind("key", key)
+                .then();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        schedule = Flux.interval(purgeInterval, purgeInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> purge()
+                        .onErrorResume(e -> {
+                            log.warn("Idempotency key purge failed", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    public Mono<Long> purge() {
+        LocalDateTime expired = LocalDateTime.now(clock).minus(timeToLive);
+        return databaseClient.sql("DELETE FROM idempotency_key WHERE created_at < :expired")
+                .bind("expired", expired)
+                .fetch()
+                .rowsUpdated()
+                .doOnNext(removed -> log.debug("Purged {} idempotency keys created before {}", removed, expired));
+    }
+
+    @Override
+    public void destroy() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    private Mono<Void> insert(String key, StoredResponse response) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        DatabaseClient.GenericExecuteSpec insert = response(databaseClient.sql(INSERT_SQL).bind("key", key), response)
+                .bind("createdAt", now);
+        return databaseClient.sql(DELETE_EXPIRED_KEY_SQL)
+                .bind("key", key)
+                .bind("expired", now.minus(timeToLive))
+                .then()
+                .then(insert.then())
+                // another node stored its response first, it is the one replayed
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.empty());
+    }
+
+    private static DatabaseClient.GenericExecuteSpec response(DatabaseClient.GenericExecuteSpec spec,
+                                                              StoredResponse response) {
+        spec = spec.bind("fingerprint", response.fingerprint())
+                .bind("status", response.status())
+                .bind("body", response.body());
+        spec = response.contentType() != null
+                ? spec.bind("contentType", response.contentType().toString())
+                : spec.bindNull("contentType", String.class);
+        return response.location() != null
+                ? spec.bind("location", response.location().toString())
+                : spec.bindNull("location", String.class);
+    }
+
+    private static StoredResponse storedResponse(Readable row) {
+        String contentType = row.get("content_type", String.class);
+        String location = row.get("location", String.class);
+        byte[] body = row.get("body", byte[].class);
+        return new StoredResponse(row.get("fingerprint", String.class),
+                ((Number) row.get("status")).intValue(),
+                contentType != null ? MediaType.parseMediaType(contentType) : null,
+                location != null ? URI.create(location) : null,
+                body != null ? body : new byte[0]);
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.example.reactive.rest.idempotency;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Responses of completed idempotent requests by key, the key being scoped by client.
+ * The {@link InMemoryIdempotencyStore} only covers retries reaching the same node,
+ * the {@link DatabaseIdempotencyStore} shares them between the nodes of a cluster.
+ * A request reserves its key before running, so that a retry reaching another node meanwhile does not run it too.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * @return the stored response, empty when the key is unknown, expired or reserved by a running request
+     */
+    Mono<StoredResponse> find(String key);
+
+    /**
+     * @return whether the key was reserved for the request with this fingerprint, false while another request
+     * holds it or once its response is stored
+     */
+    Mono<Boolean> reserve(String key, String fingerprint);
+
+    /**
+     * Stores the response of the request holding the key, the first response stored is kept.
+     */
+    Mono<Void> save(String key, StoredResponse response);
+
+    /**
+     * Frees the key of a request whose response was not stored, so that a retry can run it. No-op once stored.
+     */
+    Mono<Void> release(String key);
+
+}
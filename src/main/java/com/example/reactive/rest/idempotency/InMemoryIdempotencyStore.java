@@ -0,0 +1,55 @@
+package com.example.reactive.rest.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * {@link IdempotencyStore} of a single node, bounded by the total size of the stored bodies and by their age.
+ * Reservations always succeed: the running requests of the node are already tracked by the filter.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    /**
+     * Rough size of a stored response besides its body: key, fingerprint, headers and the entry itself.
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final Cache<String, StoredResponse> responses;
+
+    public InMemoryIdempotencyStore(long maxBytes, Duration timeToLive) {
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, StoredResponse response) -> response.body().length + ENTRY_OVERHEAD)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Mono<StoredResponse> find(String key) {
+        return Mono.fromSupplier(() -> responses.getIfPresent(key));
+    }
+
+    @Override
+    public Mono<Boolean> reserve(String key, String fingerprint) {
+        return Mono.just(Boolean.TRUE);
+    }
+
+    @Override
+    public Mono<Void> save(String key, StoredResponse response) {
+        return Mono.fromRunnable(() -> responses.asMap().putIfAbsent(key, response));
+    }
+
+    @Override
+    public Mono<Void> release(String key) {
+        return Mono.empty();
+    }
+
+    public Cache<String, StoredResponse> getNativeCache() {
+        return responses;
+    }
+
+}
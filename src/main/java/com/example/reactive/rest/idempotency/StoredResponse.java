@@ -0,0 +1,12 @@
+package com.example.reactive.rest.idempotency;
+
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+
+/**
+ * Response of the first execution of an idempotent request, replayed to its retries.
+ * The {@code fingerprint} identifies the request it answered, a retry with another payload is rejected.
+ */
+public record StoredResponse(String fingerprint, int status, MediaType contentType, URI location, byte[] body) {
+}
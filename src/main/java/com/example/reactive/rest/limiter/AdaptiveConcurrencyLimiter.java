@@ -0,0 +1,267 @@
+package com.example.reactive.rest.limiter;
+
+import com.example.reactive.rest.configuration.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the database operations in flight with a limit adjusted from their observed latency,
+ * following the gradient algorithm of Netflix's concurrency-limits:
+ * <ul>
+ *     <li>a long term latency average is the baseline of an unloaded database,</li>
+ *     <li>while the latest latency stays within {@code rttTolerance} of it the limit grows by roughly
+ *     its square root, once it queues inside the database the limit shrinks proportionally,</li>
+ *     <li>the limit only grows while it is actually used, so it doesn't drift up when idle.</li>
+ * </ul>
+ * Operations over the limit wait in a bounded FIFO queue and fail with
+ * {@link ConcurrencyLimitExceededException} when the queue is full or they waited for {@code maxQueueWait}.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private static final double LONG_RTT_WINDOW = 600;
+
+    private static final double DRIFT_RATIO = 2.0;
+
+    private static final double DRIFT_DECAY = 0.95;
+
+    private final ConcurrencyLimitProperties properties;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    private volatile double estimatedLimit;
+
+    private volatile int limit;
+
+    private double longRttNanos;
+
+    private Counter rejectedOperations;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.estimatedLimit = properties.getInitialLimit();
+        this.limit = properties.getInitialLimit();
+    }
+
+    public <T> Mono<T> limit(Mono<T> operation) {
+        return acquire().flatMap(permit -> operation
+                .doFirst(permit::take)
+                .doOnTerminate(permit::complete)
+                .doOnCancel(permit::cancel));
+    }
+
+    public <T> Flux<T> limit(Flux<T> operation) {
+        return acquire().flatMapMany(permit -> operation
+                .doFirst(permit::take)
+                .doOnTerminate(permit::complete)
+                .doOnCancel(permit::cancel));
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("rest.db.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Database operations currently allowed in flight")
+                .register(registry);
+        Gauge.builder("rest.db.concurrency.in_flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Database operations in flight")
+                .register(registry);
+        Gauge.builder("rest.db.concurrency.queued", this, AdaptiveConcurrencyLimiter::getQueued)
+                .description("Database operations waiting for a permit")
+                .register(registry);
+        rejectedOperations = Counter.builder("rest.db.concurrency.rejected")
+                .description("Database operations rejected by the concurrency limiter")
+                .register(registry);
+    }
+
+    private Mono<Permit> acquire() {
+        Mono<Permit> permit = Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            // disposed at once when the subscriber is already gone
+            sink.onDispose(waiter::dispose);
+            if (tryAcquire()) {
+                if (!waiter.grant(new Permit())) {
+                    inFlight.decrementAndGet();
+                }
+                return;
+            }
+            if (queued.incrementAndGet() > properties.getMaxQueueSize()) {
+                queued.decrementAndGet();
+                sink.error(rejected("queue is full"));
+                return;
+            }
+            waiters.offer(waiter);
+            if (waiter.done.get() && waiters.remove(waiter)) {
+                // cancelled before it was queued
+                queued.decrementAndGet();
+            }
+            // a permit may have been released between tryAcquire and offer
+            drain();
+        });
+        return permit.timeout(properties.getMaxQueueWait(),
+                Mono.error(() -> rejected("no permit within " + properties.getMaxQueueWait())));
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        Waiter waiter;
+        while ((waiter = waiters.peek()) != null && tryAcquire()) {
+            if (!waiters.remove(waiter)) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            queued.decrementAndGet();
+            if (!waiter.grant(new Permit())) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private ConcurrencyLimitExceededException rejected(String reason) {
+        if (rejectedOperations != null) {
+            rejectedOperations.increment();
+        }
+        return new ConcurrencyLimitExceededException("Database concurrency limit %d reached, %s"
+                .formatted(limit, reason));
+    }
+
+    /**
+     * Updates the limit with the latency of a completed operation and the operations in flight when it started.
+     */
+    synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        double shortRtt = rttNanos;
+        longRttNanos = longRttNanos == 0 ? shortRtt : longRttNanos + (shortRtt - longRttNanos) / LONG_RTT_WINDOW;
+        if (longRttNanos / shortRtt > DRIFT_RATIO) {
+            // the baseline is much slower than the database currently is, let it catch up
+            longRttNanos *= DRIFT_DECAY;
+        }
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * longRttNanos / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing();
+        estimatedLimit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+        int previous = limit;
+        limit = (int) estimatedLimit;
+        if (limit != previous) {
+            log.debug("Database concurrency limit changed from {} to {}, rtt: {}us, long rtt: {}us",
+                    previous, limit, rttNanos / 1000, (long) longRttNanos / 1000);
+        }
+    }
+
+    /**
+     * A subscriber waiting for a permit: it gets one or is disposed, whichever happens first, and a permit it is
+     * granted but never takes, e.g. because its timeout fired meanwhile, is released when it is disposed.
+     */
+    private final class Waiter {
+
+        private final MonoSink<Permit> sink;
+
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private volatile Permit permit;
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * @return {@code false} if the waiter was disposed first, the caller then releases the permit it acquired
+         */
+        boolean grant(Permit granted) {
+            permit = granted;
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            sink.success(granted);
+            return true;
+        }
+
+        void dispose() {
+            if (done.compareAndSet(false, true)) {
+                if (waiters.remove(this)) {
+                    queued.decrementAndGet();
+                }
+                return;
+            }
+            Permit granted = permit;
+            if (granted != null && granted.taken.compareAndSet(false, true)) {
+                granted.cancel();
+            }
+        }
+
+    }
+
+    private final class Permit {
+
+        private final long startNanos = System.nanoTime();
+
+        private final int inFlightAtStart = inFlight.get();
+
+        private final AtomicBoolean taken = new AtomicBoolean();
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void take() {
+            taken.set(true);
+        }
+
+        void complete() {
+            if (released.compareAndSet(false, true)) {
+                onSample(System.nanoTime() - startNanos, inFlightAtStart);
+                release();
+            }
+        }
+
+        void cancel() {
+            if (released.compareAndSet(false, true)) {
+                release();
+            }
+        }
+
+    }
+
+}
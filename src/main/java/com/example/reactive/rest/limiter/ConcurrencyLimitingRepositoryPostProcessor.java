@@ -0,0 +1,61 @@
+package com.example.reactive.rest.limiter;
+
+import com.example.reactive.rest.aot.ClassProxies;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes every reactive repository call through the {@link AdaptiveConcurrencyLimiter}:
+ * the returned {@link Mono} or {@link Flux} only runs its query once it got a permit.
+ */
+@RequiredArgsConstructor
+public class ConcurrencyLimitingRepositoryPostProcessor implements SmartInstantiationAwareBeanPostProcessor, Ordered {
+
+    private final ObjectProvider<AdaptiveConcurrencyLimiter> limiter;
+
+    /**
+     * The class proxy of a hand written repository, generated ahead of time for a native image.
+     */
+    @Override
+    public Class<?> determineBeanType(Class<?> beanClass, String beanName) {
+        return Repository.class.isAssignableFrom(beanClass)
+                ? ClassProxies.proxyClass(beanClass, interceptor())
+                : beanClass;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Repository<?, ?>)) {
+            return bean;
+        }
+        return ClassProxies.advise(bean, interceptor(), advised -> 0);
+    }
+
+    private MethodInterceptor interceptor() {
+        return invocation -> {
+            Object result = invocation.proceed();
+            if (result instanceof Mono<?> mono) {
+                return limiter.getObject().limit(mono);
+            }
+            if (result instanceof Flux<?> flux) {
+                return limiter.getObject().limit(flux);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Before the other repository decorators, whose advice then wraps the limited operation.
+     */
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.reactive.rest.model;
+
+/**
+ * A selectable field of an entity: its JSON property name, its column and how to read it.
+ *
+ * @param <T> entity type
+ */
+public interface EntityField<T> {
+
+    String getProperty();
+
+    String getColumn();
+
+    Object valueOf(T entity);
+
+}
@@ -1,5 +1,7 @@
 package com.example.reactive.rest.model;
 
+import com.example.reactive.rest.tenant.TenantContext;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,6 +23,13 @@ public class Project {
 
     private String name;
 
+    /**
+     * Implied by the tenant of the requests, so never serialized.
+     */
+    @JsonIgnore
+    @Builder.Default
+    private String tenantId = TenantContext.DEFAULT_TENANT;
+
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
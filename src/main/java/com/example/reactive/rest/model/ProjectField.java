@@ -0,0 +1,28 @@
+package com.example.reactive.rest.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.function.Function;
+
+@Getter
+@RequiredArgsConstructor
+public enum ProjectField implements EntityField<Project> {
+
+    ID("id", "id", Project::getId),
+    NAME("name", "name", Project::getName),
+    UPDATED_AT("updatedAt", "updated_at", Project::getUpdatedAt),
+    CREATED_AT("createdAt", "created_at", Project::getCreatedAt);
+
+    private final String property;
+
+    private final String column;
+
+    private final Function<Project, Object> accessor;
+
+    @Override
+    public Object valueOf(Project project) {
+        return accessor.apply(project);
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.example.reactive.rest.model;
 
+import com.example.reactive.rest.tenant.TenantContext;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,6 +25,13 @@ public class Task {
 
     private Long projectId;
 
+    /**
+     * Implied by the tenant of the requests, so never serialized.
+     */
+    @JsonIgnore
+    @Builder.Default
+    private String tenantId = TenantContext.DEFAULT_TENANT;
+
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
@@ -0,0 +1,15 @@
+package com.example.reactive.rest.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tasks of a project grouped by the hour they were created in.
+ *
+ * @param tenantId      tenant of the project
+ * @param projectId     project of the tasks
+ * @param createdHour   start of the creation hour, {@code null} for the tasks created before the requested period
+ * @param tasks         number of tasks
+ * @param lastUpdatedAt latest update time of the tasks
+ */
+public record TaskActivity(String tenantId, Long projectId, LocalDateTime createdHour, long tasks, LocalDateTime lastUpdatedAt) {
+}
@@ -0,0 +1,29 @@
+package com.example.reactive.rest.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.function.Function;
+
+@Getter
+@RequiredArgsConstructor
+public enum TaskField implements EntityField<Task> {
+
+    ID("id", "id", Task::getId),
+    DESCRIPTION("description", "description", Task::getDescription),
+    PROJECT_ID("projectId", "project_id", Task::getProjectId),
+    UPDATED_AT("updatedAt", "updated_at", Task::getUpdatedAt),
+    CREATED_AT("createdAt", "created_at", Task::getCreatedAt);
+
+    private final String property;
+
+    private final String column;
+
+    private final Function<Task, Object> accessor;
+
+    @Override
+    public Object valueOf(Task task) {
+        return accessor.apply(task);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.example.reactive.rest.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Restricts listings by the audited times of their entities, every bound is optional.
+ *
+ * @param modifiedSince only entities updated at or after this time
+ * @param createdFrom   only entities created at or after this time
+ * @param createdTo     only entities created before this time
+ */
+public record TimeFilter(LocalDateTime modifiedSince, LocalDateTime createdFrom, LocalDateTime createdTo) {
+
+    public static final TimeFilter NONE = new TimeFilter(null, null, null);
+
+    public boolean isEmpty() {
+        return modifiedSince == null && createdFrom == null && createdTo == null;
+    }
+
+}
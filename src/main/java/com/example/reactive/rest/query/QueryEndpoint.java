@@ -0,0 +1,27 @@
+package com.example.reactive.rest.query;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/queries?limit=10}: the statement shapes that took the most time in total, with the plan of their
+ * first slow statement.
+ */
+@Endpoint(id = "queries")
+@RequiredArgsConstructor
+public class QueryEndpoint {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final QueryStatistics queryStatistics;
+
+    @ReadOperation
+    public List<QueryStatistics.QueryShapeSummary> queries(@Nullable Integer limit) {
+        return queryStatistics.top(limit != null ? limit : DEFAULT_LIMIT);
+    }
+
+}
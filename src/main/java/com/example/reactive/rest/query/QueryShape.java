@@ -0,0 +1,90 @@
+package com.example.reactive.rest.query;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Statements that only differ in their values, e.g. the pages of a derived query whose {@code LIMIT} and
+ * {@code OFFSET} are inlined, or the length of an {@code IN} list.
+ */
+final class QueryShape {
+
+    private static final Pattern STRING = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern BIND_MARKER = Pattern.compile("\\$\\d+|(?<![:\\w]):[A-Za-z_]\\w*");
+
+    private static final Pattern NUMBER = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+
+    private static final Pattern LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String id;
+
+    private final String sql;
+
+    private final Timer timer;
+
+    private final LongAdder slow = new LongAdder();
+
+    private final AtomicBoolean explained = new AtomicBoolean();
+
+    private volatile String plan;
+
+    QueryShape(String id, String sql, Timer timer) {
+        this.id = id;
+        this.sql = sql;
+        this.timer = timer;
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING.matcher(sql).replaceAll("?");
+        shape = BIND_MARKER.matcher(shape).replaceAll("?");
+        shape = NUMBER.matcher(shape).replaceAll("?");
+        shape = LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").strip();
+    }
+
+    static String id(String shape) {
+        return String.format("%08x", shape.hashCode());
+    }
+
+    String id() {
+        return id;
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    Timer timer() {
+        return timer;
+    }
+
+    long slow() {
+        return slow.sum();
+    }
+
+    String plan() {
+        return plan;
+    }
+
+    void onSlow() {
+        slow.increment();
+    }
+
+    /**
+     * @return {@code true} for the first caller only, which captures the plan
+     */
+    boolean startExplaining() {
+        return explained.compareAndSet(false, true);
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+
+}
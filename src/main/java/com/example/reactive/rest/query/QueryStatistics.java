@@ -0,0 +1,172 @@
+package com.example.reactive.rest.query;
+
+import com.example.reactive.rest.r2dbc.StatementListener;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Times every statement and aggregates the times per {@link QueryShape} into {@code r2dbc.statements} timers.
+ * Statements slower than the threshold are logged, and the first one of each shape is explained by the database,
+ * with the same values, on a connection of its own. Beyond {@code maxShapes}, statements of new shapes are counted
+ * as {@code other}.
+ */
+@Slf4j
+public class QueryStatistics implements StatementListener {
+
+    static final String OTHER = "other";
+
+    private static final String TIMER_NAME = "r2dbc.statements";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final Map<String, QueryShape> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * Statements are normalized once, derived queries only differ in a few inlined values.
+     */
+    private final Cache<String, QueryShape> shapesBySql = Caffeine.newBuilder().maximumSize(10_000).build();
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConnectionFactory connectionFactory;
+
+    private final long slowThresholdNanos;
+
+    private final int maxShapes;
+
+    private final boolean explain;
+
+    public QueryStatistics(MeterRegistry meterRegistry, ConnectionFactory connectionFactory, Duration slowThreshold,
+                           int maxShapes, boolean explain) {
+        this.meterRegistry = meterRegistry;
+        this.connectionFactory = connectionFactory;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxShapes = maxShapes;
+        this.explain = explain;
+    }
+
+    @Override
+    public Flux<Result> onExecute(String sql, Map<Object, Object> bindings, Flux<Result> results) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return results.doFinally(signal -> record(sql, bindings, System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Shapes by total time spent, the largest first.
+     */
+    public List<QueryShapeSummary> top(int limit) {
+        return shapes.values().stream()
+                .sorted(Comparator.comparingDouble((QueryShape shape) -> shape.timer().totalTime(TimeUnit.NANOSECONDS))
+                        .reversed())
+                .limit(limit)
+                .map(QueryStatistics::summary)
+                .toList();
+    }
+
+    private void record(String sql, Map<Object, Object> bindings, long nanos) {
+        QueryShape shape = shapesBySql.get(sql, this::shape);
+        shape.timer().record(nanos, TimeUnit.NANOSECONDS);
+        if (nanos < slowThresholdNanos) {
+            return;
+        }
+        shape.onSlow();
+        log.warn("Slow statement, {} ms: {}", TimeUnit.NANOSECONDS.toMillis(nanos), sql);
+        if (explain && !shape.id().equals(OTHER) && shape.startExplaining()) {
+            explain(sql, new HashMap<>(bindings)).subscribe(shape::setPlan, e -> {
+                log.debug("Statement could not be explained: {}", sql, e);
+                shape.setPlan("EXPLAIN failed: " + e.getMessage());
+            });
+        }
+    }
+
+    private QueryShape shape(String sql) {
+        String normalized = QueryShape.normalize(sql);
+        QueryShape shape = shapes.get(normalized);
+        if (shape != null) {
+            return shape;
+        }
+        if (shapes.size() >= maxShapes) {
+            return shapes.computeIfAbsent(OTHER, this::newShape);
+        }
+        return shapes.computeIfAbsent(normalized, this::newShape);
+    }
+
+    private QueryShape newShape(String sql) {
+        String id = sql.equals(OTHER) ? OTHER : QueryShape.id(sql);
+        Timer timer = Timer.builder(TIMER_NAME)
+                .description("Statements run through the DatabaseClient, per shape")
+                .tag("shape", id)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+        return new QueryShape(id, sql, timer);
+    }
+
+    private Mono<String> explain(String sql, Map<Object, Object> bindings) {
+        return Mono.usingWhen(connectionFactory.create(), connection -> {
+            Statement statement = connection.createStatement("EXPLAIN " + sql);
+            bindings.forEach((key, value) -> bind(statement, key, value));
+            return Flux.from(statement.execute())
+                    .concatMap(result -> result.map((row, metadata) -> String.valueOf(row.get(0))))
+                    .collect(Collectors.joining("\n"));
+        }, Connection::close);
+    }
+
+    private static void bind(Statement statement, Object key, Object value) {
+        if (value instanceof NullBinding nullBinding) {
+            if (key instanceof Integer index) {
+                statement.bindNull(index, nullBinding.type());
+            } else {
+                statement.bindNull((String) key, nullBinding.type());
+            }
+        } else if (key instanceof Integer index) {
+            statement.bind(index, value);
+        } else {
+            statement.bind((String) key, value);
+        }
+    }
+
+    private static QueryShapeSummary summary(QueryShape shape) {
+        HistogramSnapshot snapshot = shape.timer().takeSnapshot();
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            percentiles.put("p" + Math.round(percentile.percentile() * 100), percentile.value(TimeUnit.MILLISECONDS));
+        }
+        return new QueryShapeSummary(shape.id(), shape.sql(), snapshot.count(),
+                snapshot.total(TimeUnit.MILLISECONDS), snapshot.mean(TimeUnit.MILLISECONDS),
+                snapshot.max(TimeUnit.MILLISECONDS), percentiles, shape.slow(), shape.plan());
+    }
+
+    /**
+     * Times in milliseconds, the maximum and percentiles decay over the last minutes like those of the metrics.
+     */
+    public record QueryShapeSummary(String shape, String sql, long count, double totalMillis, double meanMillis,
+                                    double maxMillis, Map<String, Double> percentilesMillis, long slow,
+                                    String plan) {
+    }
+
+}
@@ -0,0 +1,252 @@
+package com.example.reactive.rest.r2dbc;
+
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.TransactionDefinition;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Passes the statements run on its connections to {@link StatementListener}s, the way r2dbc-proxy does, without
+ * reflection: the execution of a statement lasts until it emitted its results, the rows are mapped by the caller.
+ * Batches are not listened to.
+ */
+public class ListeningConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private final ConnectionFactory delegate;
+
+    private final List<StatementListener> listeners;
+
+    public ListeningConnectionFactory(ConnectionFactory delegate, List<StatementListener> listeners) {
+        this.delegate = delegate;
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.deferContextual(context -> isListening(context)
+                ? Mono.from(delegate.create()).map(connection -> new ListeningConnection(connection, listeners))
+                : Mono.from(delegate.create()));
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    private boolean isListening(ContextView context) {
+        for (StatementListener listener : listeners) {
+            if (listener.isListening(context)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record ListeningConnection(Connection delegate, List<StatementListener> listeners)
+            implements Connection, Wrapped<Connection> {
+
+        @Override
+        public Statement createStatement(String sql) {
+            return new ListeningStatement(delegate.createStatement(sql), sql, listeners);
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction() {
+            return delegate.beginTransaction();
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction(TransactionDefinition definition) {
+            return delegate.beginTransaction(definition);
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return delegate.close();
+        }
+
+        @Override
+        public Publisher<Void> commitTransaction() {
+            return delegate.commitTransaction();
+        }
+
+        @Override
+        public Batch createBatch() {
+            return delegate.createBatch();
+        }
+
+        @Override
+        public Publisher<Void> createSavepoint(String name) {
+            return delegate.createSavepoint(name);
+        }
+
+        @Override
+        public boolean isAutoCommit() {
+            return delegate.isAutoCommit();
+        }
+
+        @Override
+        public ConnectionMetadata getMetadata() {
+            return delegate.getMetadata();
+        }
+
+        @Override
+        public IsolationLevel getTransactionIsolationLevel() {
+            return delegate.getTransactionIsolationLevel();
+        }
+
+        @Override
+        public Publisher<Void> releaseSavepoint(String name) {
+            return delegate.releaseSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransaction() {
+            return delegate.rollbackTransaction();
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+            return delegate.rollbackTransactionToSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> setAutoCommit(boolean autoCommit) {
+            return delegate.setAutoCommit(autoCommit);
+        }
+
+        @Override
+        public Publisher<Void> setLockWaitTimeout(Duration timeout) {
+            return delegate.setLockWaitTimeout(timeout);
+        }
+
+        @Override
+        public Publisher<Void> setStatementTimeout(Duration timeout) {
+            return delegate.setStatementTimeout(timeout);
+        }
+
+        @Override
+        public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+            return delegate.setTransactionIsolationLevel(isolationLevel);
+        }
+
+        @Override
+        public Publisher<Boolean> validate(ValidationDepth depth) {
+            return delegate.validate(depth);
+        }
+
+        @Override
+        public Connection unwrap() {
+            return delegate;
+        }
+
+    }
+
+    /**
+     * Keeps the values of the first binding set, later sets added for a batch execution are not recorded.
+     */
+    private static final class ListeningStatement implements Statement {
+
+        private final Statement delegate;
+
+        private final String sql;
+
+        private final List<StatementListener> listeners;
+
+        private final Map<Object, Object> bindings = new HashMap<>();
+
+        private boolean added;
+
+        ListeningStatement(Statement delegate, String sql, List<StatementListener> listeners) {
+            this.delegate = delegate;
+            this.sql = sql;
+            this.listeners = listeners;
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            Flux<Result> results = Flux.from(delegate.execute());
+            for (StatementListener listener : listeners) {
+                results = listener.onExecute(sql, bindings, results);
+            }
+            return results;
+        }
+
+        @Override
+        public Statement add() {
+            delegate.add();
+            added = true;
+            return this;
+        }
+
+        @Override
+        public Statement bind(int index, Object value) {
+            delegate.bind(index, value);
+            record(index, value);
+            return this;
+        }
+
+        @Override
+        public Statement bind(String name, Object value) {
+            delegate.bind(name, value);
+            record(name, value);
+            return this;
+        }
+
+        @Override
+        public Statement bindNull(int index, Class<?> type) {
+            delegate.bindNull(index, type);
+            record(index, new StatementListener.NullBinding(type));
+            return this;
+        }
+
+        @Override
+        public Statement bindNull(String name, Class<?> type) {
+            delegate.bindNull(name, type);
+            record(name, new StatementListener.NullBinding(type));
+            return this;
+        }
+
+        @Override
+        public Statement returnGeneratedValues(String... columns) {
+            delegate.returnGeneratedValues(columns);
+            return this;
+        }
+
+        @Override
+        public Statement fetchSize(int rows) {
+            delegate.fetchSize(rows);
+            return this;
+        }
+
+        private void record(Object key, Object value) {
+            if (!added) {
+                bindings.put(key, value);
+            }
+        }
+
+    }
+
+}
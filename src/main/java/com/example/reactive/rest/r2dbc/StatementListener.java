@@ -0,0 +1,32 @@
+package com.example.reactive.rest.r2dbc;
+
+import io.r2dbc.spi.Result;
+import reactor.core.publisher.Flux;
+import reactor.util.context.ContextView;
+
+import java.util.Map;
+
+/**
+ * Decorates the execution of the statements run through a {@link ListeningConnectionFactory}.
+ */
+public interface StatementListener {
+
+    /**
+     * Whether the statements of a subscriber with the given context are listened to at all, connections are only
+     * wrapped when a listener is.
+     */
+    default boolean isListening(ContextView context) {
+        return true;
+    }
+
+    /**
+     * @param sql      the statement as created, with its bind markers
+     * @param bindings the values of its first binding set, by index or name, {@link NullBinding} for {@code null}
+     * @param results  the execution of the statement
+     */
+    Flux<Result> onExecute(String sql, Map<Object, Object> bindings, Flux<Result> results);
+
+    record NullBinding(Class<?> type) {
+    }
+
+}
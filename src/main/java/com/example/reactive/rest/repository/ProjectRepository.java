@@ -4,9 +4,18 @@ import com.example.reactive.rest.model.Project;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface ProjectRepository extends ReactiveCrudRepository<Project, Long> {
+public interface ProjectRepository extends ReactiveCrudRepository<Project, Long>, ProjectRepositoryCustom {
 
-    Flux<Project> findAllBy(Pageable pageable);
+    Flux<Project> findAllByTenantId(String tenantId, Pageable pageable);
+
+    Flux<Project> findAllByTenantIdAndIdGreaterThan(String tenantId, Long id, Pageable pageable);
+
+    Mono<Long> countByTenantId(String tenantId);
+
+    Mono<Project> findByTenantIdAndId(String tenantId, Long id);
+
+    Mono<Boolean> existsByTenantIdAndId(String tenantId, Long id);
 
 }
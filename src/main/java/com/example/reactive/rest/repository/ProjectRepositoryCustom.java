@@ -0,0 +1,44 @@
+package com.example.reactive.rest.repository;
+
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.TimeFilter;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ProjectRepositoryCustom {
+
+    /**
+     * Selects only the given columns of the projects of the tenant, the other properties of the returned projects
+     * stay {@code null}.
+     */
+    Flux<Project> findAllBy(String tenantId, Collection<String> columns, Pageable pageable);
+
+    /**
+     * Projects of the tenant matching the filter, only the given columns are selected unless they are empty.
+     */
+    Flux<Project> findAllBy(String tenantId, TimeFilter filter, Collection<String> columns, Pageable pageable);
+
+    Mono<Long> count(String tenantId, TimeFilter filter);
+
+    /**
+     * Deletes the project of the tenant and records its deletion for the delta sync, in one transaction. Returns how
+     * many projects were deleted, a missing project leaves no tombstone. Its tasks are only deleted with it when they
+     * live on the same database.
+     */
+    Mono<Long> deleteProject(String tenantId, Long projectId, LocalDateTime deletedAt);
+
+    /**
+     * Ids of the projects of the tenant deleted at or after the given time.
+     */
+    Flux<Long> findTombstones(String tenantId, LocalDateTime deletedSince);
+
+    /**
+     * Compacts the tombstones of the projects deleted before the given time, returns how many were removed.
+     */
+    Mono<Long> deleteTombstonesBefore(LocalDateTime deletedBefore);
+
+}
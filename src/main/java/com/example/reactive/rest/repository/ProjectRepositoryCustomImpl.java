@@ -0,0 +1,88 @@
+package com.example.reactive.rest.repository;
+
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.TimeFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class ProjectRepositoryCustomImpl implements ProjectRepositoryCustom {
+
+    private final R2dbcEntityTemplate template;
+
+    @Override
+    public Flux<Project> findAllBy(String tenantId, Collection<String> columns, Pageable pageable) {
+        return template.select(Project.class)
+                .matching(Query.query(tenant(tenantId)).columns(columns).with(pageable))
+                .all();
+    }
+
+    @Override
+    public Flux<Project> findAllBy(String tenantId, TimeFilter filter, Collection<String> columns,
+                                   Pageable pageable) {
+        return template.select(Project.class)
+                .matching(Query.query(TimeFilterCriteria.and(tenant(tenantId), filter)).columns(columns)
+                        .with(pageable))
+                .all();
+    }
+
+    @Override
+    public Mono<Long> count(String tenantId, TimeFilter filter) {
+        return template.count(Query.query(TimeFilterCriteria.and(tenant(tenantId), filter)), Project.class);
+    }
+
+    @Override
+    public Mono<Long> deleteProject(String tenantId, Long projectId, LocalDateTime deletedAt) {
+        DatabaseClient client = template.getDatabaseClient();
+        Mono<Long> delete = client.sql("DELETE FROM project WHERE tenant_id = :tenantId AND id = :id")
+                .bind("tenantId", tenantId)
+                .bind("id", projectId)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(deleted -> deleted == 0 ? Mono.just(deleted) : client
+                        .sql("INSERT INTO project_tombstone (project_id, tenant_id, deleted_at) "
+                                + "VALUES (:id, :tenantId, CAST(:deletedAt AS TIMESTAMP))")
+                        .bind("id", projectId)
+                        .bind("tenantId", tenantId)
+                        .bind("deletedAt", deletedAt)
+                        .then()
+                        .thenReturn(deleted));
+        return TransactionalOperator.create(new R2dbcTransactionManager(client.getConnectionFactory()))
+                .transactional(delete);
+    }
+
+    @Override
+    public Flux<Long> findTombstones(String tenantId, LocalDateTime deletedSince) {
+        return template.getDatabaseClient()
+                .sql("SELECT project_id FROM project_tombstone WHERE tenant_id = :tenantId AND deleted_at >= :since")
+                .bind("tenantId", tenantId)
+                .bind("since", deletedSince)
+                .map((row, metadata) -> ((Number) row.get("project_id")).longValue())
+                .all();
+    }
+
+    @Override
+    public Mono<Long> deleteTombstonesBefore(LocalDateTime deletedBefore) {
+        return template.getDatabaseClient()
+                .sql("DELETE FROM project_tombstone WHERE deleted_at < :before")
+                .bind("before", deletedBefore)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Criteria tenant(String tenantId) {
+        return Criteria.where("tenant_id").is(tenantId);
+    }
+
+}
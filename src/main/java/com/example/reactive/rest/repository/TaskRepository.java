@@ -7,10 +7,12 @@ import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface TaskRepository extends ReactiveCrudRepository<Task, Long> {
+public interface TaskRepository extends ReactiveCrudRepository<Task, Long>, TaskRepositoryCustom {
 
     Flux<Task> findAllByProjectId(Long projectId, Pageable pageable);
 
+    Flux<Task> findAllByProjectIdAndIdGreaterThan(Long projectId, Long id, Pageable pageable);
+
     Mono<Long> countAllByProjectId(Long projectId);
 
     Mono<Task> findByProjectIdAndId(Long projectId, Long taskId);
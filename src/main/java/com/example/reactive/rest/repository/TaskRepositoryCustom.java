@@ -0,0 +1,76 @@
+package com.example.reactive.rest.repository;
+
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TaskActivity;
+import com.example.reactive.rest.model.TimeFilter;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface TaskRepositoryCustom {
+
+    /**
+     * Selects only the given columns, the other properties of the returned tasks stay {@code null}.
+     */
+    Flux<Task> findAllByProjectId(Long projectId, Collection<String> columns, Pageable pageable);
+
+    /**
+     * Tasks of the project matching the filter, only the given columns are selected unless they are empty.
+     */
+    Flux<Task> findAllByProjectId(Long projectId, TimeFilter filter, Collection<String> columns, Pageable pageable);
+
+    Mono<Long> countAllByProjectId(Long projectId, TimeFilter filter);
+
+    /**
+     * The same page of tasks of each of the projects in one statement, the tasks are numbered per project in the
+     * order of the page, by id when it is unsorted. Only the given columns are selected unless they are empty,
+     * the project id always is.
+     */
+    Flux<Task> findPagesByProjectIds(Collection<Long> projectIds, Collection<String> columns, Pageable pageable);
+
+    /**
+     * Tasks of each of the projects in one statement, projects without tasks are missing from the counts.
+     */
+    Mono<Map<Long, Long>> countAllByProjectIds(Collection<Long> projectIds);
+
+    /**
+     * Aggregates all tasks by project and creation hour, tasks created before {@code createdSince}
+     * are only counted per project.
+     */
+    Flux<TaskActivity> findTaskActivity(LocalDateTime createdSince);
+
+    /**
+     * Records the deletion of the task, if it exists, for the delta sync of its project.
+     */
+    Mono<Void> saveTombstone(Long projectId, Long taskId, LocalDateTime deletedAt);
+
+    /**
+     * Deletes the task of the project and records its deletion for the delta sync of the project, in one
+     * transaction. Returns how many tasks were deleted, a missing task leaves no tombstone.
+     */
+    Mono<Long> deleteTask(Long projectId, Long taskId, LocalDateTime deletedAt);
+
+    /**
+     * Ids of the tasks of the project deleted at or after the given time.
+     */
+    Flux<Long> findTombstones(Long projectId, LocalDateTime deletedSince);
+
+    /**
+     * Moves the tasks of the project with the given ids, all of them when there are none, that match the filter to
+     * the target project, in one transaction. Moved tasks are marked updated at {@code movedAt} and leave tombstones
+     * in their former project for its delta sync. Returns how many were moved.
+     */
+    Mono<Long> moveTasks(Long projectId, Long targetProjectId, List<Long> taskIds, TimeFilter filter,
+                         LocalDateTime movedAt);
+
+    /**
+     * Compacts the tombstones of the tasks deleted before the given time, returns how many were removed.
+     */
+    Mono<Long> deleteTombstonesBefore(LocalDateTime deletedBefore);
+
+}
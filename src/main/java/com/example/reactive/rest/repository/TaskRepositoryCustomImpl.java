@@ -0,0 +1,305 @@
+package com.example.reactive.rest.repository;
+
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TaskActivity;
+import com.example.reactive.rest.model.TimeFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final String TASK_ACTIVITY_SQL = """
+            SELECT tenant_id,
+                   project_id,
+                   CASE WHEN created_at >= :since THEN DATE_TRUNC('HOUR', created_at) END AS created_hour,
+                   COUNT(*) AS tasks,
+                   MAX(updated_at) AS last_updated_at
+            FROM task
+            GROUP BY tenant_id, project_id, created_hour
+            """;
+
+    /**
+     * Only an existing task of the project leaves a tombstone.
+     */
+    private static final String SAVE_TOMBSTONE_SQL = """
+            INSERT INTO task_tombstone (task_id, project_id, deleted_at)
+            SELECT id, project_id, CAST(:deletedAt AS TIMESTAMP)
+            FROM task
+            WHERE project_id = :projectId AND id = :taskId
+            """;
+
+    private static final String INSERT_TOMBSTONE_SQL = """
+            INSERT INTO task_tombstone (task_id, project_id, deleted_at)
+            VALUES (:taskId, :projectId, CAST(:deletedAt AS TIMESTAMP))
+            """;
+
+    /**
+     * A task keeps a tombstone in every project it left, the one of the target project is removed when it comes back.
+     */
+    private static final String CLEAR_MOVED_TOMBSTONES_SQL = """
+            DELETE FROM task_tombstone
+            WHERE project_id = :targetProjectId AND task_id IN (SELECT id FROM task WHERE %s)
+            """;
+
+    private static final String SAVE_MOVED_TOMBSTONES_SQL = """
+            INSERT INTO task_tombstone (task_id, project_id, deleted_at)
+            SELECT id, project_id, CAST(:movedAt AS TIMESTAMP)
+            FROM task
+            WHERE %s
+            """;
+
+    /**
+     * Pages of several projects at once, each project's tasks ranked in the order of the page.
+     */
+    private static final String TASK_PAGES_SQL = """
+            SELECT * FROM (
+                SELECT %s, ROW_NUMBER() OVER (PARTITION BY project_id ORDER BY %s) AS task_rank
+                FROM task
+                WHERE project_id IN (:projectIds)
+            ) ranked
+            WHERE task_rank > :offset AND task_rank <= :end
+            ORDER BY project_id, task_rank
+            """;
+
+    private static final String COUNT_BY_PROJECTS_SQL = """
+            SELECT project_id, COUNT(*) AS tasks
+            FROM task
+            WHERE project_id IN (:projectIds)
+            GROUP BY project_id
+            """;
+
+    private static final String MOVE_SQL = """
+            UPDATE task
+            SET project_id = :targetProjectId, updated_at = :movedAt
+            WHERE %s
+            """;
+
+    private final R2dbcEntityTemplate template;
+
+    @Override
+    public Flux<Task> findAllByProjectId(Long projectId, Collection<String> columns, Pageable pageable) {
+        return template.select(Task.class)
+                .matching(Query.query(where("project_id").is(projectId)).columns(columns).with(pageable))
+                .all();
+    }
+
+    @Override
+    public Flux<Task> findAllByProjectId(Long projectId, TimeFilter filter, Collection<String> columns,
+                                         Pageable pageable) {
+        return template.select(Task.class)
+                .matching(Query.query(byProjectId(projectId, filter)).columns(columns).with(pageable))
+                .all();
+    }
+
+    @Override
+    public Mono<Long> countAllByProjectId(Long projectId, TimeFilter filter) {
+        return template.count(Query.query(byProjectId(projectId, filter)), Task.class);
+    }
+
+    @Override
+    public Flux<Task> findPagesByProjectIds(Collection<Long> projectIds, Collection<String> columns,
+                                            Pageable pageable) {
+        if (projectIds.isEmpty()) {
+            return Flux.empty();
+        }
+        RelationalPersistentEntity<?> entity = template.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Task.class);
+        return template.getDatabaseClient()
+                .sql(TASK_PAGES_SQL.formatted(selectedColumns(entity, columns), orderBy(entity, pageable.getSort())))
+                .bind("projectIds", projectIds)
+                .bind("offset", pageable.getOffset())
+                .bind("end", pageable.getOffset() + pageable.getPageSize())
+                .map((row, metadata) -> template.getConverter().read(Task.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Mono<Map<Long, Long>> countAllByProjectIds(Collection<Long> projectIds) {
+        if (projectIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return template.getDatabaseClient().sql(COUNT_BY_PROJECTS_SQL)
+                .bind("projectIds", projectIds)
+                .map((row, metadata) -> Map.entry(((Number) row.get("project_id")).longValue(),
+                        ((Number) row.get("tasks")).longValue()))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    @Override
+    public Flux<TaskActivity> findTaskActivity(LocalDateTime createdSince) {
+        return template.getDatabaseClient().sql(TASK_ACTIVITY_SQL)
+                .bind("since", createdSince)
+                .map((row, metadata) -> new TaskActivity(
+                        row.get("tenant_id", String.class),
+                        ((Number) row.get("project_id")).longValue(),
+                        row.get("created_hour", LocalDateTime.class),
+                        ((Number) row.get("tasks")).longValue(),
+                        row.get("last_updated_at", LocalDateTime.class)))
+                .all();
+    }
+
+    @Override
+    public Mono<Void> saveTombstone(Long projectId, Long taskId, LocalDateTime deletedAt) {
+        return template.getDatabaseClient().sql(SAVE_TOMBSTONE_SQL)
+                .bind("deletedAt", deletedAt)
+                .bind("projectId", projectId)
+                .bind("taskId", taskId)
+                .then();
+    }
+
+    @Override
+    public Mono<Long> deleteTask(Long projectId, Long taskId, LocalDateTime deletedAt) {
+        DatabaseClient client = template.getDatabaseClient();
+        Mono<Long> delete = client.sql("DELETE FROM task WHERE project_id = :projectId AND id = :taskId")
+                .bind("projectId", projectId)
+                .bind("taskId", taskId)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(deleted -> deleted == 0 ? Mono.just(deleted) : client.sql(INSERT_TOMBSTONE_SQL)
+                        .bind("taskId", taskId)
+                        .bind("projectId", projectId)
+                        .bind("deletedAt", deletedAt)
+                        .then()
+                        .thenReturn(deleted));
+        return TransactionalOperator.create(new R2dbcTransactionManager(client.getConnectionFactory()))
+                .transactional(delete);
+    }
+
+    @Override
+    public Flux<Long> findTombstones(Long projectId, LocalDateTime deletedSince) {
+        return template.getDatabaseClient()
+                .sql("SELECT task_id FROM task_tombstone WHERE project_id = :projectId AND deleted_at >= :since")
+                .bind("projectId", projectId)
+                .bind("since", deletedSince)
+                .map((row, metadata) -> ((Number) row.get("task_id")).longValue())
+                .all();
+    }
+
+    @Override
+    public Mono<Long> moveTasks(Long projectId, Long targetProjectId, List<Long> taskIds, TimeFilter filter,
+                                LocalDateTime movedAt) {
+        DatabaseClient client = template.getDatabaseClient();
+        String movedTasks = movedTasks(taskIds, filter);
+        Mono<Long> move = bindMovedTasks(client.sql(CLEAR_MOVED_TOMBSTONES_SQL.formatted(movedTasks)),
+                projectId, taskIds, filter)
+                .bind("targetProjectId", targetProjectId)
+                .then()
+                .then(bindMovedTasks(client.sql(SAVE_MOVED_TOMBSTONES_SQL.formatted(movedTasks)),
+                        projectId, taskIds, filter)
+                        .bind("movedAt", movedAt)
+                        .then())
+                .then(bindMovedTasks(client.sql(MOVE_SQL.formatted(movedTasks)), projectId, taskIds, filter)
+                        .bind("targetProjectId", targetProjectId)
+                        .bind("movedAt", movedAt)
+                        .fetch()
+                        .rowsUpdated());
+        return TransactionalOperator.create(new R2dbcTransactionManager(client.getConnectionFactory()))
+                .transactional(move);
+    }
+
+    @Override
+    public Mono<Long> deleteTombstonesBefore(LocalDateTime deletedBefore) {
+        return template.getDatabaseClient()
+                .sql("DELETE FROM task_tombstone WHERE deleted_at < :before")
+                .bind("before", deletedBefore)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Conditions selecting the moved tasks, on the same indexed columns as {@link TimeFilterCriteria}.
+     */
+    private static String movedTasks(List<Long> taskIds, TimeFilter filter) {
+        List<String> conditions = new ArrayList<>(List.of("project_id = :projectId"));
+        if (!taskIds.isEmpty()) {
+            conditions.add("id IN (:taskIds)");
+        }
+        if (filter.modifiedSince() != null) {
+            conditions.add("updated_at >= :modifiedSince");
+        }
+        if (filter.createdFrom() != null) {
+            conditions.add("created_at >= :createdFrom");
+        }
+        if (filter.createdTo() != null) {
+            conditions.add("created_at < :createdTo");
+        }
+        return String.join(" AND ", conditions);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindMovedTasks(DatabaseClient.GenericExecuteSpec statement,
+                                                                    Long projectId, List<Long> taskIds,
+                                                                    TimeFilter filter) {
+        DatabaseClient.GenericExecuteSpec bound = statement.bind("projectId", projectId);
+        if (!taskIds.isEmpty()) {
+            bound = bound.bind("taskIds", taskIds);
+        }
+        if (filter.modifiedSince() != null) {
+            bound = bound.bind("modifiedSince", filter.modifiedSince());
+        }
+        if (filter.createdFrom() != null) {
+            bound = bound.bind("createdFrom", filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            bound = bound.bind("createdTo", filter.createdTo());
+        }
+        return bound;
+    }
+
+    /**
+     * Columns are interpolated into the statement, so only the mapped ones are accepted.
+     */
+    private static String selectedColumns(RelationalPersistentEntity<?> entity, Collection<String> columns) {
+        if (columns.isEmpty()) {
+            return "*";
+        }
+        Set<String> mapped = new HashSet<>();
+        entity.forEach(property -> mapped.add(property.getColumnName().getReference()));
+        Set<String> selected = new LinkedHashSet<>(columns);
+        selected.add("project_id");
+        for (String column : selected) {
+            if (!mapped.contains(column)) {
+                throw new IllegalArgumentException("Unknown task column: " + column);
+            }
+        }
+        return String.join(", ", selected);
+    }
+
+    private static String orderBy(RelationalPersistentEntity<?> entity, Sort sort) {
+        if (sort.isUnsorted()) {
+            return "id";
+        }
+        return sort.stream()
+                .map(order -> entity.getRequiredPersistentProperty(order.getProperty()).getColumnName().getReference()
+                        + " " + order.getDirection().name())
+                .collect(Collectors.joining(", "));
+    }
+
+    private static Criteria byProjectId(Long projectId, TimeFilter filter) {
+        return TimeFilterCriteria.and(where("project_id").is(projectId), filter);
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.example.reactive.rest.repository;
+
+import com.example.reactive.rest.model.TimeFilter;
+import org.springframework.data.relational.core.query.Criteria;
+
+/**
+ * Conditions of a {@link TimeFilter} on the audited columns, backed by their indexes.
+ */
+final class TimeFilterCriteria {
+
+    private TimeFilterCriteria() {
+    }
+
+    static Criteria and(Criteria criteria, TimeFilter filter) {
+        Criteria filtered = criteria;
+        if (filter.modifiedSince() != null) {
+            filtered = filtered.and("updated_at").greaterThanOrEquals(filter.modifiedSince());
+        }
+        if (filter.createdFrom() != null) {
+            filtered = filtered.and("created_at").greaterThanOrEquals(filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            filtered = filtered.and("created_at").lessThan(filter.createdTo());
+        }
+        return filtered;
+    }
+
+}
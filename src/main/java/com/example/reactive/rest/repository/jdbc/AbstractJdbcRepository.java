@@ -0,0 +1,246 @@
+package com.example.reactive.rest.repository.jdbc;
+
+import com.example.reactive.rest.model.TimeFilter;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Base of the blocking JDBC repositories: every statement runs on the JDBC {@link Scheduler},
+ * virtual threads when available, and is bridged into a {@link Mono} or {@link Flux},
+ * so services keep the same reactive contracts as with R2DBC.
+ * Auditing columns are filled in here the way {@code @EnableR2dbcAuditing} does for R2DBC.
+ */
+abstract class AbstractJdbcRepository<T> implements ReactiveCrudRepository<T, Long> {
+
+    protected final JdbcTemplate jdbcTemplate;
+
+    protected final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    protected final RowMapper<T> rowMapper;
+
+    private final Scheduler scheduler;
+
+    private final String table;
+
+    private final SimpleJdbcInsert insert;
+
+    protected AbstractJdbcRepository(JdbcTemplate jdbcTemplate, Scheduler scheduler, String table, Class<T> type) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.rowMapper = BeanPropertyRowMapper.newInstance(type);
+        this.scheduler = scheduler;
+        this.table = table;
+        this.insert = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName(table)
+                .usingGeneratedKeyColumns("id");
+    }
+
+    protected abstract Long getId(T entity);
+
+    protected abstract void setId(T entity, Long id);
+
+    protected abstract void setAuditing(T entity, LocalDateTime createdAt, LocalDateTime updatedAt);
+
+    protected abstract LocalDateTime getCreatedAt(T entity);
+
+    /**
+     * Column values of the entity, without {@code id}.
+     */
+    protected abstract Map<String, Object> toColumns(T entity);
+
+    protected <R> Mono<R> mono(Callable<R> statement) {
+        return Mono.fromCallable(statement).subscribeOn(scheduler);
+    }
+
+    protected <R> Flux<R> flux(Callable<List<R>> statement) {
+        return Mono.fromCallable(statement).subscribeOn(scheduler).flatMapIterable(rows -> rows);
+    }
+
+    protected String selectFrom(Collection<String> columns) {
+        return "SELECT " + String.join(", ", columns) + " FROM " + table;
+    }
+
+    /**
+     * {@code ORDER BY}, {@code LIMIT} and {@code OFFSET} of a page, sort properties are entity properties
+     * converted to their snake case columns.
+     */
+    protected static String page(Pageable pageable) {
+        StringBuilder sql = new StringBuilder();
+        Sort sort = pageable.getSort();
+        if (sort.isSorted()) {
+            sql.append(" ORDER BY ").append(orderBy(sort));
+        }
+        if (pageable.isPaged()) {
+            sql.append(" LIMIT ").append(pageable.getPageSize()).append(" OFFSET ").append(pageable.getOffset());
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Orders of a sorted page, e.g. {@code created_at DESC, id ASC}.
+     */
+    protected static String orderBy(Sort sort) {
+        return sort.stream()
+                .map(order -> toColumn(order.getProperty()) + " " + order.getDirection().name())
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * {@code WHERE} clause of the conditions and of the time filter, whose values are appended to the arguments.
+     */
+    protected static String where(List<String> conditions, TimeFilter filter, List<Object> arguments) {
+        List<String> all = new ArrayList<>(conditions);
+        if (filter.modifiedSince() != null) {
+            all.add("updated_at >= ?");
+            arguments.add(filter.modifiedSince());
+        }
+        if (filter.createdFrom() != null) {
+            all.add("created_at >= ?");
+            arguments.add(filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            all.add("created_at < ?");
+            arguments.add(filter.createdTo());
+        }
+        return all.isEmpty() ? "" : " WHERE " + String.join(" AND ", all);
+    }
+
+    private static String toColumn(String property) {
+        return property.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+    }
+
+    @Override
+    public <S extends T> Mono<S> save(S entity) {
+        return mono(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            Long id = getId(entity);
+            if (id == null) {
+                setAuditing(entity, now, now);
+                setId(entity, insert.executeAndReturnKey(toColumns(entity)).longValue());
+            } else {
+                setAuditing(entity, getCreatedAt(entity), now);
+                Map<String, Object> columns = toColumns(entity);
+                String assignments = columns.keySet().stream()
+                        .map(column -> column + " = :" + column)
+                        .collect(Collectors.joining(", "));
+                Map<String, Object> parameters = new HashMap<>(columns);
+                parameters.put("id", id);
+                namedParameterJdbcTemplate.update(
+                        "UPDATE " + table + " SET " + assignments + " WHERE id = :id", parameters);
+            }
+            return entity;
+        });
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Publisher<S> entities) {
+        return Flux.from(entities).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<T> findById(Long id) {
+        return flux(() -> jdbcTemplate.query("SELECT * FROM " + table + " WHERE id = ?", rowMapper, id)).next();
+    }
+
+    @Override
+    public Mono<T> findById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return mono(() -> Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + table + " WHERE id = ?)", Boolean.class, id)));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<T> findAll() {
+        return flux(() -> jdbcTemplate.query("SELECT * FROM " + table, rowMapper));
+    }
+
+    @Override
+    public Flux<T> findAllById(Iterable<Long> ids) {
+        List<Long> idList = StreamSupport.stream(ids.spliterator(), false).toList();
+        if (idList.isEmpty()) {
+            return Flux.empty();
+        }
+        return flux(() -> namedParameterJdbcTemplate.query(
+                "SELECT * FROM " + table + " WHERE id IN (:ids)", Map.of("ids", idList), rowMapper));
+    }
+
+    @Override
+    public Flux<T> findAllById(Publisher<Long> ids) {
+        return Flux.from(ids).collectList().flatMapMany(this::findAllById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return mono(() -> jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return mono(() -> jdbcTemplate.update("DELETE FROM " + table + " WHERE id = ?", id)).then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(T entity) {
+        return deleteById(getId(entity));
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Long> ids) {
+        return Flux.fromIterable(ids).concatMap(this::deleteById).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends T> entities) {
+        return Flux.fromIterable(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends T> entities) {
+        return Flux.from(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return mono(() -> jdbcTemplate.update("DELETE FROM " + table)).then();
+    }
+
+}
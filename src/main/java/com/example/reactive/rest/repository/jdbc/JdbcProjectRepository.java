@@ -0,0 +1,147 @@
+package com.example.reactive.rest.repository.jdbc;
+
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.TimeFilter;
+import com.example.reactive.rest.repository.ProjectRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Repository
+@Profile("jdbc")
+public class JdbcProjectRepository extends AbstractJdbcRepository<Project> implements ProjectRepository {
+
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcProjectRepository(JdbcTemplate jdbcTemplate, @Qualifier("jdbcScheduler") Scheduler scheduler) {
+        super(jdbcTemplate, scheduler, "project", Project.class);
+        this.transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(Objects.requireNonNull(jdbcTemplate.getDataSource())));
+    }
+
+    @Override
+    public Flux<Project> findAllByTenantId(String tenantId, Pageable pageable) {
+        return flux(() -> jdbcTemplate.query(
+                "SELECT * FROM project WHERE tenant_id = ?" + page(pageable), rowMapper, tenantId));
+    }
+
+    @Override
+    public Flux<Project> findAllByTenantIdAndIdGreaterThan(String tenantId, Long id, Pageable pageable) {
+        return flux(() -> jdbcTemplate.query(
+                "SELECT * FROM project WHERE tenant_id = ? AND id > ?" + page(pageable), rowMapper, tenantId, id));
+    }
+
+    @Override
+    public Mono<Long> countByTenantId(String tenantId) {
+        return mono(() -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM project WHERE tenant_id = ?", Long.class, tenantId));
+    }
+
+    @Override
+    public Mono<Project> findByTenantIdAndId(String tenantId, Long id) {
+        return flux(() -> jdbcTemplate.query(
+                "SELECT * FROM project WHERE tenant_id = ? AND id = ?", rowMapper, tenantId, id)).next();
+    }
+
+    @Override
+    public Mono<Boolean> existsByTenantIdAndId(String tenantId, Long id) {
+        return mono(() -> Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM project WHERE tenant_id = ? AND id = ?)", Boolean.class, tenantId, id)));
+    }
+
+    @Override
+    public Flux<Project> findAllBy(String tenantId, Collection<String> columns, Pageable pageable) {
+        return flux(() -> jdbcTemplate.query(
+                selectFrom(columns) + " WHERE tenant_id = ?" + page(pageable), rowMapper, tenantId));
+    }
+
+    @Override
+    public Flux<Project> findAllBy(String tenantId, TimeFilter filter, Collection<String> columns,
+                                   Pageable pageable) {
+        List<Object> arguments = new ArrayList<>(List.of(tenantId));
+        String where = where(List.of("tenant_id = ?"), filter, arguments);
+        String select = columns.isEmpty() ? "SELECT * FROM project" : selectFrom(columns);
+        return flux(() -> jdbcTemplate.query(select + where + page(pageable), rowMapper, arguments.toArray()));
+    }
+
+    @Override
+    public Mono<Long> count(String tenantId, TimeFilter filter) {
+        List<Object> arguments = new ArrayList<>(List.of(tenantId));
+        String where = where(List.of("tenant_id = ?"), filter, arguments);
+        return mono(() -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM project" + where, Long.class, arguments.toArray()));
+    }
+
+    @Override
+    public Mono<Long> deleteProject(String tenantId, Long projectId, LocalDateTime deletedAt) {
+        return mono(() -> transactionTemplate.execute(status -> {
+            long deleted = jdbcTemplate.update("DELETE FROM project WHERE tenant_id = ? AND id = ?", tenantId,
+                    projectId);
+            if (deleted > 0) {
+                jdbcTemplate.update("INSERT INTO project_tombstone (project_id, tenant_id, deleted_at) "
+                        + "VALUES (?, ?, CAST(? AS TIMESTAMP))", projectId, tenantId, deletedAt);
+            }
+            return deleted;
+        }));
+    }
+
+    @Override
+    public Flux<Long> findTombstones(String tenantId, LocalDateTime deletedSince) {
+        return flux(() -> jdbcTemplate.queryForList(
+                "SELECT project_id FROM project_tombstone WHERE tenant_id = ? AND deleted_at >= ?", Long.class,
+                tenantId, deletedSince));
+    }
+
+    @Override
+    public Mono<Long> deleteTombstonesBefore(LocalDateTime deletedBefore) {
+        return mono(() -> (long) jdbcTemplate.update(
+                "DELETE FROM project_tombstone WHERE deleted_at < ?", deletedBefore));
+    }
+
+    @Override
+    protected Long getId(Project project) {
+        return project.getId();
+    }
+
+    @Override
+    protected void setId(Project project, Long id) {
+        project.setId(id);
+    }
+
+    @Override
+    protected void setAuditing(Project project, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        project.setCreatedAt(createdAt);
+        project.setUpdatedAt(updatedAt);
+    }
+
+    @Override
+    protected LocalDateTime getCreatedAt(Project project) {
+        return project.getCreatedAt();
+    }
+
+    @Override
+    protected Map<String, Object> toColumns(Project project) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("name", project.getName());
+        columns.put("tenant_id", project.getTenantId());
+        columns.put("updated_at", project.getUpdatedAt());
+        columns.put("created_at", project.getCreatedAt());
+        return columns;
+    }
+
+}
@@ -0,0 +1,255 @@
+package com.example.reactive.rest.repository.jdbc;
+
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TaskActivity;
+import com.example.reactive.rest.model.TimeFilter;
+import com.example.reactive.rest.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+@Repository
+@Profile("jdbc")
+public class JdbcTaskRepository extends AbstractJdbcRepository<Task> implements TaskRepository {
+
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcTaskRepository(JdbcTemplate jdbcTemplate, @Qualifier("jdbcScheduler") Scheduler scheduler) {
+        super(jdbcTemplate, scheduler, "task", Task.class);
+        this.transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(Objects.requireNonNull(jdbcTemplate.getDataSource())));
+    }
+
+    @Override
+    public Flux<Task> findAllByProjectId(Long projectId, Pageable pageable) {
+        return flux(() -> jdbcTemplate.query(
+                "SELECT * FROM task WHERE project_id = ?" + page(pageable), rowMapper, projectId));
+    }
+
+    @Override
+    public Flux<Task> findAllByProjectIdAndIdGreaterThan(Long projectId, Long id, Pageable pageable) {
+        return flux(() -> jdbcTemplate.query(
+                "SELECT * FROM task WHERE project_id = ? AND id > ?" + page(pageable), rowMapper, projectId, id));
+    }
+
+    @Override
+    public Flux<Task> findAllByProjectId(Long projectId, Collection<String> columns, Pageable pageable) {
+        return flux(() -> jdbcTemplate.query(
+                selectFrom(columns) + " WHERE project_id = ?" + page(pageable), rowMapper, projectId));
+    }
+
+    @Override
+    public Flux<Task> findAllByProjectId(Long projectId, TimeFilter filter, Collection<String> columns,
+                                         Pageable pageable) {
+        List<Object> arguments = new ArrayList<>(List.of(projectId));
+        String where = where(List.of("project_id = ?"), filter, arguments);
+        String select = columns.isEmpty() ? "SELECT * FROM task" : selectFrom(columns);
+        return flux(() -> jdbcTemplate.query(select + where + page(pageable), rowMapper, arguments.toArray()));
+    }
+
+    @Override
+    public Mono<Long> countAllByProjectId(Long projectId, TimeFilter filter) {
+        List<Object> arguments = new ArrayList<>(List.of(projectId));
+        String where = where(List.of("project_id = ?"), filter, arguments);
+        return mono(() -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM task" + where, Long.class, arguments.toArray()));
+    }
+
+    @Override
+    public Flux<Task> findPagesByProjectIds(Collection<Long> projectIds, Collection<String> columns,
+                                            Pageable pageable) {
+        if (projectIds.isEmpty()) {
+            return Flux.empty();
+        }
+        Set<String> selected = new LinkedHashSet<>(columns);
+        if (!selected.isEmpty()) {
+            selected.add("project_id");
+        }
+        String sql = """
+                SELECT * FROM (
+                    SELECT %s, ROW_NUMBER() OVER (PARTITION BY project_id ORDER BY %s) AS task_rank
+                    FROM task
+                    WHERE project_id IN (:projectIds)
+                ) ranked
+                WHERE task_rank > :offset AND task_rank <= :end
+                ORDER BY project_id, task_rank
+                """.formatted(selected.isEmpty() ? "*" : String.join(", ", selected),
+                pageable.getSort().isSorted() ? orderBy(pageable.getSort()) : "id");
+        Map<String, Object> parameters = Map.of("projectIds", projectIds, "offset", pageable.getOffset(),
+                "end", pageable.getOffset() + pageable.getPageSize());
+        return flux(() -> namedParameterJdbcTemplate.query(sql, parameters, rowMapper));
+    }
+
+    @Override
+    public Mono<Map<Long, Long>> countAllByProjectIds(Collection<Long> projectIds) {
+        if (projectIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return mono(() -> {
+            Map<Long, Long> counts = new HashMap<>();
+            namedParameterJdbcTemplate.query(
+                    "SELECT project_id, COUNT(*) AS tasks FROM task WHERE project_id IN (:projectIds) "
+                            + "GROUP BY project_id",
+                    Map.of("projectIds", projectIds),
+                    rs -> {
+                        counts.put(rs.getLong("project_id"), rs.getLong("tasks"));
+                    });
+            return counts;
+        });
+    }
+
+    @Override
+    public Mono<Long> countAllByProjectId(Long projectId) {
+        return mono(() -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM task WHERE project_id = ?", Long.class, projectId));
+    }
+
+    @Override
+    public Mono<Task> findByProjectIdAndId(Long projectId, Long taskId) {
+        return flux(() -> jdbcTemplate.query(
+                "SELECT * FROM task WHERE project_id = ? AND id = ?", rowMapper, projectId, taskId)).next();
+    }
+
+    @Override
+    public Mono<Void> deleteTaskByProjectIdAndId(Long projectId, Long taskId) {
+        return mono(() -> jdbcTemplate.update(
+                "DELETE FROM task WHERE project_id = ? AND id = ?", projectId, taskId)).then();
+    }
+
+    @Override
+    public Mono<Void> deleteTasksByProjectId(Long projectId) {
+        return mono(() -> jdbcTemplate.update("DELETE FROM task WHERE project_id = ?", projectId)).then();
+    }
+
+    @Override
+    public Flux<TaskActivity> findTaskActivity(LocalDateTime createdSince) {
+        return flux(() -> jdbcTemplate.query("""
+                SELECT tenant_id,
+                       project_id,
+                       CASE WHEN created_at >= ? THEN DATE_TRUNC('HOUR', created_at) END AS created_hour,
+                       COUNT(*) AS tasks,
+                       MAX(updated_at) AS last_updated_at
+                FROM task
+                GROUP BY tenant_id, project_id, created_hour
+                """, (rs, rowNum) -> new TaskActivity(
+                rs.getString("tenant_id"),
+                rs.getLong("project_id"),
+                rs.getObject("created_hour", LocalDateTime.class),
+                rs.getLong("tasks"),
+                rs.getObject("last_updated_at", LocalDateTime.class)), createdSince));
+    }
+
+    @Override
+    public Mono<Void> saveTombstone(Long projectId, Long taskId, LocalDateTime deletedAt) {
+        return mono(() -> jdbcTemplate.update("""
+                INSERT INTO task_tombstone (task_id, project_id, deleted_at)
+                SELECT id, project_id, CAST(? AS TIMESTAMP)
+                FROM task
+                WHERE project_id = ? AND id = ?
+                """, deletedAt, projectId, taskId)).then();
+    }
+
+    @Override
+    public Mono<Long> deleteTask(Long projectId, Long taskId, LocalDateTime deletedAt) {
+        return mono(() -> transactionTemplate.execute(status -> {
+            long deleted = jdbcTemplate.update("DELETE FROM task WHERE project_id = ? AND id = ?", projectId, taskId);
+            if (deleted > 0) {
+                jdbcTemplate.update("INSERT INTO task_tombstone (task_id, project_id, deleted_at) "
+                        + "VALUES (?, ?, CAST(? AS TIMESTAMP))", taskId, projectId, deletedAt);
+            }
+            return deleted;
+        }));
+    }
+
+    @Override
+    public Flux<Long> findTombstones(Long projectId, LocalDateTime deletedSince) {
+        return flux(() -> jdbcTemplate.queryForList(
+                "SELECT task_id FROM task_tombstone WHERE project_id = ? AND deleted_at >= ?",
+                Long.class, projectId, deletedSince));
+    }
+
+    @Override
+    public Mono<Long> moveTasks(Long projectId, Long targetProjectId, List<Long> taskIds, TimeFilter filter,
+                                LocalDateTime movedAt) {
+        List<Object> arguments = new ArrayList<>(List.of(projectId));
+        List<String> conditions = new ArrayList<>(List.of("project_id = ?"));
+        if (!taskIds.isEmpty()) {
+            conditions.add("id IN (" + String.join(", ", Collections.nCopies(taskIds.size(), "?")) + ")");
+            arguments.addAll(taskIds);
+        }
+        String where = where(conditions, filter, arguments);
+        List<Object> tombstoneArguments = new ArrayList<>(List.of(movedAt));
+        tombstoneArguments.addAll(arguments);
+        List<Object> moveArguments = new ArrayList<>(List.of(targetProjectId, movedAt));
+        moveArguments.addAll(arguments);
+        List<Object> clearArguments = new ArrayList<>(List.of(targetProjectId));
+        clearArguments.addAll(arguments);
+        return mono(() -> transactionTemplate.execute(status -> {
+            // a task keeps a tombstone in every project it left, the one of the target project is removed
+            jdbcTemplate.update("DELETE FROM task_tombstone WHERE project_id = ? AND task_id IN (SELECT id FROM task"
+                    + where + ")", clearArguments.toArray());
+            jdbcTemplate.update("INSERT INTO task_tombstone (task_id, project_id, deleted_at) "
+                    + "SELECT id, project_id, CAST(? AS TIMESTAMP) FROM task" + where, tombstoneArguments.toArray());
+            return (long) jdbcTemplate.update("UPDATE task SET project_id = ?, updated_at = ?" + where,
+                    moveArguments.toArray());
+        }));
+    }
+
+    @Override
+    public Mono<Long> deleteTombstonesBefore(LocalDateTime deletedBefore) {
+        return mono(() -> (long) jdbcTemplate.update(
+                "DELETE FROM task_tombstone WHERE deleted_at < ?", deletedBefore));
+    }
+
+    @Override
+    protected Long getId(Task task) {
+        return task.getId();
+    }
+
+    @Override
+    protected void setId(Task task, Long id) {
+        task.setId(id);
+    }
+
+    @Override
+    protected void setAuditing(Task task, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        task.setCreatedAt(createdAt);
+        task.setUpdatedAt(updatedAt);
+    }
+
+    @Override
+    protected LocalDateTime getCreatedAt(Task task) {
+        return task.getCreatedAt();
+    }
+
+    @Override
+    protected Map<String, Object> toColumns(Task task) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("description", task.getDescription());
+        columns.put("project_id", task.getProjectId());
+        columns.put("tenant_id", task.getTenantId());
+        columns.put("updated_at", task.getUpdatedAt());
+        columns.put("created_at", task.getCreatedAt());
+        return columns;
+    }
+
+}
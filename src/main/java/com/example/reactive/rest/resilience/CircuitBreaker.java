@@ -0,0 +1,232 @@
+package com.example.reactive.rest.resilience;
+
+import com.example.reactive.rest.configuration.ResilienceProperties;
+import com.example.reactive.rest.limiter.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTransientException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stops calling the database once most of the recent operations failed because it is unavailable:
+ * <ul>
+ *     <li>closed, the outcomes of the last {@code slidingWindowSize} operations are kept, and once at least
+ *     {@code minimumCalls} were, a failure rate of {@code failureRateThreshold} opens the circuit,</li>
+ *     <li>open, operations fail right away with {@link CircuitBreakerOpenException} for {@code openDuration},</li>
+ *     <li>half open, {@code halfOpenCalls} operations are let through, the circuit closes when they all succeed
+ *     and opens again on the first failure.</li>
+ * </ul>
+ * Only the errors of {@link #isUnavailable(Throwable)} are failures, e.g. a constraint violation is not.
+ * Operations cancelled before they emitted anything leave no outcome.
+ */
+@Slf4j
+public class CircuitBreaker implements MeterBinder {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int slidingWindowSize;
+
+    private final int minimumCalls;
+
+    private final double failureRateThreshold;
+
+    private final long openNanos;
+
+    private final int halfOpenCalls;
+
+    private final boolean[] failures;
+
+    private int recorded;
+
+    private int failed;
+
+    private int next;
+
+    private State state = State.CLOSED;
+
+    private long openedAt;
+
+    private int halfOpenPermits;
+
+    private int halfOpenSuccesses;
+
+    private Counter rejectedOperations;
+
+    public CircuitBreaker(ResilienceProperties properties) {
+        this.slidingWindowSize = properties.getSlidingWindowSize();
+        this.minimumCalls = Math.min(properties.getMinimumCalls(), slidingWindowSize);
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenCalls = properties.getHalfOpenCalls();
+        this.failures = new boolean[slidingWindowSize];
+    }
+
+    /**
+     * Whether the error tells the database is unavailable: it timed out, rejected the operation or failed in a
+     * way that may not happen again.
+     */
+    public static boolean isUnavailable(Throwable error) {
+        return error instanceof RepositoryTimeoutException
+                || error instanceof CircuitBreakerOpenException
+                || error instanceof ConcurrencyLimitExceededException
+                || error instanceof TransientDataAccessException
+                || error instanceof DataAccessResourceFailureException
+                || error instanceof R2dbcTransientException
+                || error instanceof R2dbcNonTransientResourceException;
+    }
+
+    public <T> Mono<T> protect(Mono<T> operation) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                return Mono.error(this::rejected);
+            }
+            return operation
+                    .doOnSuccess(value -> onSuccess())
+                    .doOnError(this::onError)
+                    .doOnCancel(this::onCancel);
+        });
+    }
+
+    public <T> Flux<T> protect(Flux<T> operation) {
+        return Flux.defer(() -> {
+            if (!tryAcquire()) {
+                return Flux.error(this::rejected);
+            }
+            // a subscriber taking the first elements only cancels an operation that worked
+            AtomicBoolean emitted = new AtomicBoolean();
+            return operation
+                    .doOnNext(value -> emitted.lazySet(true))
+                    .doOnComplete(this::onSuccess)
+                    .doOnError(this::onError)
+                    .doOnCancel(() -> {
+                        if (emitted.get()) {
+                            onSuccess();
+                        } else {
+                            onCancel();
+                        }
+                    });
+        });
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("rest.db.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("State of the circuit breaker of the database: 0 closed, 1 open, 2 half open")
+                .register(registry);
+        rejectedOperations = Counter.builder("rest.db.circuit.rejected")
+                .description("Database operations rejected by the open circuit breaker")
+                .register(registry);
+    }
+
+    private synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            log.info("Circuit breaker half open, trying {} operations", halfOpenCalls);
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    private CircuitBreakerOpenException rejected() {
+        if (rejectedOperations != null) {
+            rejectedOperations.increment();
+        }
+        return new CircuitBreakerOpenException("Database circuit breaker is open");
+    }
+
+    private synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                log.info("Circuit breaker closed");
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    private void onError(Throwable error) {
+        if (!isUnavailable(error)) {
+            onSuccess();
+            return;
+        }
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                open();
+                return;
+            }
+            record(true);
+            if (recorded >= minimumCalls && (double) failed / recorded >= failureRateThreshold) {
+                open();
+            }
+        }
+    }
+
+    private synchronized void onCancel() {
+        if (state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls - halfOpenSuccesses) {
+            halfOpenPermits++;
+        }
+    }
+
+    private void record(boolean failure) {
+        if (state != State.CLOSED) {
+            return;
+        }
+        if (recorded == slidingWindowSize) {
+            if (failures[next]) {
+                failed--;
+            }
+        } else {
+            recorded++;
+        }
+        failures[next] = failure;
+        if (failure) {
+            failed++;
+        }
+        next = (next + 1) % slidingWindowSize;
+    }
+
+    private void open() {
+        log.warn("Circuit breaker open for {} ms, the database is unavailable", openNanos / 1_000_000);
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        recorded = 0;
+        failed = 0;
+        next = 0;
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.example.reactive.rest.resilience;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class RepositoryTimeoutException extends RuntimeException {
+
+    public RepositoryTimeoutException(String message) {
+        super(message);
+    }
+
+}
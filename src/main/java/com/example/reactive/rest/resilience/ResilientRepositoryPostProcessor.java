@@ -0,0 +1,70 @@
+package com.example.reactive.rest.resilience;
+
+import com.example.reactive.rest.aot.ClassProxies;
+import com.example.reactive.rest.configuration.ResilienceProperties;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Bounds every reactive repository call by a timeout, per element for a {@link Flux}, and routes it through the
+ * {@link CircuitBreaker}. It runs after the concurrency limiter's post processor, so its advice is the outer one:
+ * the wait for a permit counts towards the timeout, and an open circuit doesn't queue anything.
+ */
+@RequiredArgsConstructor
+public class ResilientRepositoryPostProcessor implements SmartInstantiationAwareBeanPostProcessor, Ordered {
+
+    private final ObjectProvider<CircuitBreaker> circuitBreaker;
+
+    private final ObjectProvider<ResilienceProperties> properties;
+
+    @Override
+    public Class<?> determineBeanType(Class<?> beanClass, String beanName) {
+        return Repository.class.isAssignableFrom(beanClass)
+                ? ClassProxies.proxyClass(beanClass, interceptor())
+                : beanClass;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Repository<?, ?>)) {
+            return bean;
+        }
+        return ClassProxies.advise(bean, interceptor(), advised -> 0);
+    }
+
+    private MethodInterceptor interceptor() {
+        return invocation -> {
+            Object result = invocation.proceed();
+            Duration timeout = properties.getObject().getTimeout();
+            String method = invocation.getMethod().getName();
+            if (result instanceof Mono<?> mono) {
+                return circuitBreaker.getObject().protect(
+                        mono.timeout(timeout, Mono.error(() -> timedOut(method, timeout))));
+            }
+            if (result instanceof Flux<?> flux) {
+                return circuitBreaker.getObject().protect(
+                        flux.timeout(timeout, Flux.error(() -> timedOut(method, timeout))));
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private static RepositoryTimeoutException timedOut(String method, Duration timeout) {
+        return new RepositoryTimeoutException("Repository operation " + method + " timed out after "
+                + timeout.toMillis() + " ms");
+    }
+
+}
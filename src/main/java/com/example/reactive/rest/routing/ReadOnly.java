@@ -0,0 +1,17 @@
+package com.example.reactive.rest.routing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method returning a {@code Mono} or {@code Flux} whose queries may be served by a replica.
+ * Methods called inside a write keep using the primary, see {@link RoutingContext#readOnly}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnly {
+}
@@ -0,0 +1,25 @@
+package com.example.reactive.rest.routing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Applies {@link RoutingContext#readOnly} to the result of {@link ReadOnly} methods.
+ */
+public class ReadOnlyRoutingInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (result instanceof Mono<?> mono) {
+            return RoutingContext.readOnly(mono);
+        }
+        if (result instanceof Flux<?> flux) {
+            return RoutingContext.readOnly(flux);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.example.reactive.rest.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Remembers the clients that wrote recently: their reads stay on the primary for {@code window},
+ * the replication lag the replicas are expected to stay under, so they always see their own writes.
+ */
+public class ReadYourWritesTracker {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    private final Duration window;
+
+    public ReadYourWritesTracker(Duration window, long maxClients) {
+        this.window = window;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    public void onWrite(String clientKey) {
+        recentWriters.put(clientKey, Boolean.TRUE);
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public boolean hasRecentlyWritten(String clientKey) {
+        return clientKey != null && recentWriters.getIfPresent(clientKey) != null;
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.example.reactive.rest.routing;
+
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.DisposableBean;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the connections of read-only publishers, see {@link RoutingContext#readOnly}, to the replicas
+ * and everything else to the primary:
+ * <ul>
+ *     <li>replicas are picked round-robin,</li>
+ *     <li>a replica failing to hand out a connection is ejected for {@code ejectionTime},
+ *     the read is retried on the next replica and finally on the primary,</li>
+ *     <li>clients that wrote recently, see {@link ReadYourWritesTracker}, read from the primary,</li>
+ *     <li>a read from a replica is reported to {@link RoutingContext#onReplica}.</li>
+ * </ul>
+ */
+@Slf4j
+public class ReplicaRoutingConnectionFactory
+        implements ConnectionFactory, Wrapped<ConnectionFactory>, DisposableBean, Disposable {
+
+    private final ConnectionFactory primary;
+
+    private final List<Replica> replicas;
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final long ejectionNanos;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingConnectionFactory(ConnectionFactory primary, List<ConnectionFactory> replicas,
+                                           ReadYourWritesTracker readYourWritesTracker, Duration ejectionTime) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.ejectionNanos = ejectionTime.toNanos();
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.deferContextual(context -> {
+            if (!RoutingContext.isReadOnly(context)
+                    || readYourWritesTracker.hasRecentlyWritten(RoutingContext.clientKey(context))) {
+                return Mono.from(primary.create());
+            }
+            return createOnReplica(context, next.getAndIncrement(), replicas.size());
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    /**
+     * Exposes the primary, e.g. to Spring Boot when it detects the type of the database.
+     */
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+
+    @Override
+    public void destroy() {
+        Flux.fromIterable(replicas)
+                .map(Replica::connectionFactory)
+                .ofType(Closeable.class)
+                .flatMap(Closeable::close)
+                .blockLast(Duration.ofSeconds(10));
+    }
+
+    /**
+     * Disposes the primary, it replaces its bean and with it the destroy method Spring Boot declares for its pool.
+     */
+    @Override
+    public void dispose() {
+        if (primary instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return primary instanceof Disposable disposable && disposable.isDisposed();
+    }
+
+    private Mono<Connection> createOnReplica(ContextView context, int index, int remaining) {
+        if (remaining == 0) {
+            return Mono.from(primary.create());
+        }
+        Replica replica = replicas.get(Math.floorMod(index, replicas.size()));
+        if (replica.isEjected()) {
+            return createOnReplica(context, index + 1, remaining - 1);
+        }
+        return Mono.<Connection>from(replica.connectionFactory().create())
+                .doOnNext(connection -> RoutingContext.replicaRead(context, readYourWritesTracker.getWindow()))
+                .onErrorResume(e -> {
+                    log.warn("Replica {} ejected for {}ms: {}", Math.floorMod(index, replicas.size()),
+                            ejectionNanos / 1_000_000, e.getMessage());
+                    replica.eject(ejectionNanos);
+                    return createOnReplica(context, index + 1, remaining - 1);
+                });
+    }
+
+    private record Replica(ConnectionFactory connectionFactory, AtomicLong ejectedUntil) {
+
+        Replica(ConnectionFactory connectionFactory) {
+            this(connectionFactory, new AtomicLong(System.nanoTime()));
+        }
+
+        boolean isEjected() {
+            return System.nanoTime() - ejectedUntil.get() < 0;
+        }
+
+        void eject(long nanos) {
+            ejectedUntil.set(System.nanoTime() + nanos);
+        }
+
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.example.reactive.rest.routing;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Reactor {@link Context} keys read by the {@link ReplicaRoutingConnectionFactory} when a connection is requested.
+ */
+public final class RoutingContext {
+
+    static final String READ_ONLY = RoutingContext.class.getName() + ".READ_ONLY";
+
+    static final String CLIENT_KEY = RoutingContext.class.getName() + ".CLIENT_KEY";
+
+    private static final String ON_REPLICA = RoutingContext.class.getName() + ".ON_REPLICA";
+
+    private RoutingContext() {
+    }
+
+    /**
+     * Lets the queries of the publisher go to a replica, unless an enclosing publisher already decided the route.
+     */
+    public static <T> Mono<T> readOnly(Mono<T> mono) {
+        return mono.contextWrite(RoutingContext::putReadOnly);
+    }
+
+    public static <T> Flux<T> readOnly(Flux<T> flux) {
+        return flux.contextWrite(RoutingContext::putReadOnly);
+    }
+
+    /**
+     * Calls {@code onReplica} with the replication lag the replicas are expected to stay under when a query of the
+     * publisher is served by a replica, and so do the enclosing publishers registered the same way: e.g. a value
+     * cached for every client that may have missed a recent write must be read again once it reached the replicas.
+     */
+    public static <T> Mono<T> onReplica(Mono<T> mono, Consumer<Duration> onReplica) {
+        return mono.contextWrite(context -> context.put(ON_REPLICA,
+                context.<Consumer<Duration>>getOrEmpty(ON_REPLICA).map(onReplica::andThen).orElse(onReplica)));
+    }
+
+    /**
+     * Notifies the publishers registered with {@link #onReplica} of a read from a replica.
+     */
+    public static void replicaRead(ContextView context, Duration replicationLag) {
+        context.<Consumer<Duration>>getOrEmpty(ON_REPLICA).ifPresent(onReplica -> onReplica.accept(replicationLag));
+    }
+
+    public static Context withClient(Context context, String clientKey) {
+        return context.put(CLIENT_KEY, clientKey);
+    }
+
+    static boolean isReadOnly(ContextView context) {
+        return context.getOrDefault(READ_ONLY, Boolean.FALSE);
+    }
+
+    static String clientKey(ContextView context) {
+        return context.getOrDefault(CLIENT_KEY, null);
+    }
+
+    private static Context putReadOnly(Context context) {
+        return context.hasKey(READ_ONLY) ? context : context.put(READ_ONLY, Boolean.TRUE);
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.example.reactive.rest.service;
+
+import com.example.reactive.rest.cache.RecoverableMono;
+import com.example.reactive.rest.routing.RoutingContext;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+final class Monos {
+
+    private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+    private Monos() {
+    }
+
+    /**
+     * Like {@link Mono#cache()}, but errors are not replayed: the cached Mono is stored by {@code @Cacheable},
+     * so a transient failure, e.g. a rejected database operation, would otherwise be served until eviction.
+     * A stale if error cache may back it with the value it replaces.
+     */
+    static <T> Mono<T> cacheValue(Mono<T> mono) {
+        return cacheValue(load(mono), Function.identity());
+    }
+
+    /**
+     * A part of a value {@link #load}ed once for several cache entries, e.g. the page of one of the projects read
+     * together.
+     */
+    static <T, R> Mono<R> cacheValue(Mono<Loaded<T>> loaded, Function<T, R> part) {
+        return new RecoverableMono<>(loaded.flatMap(value -> Mono.deferContextual(context -> {
+            if (value.ttl().compareTo(FOREVER) < 0) {
+                RoutingContext.replicaRead(context, value.ttl());
+            }
+            return Mono.justOrEmpty(value.value()).mapNotNull(part);
+        })));
+    }
+
+    /**
+     * The value of the Mono, loaded once and kept until the next eviction. One read from a replica is only kept for
+     * the replication lag: the replica may have missed the write that evicted the value before, it is read again
+     * once that write reached it. A value using it, e.g. a cached value computed from it, is kept no longer.
+     */
+    static <T> Mono<Loaded<T>> load(Mono<T> mono) {
+        return Mono.defer(() -> {
+                    AtomicReference<Duration> ttl = new AtomicReference<>(FOREVER);
+                    return RoutingContext.onReplica(mono, ttl::set)
+                            .map(value -> new Loaded<>(value, ttl.get()))
+                            .switchIfEmpty(Mono.fromSupplier(() -> new Loaded<>(null, ttl.get())));
+                })
+                .cache(Loaded::ttl, error -> Duration.ZERO, () -> FOREVER);
+    }
+
+    /**
+     * @param value the value, {@code null} when the Mono was empty
+     */
+    record Loaded<T>(T value, Duration ttl) {
+    }
+
+}
@@ -3,74 +3,178 @@ package com.example.reactive.rest.service;
 import com.example.reactive.rest.dto.ProjectCreationDto;
 import com.example.reactive.rest.mapper.ProjectMapper;
 import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.TimeFilter;
 import com.example.reactive.rest.repository.ProjectRepository;
+import com.example.reactive.rest.repository.TaskRepository;
+import com.example.reactive.rest.routing.ReadOnly;
+import com.example.reactive.rest.stats.TaskStatistics;
+import com.example.reactive.rest.tenant.TenantContext;
+import com.example.reactive.rest.tenant.TenantScoped;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Projects of the tenant of the request, see {@link TenantContext#current()}.
+ */
+@Observed(name = "rest.service")
+@TenantScoped
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@CacheConfig(cacheNames = {"projects"})
+@CacheConfig(cacheNames = {ProjectService.CACHE_NAME})
 public class ProjectService {
 
+    static final String CACHE_NAME = "projects";
+
     private final ProjectRepository projectRepository;
 
+    private final TaskRepository taskRepository;
+
     private final ProjectMapper projectMapper;
 
+    private final TaskStatistics taskStatistics;
+
+    private final CacheManager cacheManager;
+
+    private final Clock clock;
+
 
     @Cacheable
+    @ReadOnly
     public Mono<PageImpl<Project>> getAllProjects(Pageable pageable) {
         log.debug("Getting all projects with: {}", pageable);
-        return projectRepository.findAllBy(pageable)
+        String tenantId = TenantContext.current();
+        return projectRepository.findAllByTenantId(tenantId, pageable)
                 .collectList()
-                .zipWith(projectRepository.count())
+                .zipWith(projectRepository.countByTenantId(tenantId))
                 .flatMap(tuple2 -> Mono.just(new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2())))
-                .cache();
+                .transform(Monos::cacheValue);
+    }
+
+    @Cacheable
+    @ReadOnly
+    public Mono<PageImpl<Project>> getAllProjects(Pageable pageable, List<String> columns) {
+        log.debug("Getting all projects with: {}, columns: {}", pageable, columns);
+        String tenantId = TenantContext.current();
+        return projectRepository.findAllBy(tenantId, columns, pageable)
+                .collectList()
+                .zipWith(projectRepository.countByTenantId(tenantId))
+                .flatMap(tuple2 -> Mono.just(new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2())))
+                .transform(Monos::cacheValue);
+    }
+
+    /**
+     * Projects restricted by their audited times, no columns selects them all.
+     */
+    @Cacheable
+    @ReadOnly
+    public Mono<PageImpl<Project>> getAllProjects(Pageable pageable, List<String> columns, TimeFilter filter) {
+        log.debug("Getting all projects with: {}, columns: {}, filter: {}", pageable, columns, filter);
+        String tenantId = TenantContext.current();
+        return projectRepository.findAllBy(tenantId, filter, columns, pageable)
+                .collectList()
+                .zipWith(projectRepository.count(tenantId, filter))
+                .map(tuple2 -> new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2()))
+                .transform(Monos::cacheValue);
+    }
+
+    /**
+     * Uncached counterpart of {@link #getAllProjects(Pageable)} for streamed pages,
+     * the projects are emitted as they are read and never collected.
+     */
+    @ReadOnly
+    public Flux<Project> streamProjects(Pageable pageable) {
+        log.debug("Streaming projects with: {}", pageable);
+        return projectRepository.findAllByTenantId(TenantContext.current(), pageable);
+    }
+
+    @ReadOnly
+    public Flux<Project> streamProjects(Pageable pageable, TimeFilter filter) {
+        log.debug("Streaming projects with: {}, filter: {}", pageable, filter);
+        return projectRepository.findAllBy(TenantContext.current(), filter, List.of(), pageable);
+    }
+
+    @ReadOnly
+    public Mono<Long> countProjects() {
+        return projectRepository.countByTenantId(TenantContext.current());
+    }
+
+    @ReadOnly
+    public Mono<Long> countProjects(TimeFilter filter) {
+        return projectRepository.count(TenantContext.current(), filter);
     }
 
     @Cacheable
+    @ReadOnly
     public Mono<Project> findById(Long id) {
         log.debug("Getting project with id: {}", id);
-        return projectRepository.findById(id).cache();
+        return projectRepository.findByTenantIdAndId(TenantContext.current(), id).transform(Monos::cacheValue);
     }
 
 
-    @CacheEvict(allEntries = true)
     public Mono<Project> createProject(ProjectCreationDto projectCreationDto) {
         log.debug("Saving new project: {}", projectCreationDto);
-        return projectRepository.save(projectMapper.toEntity(projectCreationDto));
+        Project project = projectMapper.toEntity(projectCreationDto);
+        String tenantId = TenantContext.current();
+        project.setTenantId(tenantId);
+        return clearCache(tenantId, projectRepository.save(project));
     }
 
-    @CacheEvict(allEntries = true)
     public Mono<Project> updateProject(Long id, ProjectCreationDto projectCreationDto) {
         log.debug("Updating project, id: {}, project dto: {}", id, projectCreationDto);
-        return projectRepository.findById(id)
+        String tenantId = TenantContext.current();
+        return projectRepository.findByTenantIdAndId(tenantId, id)
                 .zipWith(
                         Mono.just(projectCreationDto),
                         (Project project, ProjectCreationDto projectDto) -> {
                             project.setName(projectDto.getName());
                             return project;
                         })
-                .flatMap(projectRepository::save);
-
+                .flatMap(projectRepository::save)
+                .transform(updated -> clearCache(tenantId, updated));
     }
 
-    @CacheEvict(allEntries = true)
     public Mono<Void> deleteProject(Long id) {
         log.debug("Deleting project with id: {}", id);
-        return projectRepository.deleteById(id);
+        String tenantId = TenantContext.current();
+        // the foreign key only cascades to the tasks on the database of their project, they may live on another one
+        return projectRepository.deleteProject(tenantId, id, LocalDateTime.now(clock))
+                .filter(deleted -> deleted > 0)
+                .flatMap(deleted -> taskRepository.deleteTasksByProjectId(id)
+                        .doOnSuccess(tasksDeleted -> taskStatistics.onProjectDeleted(tenantId, id)))
+                .transform(deleted -> clearCache(tenantId, deleted));
     }
 
     public Mono<Boolean> isProjectExist(Long projectId) {
         log.debug("Searching if project exist, id: {}", projectId);
-        return projectRepository.existsById(projectId);
+        return projectRepository.existsByTenantIdAndId(TenantContext.current(), projectId);
+    }
+
+    /**
+     * Clears the tenant's cached projects once the write succeeded, a failed write leaves them to be served stale.
+     */
+    private <T> Mono<T> clearCache(String tenantId, Mono<T> write) {
+        return write.doOnSuccess(result -> {
+            Cache cache = cacheManager.getCache(CACHE_NAME);
+            if (cache != null) {
+                // the write completes on a database thread, the tenant's partition is the one to clear
+                TenantContext.runAs(tenantId, cache::clear);
+            }
+        });
     }
 
 }
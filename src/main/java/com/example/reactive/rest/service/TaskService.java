@@ -1,64 +1,199 @@
 package com.example.reactive.rest.service;
 
+import com.example.reactive.rest.cache.ProjectKey;
 import com.example.reactive.rest.dto.TaskCreationDto;
 import com.example.reactive.rest.mapper.TaskMapper;
 import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TimeFilter;
 import com.example.reactive.rest.repository.TaskRepository;
+import com.example.reactive.rest.routing.ReadOnly;
+import com.example.reactive.rest.stats.TaskStatistics;
+import com.example.reactive.rest.tenant.TenantContext;
+import com.example.reactive.rest.tenant.TenantScoped;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tasks of the projects of the tenant of the request, those of another tenant's project are never read.
+ */
+@Observed(name = "rest.service")
+@TenantScoped
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@CacheConfig(cacheNames = {"tasks"})
+@CacheConfig(cacheNames = {TaskService.CACHE_NAME}, keyGenerator = "projectKeyGenerator")
 public class TaskService {
 
+    static final String CACHE_NAME = "tasks";
+
     private final ProjectService projectService;
 
     private final TaskRepository taskRepository;
 
     private final TaskMapper taskMapper;
 
+    private final TaskStatistics taskStatistics;
+
+    private final CacheManager cacheManager;
+
+    private final Clock clock;
+
     @Cacheable
+    @ReadOnly
     public Mono<PageImpl<Task>> getTasks(Long projectId, Pageable pageable) {
         log.debug("Getting all tasks, project id: {}", projectId);
-        return taskRepository.findAllByProjectId(projectId, pageable)
-                .collectList()
-                .zipWith(taskRepository.countAllByProjectId(projectId))
+        return ownProject(projectId, taskRepository.findAllByProjectId(projectId, pageable).collectList()
+                        .zipWith(taskRepository.countAllByProjectId(projectId)))
+                .flatMap(tuple2 -> Mono.just(new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2())))
+                .defaultIfEmpty(new PageImpl<>(List.of(), pageable, 0))
+                .transform(Monos::cacheValue);
+    }
+
+    @Cacheable
+    @ReadOnly
+    public Mono<PageImpl<Task>> getTasks(Long projectId, Pageable pageable, List<String> columns) {
+        log.debug("Getting all tasks, project id: {}, columns: {}", projectId, columns);
+        return ownProject(projectId, taskRepository.findAllByProjectId(projectId, columns, pageable).collectList()
+                        .zipWith(taskRepository.countAllByProjectId(projectId)))
                 .flatMap(tuple2 -> Mono.just(new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2())))
-                .cache();
+                .defaultIfEmpty(new PageImpl<>(List.of(), pageable, 0))
+                .transform(Monos::cacheValue);
+    }
+
+    /**
+     * Tasks restricted by their audited times, no columns selects them all.
+     */
+    @Cacheable
+    @ReadOnly
+    public Mono<PageImpl<Task>> getTasks(Long projectId, Pageable pageable, List<String> columns, TimeFilter filter) {
+        log.debug("Getting all tasks, project id: {}, columns: {}, filter: {}", projectId, columns, filter);
+        return ownProject(projectId, taskRepository.findAllByProjectId(projectId, filter, columns, pageable)
+                        .collectList()
+                        .zipWith(taskRepository.countAllByProjectId(projectId, filter)))
+                .map(tuple2 -> new PageImpl<>(tuple2.getT1(), pageable, tuple2.getT2()))
+                .defaultIfEmpty(new PageImpl<>(List.of(), pageable, 0))
+                .transform(Monos::cacheValue);
+    }
+
+    /**
+     * The same page of tasks of each of the projects, which must be the current tenant's, e.g. a page of projects
+     * read through the {@link ProjectService}. Each page is the one {@link #getTasks(Long, Pageable)}, or with
+     * columns {@link #getTasks(Long, Pageable, List)}, returns and shares its cache entry: cached pages are reused,
+     * the others are read together in one statement, counted together in another, and cached.
+     */
+    @ReadOnly
+    public Mono<Map<Long, PageImpl<Task>>> getTaskPages(List<Long> projectIds, Pageable pageable,
+                                                        List<String> columns) {
+        log.debug("Getting task pages, project ids: {}, pageable: {}, columns: {}", projectIds, pageable, columns);
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        Map<Long, Mono<PageImpl<Task>>> pages = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long projectId : projectIds) {
+            Mono<PageImpl<Task>> cached = cachedPage(cache, pageKey(projectId, pageable, columns));
+            if (cached != null) {
+                pages.put(projectId, cached);
+            } else {
+                missing.add(projectId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Mono<Monos.Loaded<Map<Long, PageImpl<Task>>>> loaded = Monos.load(
+                    taskRepository.findPagesByProjectIds(missing, columns, pageable)
+                            .collectMultimap(Task::getProjectId)
+                            .zipWith(taskRepository.countAllByProjectIds(missing), (tasks, counts) -> {
+                                Map<Long, PageImpl<Task>> loadedPages = new HashMap<>();
+                                for (Long projectId : missing) {
+                                    loadedPages.put(projectId, new PageImpl<>(
+                                            List.copyOf(tasks.getOrDefault(projectId, List.of())), pageable,
+                                            counts.getOrDefault(projectId, 0L)));
+                                }
+                                return loadedPages;
+                            }));
+            for (Long projectId : missing) {
+                Mono<PageImpl<Task>> page = Monos.cacheValue(loaded, loadedPages -> loadedPages.get(projectId));
+                pages.put(projectId, page);
+                if (cache != null) {
+                    cache.put(pageKey(projectId, pageable, columns), page);
+                }
+            }
+        }
+        return Flux.fromIterable(projectIds)
+                .flatMapSequential(projectId -> pages.get(projectId).map(page -> Map.entry(projectId, page)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new);
+    }
+
+    /**
+     * Uncached counterpart of {@link #getTasks(Long, Pageable)} for streamed pages,
+     * the tasks are emitted as they are read and never collected.
+     */
+    @ReadOnly
+    public Flux<Task> streamTasks(Long projectId, Pageable pageable) {
+        log.debug("Streaming tasks, project id: {}, pageable: {}", projectId, pageable);
+        return ownProject(projectId, taskRepository.findAllByProjectId(projectId, pageable));
+    }
+
+    @ReadOnly
+    public Flux<Task> streamTasks(Long projectId, Pageable pageable, TimeFilter filter) {
+        log.debug("Streaming tasks, project id: {}, pageable: {}, filter: {}", projectId, pageable, filter);
+        return ownProject(projectId, taskRepository.findAllByProjectId(projectId, filter, List.of(), pageable));
+    }
+
+    @ReadOnly
+    public Mono<Long> countTasks(Long projectId) {
+        return ownProject(projectId, taskRepository.countAllByProjectId(projectId)).defaultIfEmpty(0L);
+    }
+
+    @ReadOnly
+    public Mono<Long> countTasks(Long projectId, TimeFilter filter) {
+        return ownProject(projectId, taskRepository.countAllByProjectId(projectId, filter)).defaultIfEmpty(0L);
     }
 
     @Cacheable
+    @ReadOnly
     public Mono<Task> getTask(Long projectId, Long taskId) {
         log.debug("Getting task, project id: {}, task id: {}", projectId, taskId);
-        return taskRepository.findByProjectIdAndId(projectId, taskId).cache();
+        return ownProject(projectId, taskRepository.findByProjectIdAndId(projectId, taskId))
+                .transform(Monos::cacheValue);
     }
 
-    @CacheEvict(allEntries = true)
     public Mono<Task> createTask(Long projectId, TaskCreationDto taskCreationDto) {
         log.debug("Creating task, project id: {}, task creation dto: {}", projectId, taskCreationDto);
         Task task = taskMapper.toEntity(taskCreationDto);
         task.setProjectId(projectId);
+        String tenantId = TenantContext.current();
+        task.setTenantId(tenantId);
         return projectService.isProjectExist(projectId)
                 .flatMap((Boolean aBoolean) -> {
                     if (Boolean.TRUE.equals(aBoolean)) {
                         return taskRepository.save(task);
                     }
                     return Mono.empty();
-                });
+                })
+                .transform(created -> evictProjects(tenantId, List.of(projectId), created))
+                .doOnNext(created -> taskStatistics.onTaskCreated(tenantId, created));
     }
 
-    @CacheEvict(allEntries = true)
     public Mono<Task> updateTask(Long projectId, Long taskId, TaskCreationDto taskCreationDto) {
         log.debug("Updating task, project id: {}, task updating dto: {}", projectId, taskCreationDto);
+        String tenantId = TenantContext.current();
         return projectService.isProjectExist(projectId)
                 .flatMap((Boolean aBoolean) -> {
                     if (Boolean.TRUE.equals(aBoolean)) {
@@ -66,7 +201,9 @@ public class TaskService {
                     }
                     return Mono.empty();
                 })
-                .flatMap(taskRepository::save);
+                .flatMap(taskRepository::save)
+                .transform(updated -> evictProjects(tenantId, List.of(projectId), updated))
+                .doOnNext(updated -> taskStatistics.onTaskUpdated(tenantId, updated));
     }
 
     private Mono<Task> updateTaskModel(Long projectId, Long taskId, TaskCreationDto taskCreationDto) {
@@ -80,10 +217,67 @@ public class TaskService {
         );
     }
 
-    @CacheEvict(allEntries = true)
+    /**
+     * Moves the tasks of the project with the given ids, all of them when there are none, that match the filter to
+     * the target project in one set-based update. Only the cached tasks of both projects are evicted.
+     * Empty if either project does not exist, otherwise emits how many tasks were moved.
+     */
+    public Mono<Long> moveTasks(Long projectId, Long targetProjectId, List<Long> taskIds, TimeFilter filter) {
+        log.debug("Moving tasks, project id: {}, target project id: {}, task ids: {}, filter: {}",
+                projectId, targetProjectId, taskIds, filter);
+        String tenantId = TenantContext.current();
+        return Mono.zip(projectService.isProjectExist(projectId), projectService.isProjectExist(targetProjectId),
+                        Boolean::logicalAnd)
+                .filter(Boolean::booleanValue)
+                .flatMap(exist -> taskRepository.moveTasks(projectId, targetProjectId, taskIds, filter,
+                        LocalDateTime.now(clock)))
+                .transform(moved -> evictProjects(tenantId, List.of(projectId, targetProjectId), moved))
+                .doOnNext(moved -> taskStatistics.onTasksMoved(tenantId, projectId, targetProjectId, moved));
+    }
+
     public Mono<Void> deleteTask(Long projectId, Long taskId) {
         log.debug("Deleting task, project id: {}, task id: {}", projectId, taskId);
-        return taskRepository.deleteTaskByProjectIdAndId(projectId, taskId);
+        String tenantId = TenantContext.current();
+        return ownProject(projectId, taskRepository.deleteTask(projectId, taskId, LocalDateTime.now(clock))
+                .transform(deleted -> evictProjects(tenantId, List.of(projectId), deleted))
+                .filter(deleted -> deleted > 0)
+                .doOnNext(deleted -> taskStatistics.onTaskDeleted(tenantId, projectId)))
+                .then();
+    }
+
+    /**
+     * Evicts the cached tasks of the projects once the write succeeded. Evicting them before, like
+     * {@code @CacheEvict}, would also drop the stale values served while the database is unavailable.
+     */
+    private <T> Mono<T> evictProjects(String tenantId, List<Long> projectIds, Mono<T> write) {
+        return write.doOnSuccess(result -> {
+            Cache cache = cacheManager.getCache(CACHE_NAME);
+            if (cache != null) {
+                // the write completes on a database thread, the tenant's partition is the one to evict
+                TenantContext.runAs(tenantId, () -> ProjectKey.evictProjects(cache, projectIds));
+            }
+        });
+    }
+
+    private static ProjectKey pageKey(Long projectId, Pageable pageable, List<String> columns) {
+        return columns.isEmpty() ? ProjectKey.of(projectId, pageable) : ProjectKey.of(projectId, pageable, columns);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Mono<PageImpl<Task>> cachedPage(Cache cache, ProjectKey key) {
+        Cache.ValueWrapper cached = cache != null ? cache.get(key) : null;
+        return cached != null && cached.get() instanceof Mono<?> page ? (Mono<PageImpl<Task>>) page : null;
+    }
+
+    /**
+     * The operation on the tasks of the project, empty when the project is not one of the current tenant.
+     */
+    private <T> Mono<T> ownProject(Long projectId, Mono<T> operation) {
+        return projectService.isProjectExist(projectId).filter(Boolean::booleanValue).flatMap(exists -> operation);
+    }
+
+    private <T> Flux<T> ownProject(Long projectId, Flux<T> operation) {
+        return projectService.isProjectExist(projectId).filter(Boolean::booleanValue).flatMapMany(exists -> operation);
     }
 
 }
@@ -0,0 +1,51 @@
+package com.example.reactive.rest.sharding;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash of project ids onto shards: every shard owns {@code virtualNodes} points of a 64-bit ring and
+ * a project belongs to the shard of the first point at or after its hash. Adding a shard only moves the projects
+ * now owned by its points, roughly {@code 1 / shards} of them.
+ */
+public class ConsistentHashRing {
+
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+
+    private final int shards;
+
+    public ConsistentHashRing(int shards, int virtualNodes) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = shards;
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring.put(mix(((long) shard << 32) | node), shard);
+            }
+        }
+    }
+
+    public int shardOf(long projectId) {
+        Map.Entry<Long, Integer> point = ring.ceilingEntry(mix(projectId));
+        return (point != null ? point : ring.firstEntry()).getValue();
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * MurmurHash3 finalizer, spreads sequential ids over the whole ring.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb1a3c2d4d1c3L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+}
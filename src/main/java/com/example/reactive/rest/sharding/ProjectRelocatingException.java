@@ -0,0 +1,13 @@
+package com.example.reactive.rest.sharding;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ProjectRelocatingException extends RuntimeException {
+
+    public ProjectRelocatingException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.example.reactive.rest.sharding;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Shard of every project: the {@link ConsistentHashRing} placement, unless the project was relocated.
+ * The directory is the {@code task_shard_directory} table on the primary database, shared by all the nodes:
+ * <ul>
+ *     <li>writes look up the row of their project, so they follow a relocation by any node at once and are
+ *     rejected while it runs,</li>
+ *     <li>reads use a copy kept in memory, refreshed every {@code refreshInterval} with the rows changed since,
+ *     so routing them never needs a lookup. A relocation keeps the rows on the old shard until the other nodes
+ *     refreshed, reads there may miss the writes of that last interval.</li>
+ * </ul>
+ * A relocation interrupted without ending, e.g. by a crash of its node, blocks the writes to its project until
+ * {@code relocationTimeout}, then another relocation may take it over.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ShardDirectory implements DisposableBean {
+
+    private static final String NEXT_VERSION = "NEXT VALUE FOR task_shard_directory_version_seq";
+
+    private final ConsistentHashRing ring;
+
+    private final DatabaseClient primaryClient;
+
+    private final Duration refreshInterval;
+
+    private final Duration relocationTimeout;
+
+    private final Clock clock;
+
+    private final Map<Long, Placement> placements = new ConcurrentHashMap<>();
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Disposable schedule;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        schedule = Flux.interval(refreshInterval, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> load()
+                        .onErrorResume(e -> {
+                            log.warn("Shard directory refresh failed", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * Reads the rows changed since the last load, all of them the first time.
+     */
+    public Mono<Void> load() {
+        return Mono.defer(() -> primaryClient.sql("SELECT project_id, shard, version FROM task_shard_directory "
+                                + "WHERE version > :version")
+                        .bind("version", version.get())
+                        .map(row -> new Placement(((Number) row.get("project_id")).longValue(),
+                                ((Number) row.get("shard")).intValue(), ((Number) row.get("version")).longValue()))
+                        .all()
+                        .doOnNext(placement -> {
+                            placements.merge(placement.projectId(), placement, Placement::latest);
+                            version.accumulateAndGet(placement.version(), Math::max);
+                        })
+                        .count())
+                .doOnNext(changed -> {
+                    if (changed > 0) {
+                        log.info("Loaded {} changed project placements, {} projects are relocated", changed,
+                                getRelocations().size());
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * Shard of the project as of the last load, for reads.
+     */
+    public int shardOf(Long projectId) {
+        Placement placement = placements.get(projectId);
+        return placement != null ? placement.shard() : ring.shardOf(projectId);
+    }
+
+    public int getShards() {
+        return ring.getShards();
+    }
+
+    public Map<Long, Integer> getRelocations() {
+        return placements.values().stream()
+                .filter(placement -> placement.shard() != ring.shardOf(placement.projectId()))
+                .collect(Collectors.toUnmodifiableMap(Placement::projectId, Placement::shard));
+    }
+
+    /**
+     * Current shard of the project, for writes: looked up on the primary database, it may have been relocated by
+     * another node since the last load. Fails with {@link ProjectRelocatingException} while it is being relocated.
+     */
+    Mono<Integer> writableShard(Long projectId) {
+        return primaryClient.sql("SELECT shard, relocating_since, version FROM task_shard_directory "
+                        + "WHERE project_id = :projectId")
+                .bind("projectId", projectId)
+                .map(row -> Tuples.of(new Placement(projectId, ((Number) row.get("shard")).intValue(),
+                        ((Number) row.get("version")).longValue()), row.get("relocating_since") != null))
+                .one()
+                .flatMap(row -> {
+                    placements.merge(projectId, row.getT1(), Placement::latest);
+                    return row.getT2()
+                            ? Mono.error(new ProjectRelocatingException("Project %d is being relocated, retry later"
+                            .formatted(projectId)))
+                            : Mono.just(row.getT1().shard());
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> ring.shardOf(projectId)));
+    }
+
+    /**
+     * Marks the project as being relocated for all the nodes and emits its current shard, fails with
+     * {@link ProjectRelocatingException} when a relocation of the project already runs.
+     */
+    Mono<Integer> startRelocation(Long projectId) {
+        return Mono.defer(() -> {
+            LocalDateTime now = LocalDateTime.now(clock);
+            Mono<Long> marked = primaryClient.sql("UPDATE task_shard_directory SET relocating_since = :now, "
+                            + "version = " + NEXT_VERSION + " WHERE project_id = :projectId "
+                            + "AND (relocating_since IS NULL OR relocating_since < :expired)")
+                    .bind("now", now)
+                    .bind("projectId", projectId)
+                    .bind("expired", now.minus(relocationTimeout))
+                    .fetch()
+                    .rowsUpdated();
+            Mono<Long> inserted = primaryClient.sql("INSERT INTO task_shard_directory "
+                            + "(project_id, shard, relocating_since, version) "
+                            + "VALUES (:projectId, :shard, :now, " + NEXT_VERSION + ")")
+                    .bind("projectId", projectId)
+                    .bind("shard", ring.shardOf(projectId))
+                    .bind("now", now)
+                    .fetch()
+                    .rowsUpdated()
+                    .onErrorResume(DataIntegrityViolationException.class, e -> Mono.just(0L));
+            return marked.flatMap(updated -> updated > 0 ? Mono.just(updated) : inserted);
+        }).flatMap(started -> started > 0
+                ? currentShard(projectId)
+                : Mono.error(new ProjectRelocatingException("Project %d is already being relocated"
+                .formatted(projectId))));
+    }
+
+    /**
+     * Places the project on the shard and ends its relocation. Completes once the other nodes had the time to load
+     * the change, after which the old shard no longer serves their reads.
+     */
+    Mono<Void> relocate(Long projectId, int shard) {
+        return primaryClient.sql("UPDATE task_shard_directory SET shard = :shard, relocating_since = NULL, "
+                        + "version = " + NEXT_VERSION + " WHERE project_id = :projectId")
+                .bind("shard", shard)
+                .bind("projectId", projectId)
+                .then()
+                .then(load())
+                .then(Mono.delay(refreshInterval.multipliedBy(2)))
+                .then();
+    }
+
+    /**
+     * Ends the relocation of the project, which stays on its shard.
+     */
+    Mono<Void> abortRelocation(Long projectId) {
+        return primaryClient.sql("UPDATE task_shard_directory SET relocating_since = NULL, "
+                        + "version = " + NEXT_VERSION + " WHERE project_id = :projectId")
+                .bind("projectId", projectId)
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    private Mono<Integer> currentShard(Long projectId) {
+        return primaryClient.sql("SELECT shard FROM task_shard_directory WHERE project_id = :projectId")
+                .bind("projectId", projectId)
+                .map(row -> ((Number) row.get("shard")).intValue())
+                .one();
+    }
+
+    private record Placement(long projectId, int shard, long version) {
+
+        Placement latest(Placement other) {
+            return other.version() > version ? other : this;
+        }
+
+    }
+
+}
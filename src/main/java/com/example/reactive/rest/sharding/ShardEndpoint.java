@@ -0,0 +1,36 @@
+package com.example.reactive.rest.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/shards}: shard count and relocated projects, {@code POST} relocates a project.
+ * The relocation moves data between databases, so the endpoint is left off the web exposure: it is reachable
+ * through JMX with {@code spring.jmx.enabled}, and should only be added to
+ * {@code management.endpoints.web.exposure.include} behind an authenticated management port.
+ */
+@Endpoint(id = "shards")
+@RequiredArgsConstructor
+public class ShardEndpoint {
+
+    private final ShardDirectory directory;
+
+    private final ShardedTaskRepository taskRepository;
+
+    @ReadOperation
+    public Map<String, Object> shards() {
+        return Map.of("shards", directory.getShards(), "relocations", directory.getRelocations());
+    }
+
+    @WriteOperation
+    public Mono<Map<String, Object>> relocate(Long projectId, int shard) {
+        return taskRepository.relocate(projectId, shard)
+                .map(moved -> Map.of("projectId", projectId, "shard", shard, "movedTasks", moved));
+    }
+
+}
@@ -0,0 +1,459 @@
+package com.example.reactive.rest.sharding;
+
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TaskActivity;
+import com.example.reactive.rest.model.TimeFilter;
+import com.example.reactive.rest.repository.TaskRepository;
+import com.example.reactive.rest.repository.TaskRepositoryCustomImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+/**
+ * {@link TaskRepository} over N shards of the {@code task} table:
+ * <ul>
+ *     <li>every operation scoped by a project id, or by a task carrying it, runs on the shard of the
+ *     project resolved by the {@link ShardDirectory},</li>
+ *     <li>operations by task id alone scatter to all shards and gather the results.</li>
+ * </ul>
+ * Task ids come from the {@code task_id_seq} sequence of the primary database, so they stay unique across shards
+ * and tasks keep their ids when a project is relocated. Writes to a project being relocated, by any node, are
+ * rejected with {@link ProjectRelocatingException}.
+ */
+@Slf4j
+public class ShardedTaskRepository implements TaskRepository {
+
+    private static final String PROJECT_ID = "project_id";
+
+    private static final String ID = "id";
+
+    private final List<R2dbcEntityTemplate> shards;
+
+    private final ShardDirectory directory;
+
+    private final DatabaseClient primaryClient;
+
+    public ShardedTaskRepository(List<R2dbcEntityTemplate> shards, ShardDirectory directory,
+                                 DatabaseClient primaryClient) {
+        if (shards.size() != directory.getShards()) {
+            throw new IllegalArgumentException("The directory must place projects on the %d shards"
+                    .formatted(shards.size()));
+        }
+        this.shards = shards;
+        this.directory = directory;
+        this.primaryClient = primaryClient;
+    }
+
+    @Override
+    public Flux<Task> findAllByProjectId(Long projectId, Pageable pageable) {
+        return shardOf(projectId).select(Task.class)
+                .matching(Query.query(where(PROJECT_ID).is(projectId)).with(pageable))
+                .all();
+    }
+
+    @Override
+    public Flux<Task> findAllByProjectIdAndIdGreaterThan(Long projectId, Long id, Pageable pageable) {
+        return shardOf(projectId).select(Task.class)
+                .matching(Query.query(where(PROJECT_ID).is(projectId).and(ID).greaterThan(id)).with(pageable))
+                .all();
+    }
+
+    @Override
+    public Flux<Task> findAllByProjectId(Long projectId, Collection<String> columns, Pageable pageable) {
+        return shardOf(projectId).select(Task.class)
+                .matching(Query.query(where(PROJECT_ID).is(projectId)).columns(columns).with(pageable))
+                .all();
+    }
+
+    @Override
+    public Flux<Task> findAllByProjectId(Long projectId, TimeFilter filter, Collection<String> columns,
+                                         Pageable pageable) {
+        return new TaskRepositoryCustomImpl(shardOf(projectId))
+                .findAllByProjectId(projectId, filter, columns, pageable);
+    }
+
+    @Override
+    public Mono<Long> countAllByProjectId(Long projectId, TimeFilter filter) {
+        return new TaskRepositoryCustomImpl(shardOf(projectId)).countAllByProjectId(projectId, filter);
+    }
+
+    /**
+     * One statement per shard holding any of the projects.
+     */
+    @Override
+    public Flux<Task> findPagesByProjectIds(Collection<Long> projectIds, Collection<String> columns,
+                                            Pageable pageable) {
+        return Flux.fromIterable(byShard(projectIds).entrySet())
+                .flatMap(shardProjects -> new TaskRepositoryCustomImpl(shardProjects.getKey())
+                        .findPagesByProjectIds(shardProjects.getValue(), columns, pageable));
+    }
+
+    @Override
+    public Mono<Map<Long, Long>> countAllByProjectIds(Collection<Long> projectIds) {
+        return Flux.fromIterable(byShard(projectIds).entrySet())
+                .flatMap(shardProjects -> new TaskRepositoryCustomImpl(shardProjects.getKey())
+                        .countAllByProjectIds(shardProjects.getValue()))
+                .reduceWith(HashMap::new, (Map<Long, Long> counts, Map<Long, Long> shardCounts) -> {
+                    counts.putAll(shardCounts);
+                    return counts;
+                });
+    }
+
+    @Override
+    public Mono<Long> countAllByProjectId(Long projectId) {
+        return shardOf(projectId).count(Query.query(where(PROJECT_ID).is(projectId)), Task.class);
+    }
+
+    @Override
+    public Mono<Task> findByProjectIdAndId(Long projectId, Long taskId) {
+        return shardOf(projectId).selectOne(Query.query(byProjectAndId(projectId, taskId)), Task.class);
+    }
+
+    @Override
+    public Mono<Void> deleteTaskByProjectIdAndId(Long projectId, Long taskId) {
+        return write(projectId, shard -> shard.delete(Query.query(byProjectAndId(projectId, taskId)), Task.class)
+                .then());
+    }
+
+    @Override
+    public Mono<Void> deleteTasksByProjectId(Long projectId) {
+        return write(projectId, shard -> shard.delete(Query.query(where(PROJECT_ID).is(projectId)), Task.class)
+                .then());
+    }
+
+    @Override
+    public <S extends Task> Mono<S> save(S task) {
+        if (task.getProjectId() == null) {
+            return Mono.error(new IllegalArgumentException("A task can only be stored with its project id"));
+        }
+        return write(task.getProjectId(), shard -> {
+            LocalDateTime now = LocalDateTime.now();
+            task.setUpdatedAt(now);
+            if (task.getId() != null) {
+                return shard.update(task);
+            }
+            task.setCreatedAt(now);
+            return nextId().flatMap(id -> {
+                task.setId(id);
+                return shard.insert(task);
+            });
+        });
+    }
+
+    @Override
+    public <S extends Task> Flux<S> saveAll(Iterable<S> tasks) {
+        return Flux.fromIterable(tasks).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends Task> Flux<S> saveAll(Publisher<S> tasks) {
+        return Flux.from(tasks).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<Task> findById(Long id) {
+        return scatter(shard -> shard.selectOne(Query.query(where(ID).is(id)), Task.class)).next();
+    }
+
+    @Override
+    public Mono<Task> findById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return findById(id).hasElement();
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<Task> findAll() {
+        return scatter(shard -> shard.select(Task.class).all());
+    }
+
+    @Override
+    public Flux<Task> findAllById(Iterable<Long> ids) {
+        List<Long> idList = StreamSupport.stream(ids.spliterator(), false).toList();
+        if (idList.isEmpty()) {
+            return Flux.empty();
+        }
+        return scatter(shard -> shard.select(Query.query(where(ID).in(idList)), Task.class));
+    }
+
+    @Override
+    public Flux<Task> findAllById(Publisher<Long> ids) {
+        return Flux.from(ids).collectList().flatMapMany(this::findAllById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return scatter(shard -> shard.count(Query.empty(), Task.class)).reduce(0L, Long::sum);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return scatter(shard -> shard.delete(Query.query(where(ID).is(id)), Task.class)).then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(Task task) {
+        return deleteTaskByProjectIdAndId(task.getProjectId(), task.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Long> ids) {
+        return Flux.fromIterable(ids).concatMap(this::deleteById).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Task> tasks) {
+        return Flux.fromIterable(tasks).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Task> tasks) {
+        return Flux.from(tasks).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return scatter(shard -> shard.delete(Task.class).all()).then();
+    }
+
+    /**
+     * Scatters to all shards, a project being relocated may be reported by two shards at once.
+     */
+    @Override
+    public Flux<TaskActivity> findTaskActivity(LocalDateTime createdSince) {
+        return scatter(shard -> new TaskRepositoryCustomImpl(shard).findTaskActivity(createdSince));
+    }
+
+    @Override
+    public Mono<Void> saveTombstone(Long projectId, Long taskId, LocalDateTime deletedAt) {
+        return write(projectId, shard -> new TaskRepositoryCustomImpl(shard)
+                .saveTombstone(projectId, taskId, deletedAt));
+    }
+
+    @Override
+    public Mono<Long> deleteTask(Long projectId, Long taskId, LocalDateTime deletedAt) {
+        return write(projectId, shard -> new TaskRepositoryCustomImpl(shard)
+                .deleteTask(projectId, taskId, deletedAt));
+    }
+
+    @Override
+    public Flux<Long> findTombstones(Long projectId, LocalDateTime deletedSince) {
+        return new TaskRepositoryCustomImpl(shardOf(projectId)).findTombstones(projectId, deletedSince);
+    }
+
+    @Override
+    public Mono<Long> deleteTombstonesBefore(LocalDateTime deletedBefore) {
+        return scatter(shard -> new TaskRepositoryCustomImpl(shard).deleteTombstonesBefore(deletedBefore))
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * A set-based update when both projects live on the same shard. Otherwise the tasks are copied to the shard of
+     * the target project, then tombstoned and deleted on their shard, without a transaction across both shards:
+     * a failure leaves copies rather than losing tasks.
+     */
+    @Override
+    public Mono<Long> moveTasks(Long projectId, Long targetProjectId, List<Long> taskIds, TimeFilter filter,
+                                LocalDateTime movedAt) {
+        return write(projectId, source -> write(targetProjectId,
+                target -> moveTasksBetweenShards(projectId, source, targetProjectId, target, taskIds, filter,
+                        movedAt)));
+    }
+
+    private Mono<Long> moveTasksBetweenShards(Long projectId, R2dbcEntityTemplate source, Long targetProjectId,
+                                              R2dbcEntityTemplate target, List<Long> taskIds, TimeFilter filter,
+                                              LocalDateTime movedAt) {
+        if (source == target) {
+            return new TaskRepositoryCustomImpl(source).moveTasks(projectId, targetProjectId, taskIds, filter,
+                    movedAt);
+        }
+        return new TaskRepositoryCustomImpl(source)
+                .findAllByProjectId(projectId, filter, List.of(), Pageable.unpaged())
+                .filter(task -> taskIds.isEmpty() || taskIds.contains(task.getId()))
+                .collectList()
+                .flatMapMany(Flux::fromIterable)
+                .concatMap(task -> {
+                    Long taskId = task.getId();
+                    task.setProjectId(targetProjectId);
+                    task.setUpdatedAt(movedAt);
+                    return target.getDatabaseClient()
+                            .sql("DELETE FROM task_tombstone WHERE project_id = :projectId AND task_id = :taskId")
+                            .bind("projectId", targetProjectId)
+                            .bind("taskId", taskId)
+                            .then()
+                            .then(target.insert(task))
+                            .then(saveTombstone(projectId, taskId, movedAt))
+                            .then(deleteTaskByProjectIdAndId(projectId, taskId))
+                            .thenReturn(taskId);
+                })
+                .count()
+                .doOnSuccess(moved -> log.info("Moved {} tasks of project {} to project {} on another shard",
+                        moved, projectId, targetProjectId));
+    }
+
+    /**
+     * Moves the tasks of a project to another shard: they are copied with their ids, together with the tombstones
+     * of its deleted tasks, the directory is updated, then the copied rows are deleted from the old shard once the
+     * other nodes read from the new one. The writes of all the nodes to the project are rejected meanwhile, reads
+     * keep working and switch to the new shard with the directory. Rows written to the old shard during the copy,
+     * e.g. by a write already running, fail the relocation: before the switch the copies are removed and the project
+     * stays where it was, after it the rows are left on the old shard and reported.
+     */
+    public Mono<Long> relocate(Long projectId, int targetShard) {
+        if (targetShard < 0 || targetShard >= shards.size()) {
+            return Mono.error(new IllegalArgumentException("Unknown shard: " + targetShard));
+        }
+        R2dbcEntityTemplate target = shards.get(targetShard);
+        return directory.startRelocation(projectId).flatMap(sourceShard -> {
+            R2dbcEntityTemplate source = shards.get(sourceShard);
+            if (source == target) {
+                return directory.abortRelocation(projectId).thenReturn(0L);
+            }
+            return relocate(projectId, source, target, targetShard)
+                    .onErrorResume(e -> directory.abortRelocation(projectId).then(Mono.error(e)));
+        });
+    }
+
+    private Mono<Long> relocate(Long projectId, R2dbcEntityTemplate source, R2dbcEntityTemplate target,
+                                int targetShard) {
+        return source.select(Query.query(where(PROJECT_ID).is(projectId)), Task.class)
+                .concatMap(target::insert)
+                .map(Task::getId)
+                .collect(Collectors.toSet())
+                .flatMap(tasks -> copyTombstones(projectId, source, target).collect(Collectors.toSet())
+                        .map(tombstones -> new Copies(tasks, tombstones)))
+                .flatMap(copies -> taskIds(source, projectId).flatMap(written -> {
+                    if (!copies.tasks().equals(written)) {
+                        return deleteCopies(target, projectId, copies).then(Mono.error(new IllegalStateException(
+                                "Tasks of project %d were written during its relocation, it stays on its shard"
+                                        .formatted(projectId))));
+                    }
+                    return directory.relocate(projectId, targetShard)
+                            .then(deleteCopies(source, projectId, copies))
+                            .then(taskIds(source, projectId))
+                            .flatMap(left -> left.isEmpty()
+                                    ? Mono.just((long) copies.tasks().size())
+                                    : Mono.error(new IllegalStateException(("Tasks %s of project %d were written "
+                                    + "during its relocation, they were left on its old shard")
+                                    .formatted(left, projectId))));
+                }))
+                .doOnSuccess(moved -> log.info("Relocated {} tasks of project {} to shard {}",
+                        moved, projectId, targetShard));
+    }
+
+    /**
+     * Deletes the rows copied for the relocation of the project, never those written meanwhile.
+     */
+    private static Mono<Void> deleteCopies(R2dbcEntityTemplate shard, Long projectId, Copies copies) {
+        Mono<Void> tasks = copies.tasks().isEmpty()
+                ? Mono.empty()
+                : shard.delete(Query.query(where(PROJECT_ID).is(projectId).and(ID).in(copies.tasks())), Task.class)
+                .then();
+        Mono<Void> tombstones = copies.tombstones().isEmpty()
+                ? Mono.empty()
+                : shard.getDatabaseClient()
+                .sql("DELETE FROM task_tombstone WHERE project_id = :projectId AND task_id IN (:taskIds)")
+                .bind("projectId", projectId)
+                .bind("taskIds", copies.tombstones())
+                .then();
+        return tasks.then(tombstones);
+    }
+
+    private static Mono<Set<Long>> taskIds(R2dbcEntityTemplate shard, Long projectId) {
+        return shard.getDatabaseClient()
+                .sql("SELECT id FROM task WHERE project_id = :projectId")
+                .bind("projectId", projectId)
+                .map(row -> ((Number) row.get("id")).longValue())
+                .all()
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Emits the task ids of the copied tombstones.
+     */
+    private static Flux<Long> copyTombstones(Long projectId, R2dbcEntityTemplate source, R2dbcEntityTemplate target) {
+        return source.getDatabaseClient()
+                .sql("SELECT task_id, deleted_at FROM task_tombstone WHERE project_id = :projectId")
+                .bind("projectId", projectId)
+                .map((row, metadata) -> Tuples.of(((Number) row.get("task_id")).longValue(),
+                        row.get("deleted_at", LocalDateTime.class)))
+                .all()
+                .concatMap(tombstone -> target.getDatabaseClient()
+                        .sql("INSERT INTO task_tombstone (task_id, project_id, deleted_at) VALUES (:id, :pid, :at)")
+                        .bind("id", tombstone.getT1())
+                        .bind("pid", projectId)
+                        .bind("at", tombstone.getT2())
+                        .then()
+                        .thenReturn(tombstone.getT1()));
+    }
+
+    /**
+     * Runs the write on the current shard of the project, see {@link ShardDirectory#writableShard}.
+     */
+    private <T> Mono<T> write(Long projectId, Function<R2dbcEntityTemplate, Mono<T>> write) {
+        return directory.writableShard(projectId).flatMap(shard -> write.apply(shards.get(shard)));
+    }
+
+    private R2dbcEntityTemplate shardOf(Long projectId) {
+        return shards.get(directory.shardOf(projectId));
+    }
+
+    private Map<R2dbcEntityTemplate, List<Long>> byShard(Collection<Long> projectIds) {
+        return projectIds.stream().collect(Collectors.groupingBy(this::shardOf, LinkedHashMap::new,
+                Collectors.toList()));
+    }
+
+    private <T> Flux<T> scatter(Function<R2dbcEntityTemplate, Publisher<T>> query) {
+        return Flux.fromIterable(shards).flatMap(query);
+    }
+
+    private Mono<Long> nextId() {
+        return primaryClient.sql("SELECT NEXT VALUE FOR task_id_seq")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private static Criteria byProjectAndId(Long projectId, Long taskId) {
+        return where(PROJECT_ID).is(projectId).and(ID).is(taskId);
+    }
+
+    /**
+     * Ids of the tasks, and of the tombstones, copied for a relocation.
+     */
+    private record Copies(Set<Long> tasks, Set<Long> tombstones) {
+    }
+
+}
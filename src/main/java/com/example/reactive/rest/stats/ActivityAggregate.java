@@ -0,0 +1,75 @@
+package com.example.reactive.rest.stats;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Task count, hourly creation histogram and last activity time of a project, or of all of them.
+ * Updated without locks, the histogram only keeps the hours within the retention of {@link TaskStatistics}.
+ */
+class ActivityAggregate {
+
+    private final AtomicLong tasks = new AtomicLong();
+
+    private final NavigableMap<LocalDateTime, AtomicLong> createdPerHour = new ConcurrentSkipListMap<>();
+
+    private final AtomicReference<LocalDateTime> lastActivityAt = new AtomicReference<>();
+
+    void created(LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime histogramStart) {
+        tasks.incrementAndGet();
+        addCreated(createdAt, 1, histogramStart);
+        touch(updatedAt);
+    }
+
+    void removed(long removedTasks, LocalDateTime at) {
+        tasks.accumulateAndGet(removedTasks, (current, removed) -> Math.max(0, current - removed));
+        touch(at);
+    }
+
+    void addTasks(long addedTasks) {
+        tasks.addAndGet(addedTasks);
+    }
+
+    void addCreated(LocalDateTime createdAt, long created, LocalDateTime histogramStart) {
+        if (createdAt == null) {
+            return;
+        }
+        LocalDateTime hour = createdAt.truncatedTo(ChronoUnit.HOURS);
+        if (!hour.isBefore(histogramStart)) {
+            createdPerHour.computeIfAbsent(hour, key -> new AtomicLong()).addAndGet(created);
+        }
+    }
+
+    void touch(LocalDateTime at) {
+        if (at != null) {
+            lastActivityAt.accumulateAndGet(at,
+                    (current, candidate) -> current == null || candidate.isAfter(current) ? candidate : current);
+        }
+    }
+
+    long tasks() {
+        return tasks.get();
+    }
+
+    LocalDateTime lastActivityAt() {
+        return lastActivityAt.get();
+    }
+
+    /**
+     * Drops the hours before the histogram start and returns the remaining ones, oldest first.
+     */
+    List<Map.Entry<LocalDateTime, Long>> createdPerHour(LocalDateTime histogramStart) {
+        createdPerHour.headMap(histogramStart).clear();
+        List<Map.Entry<LocalDateTime, Long>> hours = new ArrayList<>(createdPerHour.size());
+        createdPerHour.forEach((hour, created) -> hours.add(Map.entry(hour, created.get())));
+        return hours;
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.example.reactive.rest.stats;
+
+import com.example.reactive.rest.dto.TaskStatisticsDto;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TaskActivity;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per project and per tenant task statistics kept in memory: the {@code TaskService} updates them on every
+ * create, update and delete, so reports never read the {@code task} table. A tenant only ever sees the figures of
+ * its own projects. Deletes of tasks that did not exist, concurrent writes and writes of other nodes make the counts
+ * drift, {@link #reconcile(List)} replaces them periodically with aggregates computed by the database. The database
+ * only knows the creation time of existing tasks, so reconciled histograms stop counting the creations of deleted
+ * ones.
+ */
+@Slf4j
+public class TaskStatistics {
+
+    private static final int HOURS_PER_DAY = 24;
+
+    private final Map<String, TenantAggregates> tenants = new ConcurrentHashMap<>();
+
+    private final Duration histogramRetention;
+
+    private final Clock clock;
+
+    public TaskStatistics(Duration histogramRetention, Clock clock) {
+        this.histogramRetention = histogramRetention;
+        this.clock = clock;
+    }
+
+    public void onTaskCreated(String tenantId, Task task) {
+        LocalDateTime histogramStart = histogramStart();
+        LocalDateTime createdAt = task.getCreatedAt() != null ? task.getCreatedAt() : LocalDateTime.now(clock);
+        LocalDateTime updatedAt = task.getUpdatedAt() != null ? task.getUpdatedAt() : createdAt;
+        TenantAggregates tenant = tenant(tenantId);
+        tenant.project(task.getProjectId()).created(createdAt, updatedAt, histogramStart);
+        tenant.global.created(createdAt, updatedAt, histogramStart);
+    }
+
+    public void onTaskUpdated(String tenantId, Task task) {
+        TenantAggregates tenant = tenant(tenantId);
+        tenant.project(task.getProjectId()).touch(task.getUpdatedAt());
+        tenant.global.touch(task.getUpdatedAt());
+    }
+
+    public void onTaskDeleted(String tenantId, Long projectId) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        TenantAggregates tenant = tenant(tenantId);
+        tenant.project(projectId).removed(1, now);
+        tenant.global.removed(1, now);
+    }
+
+    /**
+     * The creation times of moved tasks are not known here, the histograms of both projects only follow
+     * at the next reconciliation.
+     */
+    public void onTasksMoved(String tenantId, Long projectId, Long targetProjectId, long moved) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        TenantAggregates tenant = tenant(tenantId);
+        tenant.project(projectId).removed(moved, now);
+        ActivityAggregate target = tenant.project(targetProjectId);
+        target.addTasks(moved);
+        target.touch(now);
+        tenant.global.touch(now);
+    }
+
+    public void onProjectDeleted(String tenantId, Long projectId) {
+        TenantAggregates tenant = tenant(tenantId);
+        ActivityAggregate removed = tenant.projects.remove(projectId);
+        tenant.global.removed(removed != null ? removed.tasks() : 0, LocalDateTime.now(clock));
+    }
+
+    /**
+     * Start of the oldest hour kept in the creation histograms.
+     */
+    public LocalDateTime histogramStart() {
+        return LocalDateTime.now(clock).minus(histogramRetention).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    /**
+     * Replaces all aggregates with the given activity, as read from the database since {@link #histogramStart()}.
+     */
+    public void reconcile(List<TaskActivity> activity) {
+        LocalDateTime histogramStart = histogramStart();
+        Map<String, TenantAggregates> reconciled = new HashMap<>();
+        for (TaskActivity row : activity) {
+            TenantAggregates tenant = reconciled.computeIfAbsent(row.tenantId(), id -> new TenantAggregates());
+            for (ActivityAggregate aggregate : List.of(tenant.project(row.projectId()), tenant.global)) {
+                aggregate.addTasks(row.tasks());
+                aggregate.addCreated(row.createdHour(), row.tasks(), histogramStart);
+                aggregate.touch(row.lastUpdatedAt());
+            }
+        }
+        // keeps the last activity of deletes, the database has no trace of them
+        reconciled.forEach((tenantId, tenant) -> {
+            TenantAggregates current = tenants.get(tenantId);
+            if (current != null) {
+                tenant.projects.forEach((projectId, project) -> {
+                    ActivityAggregate currentProject = current.projects.get(projectId);
+                    if (currentProject != null) {
+                        project.touch(currentProject.lastActivityAt());
+                    }
+                });
+                tenant.global.touch(current.global.lastActivityAt());
+            }
+        });
+        tenants.keySet().retainAll(reconciled.keySet());
+        tenants.putAll(reconciled);
+        log.debug("Task statistics reconciled, tenants: {}, rows: {}", reconciled.size(), activity.size());
+    }
+
+    public TaskStatisticsDto getProjectStatistics(String tenantId, Long projectId) {
+        TenantAggregates tenant = tenants.get(tenantId);
+        ActivityAggregate project = tenant != null ? tenant.projects.get(projectId) : null;
+        return toDto(project != null ? project : new ActivityAggregate())
+                .projectId(projectId)
+                .build();
+    }
+
+    /**
+     * Figures of all the projects of the tenant, those of the other tenants are never added.
+     */
+    public TaskStatisticsDto getTenantStatistics(String tenantId) {
+        TenantAggregates tenant = tenants.get(tenantId);
+        return toDto(tenant != null ? tenant.global : new ActivityAggregate())
+                .projects(tenant != null ? (long) tenant.projects.size() : 0L)
+                .build();
+    }
+
+    private TenantAggregates tenant(String tenantId) {
+        return tenants.computeIfAbsent(tenantId, id -> new TenantAggregates());
+    }
+
+    private TaskStatisticsDto.TaskStatisticsDtoBuilder toDto(ActivityAggregate aggregate) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime lastHour = now.minusHours(1);
+        LocalDateTime lastDay = now.minusHours(HOURS_PER_DAY);
+        long createdLastHour = 0;
+        long createdLastDay = 0;
+        List<Map.Entry<LocalDateTime, Long>> hours = aggregate.createdPerHour(histogramStart());
+        for (Map.Entry<LocalDateTime, Long> hour : hours) {
+            // an hour is counted when it overlaps the period
+            if (hour.getKey().plusHours(1).isAfter(lastHour)) {
+                createdLastHour += hour.getValue();
+            }
+            if (hour.getKey().plusHours(1).isAfter(lastDay)) {
+                createdLastDay += hour.getValue();
+            }
+        }
+        return TaskStatisticsDto.builder()
+                .tasks(aggregate.tasks())
+                .createdLastHour(createdLastHour)
+                .createdLastDay(createdLastDay)
+                .creationRatePerHour((double) createdLastDay / HOURS_PER_DAY)
+                .lastActivityAt(aggregate.lastActivityAt())
+                .createdPerHour(hours.stream()
+                        .map(hour -> new TaskStatisticsDto.HourlyCount(hour.getKey(), hour.getValue()))
+                        .toList());
+    }
+
+    /**
+     * Aggregates of the projects of one tenant, and of all of them.
+     */
+    private static final class TenantAggregates {
+
+        private final Map<Long, ActivityAggregate> projects = new ConcurrentHashMap<>();
+
+        private final ActivityAggregate global = new ActivityAggregate();
+
+        private ActivityAggregate project(Long projectId) {
+            return projects.computeIfAbsent(projectId, id -> new ActivityAggregate());
+        }
+
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.example.reactive.rest.stats;
+
+import com.example.reactive.rest.repository.TaskRepository;
+import com.example.reactive.rest.routing.RoutingContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Rebuilds the {@link TaskStatistics} from one aggregate query when the application is ready, then periodically.
+ * The query may go to a replica.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TaskStatisticsReconciler implements DisposableBean {
+
+    private final TaskRepository taskRepository;
+
+    private final TaskStatistics statistics;
+
+    private final Duration interval;
+
+    private volatile Disposable schedule;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        schedule = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> reconcile()
+                        .onErrorResume(e -> {
+                            log.warn("Task statistics reconciliation failed", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    public Mono<Void> reconcile() {
+        return RoutingContext.readOnly(taskRepository.findTaskActivity(statistics.histogramStart()))
+                .collectList()
+                .doOnNext(statistics::reconcile)
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+}
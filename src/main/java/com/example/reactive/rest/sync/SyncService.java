@@ -0,0 +1,137 @@
+package com.example.reactive.rest.sync;
+
+import com.example.reactive.rest.dto.SyncDto;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TimeFilter;
+import com.example.reactive.rest.repository.ProjectRepository;
+import com.example.reactive.rest.repository.TaskRepository;
+import com.example.reactive.rest.tenant.TenantContext;
+import com.example.reactive.rest.tenant.TenantScoped;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Delta sync of offline clients. Created and updated records are read by the indexed {@code updated_at} column,
+ * deleted ones from the tombstones left by the deletions, so a sync costs O(changes) instead of O(project size).
+ * <p>
+ * The next token is taken before reading and the following sync reads again from {@code overlap} before it,
+ * so changes committed while a sync was running are repeated rather than missed. Reads stay on the primary,
+ * a lagging replica would make the token skip changes. Only the projects of the tenant of the request are synced.
+ * <p>
+ * A full sync returns the records by pages of ascending ids, its tokens keep the time it started so that its last
+ * page is followed by a delta sync of the changes made meanwhile.
+ */
+@Observed(name = "rest.service")
+@TenantScoped
+@Slf4j
+@RequiredArgsConstructor
+public class SyncService {
+
+    private final ProjectRepository projectRepository;
+
+    private final TaskRepository taskRepository;
+
+    private final Duration overlap;
+
+    private final Duration tombstoneRetention;
+
+    private final int pageSize;
+
+    private final Clock clock;
+
+    /**
+     * Whether tombstones newer than the token may already be compacted, the client must then sync from scratch.
+     */
+    public boolean isExpired(SyncToken token) {
+        return token.syncedAt().isBefore(LocalDateTime.now(clock).minus(tombstoneRetention));
+    }
+
+    /**
+     * A page of all projects when there is no token or it continues a full sync, the projects changed since the
+     * token otherwise.
+     */
+    public Mono<SyncDto<Project>> syncProjects(SyncToken token) {
+        log.debug("Syncing projects since: {}", token);
+        SyncToken next = new SyncToken(LocalDateTime.now(clock));
+        String tenantId = TenantContext.current();
+        if (token == null || token.isFullSync()) {
+            return fullSync((afterId, pageable) -> projectRepository.findAllByTenantIdAndIdGreaterThan(tenantId,
+                    afterId, pageable), Project::getId, token != null ? token : next);
+        }
+        LocalDateTime since = token.syncedAt().minus(overlap);
+        return sync(projectRepository.findAllBy(tenantId, new TimeFilter(since, null, null), List.of(),
+                        Pageable.unpaged()),
+                projectRepository.findTombstones(tenantId, since), Project::getCreatedAt, since, next);
+    }
+
+    /**
+     * A page of all tasks of the project when there is no token or it continues a full sync, its tasks changed
+     * since the token otherwise, empty if the project does not exist.
+     */
+    public Mono<SyncDto<Task>> syncTasks(Long projectId, SyncToken token) {
+        log.debug("Syncing tasks, project id: {}, since: {}", projectId, token);
+        SyncToken next = new SyncToken(LocalDateTime.now(clock));
+        return projectRepository.existsByTenantIdAndId(TenantContext.current(), projectId)
+                .filter(Boolean::booleanValue)
+                .flatMap(exists -> {
+                    if (token == null || token.isFullSync()) {
+                        return fullSync((afterId, pageable) -> taskRepository.findAllByProjectIdAndIdGreaterThan(
+                                projectId, afterId, pageable), Task::getId, token != null ? token : next);
+                    }
+                    LocalDateTime since = token.syncedAt().minus(overlap);
+                    return sync(taskRepository.findAllByProjectId(projectId, new TimeFilter(since, null, null),
+                                    List.of(), Pageable.unpaged()),
+                            taskRepository.findTombstones(projectId, since), Task::getCreatedAt, since, next);
+                });
+    }
+
+    /**
+     * The page after the token, one more record is read to know whether another page follows.
+     */
+    private <T> Mono<SyncDto<T>> fullSync(BiFunction<Long, Pageable, Flux<T>> page, Function<T, Long> id,
+                                          SyncToken token) {
+        long afterId = token.isFullSync() ? token.afterId() : 0L;
+        return page.apply(afterId, PageRequest.of(0, pageSize + 1, Sort.by("id"))).collectList().map(records -> {
+            boolean hasMore = records.size() > pageSize;
+            List<T> created = hasMore ? List.copyOf(records.subList(0, pageSize)) : records;
+            SyncToken next = hasMore
+                    ? new SyncToken(token.syncedAt(), id.apply(created.get(created.size() - 1)))
+                    : new SyncToken(token.syncedAt());
+            return new SyncDto<>(created, List.of(), List.of(), next.encode(), hasMore);
+        });
+    }
+
+    private static <T> Mono<SyncDto<T>> sync(Flux<T> changed, Flux<Long> deleted,
+                                             Function<T, LocalDateTime> createdAt, LocalDateTime since,
+                                             SyncToken next) {
+        return Mono.zip(changed.collectList(), deleted.collectList(), (records, deletedIds) -> {
+            List<T> created = new ArrayList<>();
+            List<T> updated = new ArrayList<>();
+            for (T record : records) {
+                LocalDateTime recordCreatedAt = createdAt.apply(record);
+                if (recordCreatedAt != null && !recordCreatedAt.isBefore(since)) {
+                    created.add(record);
+                } else {
+                    updated.add(record);
+                }
+            }
+            return new SyncDto<>(created, updated, deletedIds, next.encode(), false);
+        });
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.example.reactive.rest.sync;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque position of a client in the change history: the time its last sync started, and during a full sync the
+ * id of the last record it returned. Clients only echo it back, so its encoding may change without breaking them.
+ *
+ * @param syncedAt start of the sync that issued the token
+ * @param afterId  id of the last record of the previous page of a full sync, {@code null} after a complete sync
+ */
+public record SyncToken(LocalDateTime syncedAt, Long afterId) {
+
+    private static final String VERSION = "1:";
+
+    private static final String AFTER_ID = ";";
+
+    public SyncToken(LocalDateTime syncedAt) {
+        this(syncedAt, null);
+    }
+
+    /**
+     * Whether the token continues a full sync rather than starting a delta sync.
+     */
+    public boolean isFullSync() {
+        return afterId != null;
+    }
+
+    public String encode() {
+        String value = VERSION + syncedAt + (afterId != null ? AFTER_ID + afterId : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not issued by {@link #encode()}
+     */
+    public static SyncToken decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!value.startsWith(VERSION)) {
+                throw new IllegalArgumentException("Unknown sync token version: " + token);
+            }
+            String[] parts = value.substring(VERSION.length()).split(AFTER_ID, 2);
+            return new SyncToken(LocalDateTime.parse(parts[0]), parts.length > 1 ? Long.valueOf(parts[1]) : null);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid sync token: " + token, e);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.example.reactive.rest.sync;
+
+import com.example.reactive.rest.repository.ProjectRepository;
+import com.example.reactive.rest.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Periodically removes the tombstones older than the retention, sync tokens older than it are rejected
+ * by the {@link SyncService} so that no client misses a compacted deletion.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TombstoneCompactor implements DisposableBean {
+
+    private final ProjectRepository projectRepository;
+
+    private final TaskRepository taskRepository;
+
+    private final Duration retention;
+
+    private final Duration interval;
+
+    private final Clock clock;
+
+    private volatile Disposable schedule;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        schedule = Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> compact()
+                        .onErrorResume(e -> {
+                            log.warn("Tombstone compaction failed", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    public Mono<Long> compact() {
+        LocalDateTime deletedBefore = LocalDateTime.now(clock).minus(retention);
+        return Mono.zip(projectRepository.deleteTombstonesBefore(deletedBefore),
+                        taskRepository.deleteTombstonesBefore(deletedBefore), Long::sum)
+                .doOnNext(removed -> log.debug("Compacted {} tombstones deleted before {}", removed, deletedBefore));
+    }
+
+    @Override
+    public void destroy() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.example.reactive.rest.tenant;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.function.Supplier;
+
+/**
+ * Tenant of the current request: it travels in the Reactor {@link Context} under {@link #KEY}, and is bound to the
+ * thread by the {@link TenantScopingInterceptor} while a {@link TenantScoped} method builds its publisher, so the
+ * synchronous parts of a call, e.g. the cache lookup of a {@code @Cacheable} method, see it as well.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    static final String KEY = TenantContext.class.getName() + ".TENANT";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static Context withTenant(Context context, String tenantId) {
+        return context.put(KEY, tenantId);
+    }
+
+    /**
+     * The tenant of the context, {@code null} outside a request, e.g. for the scheduled jobs.
+     */
+    public static String tenantId(ContextView context) {
+        return context.getOrDefault(KEY, null);
+    }
+
+    /**
+     * The tenant of the context, the default one when tenancy is disabled.
+     */
+    public static String current(ContextView context) {
+        return context.getOrDefault(KEY, DEFAULT_TENANT);
+    }
+
+    /**
+     * The tenant bound to the current thread, the default one when none is.
+     */
+    public static String current() {
+        String tenantId = CURRENT.get();
+        return tenantId != null ? tenantId : DEFAULT_TENANT;
+    }
+
+    /**
+     * The tenant bound to the current thread, {@code null} when none is.
+     */
+    public static String bound() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the call with the tenant bound to the current thread, restoring the enclosing one afterwards.
+     */
+    public static <T> T callAs(String tenantId, Supplier<T> call) {
+        String enclosing = CURRENT.get();
+        CURRENT.set(tenantId);
+        try {
+            return call.get();
+        } finally {
+            if (enclosing != null) {
+                CURRENT.set(enclosing);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static void runAs(String tenantId, Runnable run) {
+        callAs(tenantId, () -> {
+            run.run();
+            return null;
+        });
+    }
+
+}
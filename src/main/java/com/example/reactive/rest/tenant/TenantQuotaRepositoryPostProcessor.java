@@ -0,0 +1,56 @@
+package com.example.reactive.rest.tenant;
+
+import com.example.reactive.rest.aot.ClassProxies;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes every reactive repository call through the {@link TenantQuotas}. It runs after the concurrency limiter's
+ * post processor and before the resilience one: a tenant over its quota doesn't queue for the shared permits, and
+ * its rejections are not failures of the database.
+ */
+@RequiredArgsConstructor
+public class TenantQuotaRepositoryPostProcessor implements SmartInstantiationAwareBeanPostProcessor, Ordered {
+
+    private final ObjectProvider<TenantQuotas> quotas;
+
+    @Override
+    public Class<?> determineBeanType(Class<?> beanClass, String beanName) {
+        return Repository.class.isAssignableFrom(beanClass)
+                ? ClassProxies.proxyClass(beanClass, interceptor())
+                : beanClass;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Repository<?, ?>)) {
+            return bean;
+        }
+        return ClassProxies.advise(bean, interceptor(), advised -> 0);
+    }
+
+    private MethodInterceptor interceptor() {
+        return invocation -> {
+            Object result = invocation.proceed();
+            if (result instanceof Mono<?> mono) {
+                return quotas.getObject().limit(mono);
+            }
+            if (result instanceof Flux<?> flux) {
+                return quotas.getObject().limit(flux);
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public int getOrder() {
+        return 10;
+    }
+
+}
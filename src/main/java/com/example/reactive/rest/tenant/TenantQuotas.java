@@ -0,0 +1,114 @@
+package com.example.reactive.rest.tenant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bulkheads of the tenants on the database: each tenant has at most {@code maxConcurrency} operations in flight,
+ * the excess fails right away with {@link TenantQuotaExceededException} instead of taking the permits of the
+ * shared concurrency limiter. Operations without a tenant, e.g. of the scheduled jobs, are not limited.
+ */
+public class TenantQuotas implements MeterBinder {
+
+    private final Map<String, Quota> quotas;
+
+    public TenantQuotas(Map<String, Integer> maxConcurrency) {
+        this.quotas = maxConcurrency.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> new Quota(entry.getValue())));
+    }
+
+    public <T> Mono<T> limit(Mono<T> operation) {
+        return Mono.deferContextual(context -> {
+            Quota quota = quota(TenantContext.tenantId(context));
+            if (quota == null) {
+                return operation;
+            }
+            if (!quota.tryAcquire()) {
+                return Mono.error(() -> quota.rejected(TenantContext.tenantId(context)));
+            }
+            return operation.doFinally(signal -> quota.release());
+        });
+    }
+
+    public <T> Flux<T> limit(Flux<T> operation) {
+        return Flux.deferContextual(context -> {
+            Quota quota = quota(TenantContext.tenantId(context));
+            if (quota == null) {
+                return operation;
+            }
+            if (!quota.tryAcquire()) {
+                return Flux.error(() -> quota.rejected(TenantContext.tenantId(context)));
+            }
+            return operation.doFinally(signal -> quota.release());
+        });
+    }
+
+    public int getInFlight(String tenantId) {
+        Quota quota = quotas.get(tenantId);
+        return quota != null ? quota.inFlight.get() : 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        quotas.forEach((tenantId, quota) -> {
+            Gauge.builder("rest.tenant.db.in_flight", quota.inFlight, AtomicInteger::get)
+                    .description("Database operations of the tenant in flight")
+                    .tag("tenant", tenantId)
+                    .register(registry);
+            quota.rejectedOperations = Counter.builder("rest.tenant.db.rejected")
+                    .description("Database operations rejected by the quota of the tenant")
+                    .tag("tenant", tenantId)
+                    .register(registry);
+        });
+    }
+
+    private Quota quota(String tenantId) {
+        return tenantId != null ? quotas.get(tenantId) : null;
+    }
+
+    private static final class Quota {
+
+        private final int maxConcurrency;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private Counter rejectedOperations;
+
+        private Quota(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        private boolean tryAcquire() {
+            int current;
+            do {
+                current = inFlight.get();
+                if (current >= maxConcurrency) {
+                    return false;
+                }
+            } while (!inFlight.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        private void release() {
+            inFlight.decrementAndGet();
+        }
+
+        private TenantQuotaExceededException rejected(String tenantId) {
+            if (rejectedOperations != null) {
+                rejectedOperations.increment();
+            }
+            return new TenantQuotaExceededException("Tenant " + tenantId + " has " + maxConcurrency
+                    + " database operations in flight");
+        }
+
+    }
+
+}
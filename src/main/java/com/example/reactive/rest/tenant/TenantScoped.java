@@ -0,0 +1,17 @@
+package com.example.reactive.rest.tenant;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The reactive methods of the annotated bean run with the tenant of their subscriber bound to the thread,
+ * see {@link TenantContext#current()}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface TenantScoped {
+}
@@ -0,0 +1,47 @@
+package com.example.reactive.rest.tenant;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Defers the invocation of the reactive methods of {@link TenantScoped} beans to their subscription, where the
+ * tenant is read from the Reactor {@code Context} and bound to the thread while the rest of the advice chain and
+ * the method run. It comes before the caching interceptor, whose lookup then goes to the tenant's partition.
+ */
+public class TenantScopingInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> returnType = invocation.getMethod().getReturnType();
+        if (!(invocation instanceof ProxyMethodInvocation proxyInvocation)) {
+            return invocation.proceed();
+        }
+        if (Mono.class.isAssignableFrom(returnType)) {
+            return Mono.deferContextual(context -> (Mono<?>) proceed(proxyInvocation, context));
+        }
+        if (Flux.class.isAssignableFrom(returnType)) {
+            return Flux.deferContextual(context -> (Flux<?>) proceed(proxyInvocation, context));
+        }
+        return invocation.proceed();
+    }
+
+    /**
+     * Proceeds with a clone, a subscriber may subscribe again.
+     */
+    private static Object proceed(ProxyMethodInvocation invocation, ContextView context) {
+        String tenantId = TenantContext.tenantId(context);
+        return TenantContext.callAs(tenantId != null ? tenantId : TenantContext.DEFAULT_TENANT, () -> {
+            try {
+                return invocation.invocableClone().proceed();
+            } catch (Throwable e) {
+                throw Exceptions.propagate(e);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.example.reactive.rest.tracing;
+
+import com.example.reactive.rest.aot.ClassProxies;
+import com.example.reactive.rest.cache.CacheLookup;
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+import org.springframework.cache.interceptor.CacheInterceptor;
+import org.springframework.core.annotation.AnnotationUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Traces the reactive methods of beans annotated with {@link Observed}: the returned {@link Mono} or {@link Flux}
+ * becomes a span named after the annotation, tagged with the class and method, and with {@code cache=hit|miss}
+ * when the method is cached. The interceptor is added right around the caching one, so outer advice that defers
+ * the invocation, e.g. the tenant scoping, does not hide the cache lookup from it. Beans not proxied yet get a class
+ * proxy generated ahead of time for a native image, see {@link ClassProxies}.
+ */
+@RequiredArgsConstructor
+public class ObservedBeanPostProcessor implements SmartInstantiationAwareBeanPostProcessor {
+
+    private static final String DEFAULT_NAME = "method.observed";
+
+    private final ObjectProvider<Tracer> tracer;
+
+    @Override
+    public Class<?> determineBeanType(Class<?> beanClass, String beanName) {
+        Observed observed = AnnotationUtils.findAnnotation(beanClass, Observed.class);
+        return observed != null ? ClassProxies.proxyClass(beanClass, interceptor(beanClass, observed)) : beanClass;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> type = AopUtils.getTargetClass(bean);
+        Observed observed = AnnotationUtils.findAnnotation(type, Observed.class);
+        if (observed == null) {
+            return bean;
+        }
+        return ClassProxies.advise(bean, interceptor(type, observed), ObservedBeanPostProcessor::cachingAdviceIndex);
+    }
+
+    private MethodInterceptor interceptor(Class<?> type, Observed observed) {
+        String name = observed.name().isEmpty() ? DEFAULT_NAME : observed.name();
+        KeyValues classKeyValues = KeyValues.of(observed.lowCardinalityKeyValues())
+                .and("class", type.getSimpleName());
+        return invocation -> {
+            Boolean enclosingLookup = CacheLookup.take();
+            Object result;
+            Boolean hit;
+            try {
+                result = invocation.proceed();
+            } finally {
+                hit = CacheLookup.take();
+                CacheLookup.restore(enclosingLookup);
+            }
+            if (!(result instanceof Mono<?>) && !(result instanceof Flux<?>)) {
+                return result;
+            }
+            String method = invocation.getMethod().getName();
+            KeyValues keyValues = classKeyValues.and("method", method);
+            if (hit != null) {
+                keyValues = keyValues.and("cache", hit ? "hit" : "miss");
+            }
+            String contextualName = type.getSimpleName() + "#" + method;
+            return result instanceof Mono<?> mono
+                    ? tracer.getObject().trace(mono, name, contextualName, keyValues, KeyValues.empty())
+                    : tracer.getObject().trace((Flux<?>) result, name, contextualName, keyValues, KeyValues.empty());
+        };
+    }
+
+    private static int cachingAdviceIndex(Advised advised) {
+        Advisor[] advisors = advised.getAdvisors();
+        for (int i = 0; i < advisors.length; i++) {
+            if (advisors[i].getAdvice() instanceof CacheInterceptor) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.example.reactive.rest.tracing;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A finished span of a sampled trace, {@code parentSpanId} is {@code null} for the root span of the request.
+ */
+public record Span(String traceId, String spanId, String parentSpanId, String name, Instant start,
+                   double durationMillis, Map<String, String> tags, String error) {
+}
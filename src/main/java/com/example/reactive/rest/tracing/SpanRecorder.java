@@ -0,0 +1,67 @@
+package com.example.reactive.rest.tracing;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationView;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Turns observations into spans of the {@link TraceStore}. Sampling is decided once, when the root observation
+ * of a request starts, and inherited by all its children: a trace is either complete or absent, and a request
+ * that is not sampled only costs a random number.
+ */
+public class SpanRecorder implements ObservationHandler<Observation.Context> {
+
+    private final double samplingProbability;
+
+    private final TraceStore store;
+
+    public SpanRecorder(double samplingProbability, TraceStore store) {
+        this.samplingProbability = samplingProbability;
+        this.store = store;
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        TraceContext parent = parent(context);
+        if (parent != null) {
+            context.put(TraceContext.class, parent.child());
+        } else {
+            context.put(TraceContext.class, ThreadLocalRandom.current().nextDouble() < samplingProbability
+                    ? TraceContext.root()
+                    : TraceContext.NOT_SAMPLED);
+        }
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        TraceContext trace = context.get(TraceContext.class);
+        if (trace == null || !trace.sampled()) {
+            return;
+        }
+        double durationMillis = (System.nanoTime() - trace.startNanos()) / 1e6;
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (KeyValue keyValue : context.getAllKeyValues()) {
+            tags.put(keyValue.getKey(), keyValue.getValue());
+        }
+        Throwable error = context.getError();
+        store.add(new Span(trace.traceId(), trace.spanId(), trace.parentSpanId(),
+                context.getContextualName() != null ? context.getContextualName() : context.getName(),
+                trace.start(), durationMillis, tags, error != null ? error.toString() : null));
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return true;
+    }
+
+    private static TraceContext parent(Observation.Context context) {
+        ObservationView parent = context.getParentObservation();
+        return parent != null ? parent.getContextView().get(TraceContext.class) : null;
+    }
+
+}
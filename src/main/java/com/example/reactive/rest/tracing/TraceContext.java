@@ -0,0 +1,33 @@
+package com.example.reactive.rest.tracing;
+
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Identity of a span, kept in the {@link io.micrometer.observation.Observation.Context} of its observation.
+ * Spans of a request that was not sampled all share {@link #NOT_SAMPLED}.
+ */
+public record TraceContext(String traceId, String spanId, String parentSpanId, boolean sampled,
+                           Instant start, long startNanos) {
+
+    public static final TraceContext NOT_SAMPLED = new TraceContext(null, null, null, false, null, 0);
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    static TraceContext root() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String traceId = HEX.toHexDigits(random.nextLong()) + HEX.toHexDigits(random.nextLong());
+        return new TraceContext(traceId, newSpanId(), null, true, Instant.now(), System.nanoTime());
+    }
+
+    TraceContext child() {
+        return sampled ? new TraceContext(traceId, newSpanId(), spanId, true, Instant.now(), System.nanoTime())
+                : NOT_SAMPLED;
+    }
+
+    private static String newSpanId() {
+        return HEX.toHexDigits(ThreadLocalRandom.current().nextLong());
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.example.reactive.rest.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code /actuator/traces?limit=20&minDuration=100ms}: the slowest recent sampled requests,
+ * {@code /actuator/traces/{traceId}}: the spans of one of them.
+ */
+@Endpoint(id = "traces")
+@RequiredArgsConstructor
+public class TraceEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final TraceStore store;
+
+    @ReadOperation
+    public List<TraceStore.TraceSummary> traces(@Nullable Integer limit, @Nullable Duration minDuration) {
+        return store.slowest(limit != null ? limit : DEFAULT_LIMIT, minDuration != null ? minDuration : Duration.ZERO);
+    }
+
+    @ReadOperation
+    public List<Span> trace(@Selector String traceId) {
+        return store.trace(traceId);
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.example.reactive.rest.tracing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Recent sampled traces kept in memory, spans are grouped by trace as they finish, the root span last.
+ * Traces beyond {@code maxTraces} or older than {@code retention} are dropped, so are the spans of a trace beyond
+ * {@code maxSpansPerTrace}, e.g. of a long stream.
+ */
+public class TraceStore {
+
+    private final Cache<String, List<Span>> traces;
+
+    private final int maxSpansPerTrace;
+
+    public TraceStore(int maxTraces, int maxSpansPerTrace, Duration retention) {
+        this.traces = Caffeine.newBuilder()
+                .maximumSize(maxTraces)
+                .expireAfterWrite(retention)
+                .build();
+        this.maxSpansPerTrace = maxSpansPerTrace;
+    }
+
+    void add(Span span) {
+        List<Span> spans = traces.get(span.traceId(), traceId -> new ArrayList<>());
+        synchronized (spans) {
+            if (spans.size() < maxSpansPerTrace || span.parentSpanId() == null) {
+                spans.add(span);
+            }
+        }
+    }
+
+    /**
+     * Completed traces taking at least {@code minDuration}, slowest first.
+     */
+    public List<TraceSummary> slowest(int limit, Duration minDuration) {
+        double minMillis = minDuration.toNanos() / 1e6;
+        return traces.asMap().values().stream()
+                .map(TraceStore::summary)
+                .filter(Objects::nonNull)
+                .filter(summary -> summary.durationMillis() >= minMillis)
+                .sorted(Comparator.comparingDouble(TraceSummary::durationMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Spans of a trace in the order they started, {@code null} when the trace is unknown.
+     */
+    public List<Span> trace(String traceId) {
+        List<Span> spans = traces.getIfPresent(traceId);
+        if (spans == null) {
+            return null;
+        }
+        synchronized (spans) {
+            return spans.stream().sorted(Comparator.comparing(Span::start)).toList();
+        }
+    }
+
+    private static TraceSummary summary(List<Span> spans) {
+        synchronized (spans) {
+            return spans.stream()
+                    .filter(span -> span.parentSpanId() == null)
+                    .findFirst()
+                    .map(root -> new TraceSummary(root.traceId(), root.name(), root.start(), root.durationMillis(),
+                            spans.size(), root.error()))
+                    .orElse(null);
+        }
+    }
+
+    public record TraceSummary(String traceId, String name, Instant start, double durationMillis, int spans,
+                               String error) {
+    }
+
+}
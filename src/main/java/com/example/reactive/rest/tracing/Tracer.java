@@ -0,0 +1,84 @@
+package com.example.reactive.rest.tracing;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Child spans of the request observation that Spring WebFlux keeps in the Reactor {@code Context}.
+ * They are only created for sampled requests and are observed by a registry of their own holding the
+ * {@link SpanRecorder}, so they do not add timers to the metrics.
+ */
+public class Tracer {
+
+    /**
+     * Key of the current observation in the Reactor {@code Context}, the one of
+     * {@code ObservationThreadLocalAccessor} used by Spring's {@code ServerHttpObservationFilter}.
+     */
+    public static final String OBSERVATION_KEY = "micrometer.observation";
+
+    private final ObservationRegistry registry = ObservationRegistry.create();
+
+    public Tracer(SpanRecorder recorder) {
+        registry.observationConfig().observationHandler(recorder);
+    }
+
+    /**
+     * The current observation when its request is sampled, {@code null} otherwise.
+     */
+    public static Observation sampledObservation(ContextView context) {
+        Observation observation = context.getOrDefault(OBSERVATION_KEY, null);
+        if (observation == null) {
+            return null;
+        }
+        TraceContext trace = observation.getContext().get(TraceContext.class);
+        return trace != null && trace.sampled() ? observation : null;
+    }
+
+    /**
+     * Observes the subscription of the given publisher as a child of the current sampled observation, which it
+     * becomes for the publishers it subscribes to. The span ends on completion, error or cancellation, the latter
+     * being how {@code Mono.from} ends a publisher after its first element.
+     */
+    public <T> Mono<T> trace(Mono<T> mono, String name, String contextualName, KeyValues lowCardinality,
+                             KeyValues highCardinality) {
+        return Mono.deferContextual(context -> {
+            Observation parent = sampledObservation(context);
+            if (parent == null) {
+                return mono;
+            }
+            Observation observation = start(parent, name, contextualName, lowCardinality, highCardinality);
+            return mono.doOnError(observation::error)
+                    .doFinally(signal -> observation.stop())
+                    .contextWrite(inner -> inner.put(OBSERVATION_KEY, observation));
+        });
+    }
+
+    public <T> Flux<T> trace(Flux<T> flux, String name, String contextualName, KeyValues lowCardinality,
+                             KeyValues highCardinality) {
+        return Flux.deferContextual(context -> {
+            Observation parent = sampledObservation(context);
+            if (parent == null) {
+                return flux;
+            }
+            Observation observation = start(parent, name, contextualName, lowCardinality, highCardinality);
+            return flux.doOnError(observation::error)
+                    .doFinally(signal -> observation.stop())
+                    .contextWrite(inner -> inner.put(OBSERVATION_KEY, observation));
+        });
+    }
+
+    private Observation start(Observation parent, String name, String contextualName, KeyValues lowCardinality,
+                              KeyValues highCardinality) {
+        Observation observation = Observation.createNotStarted(name, registry)
+                .parentObservation(parent)
+                .contextualName(contextualName);
+        lowCardinality.forEach(observation::lowCardinalityKeyValue);
+        highCardinality.forEach(observation::highCardinalityKeyValue);
+        return observation.start();
+    }
+
+}
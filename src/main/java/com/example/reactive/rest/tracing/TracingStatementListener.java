@@ -0,0 +1,46 @@
+package com.example.reactive.rest.tracing;
+
+import com.example.reactive.rest.r2dbc.StatementListener;
+import io.micrometer.common.KeyValues;
+import io.r2dbc.spi.Result;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.util.context.ContextView;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Adds a span per executed statement, tagged with its SQL, to sampled requests. Connections handed out to requests
+ * that are not sampled are not wrapped for it.
+ */
+@RequiredArgsConstructor
+public class TracingStatementListener implements StatementListener {
+
+    static final String STATEMENT_NAME = "r2dbc.statement";
+
+    private final Tracer tracer;
+
+    @Override
+    public boolean isListening(ContextView context) {
+        return Tracer.sampledObservation(context) != null;
+    }
+
+    @Override
+    public Flux<Result> onExecute(String sql, Map<Object, Object> bindings, Flux<Result> results) {
+        return tracer.trace(results, STATEMENT_NAME, operation(sql), KeyValues.empty(), KeyValues.of("sql", sql));
+    }
+
+    /**
+     * The first keyword of the statement, e.g. {@code select}, low in cardinality unlike the SQL.
+     */
+    private static String operation(String sql) {
+        String trimmed = sql.strip();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end > 0 ? trimmed.substring(0, end).toLowerCase(Locale.ROOT) : STATEMENT_NAME;
+    }
+
+}
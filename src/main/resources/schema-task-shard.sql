@@ -0,0 +1,25 @@
+CREATE TABLE IF NOT EXISTS task
+(
+    id          integer PRIMARY KEY,
+    description varchar(255),
+    project_id  integer NOT NULL,
+    tenant_id   varchar(64) DEFAULT 'default' NOT NULL,
+    updated_at  timestamp,
+    created_at  timestamp
+);
+
+CREATE INDEX IF NOT EXISTS task_project_id_idx ON task (project_id);
+CREATE INDEX IF NOT EXISTS task_project_updated_at_idx ON task (project_id, updated_at);
+CREATE INDEX IF NOT EXISTS task_project_created_at_idx ON task (project_id, created_at);
+
+-- one tombstone per project a task left, a task moved twice is reported gone by both former projects
+CREATE TABLE IF NOT EXISTS task_tombstone
+(
+    task_id    integer   NOT NULL,
+    project_id integer   NOT NULL,
+    deleted_at timestamp NOT NULL,
+    PRIMARY KEY (task_id, project_id)
+);
+
+CREATE INDEX IF NOT EXISTS task_tombstone_project_deleted_at_idx ON task_tombstone (project_id, deleted_at);
+CREATE INDEX IF NOT EXISTS task_tombstone_deleted_at_idx ON task_tombstone (deleted_at);
@@ -2,6 +2,7 @@ CREATE TABLE IF NOT EXISTS project
 (
     id         integer auto_increment PRIMARY KEY,
     name       varchar(255),
+    tenant_id  varchar(64) DEFAULT 'default' NOT NULL,
     updated_at timestamp,
     created_at timestamp
 );
@@ -10,8 +11,70 @@ CREATE TABLE IF NOT EXISTS task
 (
     id          integer auto_increment PRIMARY KEY,
     description varchar(255),
-    project_id  varchar(255),
+    project_id  integer,
+    tenant_id   varchar(64) DEFAULT 'default' NOT NULL,
     updated_at  timestamp,
     created_at  timestamp,
     FOREIGN KEY (project_id) REFERENCES project (id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+-- time-range filters and sorts of the listings: modifiedSince, createdBetween, sort=updatedAt|createdAt,
+-- projects are listed per tenant
+CREATE INDEX IF NOT EXISTS project_tenant_idx ON project (tenant_id, id);
+CREATE INDEX IF NOT EXISTS project_updated_at_idx ON project (tenant_id, updated_at);
+CREATE INDEX IF NOT EXISTS project_created_at_idx ON project (tenant_id, created_at);
+CREATE INDEX IF NOT EXISTS task_project_updated_at_idx ON task (project_id, updated_at);
+CREATE INDEX IF NOT EXISTS task_project_created_at_idx ON task (project_id, created_at);
+
+-- deletions kept for the delta sync of offline clients until they are compacted
+CREATE TABLE IF NOT EXISTS project_tombstone
+(
+    project_id integer PRIMARY KEY,
+    tenant_id  varchar(64) DEFAULT 'default' NOT NULL,
+    deleted_at timestamp NOT NULL
+);
+
+-- one tombstone per project a task left, a task moved twice is reported gone by both former projects
+CREATE TABLE IF NOT EXISTS task_tombstone
+(
+    task_id    integer   NOT NULL,
+    project_id integer   NOT NULL,
+    deleted_at timestamp NOT NULL,
+    PRIMARY KEY (task_id, project_id)
+);
+
+CREATE INDEX IF NOT EXISTS project_tombstone_deleted_at_idx ON project_tombstone (deleted_at);
+CREATE INDEX IF NOT EXISTS project_tombstone_tenant_deleted_at_idx ON project_tombstone (tenant_id, deleted_at);
+CREATE INDEX IF NOT EXISTS task_tombstone_project_deleted_at_idx ON task_tombstone (project_id, deleted_at);
+CREATE INDEX IF NOT EXISTS task_tombstone_deleted_at_idx ON task_tombstone (deleted_at);
+
+CREATE SEQUENCE IF NOT EXISTS task_id_seq;
+
+-- shard of the relocated projects, and of those being relocated since relocating_since, version orders the changes
+-- so that every node reads only the rows changed since its last refresh
+CREATE SEQUENCE IF NOT EXISTS task_shard_directory_version_seq;
+
+CREATE TABLE IF NOT EXISTS task_shard_directory
+(
+    project_id       integer   PRIMARY KEY,
+    shard            integer   NOT NULL,
+    relocating_since timestamp,
+    version          bigint    NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS task_shard_directory_version_idx ON task_shard_directory (version);
+
+-- responses of the requests sent with an Idempotency-Key, when rest.idempotency.store is database,
+-- the status is null while the request holding the key runs
+CREATE TABLE IF NOT EXISTS idempotency_key
+(
+    idempotency_key varchar(385) PRIMARY KEY,
+    fingerprint     varchar(64) NOT NULL,
+    status          integer,
+    content_type    varchar(255),
+    location        varchar(2048),
+    body            varbinary,
+    created_at      timestamp   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_key_created_at_idx ON idempotency_key (created_at);
@@ -0,0 +1,103 @@
+package com.example.reactive.rest.aot;
+
+import com.example.reactive.rest.dto.ProjectCreationDto;
+import com.example.reactive.rest.limiter.AdaptiveConcurrencyLimiter;
+import com.example.reactive.rest.limiter.ConcurrencyLimitingRepositoryPostProcessor;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.tracing.ObservedBeanPostProcessor;
+import com.example.reactive.rest.tracing.Tracer;
+import io.micrometer.observation.annotation.Observed;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aot.generate.ClassNameGenerator;
+import org.springframework.aot.generate.DefaultGenerationContext;
+import org.springframework.aot.generate.GenerationContext;
+import org.springframework.aot.generate.InMemoryGeneratedFiles;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.aot.ApplicationContextAotGenerator;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.repository.Repository;
+import org.springframework.javapoet.ClassName;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApplicationRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void testWhenHintsRegisteredThenModelsAndSchemaMustBeReachable() {
+        new ApplicationRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertAll(
+                () -> assertTrue(RuntimeHintsPredicates.reflection().onType(Project.class)
+                        .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints)),
+                () -> assertTrue(RuntimeHintsPredicates.reflection().onMethod(Project.class, "getName").test(hints),
+                        "Lombok accessors must be reachable!"),
+                () -> assertTrue(RuntimeHintsPredicates.reflection().onMethod(ProjectCreationDto.class, "setName")
+                        .test(hints)),
+                () -> assertTrue(RuntimeHintsPredicates.resource().forResource("schema.sql").test(hints)),
+                () -> assertTrue(RuntimeHintsPredicates.resource().forResource("schema-task-shard.sql").test(hints)),
+                () -> assertNotNull(hints.reflection().getTypeHint(Executors.class))
+        );
+    }
+
+    @Test
+    void testWhenProcessedAheadOfTimeThenRuntimeProxyClassesMustBeGeneratedWithTheirHints() {
+        ObservedBeanPostProcessor observing = new ObservedBeanPostProcessor(
+                new DefaultListableBeanFactory().getBeanProvider(Tracer.class));
+        ConcurrencyLimitingRepositoryPostProcessor limiting = new ConcurrencyLimitingRepositoryPostProcessor(
+                new DefaultListableBeanFactory().getBeanProvider(AdaptiveConcurrencyLimiter.class));
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(ObservedBeanPostProcessor.class);
+        context.registerBean(ConcurrencyLimitingRepositoryPostProcessor.class);
+        context.registerBean(ObservedComponent.class);
+        context.registerBean(HandWrittenRepository.class);
+        GenerationContext generationContext = new DefaultGenerationContext(
+                new ClassNameGenerator(ClassName.get(getClass())), new InMemoryGeneratedFiles());
+
+        new ApplicationContextAotGenerator().processAheadOfTime(context, generationContext);
+        RuntimeHints aotHints = generationContext.getRuntimeHints();
+        Object component = observing.postProcessAfterInitialization(new ObservedComponent(), "component");
+        Object repository = limiting.postProcessAfterInitialization(new HandWrittenRepository(), "repository");
+
+        assertAll(
+                () -> assertTrue(AopUtils.isCglibProxy(component)),
+                () -> assertTrue(generatedAheadOfTime(component.getClass(), aotHints),
+                        "Proxy created at runtime must be the one generated ahead of time!"),
+                () -> assertTrue(AopUtils.isCglibProxy(repository)),
+                () -> assertTrue(generatedAheadOfTime(repository.getClass(), aotHints),
+                        "Proxy created at runtime must be the one generated ahead of time!")
+        );
+    }
+
+    private static boolean generatedAheadOfTime(Class<?> proxyClass, RuntimeHints aotHints) {
+        // registered by name, like the class file generated for it
+        return RuntimeHintsPredicates.reflection().onType(TypeReference.of(proxyClass.getName())).test(aotHints);
+    }
+
+    @Observed
+    public static class ObservedComponent {
+
+        public Mono<String> name() {
+            return Mono.just("component");
+        }
+
+    }
+
+    public static class HandWrittenRepository implements Repository<Project, Long> {
+
+        public Mono<Project> findById(Long id) {
+            return Mono.empty();
+        }
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.example.reactive.rest.cache;
+
+import com.example.reactive.rest.resilience.CircuitBreaker;
+import com.example.reactive.rest.resilience.CircuitBreakerOpenException;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaleIfErrorCacheTest {
+
+    @Test
+    void testWhenEntryExpiredAndDatabaseIsUnavailableThenStaleValueMustBeServedAndMarked() {
+        Cache cache = cache(Duration.ofMinutes(10));
+        cache.put(1L, new RecoverableMono<>(Mono.just("stale")));
+        assertNull(cache.get(1L), "Expired entries must miss so they are refreshed!");
+
+        RecoverableMono<String> refresh = new RecoverableMono<>(
+                Mono.error(new CircuitBreakerOpenException("Database circuit breaker is open")));
+        cache.put(1L, refresh);
+        StaleResponse staleResponse = new StaleResponse();
+
+        StepVerifier.create(refresh.contextWrite(Context.of(StaleResponse.KEY, staleResponse)))
+                .expectNext("stale")
+                .verifyComplete();
+        assertAll(
+                () -> assertNotNull(staleResponse.getAge()),
+                () -> assertTrue(staleResponse.getAge().compareTo(Duration.ofMinutes(10)) < 0)
+        );
+    }
+
+    @Test
+    void testWhenErrorIsNotOfAnUnavailableDatabaseThenItMustNotBeHidden() {
+        Cache cache = cache(Duration.ofMinutes(10));
+        cache.put(1L, new RecoverableMono<>(Mono.just("stale")));
+
+        RecoverableMono<String> refresh = new RecoverableMono<>(
+                Mono.error(new DataIntegrityViolationException("duplicate")));
+        cache.put(1L, refresh);
+
+        StepVerifier.create(refresh).verifyError(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void testWhenStaleValueIsOlderThanTheGraceThenErrorMustBeServed() {
+        Cache cache = cache(Duration.ZERO);
+        cache.put(1L, new RecoverableMono<>(Mono.just("stale")));
+
+        RecoverableMono<String> refresh = new RecoverableMono<>(
+                Mono.error(new CircuitBreakerOpenException("Database circuit breaker is open")));
+        cache.put(1L, refresh);
+
+        StepVerifier.create(refresh).verifyError(CircuitBreakerOpenException.class);
+    }
+
+    private static Cache cache(Duration staleIfError) {
+        return new StaleIfErrorCacheManager(new ConcurrentMapCacheManager(), Duration.ofNanos(1), staleIfError,
+                CircuitBreaker::isUnavailable).getCache("projects");
+    }
+
+}
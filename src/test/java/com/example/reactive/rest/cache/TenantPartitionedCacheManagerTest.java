@@ -0,0 +1,65 @@
+package com.example.reactive.rest.cache;
+
+import com.example.reactive.rest.tenant.TenantContext;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantPartitionedCacheManagerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testWhenTenantsCacheTheSameKeyThenTheirEntriesMustBeIsolated() {
+        Cache cache = cacheManager().getCache("projects");
+        assertNotNull(cache, "Cache can not be null!");
+
+        TenantContext.runAs("acme", () -> cache.put(1L, "acme project"));
+        cache.put(1L, "default project");
+        TenantContext.runAs("acme", cache::clear);
+
+        assertAll(
+                () -> assertNull(TenantContext.callAs("acme", () -> cache.get(1L)),
+                        "Tenant must only clear its own partition!"),
+                () -> assertEquals("default project", cache.get(1L, String.class)),
+                () -> assertThrows(IllegalStateException.class,
+                        () -> TenantContext.runAs("unknown", () -> cache.get(1L)))
+        );
+    }
+
+    @Test
+    void testWhenPartitionsAreCreatedThenTheyMustBeSizedByWeightAndMonitoredPerTenant() {
+        Cache cache = cacheManager().getCache("projects");
+        assertNotNull(cache, "Cache can not be null!");
+
+        long acmeSize = maximumSize(TenantContext.callAs("acme", cache::getNativeCache));
+        long defaultSize = maximumSize(cache.getNativeCache());
+
+        assertAll(
+                () -> assertEquals(75, acmeSize),
+                () -> assertEquals(25, defaultSize),
+                () -> assertNotNull(meterRegistry.find("cache.gets").tags("cache", "projects", "tenant", "acme")
+                        .meter(), "Partitions must be monitored per tenant!")
+        );
+    }
+
+    private TenantPartitionedCacheManager cacheManager() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        weights.put("acme", 3);
+        weights.put(TenantContext.DEFAULT_TENANT, 1);
+        return new TenantPartitionedCacheManager(weights, 100, Caffeine::newBuilder, meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long maximumSize(Object nativeCache) {
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).policy().eviction()
+                .orElseThrow().getMaximum();
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.example.reactive.rest.configuration;
+
+import com.example.reactive.rest.configuration.CompressionConfiguration.StreamingContentCompressor;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.StandardCompressionOptions;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionConfigurationTest {
+
+    private static final int MIN_RESPONSE_SIZE = 1024;
+
+    private EmbeddedChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        CompressionProperties properties = new CompressionProperties();
+        channel = new EmbeddedChannel(new StreamingContentCompressor(MIN_RESPONSE_SIZE,
+                properties.getExcludedMimeTypes().stream().map(MimeTypeUtils::parseMimeType).toList(),
+                StandardCompressionOptions.gzip(), StandardCompressionOptions.deflate()));
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/api/v1/tasks");
+        request.headers().set(HttpHeaderNames.ACCEPT_ENCODING, HttpHeaderValues.DEFLATE);
+        channel.writeInbound(request);
+        ReferenceCountUtil.release(channel.readInbound());
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void testWhenNdjsonIsStreamedThenEveryElementMustBeCompressedAndFlushed() throws DataFormatException {
+        assertStreamedElementsAreCompressed("application/x-ndjson", List.of("{\"id\":1}\n", "{\"id\":2}\n"));
+    }
+
+    @Test
+    void testWhenEventStreamIsStreamedThenEveryElementMustBeCompressedAndFlushed() throws DataFormatException {
+        assertStreamedElementsAreCompressed("text/event-stream", List.of("data:{\"id\":1}\n\n", "data:{\"id\":2}\n\n"));
+    }
+
+    @Test
+    void testWhenResponseIsSmallThenItMustNotBeCompressed() {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                Unpooled.copiedBuffer("{\"id\":1}", StandardCharsets.UTF_8));
+        response.headers()
+                .set(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .set(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+
+        channel.writeOutbound(response);
+
+        FullHttpResponse written = channel.readOutbound();
+        try {
+            assertAll(
+                    () -> assertFalse(written.headers().contains(HttpHeaderNames.CONTENT_ENCODING)),
+                    () -> assertEquals("{\"id\":1}", written.content().toString(StandardCharsets.UTF_8))
+            );
+        } finally {
+            written.release();
+        }
+    }
+
+    @Test
+    void testWhenContentTypeIsExcludedThenStreamedResponseMustNotBeCompressed() {
+        byte[] image = new byte[MIN_RESPONSE_SIZE * 4];
+        image[0] = (byte) 0x89;
+
+        channel.writeOutbound(streamedResponse("image/png"));
+        channel.writeOutbound(Unpooled.wrappedBuffer(image));
+
+        HttpResponse written = channel.readOutbound();
+        assertAll(
+                () -> assertFalse(written.headers().contains(HttpHeaderNames.CONTENT_ENCODING)),
+                () -> assertArrayEquals(image, readContent())
+        );
+    }
+
+    @Test
+    void testWhenResponseIsEncodedAlreadyThenItMustNotBeCompressedAgain() {
+        byte[] body = "{\"id\":1}\n".repeat(MIN_RESPONSE_SIZE).getBytes(StandardCharsets.UTF_8);
+        HttpResponse response = streamedResponse("application/x-ndjson");
+        response.headers().set(HttpHeaderNames.CONTENT_ENCODING, "identity");
+
+        channel.writeOutbound(response);
+        channel.writeOutbound(Unpooled.wrappedBuffer(body));
+
+        HttpResponse written = channel.readOutbound();
+        assertAll(
+                () -> assertEquals("identity", written.headers().get(HttpHeaderNames.CONTENT_ENCODING)),
+                () -> assertArrayEquals(body, readContent())
+        );
+    }
+
+    private void assertStreamedElementsAreCompressed(String contentType, List<String> elements)
+            throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            channel.writeOutbound(streamedResponse(contentType));
+            HttpResponse written = channel.readOutbound();
+            assertEquals("deflate", written.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+
+            for (String element : elements) {
+                byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+                channel.writeOutbound(Unpooled.wrappedBuffer(bytes));
+
+                byte[] compressed = readContent();
+                assertNotEquals(element, new String(compressed, StandardCharsets.UTF_8));
+                assertEquals(element, inflate(inflater, compressed));
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private HttpResponse streamedResponse(String contentType) {
+        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        response.headers()
+                .set(HttpHeaderNames.CONTENT_TYPE, contentType)
+                .set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+        return response;
+    }
+
+    /**
+     * Bytes of the content written so far, what the client has received after the flush.
+     */
+    private byte[] readContent() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Object msg;
+        while ((msg = channel.readOutbound()) != null) {
+            ByteBuf content = msg instanceof HttpContent httpContent ? httpContent.content() : (ByteBuf) msg;
+            try {
+                out.writeBytes(ByteBufUtil.getBytes(content));
+            } finally {
+                content.release();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static String inflate(Inflater inflater, byte[] compressed) throws DataFormatException {
+        inflater.setInput(compressed);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int inflated;
+        while ((inflated = inflater.inflate(buffer)) > 0) {
+            out.write(buffer, 0, inflated);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+}
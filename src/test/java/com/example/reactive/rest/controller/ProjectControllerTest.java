@@ -3,19 +3,31 @@ package com.example.reactive.rest.controller;
 import com.example.reactive.rest.IntegrationTest;
 import com.example.reactive.rest.dto.ProjectCreationDto;
 import com.example.reactive.rest.dto.TaskCreationDto;
+import com.example.reactive.rest.dto.TaskMoveDto;
 import com.example.reactive.rest.model.Project;
 import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TimeFilter;
 import com.example.reactive.rest.service.ProjectService;
 import com.example.reactive.rest.service.TaskService;
+import com.example.reactive.rest.stats.TaskStatistics;
+import com.example.reactive.rest.sync.SyncService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -23,19 +35,29 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @WebFluxTest
 @IntegrationTest
 class ProjectControllerTest {
 
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
     @MockBean
     private ProjectService projectService;
 
     @MockBean
     private TaskService taskService;
 
+    @MockBean
+    private TaskStatistics taskStatistics;
+
+    @MockBean
+    private SyncService syncService;
+
     @Autowired
     private WebTestClient webTestClient;
 
@@ -58,6 +80,130 @@ class ProjectControllerTest {
         verify(projectService, times(1)).getAllProjects(any(Pageable.class));
     }
 
+    @Test
+    void testWhenProjectsPageRequestedWithFieldsThenOnlyFieldsMustBeReturned() {
+        int amount = 4;
+        when(projectService.getAllProjects(any(Pageable.class), eq(List.of("id", "name"))))
+                .thenReturn(Mono.just(new PageImpl<>(getProjects(amount))));
+
+        webTestClient.get().uri("/api/v1/projects?fields=name&links=self")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(amount)
+                .jsonPath("$.content[0].name").isEqualTo("Project 1")
+                .jsonPath("$.content[0].id").doesNotExist()
+                .jsonPath("$.content[0].createdAt").doesNotExist()
+                .jsonPath("$.content[0].links.length()").isEqualTo(1)
+                .jsonPath("$.content[0].links[0].rel").isEqualTo("self")
+                .jsonPath("$.content[0].links[0].href").isEqualTo("/api/v1/projects/1");
+
+        verify(projectService, times(1)).getAllProjects(any(Pageable.class), eq(List.of("id", "name")));
+    }
+
+    @Test
+    void testWhenProjectsPageRequestedWithUnknownFieldThenMustBeReturnedBadRequest() {
+        webTestClient.get().uri("/api/v1/projects?fields=secret")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(projectService);
+    }
+
+    @Test
+    void testWhenTasksPageRequestedModifiedSinceThenSortedFilteredTasksMustBeReturned() {
+        long projectId = 1;
+        int amount = 2;
+        PageRequest pageable = PageRequest.of(0, 5,
+                Sort.by(Sort.Order.desc("updatedAt"), Sort.Order.asc("createdAt"), Sort.Order.asc("id")));
+        TimeFilter filter = new TimeFilter(LocalDateTime.of(2023, 1, 25, 12, 0), null,
+                LocalDateTime.of(2023, 2, 1, 0, 0));
+        when(taskService.getTasks(projectId, pageable, List.of(), filter))
+                .thenReturn(Mono.just(new PageImpl<>(getTasks(amount, projectId))));
+
+        webTestClient.get().uri(uriBuilder -> uriBuilder.path("/api/v1/projects/{projectId}/tasks")
+                        .queryParam("sort", "updatedAt,desc")
+                        .queryParam("sort", "createdAt")
+                        .queryParam("modifiedSince", "2023-01-25T12:00")
+                        .queryParam("createdBetween", ",2023-02-01T00:00")
+                        .build(projectId))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(amount);
+
+        verify(taskService, times(1)).getTasks(projectId, pageable, List.of(), filter);
+        verify(taskService, never()).getTasks(eq(projectId), any(Pageable.class));
+    }
+
+    @Test
+    void testWhenProjectsPageRequestedWithUnindexedSortOrInvalidTimeThenMustBeReturnedBadRequest() {
+        webTestClient.get().uri("/api/v1/projects?sort=name,asc")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/v1/projects?modifiedSince=yesterday")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/v1/projects?createdBetween=2023-01-01T00:00")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(projectService);
+    }
+
+    @Test
+    void testWhenTasksPageRequestedWithoutLinksThenLinksMustBeOmitted() {
+        long projectId = 1;
+        int amount = 5;
+        List<String> allColumns = List.of("id", "description", "project_id", "updated_at", "created_at");
+        when(taskService.getTasks(eq(projectId), any(Pageable.class), eq(allColumns)))
+                .thenReturn(Mono.just(new PageImpl<>(getTasks(amount, projectId))));
+
+        webTestClient.get().uri("/api/v1/projects/{projectId}/tasks?links=none", projectId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(amount)
+                .jsonPath("$.content[0].description").isEqualTo("Task description")
+                .jsonPath("$.content[0].projectId").isEqualTo(projectId)
+                .jsonPath("$.content[*].links").doesNotExist();
+
+        verify(taskService, times(1)).getTasks(eq(projectId), any(Pageable.class), eq(allColumns));
+    }
+
+    @Test
+    void testWhenTasksPageRequestedWithTooLargeSizeThenMustBeReturnedBadRequest() {
+        webTestClient.get().uri("/api/v1/projects/{projectId}/tasks?size=10000", 1)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void testWhenTasksPageStreamedThenPageMustBeReturned() {
+        long projectId = 1;
+        int amount = 3;
+        when(taskService.streamTasks(eq(projectId), any(Pageable.class)))
+                .thenReturn(Flux.fromIterable(getTasks(amount, projectId)));
+        when(taskService.countTasks(projectId)).thenReturn(Mono.just(7L));
+
+        webTestClient.get().uri("/api/v1/projects/{projectId}/tasks?size=3&stream=true", projectId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(amount)
+                .jsonPath("$.content[0].description").isEqualTo("Task description")
+                .jsonPath("$.content[0].links").isArray()
+                .jsonPath("$.numberOfElements").isEqualTo(amount)
+                .jsonPath("$.totalElements").isEqualTo(7)
+                .jsonPath("$.totalPages").isEqualTo(3)
+                .jsonPath("$.pageable.pageSize").isEqualTo(3);
+
+        verify(taskService, never()).getTasks(eq(projectId), any(Pageable.class));
+    }
+
     @Test
     void testWhenProjectRequestedThenIfMustBeReturned() {
         long projectId = 1;
@@ -151,6 +297,34 @@ class ProjectControllerTest {
         verify(taskService, times(1)).getTasks(eq(projectId), any(Pageable.class));
     }
 
+    @Test
+    void testWhenTasksPageRequestedAsSmileThenSmilePageMustBeReturned() throws IOException {
+        long projectId = 1;
+        int amount = 5;
+        when(taskService.getTasks(eq(projectId), any(Pageable.class)))
+                .thenReturn(Mono.just(new PageImpl<>(getTasks(amount, projectId))));
+
+        byte[] body = webTestClient.get().uri("/api/v1/projects/{projectId}/tasks", projectId)
+                .accept(SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(SMILE)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        JsonNode page = new ObjectMapper(new SmileFactory()).readTree(body);
+        assertAll(() -> {
+            assertNotNull(page, "Page can not be null!");
+            assertEquals(amount, page.get("content").size(), "Page must have exact amount of elements!");
+            assertEquals(projectId, page.get("content").get(0).get("projectId").asLong(),
+                    "Task must belong to the requested project!");
+            assertEquals(amount, page.get("totalElements").asInt(), "Page must have exact total elements!");
+        });
+
+        verify(taskService, times(1)).getTasks(eq(projectId), any(Pageable.class));
+    }
+
     @Test
     void testWhenTaskRequestedThenItMustBeReturned() {
         long projectId = 1;
@@ -232,6 +406,36 @@ class ProjectControllerTest {
         verify(taskService, times(1)).deleteTask(projectId, taskId);
     }
 
+    @Test
+    void testWhenTasksMovedThenMovedCountMustBeReturned() {
+        long projectId = 1;
+        long targetProjectId = 2;
+        TaskMoveDto taskMoveDto = TaskMoveDto.builder()
+                .targetProjectId(targetProjectId)
+                .taskIds(List.of(3L, 4L))
+                .build();
+        when(taskService.moveTasks(projectId, targetProjectId, List.of(3L, 4L), TimeFilter.NONE))
+                .thenReturn(Mono.just(2L));
+
+        webTestClient.post().uri("/api/v1/projects/{projectId}/tasks:move", projectId)
+                .bodyValue(taskMoveDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.moved").isEqualTo(2);
+        webTestClient.post().uri("/api/v1/projects/{projectId}/tasks:move", projectId)
+                .bodyValue(TaskMoveDto.builder().targetProjectId(projectId).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+        // an empty list must not be read as all the tasks of the project
+        webTestClient.post().uri("/api/v1/projects/{projectId}/tasks:move", projectId)
+                .bodyValue(TaskMoveDto.builder().targetProjectId(targetProjectId).taskIds(List.of()).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(taskService, times(1)).moveTasks(eq(projectId), eq(targetProjectId), any(), any());
+    }
+
     private List<Task> getTasks(int amount, long projectId) {
         ArrayList<Task> tasks = new ArrayList<>();
         for (int i = 1; i <= amount; i++) {
@@ -0,0 +1,131 @@
+package com.example.reactive.rest.controller;
+
+import com.example.reactive.rest.IntegrationTest;
+import com.example.reactive.rest.configuration.FunctionalApiConfiguration;
+import com.example.reactive.rest.dto.TaskCreationDto;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.service.ProjectService;
+import com.example.reactive.rest.service.TaskService;
+import com.example.reactive.rest.stats.TaskStatistics;
+import com.example.reactive.rest.sync.SyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(properties = "rest.functional-api.enabled=true")
+@Import(FunctionalApiConfiguration.class)
+@IntegrationTest
+class ProjectHandlerTest {
+
+    @MockBean
+    private ProjectService projectService;
+
+    @MockBean
+    private TaskService taskService;
+
+    @MockBean
+    private TaskStatistics taskStatistics;
+
+    @MockBean
+    private SyncService syncService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void testWhenProjectsPageRequestedThenPageMustBeReturned() {
+        when(projectService.getAllProjects(any(Pageable.class)))
+                .thenReturn(Mono.just(new PageImpl<>(List.of(getProject(1L), getProject(2L)))));
+
+        webTestClient.get().uri("/api/v1/projects?page=0&size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.content[0].links[0].href").isEqualTo("/api/v1/projects/1")
+                .jsonPath("$.content[0].links[1].href").isEqualTo("/api/v1/projects?page=0&size=2");
+
+        verify(projectService, times(1)).getAllProjects(any(Pageable.class));
+    }
+
+    @Test
+    void testWhenProjectDoesNotExistThenMustBeReturnedNotFound() {
+        when(projectService.findById(1L)).thenReturn(Mono.empty());
+
+        webTestClient.get().uri("/api/v1/projects/{id}", 1L)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testWhenCreateProjectTaskThenMustBeReturnedCreatedWithLocation() {
+        TaskCreationDto taskCreationDto = TaskCreationDto.builder()
+                .description("New task")
+                .build();
+        when(taskService.createTask(1L, taskCreationDto))
+                .thenReturn(Mono.just(Task.builder()
+                        .id(2L)
+                        .projectId(1L)
+                        .description(taskCreationDto.getDescription())
+                        .build()));
+
+        webTestClient.post().uri("/api/v1/projects/{projectId}/tasks", 1L)
+                .bodyValue(taskCreationDto)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.LOCATION, "api/v1/projects/1/tasks/2")
+                .expectBody()
+                .jsonPath("$.description").isEqualTo(taskCreationDto.getDescription())
+                .jsonPath("$.links[0].href").isEqualTo("/api/v1/projects/1/tasks/2");
+    }
+
+    @Test
+    void testWhenRequestMalformedThenMustBeReturnedBadRequest() {
+        webTestClient.get().uri("/api/v1/projects/abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/v1/projects?size=100000")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(projectService);
+    }
+
+    @Test
+    void testWhenSmileAcceptedThenProjectMustBeReturnedAsSmile() {
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+        when(projectService.findById(1L)).thenReturn(Mono.just(getProject(1L)));
+
+        webTestClient.get().uri("/api/v1/projects/{id}", 1L)
+                .accept(smile)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(smile);
+    }
+
+    private static Project getProject(Long id) {
+        return Project.builder()
+                .id(id)
+                .name("Project " + id)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.example.reactive.rest.controller;
+
+import com.example.reactive.rest.IntegrationTest;
+import com.example.reactive.rest.configuration.RateLimitProperties;
+import com.example.reactive.rest.dto.QueryDto;
+import com.example.reactive.rest.filter.RateLimitingWebFilter;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.service.ProjectService;
+import com.example.reactive.rest.service.TaskService;
+import com.example.reactive.rest.stats.TaskStatistics;
+import com.example.reactive.rest.sync.SyncService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest
+@IntegrationTest
+class QueryControllerTest {
+
+    @MockBean
+    private ProjectService projectService;
+
+    @MockBean
+    private TaskService taskService;
+
+    @MockBean
+    private TaskStatistics taskStatistics;
+
+    @MockBean
+    private SyncService syncService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private QueryController queryController;
+
+    @Test
+    void testWhenProjectsAreQueriedWithTheirTasksThenTasksMustBeFetchedOnceForThePage() {
+        PageRequest projectsPage = PageRequest.of(0, 2);
+        PageRequest tasksPage = PageRequest.of(0, 3);
+        when(projectService.getAllProjects(projectsPage)).thenReturn(Mono.just(new PageImpl<>(
+                List.of(project(1L), project(2L)), projectsPage, 7)));
+        when(taskService.getTaskPages(List.of(1L, 2L), tasksPage, List.of())).thenReturn(Mono.just(Map.of(
+                1L, new PageImpl<>(List.of(task(1L, 10L)), tasksPage, 1),
+                2L, new PageImpl<>(List.of(), tasksPage, 0))));
+        when(projectService.findById(1L)).thenReturn(Mono.just(project(1L)));
+        when(taskService.getTask(1L, 10L)).thenReturn(Mono.just(task(1L, 10L)));
+        QueryDto query = QueryDto.builder()
+                .links("none")
+                .projects(QueryDto.ProjectsQuery.builder()
+                        .size(2)
+                        .tasks(QueryDto.TasksQuery.builder().size(3).build())
+                        .build())
+                .project(QueryDto.ProjectQuery.builder().id(1L).fields("id,name").taskId(10L).build())
+                .build();
+
+        webTestClient.post().uri("/api/v1/query")
+                .bodyValue(query)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.projects.totalElements").isEqualTo(7)
+                .jsonPath("$.projects.content[0].name").isEqualTo("Project 1")
+                .jsonPath("$.projects.content[0].tasks.totalElements").isEqualTo(1)
+                .jsonPath("$.projects.content[0].tasks.content[0].id").isEqualTo(10)
+                .jsonPath("$.projects.content[1].tasks.totalElements").isEqualTo(0)
+                .jsonPath("$.project.name").isEqualTo("Project 1")
+                .jsonPath("$.project.createdAt").doesNotExist()
+                .jsonPath("$.project.task.id").isEqualTo(10)
+                .jsonPath("$.project.tasks").doesNotExist();
+
+        verify(taskService, times(1)).getTaskPages(any(), any(), any());
+        verify(taskService, never()).getTasks(any(), any());
+    }
+
+    @Test
+    void testWhenQueryMayReturnTooManyElementsThenItMustBeRejected() {
+        QueryDto query = QueryDto.builder()
+                .projects(QueryDto.ProjectsQuery.builder()
+                        .size(100)
+                        .tasks(QueryDto.TasksQuery.builder().size(50).build())
+                        .build())
+                .build();
+
+        webTestClient.post().uri("/api/v1/query")
+                .bodyValue(query)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(projectService, never()).getAllProjects(any());
+        verify(taskService, never()).getTaskPages(any(), any(), eq(List.of()));
+    }
+
+    @Test
+    void testWhenHeavyQueryIsRepeatedThenItMustBeRateLimitedLikeTheEquivalentListing() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setCapacity(100);
+        properties.setRefillPerSecond(1);
+        properties.setPageSizePerToken(50);
+        WebTestClient limitedClient = WebTestClient.bindToController(queryController)
+                .webFilter(new RateLimitingWebFilter(properties, new SimpleMeterRegistry()))
+                .build();
+        when(projectService.getAllProjects(any())).thenReturn(Mono.just(new PageImpl<>(List.of())));
+        when(taskService.getTaskPages(any(), any(), any())).thenReturn(Mono.just(Map.of()));
+        // the 5000 elements of a listing of 5000 tasks, which costs the whole bucket
+        QueryDto query = QueryDto.builder()
+                .projects(QueryDto.ProjectsQuery.builder()
+                        .size(100)
+                        .tasks(QueryDto.TasksQuery.builder().size(49).build())
+                        .build())
+                .build();
+
+        limitedClient.post().uri("/api/v1/query")
+                .bodyValue(query)
+                .exchange()
+                .expectStatus().isOk();
+        limitedClient.post().uri("/api/v1/query")
+                .bodyValue(query)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER);
+
+        verify(projectService, times(1)).getAllProjects(any());
+    }
+
+    private static Project project(Long id) {
+        return Project.builder().id(id).name("Project " + id).build();
+    }
+
+    private static Task task(Long projectId, Long id) {
+        return Task.builder().id(id).projectId(projectId).description("Task " + id).build();
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.example.reactive.rest.controller;
+
+import com.example.reactive.rest.IntegrationTest;
+import com.example.reactive.rest.filter.TenantWebFilter;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.service.ProjectService;
+import com.example.reactive.rest.service.TaskService;
+import com.example.reactive.rest.stats.TaskStatistics;
+import com.example.reactive.rest.sync.SyncService;
+import com.example.reactive.rest.tenant.TenantContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+@WebFluxTest
+@IntegrationTest
+@Import(StatsControllerTest.FixedClockStatistics.class)
+class StatsControllerTest {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+
+    private static final String ACME = "acme";
+
+    private static final String GLOBEX = "globex";
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2023-01-25T12:30:30.00Z"), ZoneId.systemDefault());
+
+    @MockBean
+    private ProjectService projectService;
+
+    @MockBean
+    private TaskService taskService;
+
+    @MockBean
+    private SyncService syncService;
+
+    @Autowired
+    private TaskStatistics taskStatistics;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void testWhenProjectStatisticsRequestedThenMustBeServedFromAggregates() {
+        long projectId = 1;
+        when(projectService.findById(projectId)).thenReturn(Mono.just(Project.builder().id(projectId).build()));
+        LocalDateTime now = LocalDateTime.now(CLOCK);
+        taskStatistics.onTaskCreated(TenantContext.DEFAULT_TENANT, task(projectId, now.minusMinutes(10)));
+        taskStatistics.onTaskCreated(TenantContext.DEFAULT_TENANT, task(projectId, now.minusHours(5)));
+        taskStatistics.onTaskCreated(TenantContext.DEFAULT_TENANT, task(2L, now.minusHours(30)));
+
+        webTestClient.get().uri("/api/v1/projects/{projectId}/stats", projectId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.projectId").isEqualTo(projectId)
+                .jsonPath("$.tasks").isEqualTo(2)
+                .jsonPath("$.createdLastHour").isEqualTo(1)
+                .jsonPath("$.createdLastDay").isEqualTo(2)
+                .jsonPath("$.createdPerHour.length()").isEqualTo(2)
+                .jsonPath("$.projects").doesNotExist();
+
+        webTestClient.get().uri("/api/v1/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.projects").isEqualTo(2)
+                .jsonPath("$.tasks").isEqualTo(3)
+                .jsonPath("$.createdLastDay").isEqualTo(2)
+                .jsonPath("$.createdPerHour.length()").isEqualTo(3);
+
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void testWhenTenantsHaveTasksThenEachMustOnlySeeItsOwnStatistics() {
+        LocalDateTime now = LocalDateTime.now(CLOCK);
+        taskStatistics.onTaskCreated(ACME, task(10L, now.minusMinutes(5)));
+        taskStatistics.onTaskCreated(ACME, task(10L, now.minusMinutes(5)));
+        taskStatistics.onTaskCreated(ACME, task(11L, now.minusMinutes(5)));
+        taskStatistics.onTaskCreated(GLOBEX, task(20L, now.minusMinutes(5)));
+        when(projectService.findById(10L)).thenReturn(Mono.just(Project.builder().id(10L).build()));
+
+        webTestClient.get().uri("/api/v1/stats")
+                .header(TENANT_HEADER, ACME)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.projects").isEqualTo(2)
+                .jsonPath("$.tasks").isEqualTo(3);
+
+        webTestClient.get().uri("/api/v1/stats")
+                .header(TENANT_HEADER, GLOBEX)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.projects").isEqualTo(1)
+                .jsonPath("$.tasks").isEqualTo(1);
+
+        // a project id of another tenant never reads the figures of that tenant
+        webTestClient.get().uri("/api/v1/projects/{projectId}/stats", 10L)
+                .header(TENANT_HEADER, GLOBEX)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.tasks").isEqualTo(0);
+    }
+
+    @Test
+    void testWhenProjectDoesNotExistThenStatisticsMustNotBeFound() {
+        when(projectService.findById(1L)).thenReturn(Mono.empty());
+
+        webTestClient.get().uri("/api/v1/projects/{projectId}/stats", 1L)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static Task task(Long projectId, LocalDateTime createdAt) {
+        return Task.builder()
+                .projectId(projectId)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+    }
+
+    @TestConfiguration
+    static class FixedClockStatistics {
+
+        @Bean
+        TaskStatistics taskStatistics() {
+            return new TaskStatistics(Duration.ofDays(2), CLOCK);
+        }
+
+        @Bean
+        TenantWebFilter tenantWebFilter() {
+            return new TenantWebFilter(TENANT_HEADER, Set.of(TenantContext.DEFAULT_TENANT, ACME, GLOBEX));
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.example.reactive.rest.crac;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import com.example.reactive.rest.routing.ReadYourWritesTracker;
+import com.example.reactive.rest.routing.ReplicaRoutingConnectionFactory;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestartableConnectionPoolTest {
+
+    private final ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration
+            .builder(ConnectionFactories.get("r2dbc:h2:mem:///restartable-pool?options=DB_CLOSE_DELAY=-1"))
+            .maxSize(2)
+            .build();
+
+    @Test
+    void testWhenPoolReopenedThenMustServeQueriesWithNewConnections() {
+        ConnectionPool initialPool = new ConnectionPool(configuration);
+        RestartableConnectionPool pool = new RestartableConnectionPool(initialPool, configuration);
+        DatabaseClient client = DatabaseClient.create(pool);
+        client.sql("CREATE TABLE IF NOT EXISTS item (id integer PRIMARY KEY)").then().block();
+        client.sql("INSERT INTO item (id) VALUES (1)").then().block();
+
+        pool.close().block();
+        boolean closed = initialPool.isDisposed();
+        assertThrows(RuntimeException.class, () -> client.sql("SELECT 1").then().block(),
+                "Closed pool must not hand out connections!");
+        pool.reopen();
+        Long items = client.sql("SELECT COUNT(*) FROM item").map(row -> row.get(0, Long.class)).one().block();
+
+        assertAll(
+                () -> assertTrue(closed, "Pool must be disposed before the checkpoint!"),
+                () -> assertNotSame(initialPool, pool.unwrap(), "Pool must be replaced after the restore!"),
+                () -> assertEquals(1L, items)
+        );
+    }
+
+    @Test
+    void testWhenPoolWrappedByReplicaRoutingThenMustBeFoundAndDisposedThroughIt() {
+        RestartableConnectionPool pool = new RestartableConnectionPool(new ConnectionPool(configuration),
+                configuration);
+        ReplicaRoutingConnectionFactory routing = new ReplicaRoutingConnectionFactory(pool, List.of(),
+                new ReadYourWritesTracker(Duration.ofMinutes(1), 100), Duration.ofSeconds(30));
+
+        RestartableConnectionPool found = RestartableConnectionPool.find(routing);
+        routing.dispose();
+
+        assertAll(
+                () -> assertSame(pool, found),
+                () -> assertNull(RestartableConnectionPool.find(pool.unwrap())),
+                () -> assertTrue(pool.isDisposed(), "Pool must be disposed with the context!"),
+                () -> assertTrue(pool.unwrap().isDisposed())
+        );
+    }
+
+}
@@ -0,0 +1,225 @@
+package com.example.reactive.rest.filter;
+
+import com.example.reactive.rest.idempotency.DatabaseIdempotencyStore;
+import com.example.reactive.rest.idempotency.IdempotencyStore;
+import com.example.reactive.rest.idempotency.InMemoryIdempotencyStore;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyWebFilterTest {
+
+    private static final String REQUEST = "{\"name\":\"Project\"}";
+
+    private static final String RESPONSE = "{\"id\":1,\"name\":\"Project\"}";
+
+    private final IdempotencyWebFilter filter = new IdempotencyWebFilter(
+            new InMemoryIdempotencyStore(1024 * 1024, Duration.ofMinutes(1)), "X-API-Key", 1024, 1024,
+            Duration.ofSeconds(5));
+
+    private final AtomicInteger handled = new AtomicInteger();
+
+    private final WebFilterChain creatingChain = exchange -> exchange.getRequest().getBody()
+            .then(Mono.defer(() -> {
+                handled.incrementAndGet();
+                exchange.getResponse().setStatusCode(HttpStatus.CREATED);
+                exchange.getResponse().getHeaders().setLocation(URI.create("/api/v1/projects/1"));
+                exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                return exchange.getResponse().writeWith(Mono.fromSupplier(() -> exchange.getResponse()
+                        .bufferFactory().wrap(RESPONSE.getBytes(StandardCharsets.UTF_8))));
+            }));
+
+    @Test
+    void testWhenRequestRetriedThenStoredResponseMustBeReplayed() {
+        MockServerWebExchange first = exchange("key-1", REQUEST);
+        filter.filter(first, creatingChain).block();
+        MockServerWebExchange retry = exchange("key-1", REQUEST);
+        filter.filter(retry, creatingChain).block();
+        MockServerWebExchange otherKey = exchange("key-2", REQUEST);
+        filter.filter(otherKey, creatingChain).block();
+
+        assertAll(
+                () -> assertEquals(2, handled.get(), "Retried request must not be handled again!"),
+                () -> assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode()),
+                () -> assertEquals(URI.create("/api/v1/projects/1"), retry.getResponse().getHeaders().getLocation()),
+                () -> assertEquals(MediaType.APPLICATION_JSON, retry.getResponse().getHeaders().getContentType()),
+                () -> assertEquals(RESPONSE, retry.getResponse().getBodyAsString().block()),
+                () -> assertEquals("true", retry.getResponse().getHeaders()
+                        .getFirst(IdempotencyWebFilter.IDEMPOTENT_REPLAYED)),
+                () -> assertNull(first.getResponse().getHeaders().getFirst(IdempotencyWebFilter.IDEMPOTENT_REPLAYED))
+        );
+    }
+
+    @Test
+    void testWhenKeyReusedWithAnotherPayloadThenMustBeReturnedUnprocessable() {
+        filter.filter(exchange("key-1", REQUEST), creatingChain).block();
+        MockServerWebExchange reused = exchange("key-1", "{\"name\":\"Other\"}");
+        filter.filter(reused, creatingChain).block();
+
+        assertAll(
+                () -> assertEquals(1, handled.get()),
+                () -> assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getResponse().getStatusCode())
+        );
+    }
+
+    @Test
+    void testWhenRetriedWhileRunningThenMustWaitForFirstResponse() {
+        Sinks.Empty<Void> release = Sinks.empty();
+        WebFilterChain slowChain = exchange -> release.asMono().then(creatingChain.filter(exchange));
+        MockServerWebExchange first = exchange("key-1", REQUEST);
+        MockServerWebExchange retry = exchange("key-1", REQUEST);
+        Mono<Void> firstExecution = filter.filter(first, slowChain).cache();
+        firstExecution.subscribe();
+        Mono<Void> retryExecution = filter.filter(retry, slowChain).cache();
+        retryExecution.subscribe();
+        release.tryEmitEmpty();
+        firstExecution.block(Duration.ofSeconds(5));
+        retryExecution.block(Duration.ofSeconds(5));
+
+        assertAll(
+                () -> assertEquals(1, handled.get(), "Concurrent retry must not be handled!"),
+                () -> assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode()),
+                () -> assertEquals(RESPONSE, retry.getResponse().getBodyAsString().block())
+        );
+    }
+
+    @Test
+    void testWhenTenantsSendTheSameKeysThenEachMustGetItsOwnResponse() {
+        MockServerWebExchange acme = exchange("key-1", REQUEST);
+        acme.getAttributes().put(TenantWebFilter.TENANT_ATTRIBUTE, "acme");
+        filter.filter(acme, creatingChain).block();
+        MockServerWebExchange globex = exchange("key-1", REQUEST);
+        globex.getAttributes().put(TenantWebFilter.TENANT_ATTRIBUTE, "globex");
+        filter.filter(globex, creatingChain).block();
+
+        assertAll(
+                () -> assertEquals(2, handled.get(), "Request of another tenant must be handled!"),
+                () -> assertNull(globex.getResponse().getHeaders()
+                        .getFirst(IdempotencyWebFilter.IDEMPOTENT_REPLAYED))
+        );
+    }
+
+    @Test
+    void testWhenBodyTooLargeThenMustBeRejectedWithoutBeingHandled() {
+        String large = "{\"name\":\"" + "x".repeat(2048) + "\"}";
+        MockServerWebExchange declared = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/projects")
+                .header(IdempotencyWebFilter.IDEMPOTENCY_KEY, "key-1")
+                .contentLength(large.length())
+                .body(large));
+        filter.filter(declared, creatingChain).block();
+        MockServerWebExchange chunked = exchange("key-2", large);
+        filter.filter(chunked, creatingChain).block();
+
+        assertAll(
+                () -> assertEquals(0, handled.get()),
+                () -> assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, declared.getResponse().getStatusCode()),
+                () -> assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, chunked.getResponse().getStatusCode())
+        );
+    }
+
+    @Test
+    void testWhenRetriedOnAnotherNodeWhileRunningThenMustWaitForFirstResponse() {
+        IdempotencyStore store = databaseStore();
+        IdempotencyWebFilter node = new IdempotencyWebFilter(store, "X-API-Key", 1024, 1024, Duration.ofSeconds(5));
+        IdempotencyWebFilter otherNode = new IdempotencyWebFilter(store, "X-API-Key", 1024, 1024,
+                Duration.ofSeconds(5));
+        Sinks.Empty<Void> started = Sinks.empty();
+        Sinks.Empty<Void> release = Sinks.empty();
+        WebFilterChain slowChain = exchange -> {
+            started.tryEmitEmpty();
+            return release.asMono().then(creatingChain.filter(exchange));
+        };
+        MockServerWebExchange first = exchange("key-1", REQUEST);
+        MockServerWebExchange retry = exchange("key-1", REQUEST);
+        Mono<Void> firstExecution = node.filter(first, slowChain).cache();
+        firstExecution.subscribe();
+        started.asMono().block(Duration.ofSeconds(5));
+        Mono<Void> retryExecution = otherNode.filter(retry, slowChain).cache();
+        retryExecution.subscribe();
+        release.tryEmitEmpty();
+        firstExecution.block(Duration.ofSeconds(5));
+        retryExecution.block(Duration.ofSeconds(5));
+
+        assertAll(
+                () -> assertEquals(1, handled.get(), "Retry on another node must not be handled!"),
+                () -> assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode()),
+                () -> assertEquals(RESPONSE, retry.getResponse().getBodyAsString().block()),
+                () -> assertEquals("true", retry.getResponse().getHeaders()
+                        .getFirst(IdempotencyWebFilter.IDEMPOTENT_REPLAYED))
+        );
+    }
+
+    @Test
+    void testWhenServerErrorOnAnotherNodeThenRetryMustBeHandledAgain() {
+        IdempotencyStore store = databaseStore();
+        WebFilterChain failingChain = exchange -> {
+            handled.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return exchange.getResponse().setComplete();
+        };
+        new IdempotencyWebFilter(store, "X-API-Key", 1024, 1024, Duration.ofSeconds(5))
+                .filter(exchange("key-1", REQUEST), failingChain).block();
+        MockServerWebExchange retry = exchange("key-1", REQUEST);
+        new IdempotencyWebFilter(store, "X-API-Key", 1024, 1024, Duration.ofSeconds(5))
+                .filter(retry, creatingChain).block(Duration.ofSeconds(5));
+
+        assertAll(
+                () -> assertEquals(2, handled.get()),
+                () -> assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode())
+        );
+    }
+
+    @Test
+    void testWhenServerErrorThenRetryMustBeHandledAgain() {
+        WebFilterChain failingChain = exchange -> {
+            handled.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return exchange.getResponse().setComplete();
+        };
+        filter.filter(exchange("key-1", REQUEST), failingChain).block();
+        MockServerWebExchange retry = exchange("key-1", REQUEST);
+        filter.filter(retry, creatingChain).block();
+
+        assertAll(
+                () -> assertEquals(2, handled.get()),
+                () -> assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode())
+        );
+    }
+
+    private static IdempotencyStore databaseStore() {
+        DatabaseClient client = DatabaseClient.create(ConnectionFactories.get(
+                "r2dbc:h2:mem:///idempotency-" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1"));
+        client.sql("CREATE TABLE idempotency_key (idempotency_key varchar(385) PRIMARY KEY, "
+                        + "fingerprint varchar(64) NOT NULL, status integer, content_type varchar(255), "
+                        + "location varchar(2048), body varbinary, created_at timestamp NOT NULL)")
+                .then()
+                .block();
+        return new DatabaseIdempotencyStore(client, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                Duration.ofMinutes(1), Clock.systemDefaultZone());
+    }
+
+    private static MockServerWebExchange exchange(String idempotencyKey, String body) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/projects")
+                .header("X-API-Key", "client-1")
+                .header(IdempotencyWebFilter.IDEMPOTENCY_KEY, idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body));
+    }
+
+}
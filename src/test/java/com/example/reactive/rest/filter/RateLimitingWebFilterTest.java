@@ -0,0 +1,161 @@
+package com.example.reactive.rest.filter;
+
+import com.example.reactive.rest.configuration.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitingWebFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final WebFilterChain completingChain = exchange -> Mono.empty();
+
+    private RateLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setCapacity(10);
+        properties.setRefillPerSecond(1);
+        properties.setPageSizePerToken(50);
+        properties.setApiKeys(Set.of("client-1", "client-2", "client-3"));
+    }
+
+    @Test
+    void testWhenClientExceedsBucketThenMustBeReturnedTooManyRequests() {
+        RateLimitingWebFilter filter = new RateLimitingWebFilter(properties, meterRegistry);
+
+        MockServerWebExchange first = exchange("/api/v1/projects?size=500", "client-1");
+        filter.filter(first, completingChain).block();
+        MockServerWebExchange second = exchange("/api/v1/projects", "client-1");
+        filter.filter(second, completingChain).block();
+        MockServerWebExchange otherClient = exchange("/api/v1/projects", "client-2");
+        filter.filter(otherClient, completingChain).block();
+
+        assertAll(
+                () -> assertNull(first.getResponse().getStatusCode()),
+                () -> assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode()),
+                () -> assertNotNull(second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)),
+                () -> assertNull(otherClient.getResponse().getStatusCode()),
+                () -> assertEquals(1, meterRegistry.get("rest.requests.rejected")
+                        .tag("reason", "rate_limit").counter().count())
+        );
+    }
+
+    @Test
+    void testWhenTooManyConcurrentRequestsThenMustBeReturnedServiceUnavailable() {
+        properties.setMaxConcurrentRequests(1);
+        RateLimitingWebFilter filter = new RateLimitingWebFilter(properties, meterRegistry);
+        Sinks.Empty<Void> pending = Sinks.empty();
+
+        MockServerWebExchange first = exchange("/api/v1/projects", "client-1");
+        filter.filter(first, exchange -> pending.asMono()).subscribe();
+        MockServerWebExchange second = exchange("/api/v1/projects", "client-2");
+        filter.filter(second, completingChain).block();
+        pending.tryEmitEmpty();
+        MockServerWebExchange third = exchange("/api/v1/projects", "client-2");
+        filter.filter(third, completingChain).block();
+
+        assertAll(
+                () -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, second.getResponse().getStatusCode()),
+                () -> assertNull(third.getResponse().getStatusCode()),
+                () -> assertEquals(1, meterRegistry.get("rest.requests.rejected")
+                        .tag("reason", "overload").counter().count()),
+                () -> assertEquals(0, meterRegistry.get("rest.requests.in_flight").gauge().value())
+        );
+    }
+
+    @Test
+    void testWhenRequestIsNotForApiThenMustNotBeLimited() {
+        properties.setCapacity(1);
+        RateLimitingWebFilter filter = new RateLimitingWebFilter(properties, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            MockServerWebExchange exchange = exchange("/actuator/health", "client-1");
+            filter.filter(exchange, completingChain).block();
+            assertNull(exchange.getResponse().getStatusCode());
+        }
+    }
+
+    @Test
+    void testWhenApiKeyIsUnknownThenClientMustBeLimitedByItsAddress() {
+        properties.setCapacity(1);
+        RateLimitingWebFilter filter = new RateLimitingWebFilter(properties, meterRegistry);
+        InetSocketAddress address = new InetSocketAddress("192.0.2.1", 40000);
+        InetSocketAddress otherAddress = new InetSocketAddress("192.0.2.2", 40000);
+
+        MockServerWebExchange first = exchange("/api/v1/projects", "random-1", address);
+        filter.filter(first, completingChain).block();
+        MockServerWebExchange newKey = exchange("/api/v1/projects", "random-2", address);
+        filter.filter(newKey, completingChain).block();
+        MockServerWebExchange knownKey = exchange("/api/v1/projects", "client-1", address);
+        filter.filter(knownKey, completingChain).block();
+        MockServerWebExchange otherClient = exchange("/api/v1/projects", "random-2", otherAddress);
+        filter.filter(otherClient, completingChain).block();
+
+        assertAll(
+                () -> assertNull(first.getResponse().getStatusCode()),
+                () -> assertEquals(HttpStatus.TOO_MANY_REQUESTS, newKey.getResponse().getStatusCode(),
+                        "A new unknown key must not get a new bucket!"),
+                () -> assertNull(knownKey.getResponse().getStatusCode(), "A known key must have its own bucket!"),
+                () -> assertNull(otherClient.getResponse().getStatusCode(),
+                        "Another address must have its own bucket!")
+        );
+    }
+
+    @Test
+    void testWhenRowsAreChargedByHandlerThenRequestMustBeLimitedLikeTheEquivalentPage() {
+        RateLimitingWebFilter filter = new RateLimitingWebFilter(properties, meterRegistry);
+        WebFilterChain chargingChain = exchange -> Mono.fromRunnable(
+                () -> RateLimitingWebFilter.chargeRows(exchange, 500));
+
+        filter.filter(exchange("/api/v1/projects?size=50", "client-1"), completingChain).block();
+        MockServerWebExchange page = exchange("/api/v1/projects?size=500", "client-1");
+        filter.filter(page, completingChain).block();
+        filter.filter(exchange("/api/v1/projects?size=50", "client-2"), completingChain).block();
+        MockServerWebExchange query = post("/api/v1/query", "client-2");
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> filter.filter(query, chargingChain).block());
+        MockServerWebExchange otherQuery = post("/api/v1/query", "client-3");
+        filter.filter(otherQuery, chargingChain).block();
+
+        assertAll(
+                () -> assertEquals(HttpStatus.TOO_MANY_REQUESTS, page.getResponse().getStatusCode()),
+                () -> assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode()),
+                () -> assertNotNull(query.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)),
+                () -> assertNull(otherQuery.getResponse().getStatusCode(), "A full bucket must pay for the rows!"),
+                () -> assertEquals(2, meterRegistry.get("rest.requests.rejected")
+                        .tag("reason", "rate_limit").counter().count()),
+                () -> assertEquals(0, meterRegistry.get("rest.requests.in_flight").gauge().value())
+        );
+    }
+
+    private static MockServerWebExchange exchange(String uri, String apiKey, InetSocketAddress remoteAddress) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(uri).header("X-API-Key", apiKey)
+                .remoteAddress(remoteAddress));
+    }
+
+    private static MockServerWebExchange exchange(String uri, String apiKey) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(uri).header("X-API-Key", apiKey));
+    }
+
+    private static MockServerWebExchange post(String uri, String apiKey) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post(uri).header("X-API-Key", apiKey));
+    }
+
+}
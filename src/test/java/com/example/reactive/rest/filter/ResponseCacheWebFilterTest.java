@@ -0,0 +1,99 @@
+package com.example.reactive.rest.filter;
+
+import com.example.reactive.rest.cache.CacheInvalidatedEvent;
+import com.example.reactive.rest.cache.ResponseCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheWebFilterTest {
+
+    private static final String BODY = "{\"content\":[{\"id\":1,\"name\":\"Project\"}]}";
+
+    private final ResponseCache responseCache = new ResponseCache(1024 * 1024, Duration.ofMinutes(1));
+
+    private final ResponseCacheWebFilter filter = new ResponseCacheWebFilter(responseCache, 1024);
+
+    private final AtomicInteger handled = new AtomicInteger();
+
+    private final WebFilterChain writingChain = exchange -> {
+        handled.incrementAndGet();
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return exchange.getResponse().writeWith(Mono.fromSupplier(() -> exchange.getResponse().bufferFactory()
+                .wrap(BODY.getBytes(StandardCharsets.UTF_8))));
+    };
+
+    @Test
+    void testWhenResponseCachedThenMustBeWrittenWithoutHandler() {
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/v1/projects?page=0"));
+        filter.filter(first, writingChain).block();
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/api/v1/projects?page=0"));
+        filter.filter(second, writingChain).block();
+
+        assertAll(
+                () -> assertEquals(1, handled.get(), "Cached response must not be handled again!"),
+                () -> assertEquals(BODY, first.getResponse().getBodyAsString().block()),
+                () -> assertEquals(BODY, second.getResponse().getBodyAsString().block()),
+                () -> assertEquals(MediaType.APPLICATION_JSON, second.getResponse().getHeaders().getContentType()),
+                () -> assertNotNull(first.getResponse().getHeaders().getETag(), "Response must have an ETag!"),
+                () -> assertEquals(first.getResponse().getHeaders().getETag(),
+                        second.getResponse().getHeaders().getETag(), "Cached response must keep its ETag!")
+        );
+    }
+
+    @Test
+    void testWhenETagMatchesThenMustBeReturnedNotModified() {
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/v1/projects"));
+        filter.filter(first, writingChain).block();
+        String eTag = first.getResponse().getHeaders().getETag();
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/api/v1/projects")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+        filter.filter(second, writingChain).block();
+
+        assertAll(
+                () -> assertEquals(HttpStatus.NOT_MODIFIED, second.getResponse().getStatusCode()),
+                () -> assertEquals("", second.getResponse().getBodyAsString().defaultIfEmpty("").block())
+        );
+    }
+
+    @Test
+    void testWhenServiceCacheInvalidatedThenResponseMustBeHandledAgain() {
+        filter.filter(exchange(MockServerHttpRequest.get("/api/v1/projects")), writingChain).block();
+        responseCache.onCacheInvalidated(new CacheInvalidatedEvent("projects"));
+        filter.filter(exchange(MockServerHttpRequest.get("/api/v1/projects")), writingChain).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/api/v1/projects")
+                .accept(MediaType.APPLICATION_NDJSON)), writingChain).block();
+
+        assertEquals(3, handled.get(), "Invalidated and differently accepted responses must be handled!");
+    }
+
+    @Test
+    void testWhenProjectsInvalidatedThenOnlyTheirResponsesAndUnscopedOnesMustBeHandledAgain() {
+        List<String> paths = List.of("/api/v1/projects/1/tasks?page=0", "/api/v1/projects/12/tasks",
+                "/api/v1/projects/2/tasks/5", "/api/v1/sync/projects/2/tasks", "/api/v1/stats");
+        paths.forEach(path -> filter.filter(exchange(MockServerHttpRequest.get(path)), writingChain).block());
+        responseCache.onCacheInvalidated(new CacheInvalidatedEvent("tasks", Set.of(1L, 2L)));
+        paths.forEach(path -> filter.filter(exchange(MockServerHttpRequest.get(path)), writingChain).block());
+
+        assertEquals(paths.size() * 2 - 1, handled.get(), "Only the responses of other projects must be kept!");
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.example.reactive.rest.limiter;
+
+import com.example.reactive.rest.configuration.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASELINE_RTT = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private ConcurrencyLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(50);
+    }
+
+    @Test
+    void testWhenLatencyIsStableThenLimitMustGrow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(BASELINE_RTT, limiter.getLimit());
+        }
+
+        assertEquals(50, limiter.getLimit());
+    }
+
+    @Test
+    void testWhenLatencyIncreasesThenLimitMustShrink() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(BASELINE_RTT, limiter.getLimit());
+        }
+
+        for (int i = 0; i < 30; i++) {
+            limiter.onSample(BASELINE_RTT * 10, limiter.getLimit());
+        }
+
+        assertTrue(limiter.getLimit() < 10, "limit: " + limiter.getLimit());
+    }
+
+    @Test
+    void testWhenLimitIsUnusedThenLimitMustNotGrow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(BASELINE_RTT, 1);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void testWhenLimitReachedThenOperationsMustBeQueuedAndExcessRejected() {
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        properties.setMaxQueueSize(1);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        Sinks.One<String> blocking = Sinks.one();
+        limiter.limit(blocking.asMono()).subscribe();
+        Mono<String> queued = limiter.limit(Mono.just("queued"));
+        StepVerifier.create(queued)
+                .then(() -> assertAll(
+                        () -> assertEquals(1, limiter.getInFlight()),
+                        () -> assertEquals(1, limiter.getQueued()),
+                        () -> StepVerifier.create(limiter.limit(Mono.just("rejected")))
+                                .expectError(ConcurrencyLimitExceededException.class)
+                                .verify(Duration.ofSeconds(1))
+                ))
+                .then(() -> blocking.tryEmitValue("done"))
+                .expectNext("queued")
+                .verifyComplete();
+        assertAll(
+                () -> assertEquals(0, limiter.getInFlight()),
+                () -> assertEquals(0, limiter.getQueued())
+        );
+    }
+
+    @Test
+    void testWhenTimeoutRacesTheGrantThenNoPermitMustLeak() throws Exception {
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        properties.setMaxLimit(1);
+        properties.setMaxQueueWait(Duration.ofMillis(1));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        ExecutorService releasing = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                Sinks.One<String> blocking = Sinks.one();
+                limiter.limit(blocking.asMono()).subscribe(value -> {
+                }, error -> {
+                });
+                // the queued operation times out while the blocking one releases its permit
+                Future<?> release = releasing.submit(() -> {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    blocking.tryEmitValue("done");
+                });
+                limiter.limit(Mono.just("queued"))
+                        .onErrorReturn(ConcurrencyLimitExceededException.class, "timed out")
+                        .block(Duration.ofSeconds(1));
+                release.get(1, TimeUnit.SECONDS);
+            }
+        } finally {
+            releasing.shutdownNow();
+        }
+
+        assertAll(
+                () -> assertEquals(0, limiter.getInFlight(), "Every permit must be released!"),
+                () -> assertEquals(0, limiter.getQueued(), "No operation must be left queued!")
+        );
+    }
+
+}
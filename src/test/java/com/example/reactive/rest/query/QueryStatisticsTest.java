@@ -0,0 +1,109 @@
+package com.example.reactive.rest.query;
+
+import com.example.reactive.rest.r2dbc.ListeningConnectionFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryStatisticsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ConnectionFactory connectionFactory = database();
+
+    @Test
+    void testWhenStatementsDifferInValuesOnlyThenTheyMustShareTheirShape() {
+        String page = QueryShape.normalize("SELECT task.id FROM task WHERE task.project_id = $1 LIMIT 5 OFFSET 10");
+
+        assertAll(
+                () -> assertEquals("SELECT task.id FROM task WHERE task.project_id = ? LIMIT ? OFFSET ?", page),
+                () -> assertEquals(page, QueryShape.normalize(
+                        "SELECT task.id FROM task\n  WHERE task.project_id = $1 LIMIT 20 OFFSET 0")),
+                () -> assertEquals("DELETE FROM task_tombstone WHERE task_id IN (?) AND name = ?",
+                        QueryShape.normalize("DELETE FROM task_tombstone WHERE task_id IN (:id0, :id1, :id2) "
+                                + "AND name = 'it''s'")),
+                () -> assertEquals("SELECT p2.id FROM project p2 WHERE p2.id = ?",
+                        QueryShape.normalize("SELECT p2.id FROM project p2 WHERE p2.id = -42"))
+        );
+    }
+
+    @Test
+    void testWhenStatementsAreSlowThenTheyMustBeTimedPerShapeAndExplainedOnce() throws InterruptedException {
+        QueryStatistics statistics = new QueryStatistics(meterRegistry, connectionFactory, Duration.ZERO, 10, true);
+        DatabaseClient client = client(statistics);
+
+        for (int limit = 1; limit <= 3; limit++) {
+            client.sql("SELECT name FROM node WHERE name = :name LIMIT " + limit).bind("name", "primary")
+                    .fetch().all().blockLast();
+        }
+        client.sql("SELECT COUNT(*) FROM node").fetch().one().block();
+        QueryStatistics.QueryShapeSummary select = awaitPlan(statistics);
+
+        assertAll(
+                () -> assertEquals(2, statistics.top(10).size()),
+                () -> assertEquals("SELECT name FROM node WHERE name = ? LIMIT ?", select.sql()),
+                () -> assertEquals(3, select.count()),
+                () -> assertEquals(3, select.slow()),
+                () -> assertTrue(select.plan().contains("NODE"), "Plan must be the one of the database!"),
+                () -> assertEquals(3, meterRegistry.get("r2dbc.statements").tag("shape", select.shape()).timer()
+                        .count())
+        );
+    }
+
+    @Test
+    void testWhenShapesExceedMaximumThenNewShapesMustBeTimedTogether() {
+        QueryStatistics statistics = new QueryStatistics(meterRegistry, connectionFactory, Duration.ofMinutes(1), 1,
+                true);
+        DatabaseClient client = client(statistics);
+
+        client.sql("SELECT name FROM node").fetch().all().blockLast();
+        client.sql("SELECT COUNT(*) FROM node").fetch().one().block();
+        client.sql("SELECT MAX(name) FROM node").fetch().one().block();
+
+        List<QueryStatistics.QueryShapeSummary> top = statistics.top(10);
+        assertAll(
+                () -> assertEquals(2, top.size()),
+                () -> assertEquals(QueryStatistics.OTHER, top.stream()
+                        .filter(shape -> shape.count() == 2).findFirst().orElseThrow().shape()),
+                () -> assertTrue(top.stream().allMatch(shape -> shape.plan() == null),
+                        "Fast statements must not be explained!")
+        );
+    }
+
+    private static QueryStatistics.QueryShapeSummary awaitPlan(QueryStatistics statistics)
+            throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            QueryStatistics.QueryShapeSummary select = statistics.top(10).stream()
+                    .filter(shape -> shape.sql().contains("LIMIT"))
+                    .findFirst().orElseThrow();
+            if (select.plan() != null) {
+                return select;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("No plan was captured!");
+    }
+
+    private DatabaseClient client(QueryStatistics statistics) {
+        return DatabaseClient.create(new ListeningConnectionFactory(connectionFactory, List.of(statistics)));
+    }
+
+    private static ConnectionFactory database() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///queries-" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1");
+        DatabaseClient client = DatabaseClient.create(connectionFactory);
+        client.sql("CREATE TABLE node (name varchar(255))").then()
+                .then(client.sql("INSERT INTO node VALUES ('primary')").then())
+                .block();
+        return connectionFactory;
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.example.reactive.rest.repository.jdbc;
+
+import com.example.reactive.rest.IntegrationTest;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TimeFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JdbcTest
+@ActiveProfiles("jdbc")
+@IntegrationTest
+class JdbcRepositoryTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcProjectRepository projectRepository;
+
+    private JdbcTaskRepository taskRepository;
+
+    @BeforeEach
+    void setUpTest() {
+        projectRepository = new JdbcProjectRepository(jdbcTemplate, Schedulers.immediate());
+        taskRepository = new JdbcTaskRepository(jdbcTemplate, Schedulers.immediate());
+        taskRepository.deleteAll().block();
+        projectRepository.deleteAll().block();
+    }
+
+    @Test
+    void testWhenProjectSavedThenMustBeAuditedAndUpdated() {
+        Project project = projectRepository.save(Project.builder().name("New project").build()).block();
+        assertNotNull(project, "Saved project can not be null!");
+        project.setName("Updated project");
+        projectRepository.save(project).block();
+
+        Project found = projectRepository.findById(project.getId()).block();
+
+        assertAll(() -> {
+            assertNotNull(found, "Project must be found!");
+            assertEquals("Updated project", found.getName(), "Project must be updated!");
+            assertNotNull(found.getCreatedAt(), "Created date must be set!");
+            assertFalse(found.getUpdatedAt().isBefore(found.getCreatedAt()), "Updated date must be set!");
+            assertEquals(Boolean.TRUE, projectRepository.existsById(project.getId()).block());
+        });
+    }
+
+    @Test
+    void testWhenGetProjectTasksPageThenOnlyPageMustBeReturned() {
+        Project project = projectRepository.save(Project.builder().name("New project").build()).block();
+        assertNotNull(project, "Saved project can not be null!");
+        Flux.range(0, 7)
+                .concatMap(i -> taskRepository.save(Task.builder()
+                        .description("Task " + i)
+                        .projectId(project.getId())
+                        .build()))
+                .blockLast();
+
+        List<Task> page = taskRepository.findAllByProjectId(project.getId(), PageRequest.of(1, 5))
+                .collectList().block();
+        List<Task> sparsePage = taskRepository.findAllByProjectId(project.getId(), List.of("id", "description"),
+                PageRequest.of(0, 5)).collectList().block();
+
+        assertAll(() -> {
+            assertNotNull(page, "Page can not be null!");
+            assertEquals(2, page.size(), "Page must have the remaining tasks!");
+            assertEquals(7, taskRepository.countAllByProjectId(project.getId()).block());
+            assertNotNull(sparsePage, "Page can not be null!");
+            assertEquals(5, sparsePage.size(), "Page must have exact page size!");
+            assertNull(sparsePage.get(0).getProjectId(), "Not selected column must not be read!");
+        });
+    }
+
+    @Test
+    void testWhenTasksMovedThenOnlyMatchingTasksMustBeMovedAndTombstoned() {
+        Project source = projectRepository.save(Project.builder().name("Source").build()).block();
+        Project target = projectRepository.save(Project.builder().name("Target").build()).block();
+        assertNotNull(source, "Saved project can not be null!");
+        assertNotNull(target, "Saved project can not be null!");
+        LocalDateTime movedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Long> ids = Flux.range(0, 3)
+                .concatMap(i -> taskRepository.save(Task.builder()
+                        .description("Task " + i)
+                        .projectId(source.getId())
+                        .build()))
+                .map(Task::getId)
+                .collectList()
+                .block();
+        assertNotNull(ids, "Saved tasks can not be null!");
+
+        Long moved = taskRepository.moveTasks(source.getId(), target.getId(), ids.subList(0, 2),
+                new TimeFilter(null, movedAt.minusHours(1), null), movedAt).block();
+
+        assertAll(() -> {
+            assertEquals(2, moved, "Only the given tasks must be moved!");
+            assertEquals(1, taskRepository.countAllByProjectId(source.getId()).block());
+            assertEquals(2, taskRepository.countAllByProjectId(target.getId()).block());
+            assertEquals(ids.subList(0, 2), taskRepository.findTombstones(source.getId(), movedAt)
+                    .sort().collectList().block(), "Moved tasks must leave tombstones!");
+        });
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.example.reactive.rest.resilience;
+
+import com.example.reactive.rest.configuration.ResilienceProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private ResilienceProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResilienceProperties();
+        properties.setSlidingWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(0.5);
+        properties.setHalfOpenCalls(2);
+    }
+
+    @Test
+    void testWhenMostOperationsTimeOutThenCircuitMustOpenAndRejectWithoutSubscribing() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(properties);
+        AtomicInteger subscriptions = new AtomicInteger();
+        Mono<String> timingOut = Mono.<String>error(new RepositoryTimeoutException("timed out"))
+                .doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+
+        circuitBreaker.protect(Mono.just("ok")).block();
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(circuitBreaker.protect(timingOut)).verifyError(RepositoryTimeoutException.class);
+        }
+
+        StepVerifier.create(circuitBreaker.protect(timingOut)).verifyError(CircuitBreakerOpenException.class);
+        assertAll(
+                () -> assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState()),
+                () -> assertEquals(3, subscriptions.get())
+        );
+    }
+
+    @Test
+    void testWhenErrorsAreNotOfAnUnavailableDatabaseThenCircuitMustStayClosed() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(properties);
+
+        for (int i = 0; i < 10; i++) {
+            StepVerifier.create(circuitBreaker.protect(Flux.error(new DataIntegrityViolationException("duplicate"))))
+                    .verifyError(DataIntegrityViolationException.class);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void testWhenOpenDurationElapsedThenSuccessfulTrialsMustCloseCircuit() {
+        properties.setOpenDuration(Duration.ZERO);
+        CircuitBreaker circuitBreaker = new CircuitBreaker(properties);
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(circuitBreaker.protect(Mono.error(new RepositoryTimeoutException("timed out"))))
+                    .verifyError(RepositoryTimeoutException.class);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        circuitBreaker.protect(Flux.range(0, 10)).take(1).blockLast();
+        CircuitBreaker.State afterFirstTrial = circuitBreaker.getState();
+        circuitBreaker.protect(Mono.just("ok")).block();
+
+        assertAll(
+                () -> assertEquals(CircuitBreaker.State.HALF_OPEN, afterFirstTrial),
+                () -> assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState())
+        );
+    }
+
+}
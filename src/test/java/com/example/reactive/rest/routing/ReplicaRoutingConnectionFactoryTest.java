@@ -0,0 +1,124 @@
+package com.example.reactive.rest.routing;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingConnectionFactoryTest {
+
+    private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMinutes(1), 100);
+
+    private ConnectionFactory primary;
+
+    private ConnectionFactory replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    @Test
+    void testWhenQueryIsReadOnlyThenReplicaMustBeUsed() {
+        DatabaseClient client = DatabaseClient.create(routing(List.of(replica)));
+
+        assertAll(
+                () -> assertEquals("primary", RoutingContext.readOnly(Mono.empty()).then(name(client)).block()),
+                () -> assertEquals("replica", RoutingContext.readOnly(name(client)).block()),
+                () -> assertEquals("primary", name(client).block())
+        );
+    }
+
+    @Test
+    void testWhenClientWroteRecentlyThenPrimaryMustBeUsedForReads() {
+        DatabaseClient client = DatabaseClient.create(routing(List.of(replica)));
+        tracker.onWrite("writer");
+
+        assertAll(
+                () -> assertEquals("primary", RoutingContext.readOnly(name(client))
+                        .contextWrite(context -> RoutingContext.withClient(context, "writer")).block()),
+                () -> assertEquals("replica", RoutingContext.readOnly(name(client))
+                        .contextWrite(context -> RoutingContext.withClient(context, "reader")).block())
+        );
+    }
+
+    @Test
+    void testWhenReadOnlyQueryRunsInsideWriteThenRouteMustNotChange() {
+        DatabaseClient client = DatabaseClient.create(routing(List.of(replica)));
+
+        String name = RoutingContext.readOnly(name(client))
+                .contextWrite(Context.of(RoutingContext.READ_ONLY, Boolean.FALSE))
+                .block();
+
+        assertEquals("primary", name);
+    }
+
+    @Test
+    void testWhenReplicaServesQueryThenEnclosingPublishersMustBeNotified() {
+        DatabaseClient client = DatabaseClient.create(routing(List.of(replica)));
+        List<String> notified = new ArrayList<>();
+
+        RoutingContext.onReplica(RoutingContext.onReplica(name(client), lag -> notified.add("inner " + lag)),
+                lag -> notified.add("outer " + lag)).block();
+        RoutingContext.readOnly(RoutingContext.onReplica(RoutingContext.onReplica(name(client),
+                lag -> notified.add("inner " + lag)), lag -> notified.add("outer " + lag))).block();
+
+        assertEquals(List.of("inner PT1M", "outer PT1M"), notified);
+    }
+
+    @Test
+    void testWhenReplicaFailsThenItMustBeEjected() {
+        AtomicInteger failingCalls = new AtomicInteger();
+        ConnectionFactory failing = new ConnectionFactory() {
+            @Override
+            public Mono<Connection> create() {
+                failingCalls.incrementAndGet();
+                return Mono.error(new IllegalStateException("replica is down"));
+            }
+
+            @Override
+            public ConnectionFactoryMetadata getMetadata() {
+                return () -> "failing";
+            }
+        };
+        DatabaseClient client = DatabaseClient.create(routing(List.of(failing, replica)));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica", RoutingContext.readOnly(name(client)).block());
+        }
+        assertEquals(1, failingCalls.get(), "Ejected replica must not be asked again!");
+    }
+
+    private ReplicaRoutingConnectionFactory routing(List<ConnectionFactory> replicas) {
+        return new ReplicaRoutingConnectionFactory(primary, replicas, tracker, Duration.ofMinutes(1));
+    }
+
+    private static Mono<String> name(DatabaseClient client) {
+        return client.sql("SELECT name FROM node").map(row -> row.get("name", String.class)).one();
+    }
+
+    private static ConnectionFactory database(String name) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///" + name + "-" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1");
+        DatabaseClient client = DatabaseClient.create(connectionFactory);
+        client.sql("CREATE TABLE node (name varchar(255))").then()
+                .then(client.sql("INSERT INTO node VALUES ('" + name + "')").then())
+                .block();
+        return connectionFactory;
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.example.reactive.rest.service;
+
+import com.example.reactive.rest.routing.RoutingContext;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonosTest {
+
+    private static final Duration REPLICATION_LAG = Duration.ofMillis(100);
+
+    @Test
+    void testWhenValueIsReadFromPrimaryThenItMustBeKept() throws InterruptedException {
+        AtomicInteger reads = new AtomicInteger();
+        Mono<Integer> cached = Monos.cacheValue(Mono.fromSupplier(reads::incrementAndGet));
+
+        assertEquals(1, cached.block());
+        Thread.sleep(REPLICATION_LAG.toMillis() * 2);
+
+        assertAll(
+                () -> assertEquals(1, cached.block()),
+                () -> assertEquals(1, reads.get())
+        );
+    }
+
+    @Test
+    void testWhenValueIsReadFromReplicaThenItMustBeReadAgainAfterReplicationLag() throws InterruptedException {
+        AtomicInteger reads = new AtomicInteger();
+        Mono<Integer> cached = Monos.cacheValue(replicaRead(reads));
+
+        assertEquals(1, cached.block());
+        assertEquals(1, cached.block());
+        Thread.sleep(REPLICATION_LAG.toMillis() * 2);
+
+        assertAll(
+                () -> assertEquals(2, cached.block()),
+                () -> assertEquals(2, reads.get())
+        );
+    }
+
+    @Test
+    void testWhenEmptyValueIsReadFromReplicaThenItMustBeReadAgainAfterReplicationLag() throws InterruptedException {
+        AtomicInteger reads = new AtomicInteger();
+        Mono<Integer> cached = Monos.cacheValue(replicaRead(reads).filter(read -> read > 1));
+
+        assertNull(cached.block());
+        Thread.sleep(REPLICATION_LAG.toMillis() * 2);
+
+        assertEquals(2, cached.block());
+    }
+
+    @Test
+    void testWhenValueUsesCachedReplicaValueThenItMustBeReadAgainAfterReplicationLag() throws InterruptedException {
+        AtomicInteger reads = new AtomicInteger();
+        Mono<Integer> inner = Monos.cacheValue(replicaRead(reads));
+        assertEquals(1, inner.block());
+        Mono<Integer> outer = Monos.cacheValue(inner.map(read -> read * 10));
+
+        assertEquals(10, outer.block());
+        Thread.sleep(REPLICATION_LAG.toMillis() * 2);
+
+        assertEquals(20, outer.block());
+    }
+
+    private static Mono<Integer> replicaRead(AtomicInteger reads) {
+        return Mono.deferContextual(context -> {
+            RoutingContext.replicaRead(context, REPLICATION_LAG);
+            return Mono.just(reads.incrementAndGet());
+        });
+    }
+
+}
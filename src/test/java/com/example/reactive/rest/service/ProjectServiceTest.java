@@ -5,13 +5,22 @@ import com.example.reactive.rest.dto.ProjectCreationDto;
 import com.example.reactive.rest.mapper.ProjectMapper;
 import com.example.reactive.rest.model.Project;
 import com.example.reactive.rest.repository.ProjectRepository;
+import com.example.reactive.rest.repository.TaskRepository;
+import com.example.reactive.rest.stats.TaskStatistics;
+import com.example.reactive.rest.tenant.TenantContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataR2dbcTest
@@ -21,13 +30,19 @@ class ProjectServiceTest {
     @Autowired
     private ProjectRepository projectRepository;
 
+    @Autowired
+    private TaskRepository taskRepository;
+
     private final ProjectMapper projectMapper = new ProjectMapper();
 
+    private final TaskStatistics taskStatistics = new TaskStatistics(Duration.ofDays(2), Clock.systemDefaultZone());
+
     private ProjectService projectService;
 
     @BeforeEach
     void setUpTest() {
-        projectService = new ProjectService(projectRepository, projectMapper);
+        projectService = new ProjectService(projectRepository, taskRepository, projectMapper, taskStatistics,
+                new NoOpCacheManager(), Clock.systemDefaultZone());
         projectRepository.deleteAll().block();
     }
 
@@ -132,6 +147,56 @@ class ProjectServiceTest {
                 "If project deleted then service must return false");
     }
 
+    @Test
+    void testWhenProjectBelongsToAnotherTenantThenItMustNotBeVisible() {
+        ProjectCreationDto projectCreationDto = ProjectCreationDto.builder()
+                .name("Tenant project")
+                .build();
+        Project savedProject = TenantContext.callAs("acme",
+                () -> projectService.createProject(projectCreationDto).block());
+        assertNotNull(savedProject, "Saved project can not be null!");
+        createProjects(2);
+
+        PageImpl<Project> acmePage = TenantContext.callAs("acme",
+                () -> projectService.getAllProjects(PageRequest.of(0, 10)).block());
+        PageImpl<Project> defaultPage = projectService.getAllProjects(PageRequest.of(0, 10)).block();
+        projectService.deleteProject(savedProject.getId()).block();
+
+        assertAll(() -> {
+            assertEquals("acme", savedProject.getTenantId(), "Project must belong to the tenant of the request!");
+            assertNotNull(acmePage, "Page can not be null!");
+            assertNotNull(defaultPage, "Page can not be null!");
+            assertEquals(1, acmePage.getTotalElements(), "Tenant must only see its own projects!");
+            assertEquals(2, defaultPage.getTotalElements(), "Tenant must only see its own projects!");
+            assertNull(projectService.findById(savedProject.getId()).block(),
+                    "Project of another tenant must not be found!");
+            assertEquals(Boolean.TRUE, projectRepository.existsById(savedProject.getId()).block(),
+                    "Project of another tenant must not be deleted!");
+        });
+    }
+
+    @Test
+    void testWhenProjectOfAnotherTenantDeletedThenItMustLeaveNoTombstone() {
+        LocalDateTime beforeDeletion = LocalDateTime.now().minusSeconds(1);
+        ProjectCreationDto projectCreationDto = ProjectCreationDto.builder()
+                .name("Tenant project")
+                .build();
+        Project savedProject = TenantContext.callAs("acme",
+                () -> projectService.createProject(projectCreationDto).block());
+        assertNotNull(savedProject, "Saved project can not be null!");
+
+        projectService.deleteProject(savedProject.getId()).block();
+        List<Long> tombstonesBefore = projectRepository.findTombstones("acme", beforeDeletion).collectList().block();
+        TenantContext.runAs("acme", () -> projectService.deleteProject(savedProject.getId()).block());
+
+        assertAll(() -> {
+            assertEquals(List.of(), tombstonesBefore, "Project of another tenant must not leave a tombstone!");
+            assertEquals(List.of(savedProject.getId()),
+                    projectRepository.findTombstones("acme", beforeDeletion).collectList().block(),
+                    "Deleted project must leave a tombstone!");
+        });
+    }
+
     private void createProjects(int amount) {
         for (int i = 0; i < amount; i++) {
             projectRepository.save(Project.builder()
@@ -1,20 +1,39 @@
 package com.example.reactive.rest.service;
 
 import com.example.reactive.rest.IntegrationTest;
+import com.example.reactive.rest.cache.ProjectKey;
 import com.example.reactive.rest.dto.ProjectCreationDto;
 import com.example.reactive.rest.dto.TaskCreationDto;
+import com.example.reactive.rest.dto.TaskStatisticsDto;
 import com.example.reactive.rest.mapper.ProjectMapper;
 import com.example.reactive.rest.mapper.TaskMapper;
 import com.example.reactive.rest.model.Project;
 import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TimeFilter;
 import com.example.reactive.rest.repository.ProjectRepository;
 import com.example.reactive.rest.repository.TaskRepository;
+import com.example.reactive.rest.stats.TaskStatistics;
+import com.example.reactive.rest.stats.TaskStatisticsReconciler;
+import com.example.reactive.rest.tenant.TenantContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,14 +51,18 @@ class TaskServiceTest {
 
     private final ProjectMapper projectMapper = new ProjectMapper();
 
+    private final TaskStatistics taskStatistics = new TaskStatistics(Duration.ofDays(2), Clock.systemDefaultZone());
+
     private ProjectService projectService;
 
     private TaskService taskService;
 
     @BeforeEach
     void setUpTest() {
-        projectService = new ProjectService(projectRepository, projectMapper);
-        taskService = new TaskService(projectService, taskRepository, taskMapper);
+        projectService = new ProjectService(projectRepository, taskRepository, projectMapper, taskStatistics,
+                new NoOpCacheManager(), Clock.systemDefaultZone());
+        taskService = new TaskService(projectService, taskRepository, taskMapper, taskStatistics,
+                new NoOpCacheManager(), Clock.systemDefaultZone());
         taskRepository.deleteAll();
         projectRepository.deleteAll();
     }
@@ -70,6 +93,67 @@ class TaskServiceTest {
         });
     }
 
+    @Test
+    void testWhenGetProjectTasksWithColumnsThenOnlyColumnsMustBeSelected() {
+        ProjectCreationDto projectCreationDto = ProjectCreationDto.builder()
+                .name("New project")
+                .build();
+        Project project = projectService.createProject(projectCreationDto).block();
+        assertNotNull(project, "Saved project can not be null!");
+
+        int amount = 3;
+        createTasks(project.getId(), amount);
+
+        PageImpl<Task> page = taskService.getTasks(project.getId(), PageRequest.of(0, amount),
+                List.of("id", "description")).block();
+
+        assertNotNull(page, "Page can not be null!");
+        assertAll(() -> {
+            assertEquals(amount, page.getNumberOfElements(), "Page must have exact page size!");
+            assertEquals(amount, page.getTotalElements(), "Page must have exact amount of elements!");
+            page.forEach(task -> {
+                assertNotNull(task.getId(), "Selected id must be read!");
+                assertNotNull(task.getDescription(), "Selected description must be read!");
+                assertNull(task.getCreatedAt(), "Not selected column must not be read!");
+                assertNull(task.getProjectId(), "Not selected column must not be read!");
+            });
+        });
+    }
+
+    @Test
+    void testWhenGetProjectTasksCreatedBetweenThenOnlyTasksInRangeMustBeReturnedInOrder() {
+        ProjectCreationDto projectCreationDto = ProjectCreationDto.builder()
+                .name("New project")
+                .build();
+        Project project = projectService.createProject(projectCreationDto).block();
+        assertNotNull(project, "Saved project can not be null!");
+
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        for (int day = 0; day < 5; day++) {
+            taskRepository.save(Task.builder()
+                            .description("Task of day " + day)
+                            .projectId(project.getId())
+                            .createdAt(start.plusDays(day))
+                            .updatedAt(start.plusDays(day))
+                            .build())
+                    .block();
+        }
+
+        TimeFilter filter = new TimeFilter(null, start.plusDays(1), start.plusDays(4));
+        PageImpl<Task> page = taskService.getTasks(project.getId(),
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "createdAt")), List.of(), filter).block();
+        TimeFilter modifiedFilter = new TimeFilter(start.plusDays(3), null, null);
+        Long modified = taskService.countTasks(project.getId(), modifiedFilter).block();
+
+        assertNotNull(page, "Page can not be null!");
+        assertAll(() -> {
+            assertEquals(3, page.getTotalElements(), "Only tasks created in range must be counted!");
+            assertEquals(List.of("Task of day 3", "Task of day 2"),
+                    page.map(Task::getDescription).getContent(), "Tasks must be sorted by creation descending!");
+            assertEquals(2, modified, "Only tasks modified since must be counted!");
+        });
+    }
+
     @Test
     void testWhenGetSavedTaskThenMustBeReturnedTask() {
         ProjectCreationDto projectCreationDto = ProjectCreationDto.builder()
@@ -163,6 +247,33 @@ class TaskServiceTest {
                 "When task deleted service can not return this task");
     }
 
+    @Test
+    void testWhenMissingTaskDeletedThenItMustLeaveNoTombstone() {
+        LocalDateTime beforeDeletion = LocalDateTime.now().minusSeconds(1);
+        ProjectCreationDto projectCreationDto = ProjectCreationDto.builder()
+                .name("New project")
+                .build();
+        Project project = projectService.createProject(projectCreationDto).block();
+        assertNotNull(project, "Saved project can not be null!");
+        TaskCreationDto taskCreationDto = TaskCreationDto.builder()
+                .description("Task new")
+                .build();
+        Task savedTask = taskService.createTask(project.getId(), taskCreationDto).block();
+        assertNotNull(savedTask, "Saved task can not be null!");
+
+        taskService.deleteTask(project.getId(), savedTask.getId() + 1000).block();
+        List<Long> tombstonesBefore = taskRepository.findTombstones(project.getId(), beforeDeletion).collectList()
+                .block();
+        taskService.deleteTask(project.getId(), savedTask.getId()).block();
+
+        assertAll(() -> {
+            assertEquals(List.of(), tombstonesBefore, "Missing task must not leave a tombstone!");
+            assertEquals(List.of(savedTask.getId()),
+                    taskRepository.findTombstones(project.getId(), beforeDeletion).collectList().block(),
+                    "Deleted task must leave a tombstone!");
+        });
+    }
+
     @Test
     void testWhenProjectDoesNotExistDuringTaskSavingThenMustBeReturnedNull() {
         long nonExistentProjectId = 321;
@@ -184,6 +295,177 @@ class TaskServiceTest {
         assertNull(savedTask, "Updated task must be be null because project does not exist!");
     }
 
+    @Test
+    void testWhenTasksChangedThenStatisticsMustMatchReconciledOnes() {
+        ProjectCreationDto projectCreationDto = ProjectCreationDto.builder()
+                .name("New project")
+                .build();
+        Project project = projectService.createProject(projectCreationDto).block();
+        assertNotNull(project, "Saved project can not be null!");
+
+        TaskCreationDto taskCreationDto = TaskCreationDto.builder()
+                .description("Task new")
+                .build();
+        Task firstTask = taskService.createTask(project.getId(), taskCreationDto).block();
+        Task secondTask = taskService.createTask(project.getId(), taskCreationDto).block();
+        assertNotNull(firstTask, "Saved task can not be null!");
+        assertNotNull(secondTask, "Saved task can not be null!");
+        taskService.deleteTask(project.getId(), firstTask.getId()).block();
+        // deleting it again deletes nothing, it must not be counted twice
+        taskService.deleteTask(project.getId(), firstTask.getId()).block();
+
+        TaskStatisticsDto incremental = taskStatistics.getProjectStatistics(TenantContext.DEFAULT_TENANT, project.getId());
+        new TaskStatisticsReconciler(taskRepository, taskStatistics, Duration.ofMinutes(1)).reconcile().block();
+        TaskStatisticsDto reconciled = taskStatistics.getProjectStatistics(TenantContext.DEFAULT_TENANT, project.getId());
+
+        assertAll(() -> {
+            assertEquals(1, incremental.getTasks(), "Deleted task must not be counted!");
+            assertEquals(2, incremental.getCreatedLastHour(), "Both creations must be counted!");
+            assertNotNull(incremental.getLastActivityAt(), "Last activity must be known!");
+            assertEquals(incremental.getTasks(), reconciled.getTasks(),
+                    "Incremental and reconciled counts must be equal!");
+        });
+    }
+
+    @Test
+    void testWhenTasksMovedThenTheyMustBelongToTheTargetProjectAndLeaveTombstones() {
+        Project source = projectService.createProject(ProjectCreationDto.builder().name("Source").build()).block();
+        Project target = projectService.createProject(ProjectCreationDto.builder().name("Target").build()).block();
+        assertNotNull(source, "Saved project can not be null!");
+        assertNotNull(target, "Saved project can not be null!");
+        LocalDateTime beforeMove = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Long> taskIds = List.of(
+                createTask(source.getId()).getId(), createTask(source.getId()).getId(),
+                createTask(source.getId()).getId());
+
+        Long moved = taskService.moveTasks(source.getId(), target.getId(), taskIds.subList(0, 2), TimeFilter.NONE)
+                .block();
+        List<Long> sourceTombstones = taskRepository.findTombstones(source.getId(), beforeMove).collectList().block();
+        Long movedBack = taskService.moveTasks(target.getId(), source.getId(), taskIds.subList(0, 1),
+                TimeFilter.NONE).block();
+
+        assertAll(() -> {
+            assertEquals(2, moved, "Only the given tasks must be moved!");
+            assertEquals(taskIds.subList(0, 2), sourceTombstones, "Moved tasks must leave tombstones!");
+            assertEquals(1, movedBack, "Task must be moved back!");
+            assertEquals(2, taskService.countTasks(source.getId()).block(), "Moved back task must be counted!");
+            assertEquals(List.of(taskIds.get(1)),
+                    taskRepository.findTombstones(source.getId(), beforeMove).collectList().block(),
+                    "Tombstone of the moved back task must be removed!");
+            assertEquals(taskIds.subList(1, 2),
+                    taskRepository.findAllByProjectId(target.getId(), PageRequest.of(0, 5))
+                            .map(Task::getId).collectList().block(),
+                    "Target project must have the moved task!");
+            assertEquals(1, taskStatistics.getProjectStatistics(TenantContext.DEFAULT_TENANT, target.getId()).getTasks(),
+                    "Statistics must follow the moves!");
+            assertNull(taskService.moveTasks(source.getId(), 321L, List.of(), TimeFilter.NONE).block(),
+                    "Tasks can't be moved to a project that does not exist!");
+        });
+    }
+
+    @Test
+    void testWhenTaskMovedTwiceThenBothFormerProjectsMustKeepItsTombstone() {
+        Project first = projectService.createProject(ProjectCreationDto.builder().name("First").build()).block();
+        Project second = projectService.createProject(ProjectCreationDto.builder().name("Second").build()).block();
+        Project third = projectService.createProject(ProjectCreationDto.builder().name("Third").build()).block();
+        assertNotNull(first, "Saved project can not be null!");
+        assertNotNull(second, "Saved project can not be null!");
+        assertNotNull(third, "Saved project can not be null!");
+        LocalDateTime beforeMove = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Long> taskIds = List.of(createTask(first.getId()).getId());
+
+        taskService.moveTasks(first.getId(), second.getId(), taskIds, TimeFilter.NONE).block();
+        taskService.moveTasks(second.getId(), third.getId(), taskIds, TimeFilter.NONE).block();
+
+        assertAll(() -> {
+            assertEquals(taskIds, taskRepository.findTombstones(first.getId(), beforeMove).collectList().block(),
+                    "First project must still report the task gone!");
+            assertEquals(taskIds, taskRepository.findTombstones(second.getId(), beforeMove).collectList().block(),
+                    "Second project must report the task gone!");
+            taskService.moveTasks(third.getId(), first.getId(), taskIds, TimeFilter.NONE).block();
+            assertEquals(List.of(), taskRepository.findTombstones(first.getId(), beforeMove).collectList().block(),
+                    "Tombstone of the project the task came back to must be removed!");
+            assertEquals(taskIds, taskRepository.findTombstones(second.getId(), beforeMove).collectList().block(),
+                    "Tombstones of the other projects must be kept!");
+        });
+    }
+
+    @Test
+    void testWhenGetTaskPagesThenEachProjectMustHaveItsPageSharedWithItsCachedListing() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        TaskService cachingTaskService = new TaskService(projectService, taskRepository, taskMapper, taskStatistics,
+                cacheManager, Clock.systemDefaultZone());
+        Project first = projectService.createProject(ProjectCreationDto.builder().name("First").build()).block();
+        Project second = projectService.createProject(ProjectCreationDto.builder().name("Second").build()).block();
+        Project empty = projectService.createProject(ProjectCreationDto.builder().name("Empty").build()).block();
+        assertNotNull(first, "Saved project can not be null!");
+        assertNotNull(second, "Saved project can not be null!");
+        assertNotNull(empty, "Saved project can not be null!");
+        createTasks(first.getId(), 4);
+        createTasks(second.getId(), 1);
+        PageRequest pageable = PageRequest.of(1, 2);
+        List<String> columns = List.of("id", "description");
+        Cache cache = cacheManager.getCache(TaskService.CACHE_NAME);
+        assertNotNull(cache, "Cache can not be null!");
+        cache.put(ProjectKey.of(second.getId(), pageable, columns),
+                Monos.cacheValue(Mono.just(new PageImpl<Task>(List.of(), pageable, 42))));
+
+        Map<Long, PageImpl<Task>> pages = cachingTaskService.getTaskPages(
+                List.of(first.getId(), second.getId(), empty.getId()), pageable, columns).block();
+        Cache.ValueWrapper listing = cache.get(ProjectKey.of(first.getId(), pageable, columns));
+
+        assertNotNull(pages, "Pages can not be null!");
+        PageImpl<Task> firstPage = pages.get(first.getId());
+        assertAll(() -> {
+            assertEquals(List.of(first.getId(), second.getId(), empty.getId()), List.copyOf(pages.keySet()),
+                    "Pages must be in the order of the projects!");
+            assertEquals(4, firstPage.getTotalElements(), "Tasks of each project must be counted!");
+            assertEquals(List.of("New task 2", "New task 3"), firstPage.map(Task::getDescription).getContent(),
+                    "Each project must have the requested page of its tasks!");
+            assertNull(firstPage.getContent().get(0).getCreatedAt(), "Not selected column must not be read!");
+            assertEquals(42, pages.get(second.getId()).getTotalElements(), "Cached pages must be reused!");
+            assertEquals(0, pages.get(empty.getId()).getTotalElements(), "Project without tasks has an empty page!");
+            assertNotNull(listing, "Loaded pages must be cached for the listing!");
+            assertSame(firstPage, ((Mono<?>) listing.get()).block(), "Listing must share the loaded page!");
+        });
+    }
+
+    @Test
+    void testWhenTaskWriteFailsThenCachedTasksMustBeKeptUntilAWriteSucceeds() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        TaskService cachingTaskService = new TaskService(projectService, taskRepository, taskMapper, taskStatistics,
+                cacheManager, Clock.systemDefaultZone());
+        Project project = projectService.createProject(ProjectCreationDto.builder().name("Project").build()).block();
+        Project other = projectService.createProject(ProjectCreationDto.builder().name("Other").build()).block();
+        assertNotNull(project, "Saved project can not be null!");
+        assertNotNull(other, "Saved project can not be null!");
+        Task task = createTask(project.getId());
+        PageRequest pageable = PageRequest.of(0, 10);
+        Cache cache = cacheManager.getCache(TaskService.CACHE_NAME);
+        assertNotNull(cache, "Cache can not be null!");
+        cache.put(ProjectKey.of(project.getId(), pageable), Mono.just(new PageImpl<Task>(List.of())));
+        cache.put(ProjectKey.of(other.getId(), pageable), Mono.just(new PageImpl<Task>(List.of())));
+
+        TaskCreationDto tooLong = TaskCreationDto.builder().description("x".repeat(300)).build();
+        assertThrows(RuntimeException.class,
+                () -> cachingTaskService.updateTask(project.getId(), task.getId(), tooLong).block());
+        Cache.ValueWrapper afterFailure = cache.get(ProjectKey.of(project.getId(), pageable));
+        cachingTaskService.updateTask(project.getId(), task.getId(),
+                TaskCreationDto.builder().description("Updated").build()).block();
+
+        assertAll(() -> {
+            assertNotNull(afterFailure, "Failed write must keep the cached tasks!");
+            assertNull(cache.get(ProjectKey.of(project.getId(), pageable)),
+                    "Successful write must evict the cached tasks of its project!");
+            assertNotNull(cache.get(ProjectKey.of(other.getId(), pageable)),
+                    "Cached tasks of the other projects must be kept!");
+        });
+    }
+
+    private Task createTask(long projectId) {
+        return taskService.createTask(projectId, TaskCreationDto.builder().description("Task new").build()).block();
+    }
+
     private void createTasks(long projectId, int amount) {
         for (int i = 0; i < amount; i++) {
             taskRepository.save(Task.builder()
@@ -0,0 +1,263 @@
+package com.example.reactive.rest.sharding;
+
+import com.example.reactive.rest.IntegrationTest;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.model.TimeFilter;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+@DataR2dbcTest
+@IntegrationTest
+class ShardedTaskRepositoryTest {
+
+    private static final int SHARDS = 3;
+
+    private static final Duration REFRESH_INTERVAL = Duration.ofMillis(10);
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private R2dbcConverter converter;
+
+    private List<R2dbcEntityTemplate> shards;
+
+    private ShardDirectory directory;
+
+    private ShardedTaskRepository taskRepository;
+
+    @BeforeEach
+    void setUpTest() {
+        databaseClient.sql("DELETE FROM task_shard_directory").then().block();
+        shards = IntStream.range(0, SHARDS).mapToObj(shard -> createShard()).toList();
+        directory = directory();
+        taskRepository = new ShardedTaskRepository(shards, directory, databaseClient);
+    }
+
+    @Test
+    void testWhenTasksSavedThenTheyMustBeStoredOnTheShardOfTheirProject() {
+        long projectId = 42;
+        createTasks(projectId, 7);
+        createTasks(projectId + 1, 3);
+        int shard = directory.shardOf(projectId);
+
+        assertAll(() -> {
+            assertEquals(7, countOnShard(shard, projectId), "Tasks must be stored on the project shard!");
+            assertEquals(7, taskRepository.countAllByProjectId(projectId).block());
+            assertEquals(2, taskRepository.findAllByProjectId(projectId, PageRequest.of(1, 5)).count().block());
+            assertEquals(10, taskRepository.count().block(), "Count must gather all shards!");
+            Task task = taskRepository.findAllByProjectId(projectId, PageRequest.of(0, 1)).blockFirst();
+            assertNotNull(task, "Task must be found!");
+            assertNotNull(task.getCreatedAt(), "Created date must be set!");
+            assertEquals(task.getId(), taskRepository.findById(task.getId()).map(Task::getId).block());
+            assertEquals(task.getId(),
+                    taskRepository.findByProjectIdAndId(projectId, task.getId()).map(Task::getId).block());
+        });
+    }
+
+    @Test
+    void testWhenProjectRelocatedThenTasksMustBeMovedWithTheirIds() {
+        long projectId = 7;
+        List<Long> ids = createTasks(projectId, 4);
+        int source = directory.shardOf(projectId);
+        int target = (source + 1) % SHARDS;
+
+        Long moved = taskRepository.relocate(projectId, target).block();
+        ShardDirectory reloaded = directory();
+        reloaded.load().block();
+
+        assertAll(() -> {
+            assertEquals(4, moved, "All tasks must be moved!");
+            assertEquals(target, directory.shardOf(projectId), "Directory must point to the new shard!");
+            assertEquals(target, reloaded.shardOf(projectId), "Relocation must be stored!");
+            assertEquals(0, countOnShard(source, projectId), "Tasks must be removed from the old shard!");
+            assertEquals(ids, taskRepository.findAllByProjectId(projectId, PageRequest.of(0, 10))
+                    .map(Task::getId).sort().collectList().block(), "Tasks must keep their ids!");
+        });
+    }
+
+    @Test
+    void testWhenTasksWrittenDuringRelocationThenTheyMustNotBeLost() {
+        long projectId = 7;
+        Sinks.Empty<Void> copied = Sinks.empty();
+        Sinks.Empty<Void> release = Sinks.empty();
+        directory = new ShardDirectory(new ConsistentHashRing(SHARDS, 160), databaseClient, REFRESH_INTERVAL,
+                Duration.ofMinutes(10), Clock.systemDefaultZone()) {
+
+            @Override
+            Mono<Void> relocate(Long relocatedProjectId, int shard) {
+                copied.tryEmitEmpty();
+                return release.asMono().then(super.relocate(relocatedProjectId, shard));
+            }
+
+        };
+        taskRepository = new ShardedTaskRepository(shards, directory, databaseClient);
+        List<Long> ids = createTasks(projectId, 2);
+        int source = directory.shardOf(projectId);
+        Mono<Long> relocation = taskRepository.relocate(projectId, (source + 1) % SHARDS).cache();
+        relocation.subscribe(moved -> { }, e -> { });
+        copied.asMono().block(Duration.ofSeconds(5));
+        Task rejected = Task.builder().description("Rejected").projectId(projectId).build();
+
+        assertThrows(ProjectRelocatingException.class, () -> taskRepository.save(rejected).block(),
+                "Writes to a project being relocated must be rejected!");
+        assertThrows(ProjectRelocatingException.class, () -> otherNode().save(rejected).block(),
+                "Writes of another node to a project being relocated must be rejected!");
+        // a write already running still lands on the old shard
+        Task written = shards.get(source).insert(Task.builder().id(1000L).description("Written")
+                .projectId(projectId).build()).block();
+        release.tryEmitEmpty();
+
+        assertAll(() -> {
+            assertThrows(IllegalStateException.class, () -> relocation.block(Duration.ofSeconds(5)),
+                    "Relocation must fail when tasks were written meanwhile!");
+            assertNotNull(written, "Task must be written!");
+            assertEquals(1, countOnShard(source, projectId), "Only the copied tasks must be deleted!");
+            assertEquals(ids, taskRepository.findAllByProjectId(projectId, PageRequest.of(0, 10))
+                    .map(Task::getId).sort().collectList().block(), "Copied tasks must be on the new shard!");
+            assertNotNull(taskRepository.save(Task.builder().description("Accepted").projectId(projectId).build())
+                    .block(), "Writes must be accepted again once the relocation ended!");
+        });
+    }
+
+    @Test
+    void testWhenProjectRelocatedByAnotherNodeThenWritesMustFollowAndReadsAfterRefresh() {
+        long projectId = 7;
+        ShardDirectory otherDirectory = directory();
+        ShardedTaskRepository otherNode = new ShardedTaskRepository(shards, otherDirectory, databaseClient);
+        createTasks(projectId, 2);
+        int target = (directory.shardOf(projectId) + 1) % SHARDS;
+
+        taskRepository.relocate(projectId, target).block();
+        Task written = otherNode.save(Task.builder().description("Written").projectId(projectId).build()).block();
+        otherDirectory.load().block();
+
+        assertAll(() -> {
+            assertNotNull(written, "Task must be written!");
+            assertEquals(3, countOnShard(target, projectId), "Writes must follow the relocation at once!");
+            assertEquals(3, otherNode.countAllByProjectId(projectId).block(),
+                    "Reads must follow the relocation once the directory is refreshed!");
+        });
+    }
+
+    @Test
+    void testWhenRelocationRunsOnAnotherNodeThenItMustNotStartAgain() {
+        long projectId = 7;
+        int target = (directory.shardOf(projectId) + 1) % SHARDS;
+
+        Integer source = directory.startRelocation(projectId).block();
+
+        assertAll(
+                () -> assertEquals(directory.shardOf(projectId), source),
+                () -> assertThrows(ProjectRelocatingException.class,
+                        () -> otherNode().relocate(projectId, target).block(),
+                        "Relocation must be rejected while another node relocates the project!")
+        );
+    }
+
+    @Test
+    void testWhenTasksMovedToProjectOnAnotherShardThenTheyMustBeCopiedAndTombstoned() {
+        long projectId = 7;
+        long targetProjectId = 8;
+        taskRepository.relocate(targetProjectId, (directory.shardOf(projectId) + 1) % SHARDS).block();
+        List<Long> ids = createTasks(projectId, 3);
+        LocalDateTime movedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        Long moved = taskRepository.moveTasks(projectId, targetProjectId, ids.subList(0, 2), TimeFilter.NONE, movedAt)
+                .block();
+
+        assertAll(() -> {
+            assertEquals(2, moved, "Only the given tasks must be moved!");
+            assertEquals(1, countOnShard(directory.shardOf(projectId), projectId),
+                    "Moved tasks must be removed from the old shard!");
+            assertEquals(ids.subList(0, 2), taskRepository.findAllByProjectId(targetProjectId, PageRequest.of(0, 10))
+                    .map(Task::getId).sort().collectList().block(), "Tasks must keep their ids!");
+            assertEquals(ids.subList(0, 2), taskRepository.findTombstones(projectId, movedAt)
+                    .sort().collectList().block(), "Moved tasks must leave tombstones!");
+        });
+    }
+
+    @Test
+    void testWhenShardAddedThenOnlyPartOfProjectsMustMove() {
+        ConsistentHashRing ring = new ConsistentHashRing(4, 160);
+        ConsistentHashRing grownRing = new ConsistentHashRing(5, 160);
+        int projects = 10_000;
+        int[] perShard = new int[4];
+
+        long movedProjects = IntStream.range(0, projects)
+                .peek(projectId -> perShard[ring.shardOf(projectId)]++)
+                .filter(projectId -> ring.shardOf(projectId) != grownRing.shardOf(projectId))
+                .count();
+
+        assertAll(() -> {
+            assertTrue(movedProjects < projects * 0.3, "Moved projects: " + movedProjects);
+            for (int count : perShard) {
+                assertTrue(Math.abs(count - projects / 4) < projects / 10, "Projects on shard: " + count);
+            }
+        });
+    }
+
+    private ShardDirectory directory() {
+        return new ShardDirectory(new ConsistentHashRing(SHARDS, 160), databaseClient, REFRESH_INTERVAL,
+                Duration.ofMinutes(10), Clock.systemDefaultZone());
+    }
+
+    private ShardedTaskRepository otherNode() {
+        return new ShardedTaskRepository(shards, directory(), databaseClient);
+    }
+
+    private List<Long> createTasks(long projectId, int amount) {
+        return Flux.range(0, amount)
+                .concatMap(i -> taskRepository.save(Task.builder()
+                        .description("Task " + i)
+                        .projectId(projectId)
+                        .build()))
+                .map(Task::getId)
+                .collectList()
+                .block();
+    }
+
+    private long countOnShard(int shard, long projectId) {
+        Long count = shards.get(shard)
+                .count(Query.query(where("project_id").is(projectId)), Task.class)
+                .block();
+        return count == null ? 0 : count;
+    }
+
+    private R2dbcEntityTemplate createShard() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///shard-" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("schema-task-shard.sql"))
+                .populate(connectionFactory)
+                .block();
+        return new R2dbcEntityTemplate(DatabaseClient.create(connectionFactory),
+                DialectResolver.getDialect(connectionFactory), converter);
+    }
+
+}
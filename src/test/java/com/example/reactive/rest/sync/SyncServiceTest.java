@@ -0,0 +1,164 @@
+package com.example.reactive.rest.sync;
+
+import com.example.reactive.rest.IntegrationTest;
+import com.example.reactive.rest.dto.SyncDto;
+import com.example.reactive.rest.mapper.ProjectMapper;
+import com.example.reactive.rest.mapper.TaskMapper;
+import com.example.reactive.rest.model.Project;
+import com.example.reactive.rest.model.Task;
+import com.example.reactive.rest.repository.ProjectRepository;
+import com.example.reactive.rest.repository.TaskRepository;
+import com.example.reactive.rest.service.ProjectService;
+import com.example.reactive.rest.service.TaskService;
+import com.example.reactive.rest.stats.TaskStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataR2dbcTest
+@IntegrationTest
+class SyncServiceTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    private final Clock clock = Clock.systemDefaultZone();
+
+    private ProjectService projectService;
+
+    private TaskService taskService;
+
+    private SyncService syncService;
+
+    @BeforeEach
+    void setUpTest() {
+        TaskStatistics taskStatistics = new TaskStatistics(Duration.ofDays(2), clock);
+        projectService = new ProjectService(projectRepository, taskRepository, new ProjectMapper(), taskStatistics,
+                new NoOpCacheManager(), clock);
+        taskService = new TaskService(projectService, taskRepository, new TaskMapper(), taskStatistics,
+                new NoOpCacheManager(), clock);
+        syncService = new SyncService(projectRepository, taskRepository, Duration.ZERO, Duration.ofDays(30), 10,
+                clock);
+        taskRepository.deleteAll().block();
+        projectRepository.deleteAll().block();
+        new TombstoneCompactor(projectRepository, taskRepository, Duration.ofDays(-1), Duration.ofHours(1), clock)
+                .compact().block();
+    }
+
+    @Test
+    void testWhenTasksChangedSinceTokenThenOnlyChangesMustBeReturned() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Project project = projectRepository.save(Project.builder().name("Project").build()).block();
+        assertNotNull(project, "Saved project can not be null!");
+        Long projectId = project.getId();
+        Task untouched = saveTask(projectId, "Untouched", now.minusDays(2), now.minusDays(2));
+        Task updated = saveTask(projectId, "Updated", now.minusDays(2), now.minusMinutes(30));
+        Task created = saveTask(projectId, "Created", now.minusMinutes(20), now.minusMinutes(20));
+        Task deleted = saveTask(projectId, "Deleted", now.minusDays(2), now.minusDays(2));
+        taskService.deleteTask(projectId, deleted.getId()).block();
+
+        SyncDto<Task> full = syncService.syncTasks(projectId, null).block();
+        SyncDto<Task> delta = syncService.syncTasks(projectId, new SyncToken(now.minusHours(1))).block();
+
+        assertNotNull(full, "Full sync can not be null!");
+        assertNotNull(delta, "Delta sync can not be null!");
+        assertAll(() -> {
+            assertEquals(3, full.getCreated().size(), "Full sync must return every existing task as created!");
+            assertTrue(full.getDeleted().isEmpty(), "Full sync must not return deletions!");
+            assertEquals(List.of(created.getId()), delta.getCreated().stream().map(Task::getId).toList(),
+                    "Only the task created since the token must be returned as created!");
+            assertEquals(List.of(updated.getId()), delta.getUpdated().stream().map(Task::getId).toList(),
+                    "Only the task updated since the token must be returned as updated!");
+            assertEquals(List.of(deleted.getId()), delta.getDeleted(), "Deleted task must be returned!");
+            assertFalse(delta.getCreated().contains(untouched), "Untouched task must not be returned!");
+            assertTrue(SyncToken.decode(delta.getToken()).syncedAt().isAfter(now.minusSeconds(1)),
+                    "Next token must start at the sync!");
+        });
+    }
+
+    @Test
+    void testWhenFullSyncExceedsPageThenItMustContinueWithTokenThenDeltaSync() {
+        SyncService pagingSyncService = new SyncService(projectRepository, taskRepository, Duration.ZERO,
+                Duration.ofDays(30), 2, clock);
+        LocalDateTime now = LocalDateTime.now(clock);
+        Project project = projectRepository.save(Project.builder().name("Project").build()).block();
+        assertNotNull(project, "Saved project can not be null!");
+        Long projectId = project.getId();
+        List<Long> taskIds = List.of(
+                saveTask(projectId, "First", now.minusDays(1), now.minusDays(1)).getId(),
+                saveTask(projectId, "Second", now.minusDays(1), now.minusDays(1)).getId(),
+                saveTask(projectId, "Third", now.minusDays(1), now.minusDays(1)).getId());
+
+        SyncDto<Task> firstPage = pagingSyncService.syncTasks(projectId, null).block();
+        assertNotNull(firstPage, "Full sync can not be null!");
+        taskService.deleteTask(projectId, taskIds.get(0)).block();
+        SyncDto<Task> lastPage = pagingSyncService.syncTasks(projectId, SyncToken.decode(firstPage.getToken()))
+                .block();
+        assertNotNull(lastPage, "Full sync can not be null!");
+        SyncDto<Task> delta = pagingSyncService.syncTasks(projectId, SyncToken.decode(lastPage.getToken())).block();
+
+        assertNotNull(delta, "Delta sync can not be null!");
+        assertAll(() -> {
+            assertEquals(taskIds.subList(0, 2), firstPage.getCreated().stream().map(Task::getId).toList(),
+                    "First page must return the tasks with the lowest ids!");
+            assertTrue(firstPage.isHasMore(), "First page must announce the next one!");
+            assertTrue(SyncToken.decode(firstPage.getToken()).isFullSync(), "Token must continue the full sync!");
+            assertEquals(taskIds.subList(2, 3), lastPage.getCreated().stream().map(Task::getId).toList(),
+                    "Last page must return the remaining tasks!");
+            assertFalse(lastPage.isHasMore(), "Last page must not announce another one!");
+            assertEquals(SyncToken.decode(firstPage.getToken()).syncedAt(),
+                    SyncToken.decode(lastPage.getToken()).syncedAt(), "Delta sync must start with the full sync!");
+            assertEquals(List.of(taskIds.get(0)), delta.getDeleted(),
+                    "Task deleted during the full sync must be returned by the delta sync!");
+        });
+    }
+
+    @Test
+    void testWhenTombstonesCompactedThenOlderTokensMustExpire() {
+        Project project = projectRepository.save(Project.builder().name("Project").build()).block();
+        assertNotNull(project, "Saved project can not be null!");
+        projectService.deleteProject(project.getId()).block();
+        SyncToken token = new SyncToken(LocalDateTime.now(clock).minusMinutes(1));
+
+        SyncDto<Project> beforeCompaction = syncService.syncProjects(token).block();
+        Long compacted = new TombstoneCompactor(projectRepository, taskRepository, Duration.ofSeconds(-1),
+                Duration.ofHours(1), clock).compact().block();
+        SyncDto<Project> afterCompaction = syncService.syncProjects(token).block();
+
+        assertNotNull(beforeCompaction, "Sync can not be null!");
+        assertNotNull(afterCompaction, "Sync can not be null!");
+        assertAll(() -> {
+            assertEquals(List.of(project.getId()), beforeCompaction.getDeleted(), "Deleted project must be returned!");
+            assertEquals(1, compacted, "Project tombstone must be compacted!");
+            assertTrue(afterCompaction.getDeleted().isEmpty(), "Compacted tombstone must not be returned!");
+            assertFalse(syncService.isExpired(token), "Token within the retention must not expire!");
+            assertTrue(syncService.isExpired(new SyncToken(LocalDateTime.now(clock).minusDays(31))),
+                    "Token older than the retention must expire!");
+            assertNull(syncService.syncTasks(project.getId(), null).block(),
+                    "Tasks of a deleted project can not be synced!");
+        });
+    }
+
+    private Task saveTask(Long projectId, String description, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        return taskRepository.save(Task.builder()
+                        .description(description)
+                        .projectId(projectId)
+                        .createdAt(createdAt)
+                        .updatedAt(updatedAt)
+                        .build())
+                .block();
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.example.reactive.rest.tenant;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantQuotasTest {
+
+    @Test
+    void testWhenTenantExceedsItsQuotaThenOnlyItsOperationsMustBeRejected() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TenantQuotas quotas = new TenantQuotas(Map.of("acme", 1, TenantContext.DEFAULT_TENANT, 1));
+        quotas.bindTo(meterRegistry);
+        Sinks.One<String> pending = Sinks.one();
+
+        StepVerifier.create(quotas.limit(pending.asMono()).contextWrite(tenant("acme")))
+                .then(() -> {
+                    StepVerifier.create(quotas.limit(Mono.just("rejected")).contextWrite(tenant("acme")))
+                            .verifyError(TenantQuotaExceededException.class);
+                    StepVerifier.create(quotas.limit(Mono.just("other")).contextWrite(
+                                    tenant(TenantContext.DEFAULT_TENANT)))
+                            .expectNext("other")
+                            .verifyComplete();
+                    assertEquals(1, quotas.getInFlight("acme"));
+                    pending.tryEmitValue("done");
+                })
+                .expectNext("done")
+                .verifyComplete();
+
+        assertAll(
+                () -> assertEquals(0, quotas.getInFlight("acme"), "Permits must be released!"),
+                () -> assertEquals(1, meterRegistry.get("rest.tenant.db.rejected").tag("tenant", "acme").counter()
+                        .count()),
+                () -> assertEquals(0, meterRegistry.get("rest.tenant.db.rejected")
+                        .tag("tenant", TenantContext.DEFAULT_TENANT).counter().count())
+        );
+    }
+
+    private static Context tenant(String tenantId) {
+        return TenantContext.withTenant(Context.empty(), tenantId);
+    }
+
+}
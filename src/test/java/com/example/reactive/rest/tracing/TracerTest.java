@@ -0,0 +1,201 @@
+package com.example.reactive.rest.tracing;
+
+import com.example.reactive.rest.cache.InvalidationPublishingCacheManager;
+import com.example.reactive.rest.r2dbc.ListeningConnectionFactory;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracerTest {
+
+    private final TraceStore store = new TraceStore(100, 100, Duration.ofMinutes(1));
+
+    private final SpanRecorder sampling = new SpanRecorder(1.0, store);
+
+    private final SpanRecorder notSampling = new SpanRecorder(0.0, store);
+
+    @Test
+    void testWhenRequestSampledThenServiceAndStatementSpansMustBeRecorded() {
+        Tracer tracer = new Tracer(sampling);
+        DatabaseClient client = DatabaseClient.create(new ListeningConnectionFactory(database(),
+                List.of(new TracingStatementListener(tracer))));
+        NodeService service = (NodeService) new ObservedBeanPostProcessor(provider(tracer))
+                .postProcessAfterInitialization(new NodeService(client), "nodeService");
+
+        String name = request(sampling, service.name());
+
+        List<Span> spans = store.trace(store.slowest(10, Duration.ZERO).get(0).traceId());
+        Map<String, Span> byName = spans.stream().collect(Collectors.toMap(Span::name, Function.identity()));
+        Span root = byName.get("request");
+        Span method = byName.get("NodeService#name");
+        Span statement = byName.get("select");
+        assertAll(
+                () -> assertEquals("primary", name),
+                () -> assertEquals(3, spans.size()),
+                () -> assertNull(root.parentSpanId()),
+                () -> assertEquals(root.spanId(), method.parentSpanId()),
+                () -> assertEquals(method.spanId(), statement.parentSpanId()),
+                () -> assertEquals("NodeService", method.tags().get("class")),
+                () -> assertEquals("name", method.tags().get("method")),
+                () -> assertEquals("SELECT name FROM node", statement.tags().get("sql")),
+                () -> assertTrue(root.durationMillis() >= statement.durationMillis())
+        );
+    }
+
+    @Test
+    void testWhenRequestNotSampledThenNothingMustBeRecorded() {
+        Tracer tracer = new Tracer(notSampling);
+        DatabaseClient client = DatabaseClient.create(new ListeningConnectionFactory(database(),
+                List.of(new TracingStatementListener(tracer))));
+        NodeService service = (NodeService) new ObservedBeanPostProcessor(provider(tracer))
+                .postProcessAfterInitialization(new NodeService(client), "nodeService");
+
+        String name = request(notSampling, service.name());
+
+        assertAll(
+                () -> assertEquals("primary", name),
+                () -> assertEquals(List.of(), store.slowest(10, Duration.ZERO))
+        );
+    }
+
+    @Test
+    void testWhenCachedMethodCalledThenCacheHitOrMissMustBeTagged() {
+        Tracer tracer = new Tracer(sampling);
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(Tracer.class, () -> tracer);
+            context.register(CachedConfiguration.class);
+            context.refresh();
+            CachedService service = context.getBean(CachedService.class);
+
+            request(sampling, service.value(1L));
+            request(sampling, service.value(1L));
+        }
+
+        List<String> lookups = store.slowest(10, Duration.ZERO).stream()
+                .map(summary -> store.trace(summary.traceId()).stream()
+                        .filter(span -> span.name().equals("CachedService#value"))
+                        .findFirst().orElseThrow().tags().get("cache"))
+                .sorted()
+                .toList();
+        assertEquals(List.of("hit", "miss"), lookups);
+    }
+
+    @Test
+    void testWhenTracesListedThenSlowestMustComeFirst() {
+        store.add(new Span("fast", "1", null, "fast", Instant.now(), 5, Map.of(), null));
+        store.add(new Span("slow", "2", null, "slow", Instant.now(), 50, Map.of(), null));
+        store.add(new Span("open", "3", "4", "child of a running request", Instant.now(), 80, Map.of(), null));
+
+        assertAll(
+                () -> assertEquals(List.of("slow", "fast"), store.slowest(10, Duration.ZERO).stream()
+                        .map(TraceStore.TraceSummary::traceId).toList()),
+                () -> assertEquals(List.of("slow"), store.slowest(10, Duration.ofMillis(10)).stream()
+                        .map(TraceStore.TraceSummary::traceId).toList()),
+                () -> assertNull(store.trace("unknown"))
+        );
+    }
+
+    /**
+     * Runs the publisher under a request observation, as the observation filter of Spring WebFlux does.
+     */
+    private static <T> T request(SpanRecorder recorder, Mono<T> mono) {
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(recorder);
+        Observation observation = Observation.start("request", registry);
+        try {
+            return mono.contextWrite(Context.of(Tracer.OBSERVATION_KEY, observation)).block();
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private static ObjectProvider<Tracer> provider(Tracer tracer) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("tracer", tracer);
+        return beanFactory.getBeanProvider(Tracer.class);
+    }
+
+    private static ConnectionFactory database() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///tracing-" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1");
+        DatabaseClient client = DatabaseClient.create(connectionFactory);
+        client.sql("CREATE TABLE node (name varchar(255))").then()
+                .then(client.sql("INSERT INTO node VALUES ('primary')").then())
+                .block();
+        return connectionFactory;
+    }
+
+    @Observed(name = "rest.service")
+    static class NodeService {
+
+        private final DatabaseClient client;
+
+        NodeService(DatabaseClient client) {
+            this.client = client;
+        }
+
+        public Mono<String> name() {
+            return client.sql("SELECT name FROM node").map(row -> row.get("name", String.class)).one();
+        }
+
+    }
+
+    @Observed(name = "rest.service")
+    static class CachedService {
+
+        @Cacheable("values")
+        public Mono<Long> value(Long id) {
+            return Mono.just(id).cache();
+        }
+
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableCaching
+    static class CachedConfiguration {
+
+        @Bean
+        CacheManager cacheManager(ApplicationEventPublisher eventPublisher) {
+            return new InvalidationPublishingCacheManager(new ConcurrentMapCacheManager(), eventPublisher);
+        }
+
+        @Bean
+        CachedService cachedService() {
+            return new CachedService();
+        }
+
+        @Bean
+        static ObservedBeanPostProcessor observedBeanPostProcessor(
+                ObjectProvider<Tracer> tracer) {
+            return new ObservedBeanPostProcessor(tracer);
+        }
+
+    }
+
+}